@@ -0,0 +1,38 @@
+package org.igdevx.shopservice.archive;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Archive of soft-deleted products settings (prefix "product-archive")
+ */
+@Component
+@ConfigurationProperties(prefix = "product-archive")
+@Getter
+@Setter
+public class ProductArchiveProperties {
+
+    /**
+     * Move products deleted for longer than the grace period out of the product table and index, every interval
+     */
+    private boolean enabled = false;
+
+    /**
+     * How long a soft-deleted product stays in the product table and index, measured from its last change
+     */
+    private Duration gracePeriod = Duration.ofDays(30);
+
+    /**
+     * Pause between two archive runs, read by the scheduler when the application starts
+     */
+    private Duration interval = Duration.ofHours(1);
+
+    /**
+     * Products moved per transaction
+     */
+    private int batchSize = 500;
+}
@@ -0,0 +1,568 @@
+package org.igdevx.shopservice.catalog;
+
+import lombok.extern.slf4j.Slf4j;
+import org.igdevx.shopservice.dtos.ProductResponse;
+import org.igdevx.shopservice.dtos.ProductSearchRequest;
+import org.igdevx.shopservice.dtos.ProductSearchResponse;
+import org.igdevx.shopservice.elasticsearch.documents.ProductDocument;
+import org.igdevx.shopservice.elasticsearch.mappers.ProductDocumentResponseMapper;
+import org.apache.lucene.util.IntroSorter;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * In-heap catalog answering filter-only listings (producer shop pages, search without q).
+ * Every product gets a dense ordinal; filters are roaring bitmaps of ordinals per producer, shelf, category,
+ * currency, certification, fresh and deleted state, and sorting walks primitive arrays of ordinals kept sorted
+ * by price and createdAt on every write, so reads never sort the catalog. Kept in sync by ProductIndexService from the same ProductIndexEvent flow as the
+ * search index, and loaded from Postgres at startup; until then isReady() is false and listings go to the backend.
+ * Events are local to an instance: ProductCatalogInitializer also reloads the products changed in Postgres every
+ * search.catalog.refresh-interval and the whole catalog every search.catalog.rebuild-interval.
+ */
+@Component
+@Slf4j
+public class ProductCatalogEngine {
+
+    /**
+     * Below catalog size / SMALL_RESULT_RATIO matches, sorting the matches is cheaper than walking the sorted array
+     */
+    private static final int SMALL_RESULT_RATIO = 16;
+
+    private final ProductDocumentResponseMapper documentResponseMapper;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private final List<ProductDocument> documents = new ArrayList<>();
+    private double[] prices = new double[0];
+    private long[] createdAts = new long[0];
+
+    private final RoaringBitmap live = new RoaringBitmap();
+    private final RoaringBitmap deleted = new RoaringBitmap();
+    private final RoaringBitmap fresh = new RoaringBitmap();
+    private final Map<Long, RoaringBitmap> byProducer = new HashMap<>();
+    private final Map<Long, RoaringBitmap> byShelf = new HashMap<>();
+    private final Map<Long, RoaringBitmap> byCategory = new HashMap<>();
+    private final Map<Long, RoaringBitmap> byCurrency = new HashMap<>();
+    private final Map<Long, RoaringBitmap> byCertification = new HashMap<>();
+
+    private final SortedOrdinals byCreatedAtAsc = new SortedOrdinals(false);
+    private final SortedOrdinals byPriceAsc = new SortedOrdinals(true);
+
+    private volatile boolean ready;
+
+    public ProductCatalogEngine(ProductDocumentResponseMapper documentResponseMapper) {
+        this.documentResponseMapper = documentResponseMapper;
+    }
+
+    // ==================== WRITES ====================
+
+    public void index(ProductDocument document) {
+        write(() -> {
+            Integer existing = ordinals.get(document.getId());
+            if (existing != null) {
+                unsort(existing);
+            }
+            int ordinal = put(document);
+            byCreatedAtAsc.add(ordinal);
+            byPriceAsc.add(ordinal);
+        });
+    }
+
+    /**
+     * Index a batch: its products leave the sorted arrays in one pass and are merged back once sorted,
+     * rather than moved one by one
+     */
+    public void indexAll(Collection<ProductDocument> batch) {
+        write(() -> {
+            RoaringBitmap changed = new RoaringBitmap();
+            batch.forEach(document -> {
+                Integer existing = ordinals.get(document.getId());
+                if (existing != null) {
+                    changed.add(existing);
+                }
+            });
+            byCreatedAtAsc.removeAll(changed);
+            byPriceAsc.removeAll(changed);
+
+            batch.forEach(document -> changed.add(put(document)));
+            byCreatedAtAsc.addAll(changed.toArray());
+            byPriceAsc.addAll(changed.toArray());
+        });
+    }
+
+    public void remove(Long productId) {
+        write(() -> {
+            Integer ordinal = ordinals.get(productId);
+            if (ordinal != null) {
+                unsort(ordinal);
+                drop(ordinal);
+            }
+        });
+    }
+
+    /**
+     * Remove every product not in productIds, after a full reload that did not start from an empty catalog.
+     * Returns the number of products removed.
+     */
+    public int retainAll(Set<Long> productIds) {
+        RoaringBitmap removed = new RoaringBitmap();
+        write(() -> {
+            ordinals.forEach((productId, ordinal) -> {
+                if (!productIds.contains(productId) && drop(ordinal)) {
+                    removed.add(ordinal);
+                }
+            });
+            byCreatedAtAsc.removeAll(removed);
+            byPriceAsc.removeAll(removed);
+        });
+        return removed.getCardinality();
+    }
+
+    /**
+     * Empty the catalog; listings go back to the search backend until markReady()
+     */
+    public void clear() {
+        write(() -> {
+            ready = false;
+            ordinals.clear();
+            documents.clear();
+            prices = new double[0];
+            createdAts = new long[0];
+            byCreatedAtAsc.clear();
+            byPriceAsc.clear();
+            live.clear();
+            deleted.clear();
+            fresh.clear();
+            byProducer.clear();
+            byShelf.clear();
+            byCategory.clear();
+            byCurrency.clear();
+            byCertification.clear();
+        });
+    }
+
+    public void markReady() {
+        ready = true;
+        log.info("Product catalog ready with {} products", size());
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        return read(live::getCardinality);
+    }
+
+    // ==================== READS ====================
+
+    /**
+     * Whether a search request is a pure filter listing the catalog can answer
+     */
+    public boolean supports(ProductSearchRequest request) {
+        if (!ready || (request.getQ() != null && !request.getQ().isBlank())) {
+            return false;
+        }
+        String sort = request.getSort() == null ? "" : request.getSort().toLowerCase(Locale.ROOT);
+        return !sort.startsWith("title_");
+    }
+
+    public ProductSearchResponse search(ProductSearchRequest request) {
+        int page = request.getPage() != null ? request.getPage() : 0;
+        int size = request.getSize() != null ? request.getSize() : 20;
+
+        return read(() -> {
+            RoaringBitmap matches = withDeletedState(request.getOnlyDeleted());
+            if (request.getCategoryIds() != null && !request.getCategoryIds().isEmpty()) {
+                matches.and(union(byCategory, request.getCategoryIds()));
+            }
+            if (request.getCurrencyId() != null) {
+                matches.and(byCurrency.getOrDefault(request.getCurrencyId(), new RoaringBitmap()));
+            }
+            if (Boolean.TRUE.equals(request.getFresh())) {
+                matches.and(fresh);
+            }
+            if (request.getCertificationIds() != null && !request.getCertificationIds().isEmpty()) {
+                matches.and(union(byCertification, request.getCertificationIds()));
+            }
+            if (request.getPriceMin() != null || request.getPriceMax() != null) {
+                matches = withinPrice(matches, request.getPriceMin(), request.getPriceMax());
+            }
+            return page(matches, SortKey.of(request.getSort()), page, size);
+        });
+    }
+
+    /**
+     * Producer shop page, newest first
+     */
+    public ProductSearchResponse producerListing(Long producerId, Long shelfId, Boolean onlyDeleted, int page, int size) {
+        return read(() -> {
+            RoaringBitmap matches = withDeletedState(onlyDeleted);
+            matches.and(byProducer.getOrDefault(producerId, new RoaringBitmap()));
+            if (shelfId != null) {
+                matches.and(byShelf.getOrDefault(shelfId, new RoaringBitmap()));
+            }
+            return page(matches, SortKey.NEWEST, page, size);
+        });
+    }
+
+    private RoaringBitmap withDeletedState(Boolean onlyDeleted) {
+        return Boolean.TRUE.equals(onlyDeleted) ? deleted.clone() : RoaringBitmap.andNot(live, deleted);
+    }
+
+    private RoaringBitmap withinPrice(RoaringBitmap matches, BigDecimal min, BigDecimal max) {
+        double low = min != null ? min.doubleValue() : Double.NEGATIVE_INFINITY;
+        double high = max != null ? max.doubleValue() : Double.POSITIVE_INFINITY;
+        RoaringBitmap inRange = new RoaringBitmap();
+        IntIterator it = matches.getIntIterator();
+        while (it.hasNext()) {
+            int ordinal = it.next();
+            if (prices[ordinal] >= low && prices[ordinal] <= high) {
+                inRange.add(ordinal);
+            }
+        }
+        return inRange;
+    }
+
+    private ProductSearchResponse page(RoaringBitmap matches, SortKey sortKey, int page, int size) {
+        int total = matches.getCardinality();
+        long from = (long) page * size;
+        List<ProductResponse> products = new ArrayList<>(Math.min(size, total));
+
+        if (from < total) {
+            int[] ordered;
+            int length;
+            if (total * SMALL_RESULT_RATIO < documents.size()) {
+                ordered = matches.toArray();
+                length = ordered.length;
+                sort(ordered, length, sortKey.byPrice);
+            } else {
+                SortedOrdinals sorted = sortKey.byPrice ? byPriceAsc : byCreatedAtAsc;
+                ordered = sorted.ordinals;
+                length = sorted.size;
+            }
+            long skipped = 0;
+            for (int i = 0; i < length && products.size() < size; i++) {
+                int ordinal = ordered[sortKey.descending ? length - 1 - i : i];
+                if (matches.contains(ordinal) && skipped++ >= from) {
+                    products.add(documentResponseMapper.toProductResponse(documents.get(ordinal)));
+                }
+            }
+        }
+
+        return ProductSearchResponse.builder()
+                .products(products)
+                .totalElements(total)
+                .totalPages((int) Math.ceil((double) total / size))
+                .currentPage(page)
+                .pageSize(size)
+                .build();
+    }
+
+    /**
+     * Order of two ordinals by price or createdAt, ties broken by ordinal so that every ordinal has one place
+     */
+    private int compare(int left, int right, boolean byPrice) {
+        int byKey = byPrice
+                ? Double.compare(prices[left], prices[right])
+                : Long.compare(createdAts[left], createdAts[right]);
+        return byKey != 0 ? byKey : Integer.compare(left, right);
+    }
+
+    /**
+     * Sort the first length ordinals in place, on primitives
+     */
+    private void sort(int[] ordinalsToSort, int length, boolean byPrice) {
+        new IntroSorter() {
+            private int pivot;
+
+            @Override
+            protected void setPivot(int i) {
+                pivot = ordinalsToSort[i];
+            }
+
+            @Override
+            protected int comparePivot(int j) {
+                return ProductCatalogEngine.this.compare(pivot, ordinalsToSort[j], byPrice);
+            }
+
+            @Override
+            protected void swap(int i, int j) {
+                int swapped = ordinalsToSort[i];
+                ordinalsToSort[i] = ordinalsToSort[j];
+                ordinalsToSort[j] = swapped;
+            }
+        }.sort(0, length);
+    }
+
+    // ==================== INTERNALS ====================
+
+    /**
+     * Index a product under its ordinal, leaving the sorted arrays to the caller. Returns the ordinal.
+     */
+    private int put(ProductDocument document) {
+        Integer existing = ordinals.get(document.getId());
+        int ordinal;
+        if (existing != null) {
+            ordinal = existing;
+            if (documents.get(ordinal) != null) {
+                unlink(ordinal, documents.get(ordinal));
+            }
+            documents.set(ordinal, document);
+        } else {
+            ordinal = documents.size();
+            ordinals.put(document.getId(), ordinal);
+            documents.add(document);
+            if (ordinal >= prices.length) {
+                int capacity = Math.max(1024, prices.length * 2);
+                prices = Arrays.copyOf(prices, capacity);
+                createdAts = Arrays.copyOf(createdAts, capacity);
+            }
+        }
+
+        prices[ordinal] = document.getPrice() != null ? document.getPrice().doubleValue() : Double.NaN;
+        createdAts[ordinal] = document.getCreatedAt() != null
+                ? document.getCreatedAt().toInstant(ZoneOffset.UTC).toEpochMilli()
+                : Long.MIN_VALUE;
+
+        live.add(ordinal);
+        if (Boolean.TRUE.equals(document.getIsDeleted())) {
+            deleted.add(ordinal);
+        }
+        if (Boolean.TRUE.equals(document.getIsFresh())) {
+            fresh.add(ordinal);
+        }
+        link(byProducer, document.getProducerId(), ordinal);
+        link(byShelf, document.getShelfId(), ordinal);
+        link(byCategory, document.getCategoryId(), ordinal);
+        link(byCurrency, document.getCurrencyId(), ordinal);
+        document.getCertificationIds().forEach(id -> link(byCertification, id, ordinal));
+        return ordinal;
+    }
+
+    /**
+     * Take a product out of the sorted arrays, before its sort keys change
+     */
+    private void unsort(int ordinal) {
+        if (live.contains(ordinal)) {
+            byCreatedAtAsc.remove(ordinal);
+            byPriceAsc.remove(ordinal);
+        }
+    }
+
+    private boolean drop(int ordinal) {
+        ProductDocument previous = documents.get(ordinal);
+        if (previous == null) {
+            return false;
+        }
+        unlink(ordinal, previous);
+        documents.set(ordinal, null);
+        live.remove(ordinal);
+        return true;
+    }
+
+    private void unlink(int ordinal, ProductDocument previous) {
+        deleted.remove(ordinal);
+        fresh.remove(ordinal);
+        unlink(byProducer, previous.getProducerId(), ordinal);
+        unlink(byShelf, previous.getShelfId(), ordinal);
+        unlink(byCategory, previous.getCategoryId(), ordinal);
+        unlink(byCurrency, previous.getCurrencyId(), ordinal);
+        previous.getCertificationIds().forEach(id -> unlink(byCertification, id, ordinal));
+    }
+
+    private static void link(Map<Long, RoaringBitmap> bitmaps, Long key, int ordinal) {
+        if (key != null) {
+            bitmaps.computeIfAbsent(key, k -> new RoaringBitmap()).add(ordinal);
+        }
+    }
+
+    private static void unlink(Map<Long, RoaringBitmap> bitmaps, Long key, int ordinal) {
+        if (key == null) {
+            return;
+        }
+        RoaringBitmap bitmap = bitmaps.get(key);
+        if (bitmap != null) {
+            bitmap.remove(ordinal);
+            if (bitmap.isEmpty()) {
+                bitmaps.remove(key);
+            }
+        }
+    }
+
+    private static RoaringBitmap union(Map<Long, RoaringBitmap> bitmaps, Collection<Long> keys) {
+        RoaringBitmap union = new RoaringBitmap();
+        for (Long key : keys) {
+            RoaringBitmap bitmap = bitmaps.get(key);
+            if (bitmap != null) {
+                union.or(bitmap);
+            }
+        }
+        return union;
+    }
+
+    private void write(Runnable mutation) {
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            mutation.run();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private <T> T read(Supplier<T> query) {
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            return query.get();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Live ordinals in ascending price or createdAt order. A product is moved by binary search; a batch leaves in
+     * one pass and is sorted on its own, then merged back.
+     */
+    private final class SortedOrdinals {
+
+        private final boolean byPrice;
+        private int[] ordinals = new int[0];
+        private int size;
+
+        SortedOrdinals(boolean byPrice) {
+            this.byPrice = byPrice;
+        }
+
+        void add(int ordinal) {
+            int at = indexOf(ordinal);
+            if (at >= 0) {
+                return;
+            }
+            at = -at - 1;
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, Math.max(1024, ordinals.length * 2));
+            }
+            System.arraycopy(ordinals, at, ordinals, at + 1, size - at);
+            ordinals[at] = ordinal;
+            size++;
+        }
+
+        /**
+         * Remove an ordinal, found with the sort keys it was added with
+         */
+        void remove(int ordinal) {
+            int at = indexOf(ordinal);
+            if (at >= 0) {
+                System.arraycopy(ordinals, at + 1, ordinals, at, size - at - 1);
+                size--;
+            }
+        }
+
+        void removeAll(RoaringBitmap removed) {
+            if (removed.isEmpty()) {
+                return;
+            }
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (!removed.contains(ordinals[i])) {
+                    ordinals[kept++] = ordinals[i];
+                }
+            }
+            size = kept;
+        }
+
+        /**
+         * Merge ordinals that are not in the array yet
+         */
+        void addAll(int[] added) {
+            sort(added, added.length, byPrice);
+            int[] merged = new int[Math.max(1024, size + added.length)];
+            int i = 0;
+            int j = 0;
+            int k = 0;
+            while (i < size && j < added.length) {
+                merged[k++] = compare(ordinals[i], added[j], byPrice) <= 0 ? ordinals[i++] : added[j++];
+            }
+            while (i < size) {
+                merged[k++] = ordinals[i++];
+            }
+            while (j < added.length) {
+                merged[k++] = added[j++];
+            }
+            ordinals = merged;
+            size = k;
+        }
+
+        void clear() {
+            ordinals = new int[0];
+            size = 0;
+        }
+
+        /**
+         * Position of the ordinal, or -(insertion point) - 1 when absent
+         */
+        private int indexOf(int ordinal) {
+            int low = 0;
+            int high = size - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                int order = compare(ordinals[middle], ordinal, byPrice);
+                if (order < 0) {
+                    low = middle + 1;
+                } else if (order > 0) {
+                    high = middle - 1;
+                } else {
+                    return middle;
+                }
+            }
+            return -low - 1;
+        }
+    }
+
+    /**
+     * Listing orders the catalog can serve, mapped from the search sort keys
+     */
+    enum SortKey {
+        NEWEST(false, true),
+        OLDEST(false, false),
+        PRICE_ASC(true, false),
+        PRICE_DESC(true, true);
+
+        final boolean byPrice;
+        final boolean descending;
+
+        SortKey(boolean byPrice, boolean descending) {
+            this.byPrice = byPrice;
+            this.descending = descending;
+        }
+
+        static SortKey of(String sort) {
+            if (sort == null) {
+                return NEWEST;
+            }
+            return switch (sort.toLowerCase(Locale.ROOT)) {
+                case "date_asc" -> OLDEST;
+                case "price_asc" -> PRICE_ASC;
+                case "price_desc" -> PRICE_DESC;
+                default -> NEWEST;
+            };
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package org.igdevx.shopservice.catalog;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.igdevx.shopservice.elasticsearch.services.ProductIndexService;
+import org.igdevx.shopservice.search.SearchProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Loads the in-heap product catalog from Postgres on application startup, then keeps it within
+ * search.catalog.refresh-interval of Postgres: every refresh reloads the products whose updated_at moved
+ * since the previous one, and every search.catalog.rebuild-interval the whole catalog is reloaded.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductCatalogInitializer {
+
+    /**
+     * updated_at is the start of the writing transaction: a refresh looks back this far before the previous one
+     * so that transactions still running when it started are read by the next one
+     */
+    static final Duration REFRESH_OVERLAP = Duration.ofMinutes(1);
+
+    private final ProductIndexService productIndexService;
+    private final ProductCatalogEngine productCatalog;
+    private final SearchProperties searchProperties;
+
+    private volatile LocalDateTime lastRefresh;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initializeCatalog() {
+        if (!searchProperties.getCatalog().isEnabled()) {
+            log.info("Product catalog is disabled, filter-only listings are served by the search backend");
+            return;
+        }
+        load();
+    }
+
+    @Scheduled(fixedDelayString = "${search.catalog.refresh-interval:1m}",
+            initialDelayString = "${search.catalog.refresh-interval:1m}")
+    public void refreshCatalog() {
+        LocalDateTime since = lastRefresh;
+        if (!searchProperties.getCatalog().isEnabled() || since == null || !productCatalog.isReady()) {
+            return;
+        }
+
+        LocalDateTime start = LocalDateTime.now();
+        try {
+            productIndexService.refreshCatalog(since.minus(REFRESH_OVERLAP));
+            lastRefresh = start;
+        } catch (Exception e) {
+            log.warn("Failed to refresh the product catalog, retrying from {} next time: {}", since, e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${search.catalog.rebuild-interval:1h}",
+            initialDelayString = "${search.catalog.rebuild-interval:1h}")
+    public void rebuildCatalog() {
+        if (!searchProperties.getCatalog().isEnabled()) {
+            return;
+        }
+        if (!productCatalog.isReady()) {
+            load();
+            return;
+        }
+
+        LocalDateTime start = LocalDateTime.now();
+        try {
+            productIndexService.rebuildCatalog();
+            lastRefresh = start;
+        } catch (Exception e) {
+            log.error("❌ Failed to rebuild the product catalog, it keeps being refreshed", e);
+        }
+    }
+
+    private void load() {
+        LocalDateTime start = LocalDateTime.now();
+        try {
+            productIndexService.loadCatalog();
+            lastRefresh = start;
+        } catch (Exception e) {
+            log.error("❌ Failed to load the product catalog, filter-only listings are served by the search backend", e);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package org.igdevx.shopservice.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Background jobs: the archive of soft-deleted products (ProductArchiveService)
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
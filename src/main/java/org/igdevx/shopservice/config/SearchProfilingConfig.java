@@ -0,0 +1,55 @@
+package org.igdevx.shopservice.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.igdevx.shopservice.search.SearchProfiler;
+import org.igdevx.shopservice.search.SearchProfilingInterceptor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.time.Duration;
+
+@Configuration
+@RequiredArgsConstructor
+public class SearchProfilingConfig implements WebMvcConfigurer {
+
+    private final SearchProfilingInterceptor searchProfilingInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(searchProfilingInterceptor)
+                .addPathPatterns("/products/search", "/products/suggest", "/products/producer/**");
+    }
+
+    /**
+     * Replaces Boot's default JSON converter so that JSON serialization of search responses
+     * is recorded as the "serialization" phase
+     */
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper,
+                                                                                   SearchProfiler searchProfiler) {
+        return new MappingJackson2HttpMessageConverter(objectMapper) {
+            @Override
+            protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+                    throws IOException, HttpMessageNotWritableException {
+                if (!searchProfiler.isActive()) {
+                    super.writeInternal(object, type, outputMessage);
+                    return;
+                }
+                long start = System.nanoTime();
+                try {
+                    super.writeInternal(object, type, outputMessage);
+                } finally {
+                    searchProfiler.record(SearchProfiler.SERIALIZATION, Duration.ofNanos(System.nanoTime() - start));
+                }
+            }
+        };
+    }
+}
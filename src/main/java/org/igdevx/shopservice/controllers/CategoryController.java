@@ -10,6 +10,7 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.igdevx.shopservice.dtos.CategoryRequest;
 import org.igdevx.shopservice.dtos.CategoryResponse;
+import org.igdevx.shopservice.dtos.CursorPage;
 import org.igdevx.shopservice.exceptions.ErrorResponse;
 import org.igdevx.shopservice.services.CategoryService;
 import org.springframework.http.HttpStatus;
@@ -35,6 +36,19 @@ public class CategoryController {
         return ResponseEntity.ok(categoryService.getAllCategories());
     }
 
+    @Operation(summary = "Get a page of categories", description = "Keyset-paginated categories ordered by display order then id. Pass nextCursor as cursor to read the following page.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved the page of categories"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    @GetMapping("/page")
+    public ResponseEntity<CursorPage<CategoryResponse>> getCategoriesPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(categoryService.getCategories(cursor, size));
+    }
+
     @Operation(summary = "Get category by ID", description = "Retrieve a specific category by its ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully retrieved category"),
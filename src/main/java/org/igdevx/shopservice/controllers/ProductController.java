@@ -9,20 +9,29 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.igdevx.shopservice.dtos.*;
-import org.igdevx.shopservice.elasticsearch.documents.ProductDocument;
+import org.igdevx.shopservice.elasticsearch.queries.ProductSearchKey;
+import org.igdevx.shopservice.elasticsearch.services.ProductExportService;
 import org.igdevx.shopservice.elasticsearch.services.ProductIndexService;
 import org.igdevx.shopservice.elasticsearch.services.ProductSearchService;
 import org.igdevx.shopservice.exceptions.ErrorResponse;
-import org.igdevx.shopservice.mappers.ProductMapper;
+import org.igdevx.shopservice.search.ProducerPageCache;
+import org.igdevx.shopservice.search.SearchProfiler;
+import org.igdevx.shopservice.services.ProductBulkService;
+import org.igdevx.shopservice.services.ProductImportService;
+import org.igdevx.shopservice.services.ProductSearchFacade;
 import org.igdevx.shopservice.services.ProductService;
-import org.springframework.data.elasticsearch.core.SearchHit;
-import org.springframework.data.elasticsearch.core.SearchHits;
+import org.igdevx.shopservice.services.ProductService.ListFilter;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/products")
@@ -31,35 +40,49 @@ import java.util.stream.Collectors;
 public class ProductController {
 
     private final ProductService productService;
-    private final ProductSearchService productSearchService;
+    private final ProductSearchFacade productSearchFacade;
     private final ProductIndexService productIndexService;
-    private final ProductMapper productMapper;
-    private final org.igdevx.shopservice.elasticsearch.mappers.ProductDocumentResponseMapper documentResponseMapper;
+    private final ProductSearchService productSearchService;
+    private final SearchProfiler searchProfiler;
+    private final ProducerPageCache producerPageCache;
+    private final ProductExportService productExportService;
+    private final ProductImportService productImportService;
+    private final ProductBulkService productBulkService;
 
     @PostMapping("/search")
-    @Operation(summary = "Search products", description = "Search and filter products using Elasticsearch with pagination")
+    @Operation(summary = "Search products", description = "Search and filter products using Elasticsearch with pagination. Falls back to a degraded Postgres search when Elasticsearch is unavailable.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully retrieved search results"),
             @ApiResponse(responseCode = "500", description = "Internal server error",
                     content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
     })
     public ResponseEntity<ProductSearchResponse> searchProducts(@RequestBody ProductSearchRequest request) {
-        SearchHits<ProductDocument> searchHits = productSearchService.searchProducts(request);
-
-        List<ProductResponse> products = searchHits.getSearchHits().stream()
-                .map(SearchHit::getContent)
-                .map(documentResponseMapper::toProductResponse)
-                .collect(Collectors.toList());
+        searchProfiler.describe(ProductSearchKey.of(request));
+        return ResponseEntity.ok(productSearchFacade.searchProducts(request));
+    }
 
-        ProductSearchResponse response = ProductSearchResponse.builder()
-                .products(products)
-                .totalElements(searchHits.getTotalHits())
-                .totalPages((int) Math.ceil((double) searchHits.getTotalHits() / (request.getSize() != null ? request.getSize() : 20)))
-                .currentPage(request.getPage() != null ? request.getPage() : 0)
-                .pageSize(request.getSize() != null ? request.getSize() : 20)
-                .build();
+    @PostMapping(value = "/search/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Export search results", description = "Stream every product matching the search as NDJSON, one product per line, read from an Elasticsearch point in time. Page and size are ignored.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Export streamed"),
+            @ApiResponse(responseCode = "500", description = "Internal server error",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    public ResponseEntity<StreamingResponseBody> exportProducts(@RequestBody ProductSearchRequest request) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(productExportService.export(request));
+    }
 
-        return ResponseEntity.ok(response);
+    @PostMapping("/search/profile")
+    @Operation(summary = "Profile a search (admin)", description = "Rerun a search on Elasticsearch with the profile API enabled and return the per-shard query and collector timings")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Profile retrieved"),
+            @ApiResponse(responseCode = "500", description = "Internal server error",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    public ResponseEntity<SearchProfileResponse> profileSearch(@RequestBody ProductSearchRequest request) {
+        return ResponseEntity.ok(productSearchService.profileSearch(request));
     }
 
     @GetMapping("/suggest")
@@ -70,14 +93,16 @@ public class ProductController {
     public ResponseEntity<List<ProductSuggestion>> getSuggestions(
             @RequestParam String q,
             @RequestParam(defaultValue = "10") int size) {
-        List<ProductSuggestion> suggestions = productSearchService.getSuggestions(q, size);
+        searchProfiler.describe(ProductSearchKey.ofSuggestion(q, size));
+        List<ProductSuggestion> suggestions = productSearchFacade.getSuggestions(q, size);
         return ResponseEntity.ok(suggestions);
     }
 
     @GetMapping("/producer/{producerId}")
-    @Operation(summary = "Get products by producer", description = "Retrieve all products from a specific producer with optional filters")
+    @Operation(summary = "Get products by producer", description = "Retrieve all products from a specific producer with optional filters. Pages are cached until a product of the producer changes and carry a strong ETag.")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Successfully retrieved products")
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved products"),
+            @ApiResponse(responseCode = "304", description = "Page unchanged since the ETag sent in If-None-Match")
     })
     public ResponseEntity<ProductSearchResponse> getProductsByProducer(
             @PathVariable Long producerId,
@@ -85,24 +110,56 @@ public class ProductController {
             @RequestParam(required = false, defaultValue = "false") Boolean onlyDeleted,
             @RequestParam(required = false, defaultValue = "0") Integer page,
             @RequestParam(required = false, defaultValue = "20") Integer size) {
+        ProductSearchKey key = ProductSearchKey.ofProducer(producerId, shelfId, onlyDeleted, page, size);
+        searchProfiler.describe(key);
+        ProducerPageCache.ProducerPage producerPage = productSearchFacade.servesProducerListingsFromCatalog(onlyDeleted)
+                ? producerPageCache.uncached(productSearchFacade.searchProductsByProducer(producerId, shelfId, onlyDeleted, page, size))
+                : producerPageCache.get(key,
+                        () -> productSearchFacade.searchProductsByProducer(producerId, shelfId, onlyDeleted, page, size));
+        if (producerPage.etag() == null) {
+            return ResponseEntity.ok(producerPage.response());
+        }
+        // Spring answers 304 without a body when If-None-Match matches the ETag
+        return ResponseEntity.ok()
+                .eTag(producerPage.etag())
+                .cacheControl(CacheControl.noCache())
+                .body(producerPage.response());
+    }
 
-        SearchHits<ProductDocument> searchHits = productSearchService.searchProductsByProducer(
-                producerId, shelfId, onlyDeleted, page, size);
-
-        List<ProductResponse> products = searchHits.getSearchHits().stream()
-                .map(SearchHit::getContent)
-                .map(documentResponseMapper::toProductResponse)
-                .collect(Collectors.toList());
-
-        ProductSearchResponse response = ProductSearchResponse.builder()
-                .products(products)
-                .totalElements(searchHits.getTotalHits())
-                .totalPages((int) Math.ceil((double) searchHits.getTotalHits() / size))
-                .currentPage(page)
-                .pageSize(size)
-                .build();
+    @GetMapping
+    @Operation(summary = "List products", description = "Keyset-paginated products ordered by id, read from Postgres. At most one of fresh, deleted, producerId and categoryIds. Pass nextCursor as cursor to read the following page.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved the page of products"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or more than one filter",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    public ResponseEntity<CursorPage<ProductResponse>> listProducts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false, defaultValue = "false") Boolean fresh,
+            @RequestParam(required = false, defaultValue = "false") Boolean deleted,
+            @RequestParam(required = false) Long producerId,
+            @RequestParam(required = false) List<Long> categoryIds) {
+        ListFilter filter = new ListFilter(fresh, deleted, producerId, categoryIds);
+        return ResponseEntity.ok(productService.getProducts(filter, cursor, size));
+    }
 
-        return ResponseEntity.ok(response);
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream products", description = "Stream every product of a listing as NDJSON, one product per line, ordered by id and read from a Postgres cursor. Same filters as GET /products.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Products streamed"),
+            @ApiResponse(responseCode = "400", description = "More than one filter",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    public ResponseEntity<StreamingResponseBody> streamProducts(
+            @RequestParam(required = false, defaultValue = "false") Boolean fresh,
+            @RequestParam(required = false, defaultValue = "false") Boolean deleted,
+            @RequestParam(required = false) Long producerId,
+            @RequestParam(required = false) List<Long> categoryIds) {
+        ListFilter filter = new ListFilter(fresh, deleted, producerId, categoryIds);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(out -> productService.streamProducts(filter, out));
     }
 
     @GetMapping("/{id}")
@@ -135,6 +192,23 @@ public class ProductController {
         return ResponseEntity.status(HttpStatus.CREATED).body(product);
     }
 
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"})
+    @Operation(summary = "Import products", description = "Create products in bulk from NDJSON (one product request per line) or CSV (header row of product request fields, certificationIds separated by ';'). Rows are inserted in batches; rejected rows are reported by line and do not stop the import.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import done, see failed and errors for the rejected rows"),
+            @ApiResponse(responseCode = "415", description = "Unsupported content type",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "500", description = "Internal server error",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    public ResponseEntity<ProductImportResponse> importProducts(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                                InputStream body) throws IOException {
+        ProductImportResponse report = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.APPLICATION_NDJSON)
+                ? productImportService.importNdjson(body)
+                : productImportService.importCsv(body);
+        return ResponseEntity.ok(report);
+    }
+
 
     @PutMapping("/{id}")
     @Operation(summary = "Update a product", description = "Update an existing product by ID")
@@ -183,6 +257,60 @@ public class ProductController {
         return ResponseEntity.noContent().build();
     }
 
+    @PatchMapping("/bulk/price")
+    @Operation(summary = "Change prices in bulk", description = "Set a price, or change it by a percentage, for every non-deleted product matching the filter (producerId, shelfId, categoryId, ids) in one statement. The products are reindexed after commit.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Prices changed"),
+            @ApiResponse(responseCode = "400", description = "Empty filter, or not exactly one of price and percent",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "500", description = "Internal server error",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    public ResponseEntity<ProductBulkResponse> changePrices(@Valid @RequestBody ProductBulkPriceRequest request) {
+        return ResponseEntity.ok(productBulkService.changePrice(request));
+    }
+
+    @PatchMapping("/bulk/shelf")
+    @Operation(summary = "Move products in bulk", description = "Move every non-deleted product matching the filter onto a shelf, in one statement. Only the products of the producer of the shelf are moved.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Products moved"),
+            @ApiResponse(responseCode = "400", description = "Empty filter, or shelf of another producer",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "404", description = "Shelf not found",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "500", description = "Internal server error",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    public ResponseEntity<ProductBulkResponse> moveProducts(@Valid @RequestBody ProductBulkMoveRequest request) {
+        return ResponseEntity.ok(productBulkService.moveToShelf(request));
+    }
+
+    @PostMapping("/bulk/delete")
+    @Operation(summary = "Soft delete products in bulk", description = "Soft delete every product matching the filter in one statement")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Products soft deleted"),
+            @ApiResponse(responseCode = "400", description = "Empty filter",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "500", description = "Internal server error",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    public ResponseEntity<ProductBulkResponse> deleteProducts(@Valid @RequestBody ProductBulkFilter filter) {
+        return ResponseEntity.ok(productBulkService.softDelete(filter));
+    }
+
+    @PatchMapping("/bulk/restore")
+    @Operation(summary = "Restore products in bulk", description = "Restore every soft-deleted product matching the filter in one statement")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Products restored"),
+            @ApiResponse(responseCode = "400", description = "Empty filter",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "500", description = "Internal server error",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    public ResponseEntity<ProductBulkResponse> restoreProducts(@Valid @RequestBody ProductBulkFilter filter) {
+        return ResponseEntity.ok(productBulkService.restore(filter));
+    }
+
     @DeleteMapping("/{id}/hard")
     @Operation(summary = "Hard delete a product", description = "Permanently delete a product and its image by ID")
     @ApiResponses(value = {
@@ -197,6 +325,15 @@ public class ProductController {
         return ResponseEntity.noContent().build();
     }
 
+    @GetMapping("/index/stats")
+    @Operation(summary = "Search index size", description = "Document count and on-disk size of the search index. With perField=true, adds the Elasticsearch per-field disk usage (reads the whole index).")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Index stats retrieved")
+    })
+    public ResponseEntity<IndexStatsResponse> getIndexStats(@RequestParam(required = false, defaultValue = "false") Boolean perField) {
+        return ResponseEntity.ok(productIndexService.indexStats(perField));
+    }
+
     @PostMapping("/index/recreate")
     @Operation(summary = "Recreate Elasticsearch index", description = "Delete and recreate the Elasticsearch index with updated mapping. Use this when ProductDocument structure changes.")
     @ApiResponses(value = {
@@ -218,6 +355,16 @@ public class ProductController {
         return ResponseEntity.ok("Successfully recreated index and reindexed " + count + " products");
     }
 
+    @PostMapping("/index/migrate")
+    @Operation(summary = "Migrate the Elasticsearch index", description = "Rebuild the index into a new one with the current mapping and routing (search.elasticsearch.routing-by-producer) while it keeps serving, then switch the products alias to it")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Index migrated successfully")
+    })
+    public ResponseEntity<String> migrateIndex() {
+        long count = productIndexService.migrateIndex();
+        return ResponseEntity.ok("Successfully migrated " + count + " products to a new index");
+    }
+
     @PostMapping("/index/reindex-all")
     @Operation(summary = "Reindex all products", description = "Rebuild the entire Elasticsearch index with pagination (memory safe)")
     @ApiResponses(value = {
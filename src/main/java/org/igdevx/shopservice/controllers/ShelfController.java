@@ -8,6 +8,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.igdevx.shopservice.dtos.CursorPage;
 import org.igdevx.shopservice.dtos.ShelfRequest;
 import org.igdevx.shopservice.dtos.ShelfResponse;
 import org.igdevx.shopservice.exceptions.ErrorResponse;
@@ -55,6 +56,33 @@ public class ShelfController {
         return ResponseEntity.ok(shelfService.getShelvesByProducerId(producerId));
     }
 
+    @Operation(summary = "Get a page of shelves", description = "Keyset-paginated shelves ordered by id. Pass nextCursor as cursor to read the following page.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved the page of shelves"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    @GetMapping("/page")
+    public ResponseEntity<CursorPage<ShelfResponse>> getShelvesPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(shelfService.getShelves(null, cursor, size));
+    }
+
+    @Operation(summary = "Get a page of shelves by producer", description = "Keyset-paginated shelves of a producer ordered by id. Pass nextCursor as cursor to read the following page.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved the page of shelves for the producer"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    @GetMapping("/producer/{producerId}/page")
+    public ResponseEntity<CursorPage<ShelfResponse>> getShelvesPageByProducer(
+            @PathVariable Long producerId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(shelfService.getShelves(producerId, cursor, size));
+    }
+
     @Operation(summary = "Create a new shelf", description = "Create a new shelf with the provided information")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Shelf created successfully"),
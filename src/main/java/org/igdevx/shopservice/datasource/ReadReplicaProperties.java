@@ -0,0 +1,53 @@
+package org.igdevx.shopservice.datasource;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Read replica settings (prefix "read-replica"), the pool itself is tuned under read-replica.hikari
+ */
+@Component
+@ConfigurationProperties(prefix = "read-replica")
+@Getter
+@Setter
+public class ReadReplicaProperties {
+
+    /**
+     * Send read-only transactions to the replica, otherwise everything goes to spring.datasource
+     */
+    private boolean enabled = false;
+
+    /**
+     * JDBC url of the replica, or of a load balancer in front of several replicas
+     */
+    private String url;
+
+    /**
+     * Defaults to spring.datasource.username
+     */
+    private String username;
+
+    /**
+     * Defaults to spring.datasource.password
+     */
+    private String password;
+
+    /**
+     * Replay lag above which read-only transactions go to the primary
+     */
+    private Duration maxLag = Duration.ofSeconds(2);
+
+    /**
+     * How often the replay lag is measured, by the first read-only transaction after the interval
+     */
+    private Duration lagCheckInterval = Duration.ofSeconds(1);
+
+    /**
+     * How long a thread keeps reading from the primary after it committed a write
+     */
+    private Duration readYourWrites = Duration.ofSeconds(5);
+}
@@ -0,0 +1,71 @@
+package org.igdevx.shopservice.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+/**
+ * Gives the connections of read-only transactions from the replica and every other connection from the primary.
+ * <p>
+ * A read-only transaction still reads from the primary when the replica lags more than the max lag, and when its
+ * thread committed a write less than read-your-writes ago (see {@link ReadYourWrites}).
+ * <p>
+ * The transaction is only known once it has begun, so this data source has to sit behind a
+ * LazyConnectionDataSourceProxy, which takes the connection at the first statement.
+ */
+public class ReadReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Route {
+        PRIMARY, REPLICA
+    }
+
+    private final ReplicaLagMonitor lagMonitor;
+    private final Duration readYourWrites;
+    private final Counter replicaReads;
+    private final Counter primaryReads;
+
+    public ReadReplicaRoutingDataSource(ReplicaLagMonitor lagMonitor, Duration readYourWrites, MeterRegistry meterRegistry) {
+        this.lagMonitor = lagMonitor;
+        this.readYourWrites = readYourWrites;
+        this.replicaReads = meterRegistry.counter("datasource.read_only.connections", "target", "replica");
+        this.primaryReads = meterRegistry.counter("datasource.read_only.connections", "target", "primary");
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()
+                    && TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new WriteCommitted());
+            }
+            return Route.PRIMARY;
+        }
+        if (ReadYourWrites.requiresPrimary() || !lagMonitor.isReplicaUsable()) {
+            primaryReads.increment();
+            return Route.PRIMARY;
+        }
+        replicaReads.increment();
+        return Route.REPLICA;
+    }
+
+    /**
+     * Starts the read-your-writes window of the thread, before the after-commit listeners run
+     */
+    private final class WriteCommitted implements TransactionSynchronization {
+
+        @Override
+        public void afterCommit() {
+            ReadYourWrites.wrote(readYourWrites);
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package org.igdevx.shopservice.datasource;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Per-thread state making read-only transactions read from the primary: for a while after the thread
+ * committed a write, and inside {@link #onPrimary}.
+ * <p>
+ * Without a read replica nothing reads this state, so it can be used whether routing is enabled or not.
+ */
+public final class ReadYourWrites {
+
+    private static final ThreadLocal<Long> PRIMARY_UNTIL = new ThreadLocal<>();
+    private static final ThreadLocal<Integer> PINNED = ThreadLocal.withInitial(() -> 0);
+
+    private ReadYourWrites() {
+    }
+
+    /**
+     * Record a write committed by the current thread, read from the primary for the given window
+     */
+    public static void wrote(Duration window) {
+        PRIMARY_UNTIL.set(System.nanoTime() + window.toNanos());
+    }
+
+    /**
+     * Whether read-only transactions of the current thread must read from the primary
+     */
+    public static boolean requiresPrimary() {
+        if (PINNED.get() > 0) {
+            return true;
+        }
+        Long until = PRIMARY_UNTIL.get();
+        if (until == null) {
+            return false;
+        }
+        if (System.nanoTime() - until < 0) {
+            return true;
+        }
+        PRIMARY_UNTIL.remove();
+        return false;
+    }
+
+    /**
+     * Run work that has to see writes committed by other threads, such as indexing after a commit
+     */
+    public static <T> T onPrimary(Supplier<T> work) {
+        PINNED.set(PINNED.get() + 1);
+        try {
+            return work.get();
+        } finally {
+            int depth = PINNED.get() - 1;
+            if (depth == 0) {
+                PINNED.remove();
+            } else {
+                PINNED.set(depth);
+            }
+        }
+    }
+
+    public static void onPrimary(Runnable work) {
+        onPrimary(() -> {
+            work.run();
+            return null;
+        });
+    }
+}
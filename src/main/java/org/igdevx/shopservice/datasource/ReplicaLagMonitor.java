@@ -0,0 +1,98 @@
+package org.igdevx.shopservice.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Replay lag of the read replica, measured at most once per lag check interval by the first
+ * read-only transaction asking for it; the others use the last measure.
+ * <p>
+ * An unreachable replica counts as lagging, so read-only transactions fall back to the primary until it is back.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    // An idle primary sends no WAL: once the replica has replayed all it received it is up to date,
+    // whatever the age of its last replayed transaction. A server that is not in recovery has no lag.
+    static final String LAG_QUERY = """
+            SELECT CASE
+                WHEN NOT pg_is_in_recovery() THEN 0
+                WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0)
+            END""";
+
+    private static final int QUERY_TIMEOUT_SECONDS = 1;
+
+    private final DataSource replica;
+    private final Duration maxLag;
+    private final Duration checkInterval;
+    private final AtomicBoolean checking = new AtomicBoolean();
+
+    private volatile long nextCheckAt = System.nanoTime();
+    private volatile boolean measured;
+    private volatile boolean usable;
+    private volatile double lagSeconds = Double.NaN;
+
+    public ReplicaLagMonitor(DataSource replica, Duration maxLag, Duration checkInterval, MeterRegistry meterRegistry) {
+        this.replica = replica;
+        this.maxLag = maxLag;
+        this.checkInterval = checkInterval;
+        Gauge.builder("datasource.replica.lag", this, monitor -> monitor.lagSeconds)
+                .description("Replay lag of the read replica, NaN while it is unreachable")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Whether the replica was reachable and within max lag at the last check
+     */
+    public boolean isReplicaUsable() {
+        if (System.nanoTime() - nextCheckAt >= 0 && checking.compareAndSet(false, true)) {
+            try {
+                check();
+            } finally {
+                checking.set(false);
+            }
+        }
+        return usable;
+    }
+
+    private void check() {
+        // Counted as usable before the first measure, so that a replica lagging from the start is logged
+        boolean wasUsable = usable || !measured;
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.setQueryTimeout(QUERY_TIMEOUT_SECONDS);
+            try (ResultSet resultSet = statement.executeQuery(LAG_QUERY)) {
+                resultSet.next();
+                lagSeconds = resultSet.getDouble(1);
+            }
+            usable = lagSeconds * 1000 <= maxLag.toMillis();
+            if (wasUsable && !usable) {
+                log.warn("Read replica is {}s behind (max {}), read-only transactions go to the primary",
+                        lagSeconds, maxLag);
+            }
+        } catch (SQLException e) {
+            lagSeconds = Double.NaN;
+            usable = false;
+            if (wasUsable) {
+                log.warn("Read replica is unreachable, read-only transactions go to the primary: {}", e.getMessage());
+            }
+        } finally {
+            measured = true;
+            nextCheckAt = System.nanoTime() + checkInterval.toNanos();
+        }
+        if (!wasUsable && usable) {
+            log.info("Read replica is {}s behind, read-only transactions go to the replica", lagSeconds);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package org.igdevx.shopservice.dtos;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IndexStatsResponse {
+
+    private String backend;
+    private String index;
+    private long documentCount;
+    private long storeSizeBytes;
+    private long bytesPerDocument;
+
+    // Elasticsearch _disk_usage breakdown per field (inverted index, doc values, points, stored fields), when asked for
+    private JsonNode fields;
+}
@@ -0,0 +1,31 @@
+package org.igdevx.shopservice.dtos;
+
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Set;
+
+/**
+ * Products targeted by a bulk change: those matching every criterion set. At least one is required.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBulkFilter {
+
+    private Long producerId;
+    private Long shelfId;
+    private Long categoryId;
+
+    // Explicit set of products, combined with the other criteria when they are set too
+    @Size(max = 10000, message = "At most 10000 product ids per bulk change")
+    private Set<Long> ids;
+
+    public boolean isEmpty() {
+        return producerId == null && shelfId == null && categoryId == null && (ids == null || ids.isEmpty());
+    }
+}
@@ -0,0 +1,22 @@
+package org.igdevx.shopservice.dtos;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBulkMoveRequest {
+
+    @NotNull(message = "Filter is required")
+    @Valid
+    private ProductBulkFilter filter;
+
+    @NotNull(message = "Shelf is required")
+    private Long shelfId;
+}
@@ -0,0 +1,31 @@
+package org.igdevx.shopservice.dtos;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * New price for the products of the filter: either a fixed price or a change in percent (e.g. -15 for 15% off)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBulkPriceRequest {
+
+    @NotNull(message = "Filter is required")
+    @Valid
+    private ProductBulkFilter filter;
+
+    @DecimalMin(value = "0.01", message = "Price must be greater than 0")
+    private BigDecimal price;
+
+    @DecimalMin(value = "-100", inclusive = false, message = "Percent must be greater than -100")
+    @DecimalMax(value = "1000", message = "Percent cannot exceed 1000")
+    private BigDecimal percent;
+}
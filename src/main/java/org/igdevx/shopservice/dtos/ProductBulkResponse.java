@@ -0,0 +1,16 @@
+package org.igdevx.shopservice.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBulkResponse {
+
+    // Products changed by the statement; they are reindexed in the background once it is committed
+    private int updated;
+}
@@ -0,0 +1,34 @@
+package org.igdevx.shopservice.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportResponse {
+
+    private long received;
+    private long imported;
+    private long failed;
+
+    // Imported products whose search index write failed, fixed by the next reindex
+    private long notIndexed;
+
+    // Rejected rows, by line of the uploaded file; the list stops at the first 1000
+    private List<RowError> errors;
+    private boolean errorsTruncated;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private long line;
+        private String message;
+    }
+}
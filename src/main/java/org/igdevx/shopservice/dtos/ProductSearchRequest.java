@@ -9,7 +9,7 @@ import java.math.BigDecimal;
 import java.util.Set;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class ProductSearchRequest {
@@ -32,5 +32,8 @@ public class ProductSearchRequest {
     // Pagination
     private Integer page;
     private Integer size;
+
+    // Count matches only up to search.elasticsearch.approximate-total-hits: faster, the total becomes a lower bound
+    private Boolean approximateTotal;
 }
 
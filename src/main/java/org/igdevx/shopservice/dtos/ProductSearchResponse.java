@@ -1,5 +1,6 @@
 package org.igdevx.shopservice.dtos;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -18,5 +19,15 @@ public class ProductSearchResponse {
     private int totalPages;
     private int currentPage;
     private int pageSize;
+
+    // True when totalElements is a lower bound (approximateTotal requested and more matches than counted)
+    private boolean totalApproximate;
+
+    // True when served by the Postgres fallback because Elasticsearch is unavailable
+    private boolean degraded;
+
+    // What the query cost governor removed or capped to keep the search affordable
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private List<String> downgrades;
 }
 
@@ -0,0 +1,28 @@
+package org.igdevx.shopservice.dtos;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchProfileResponse {
+
+    // Normalized request that was profiled
+    private String request;
+    private long tookMs;
+    private long totalHits;
+
+    // Query cost governor estimate, after the downgrades it applied
+    private double estimatedCost;
+    private List<String> downgrades;
+
+    // Elasticsearch "profile" section, per shard breakdown of query and collector timings
+    private JsonNode profile;
+}
@@ -3,12 +3,14 @@ package org.igdevx.shopservice.elasticsearch.config;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.igdevx.shopservice.elasticsearch.services.ProductIndexService;
+import org.igdevx.shopservice.search.SearchBackendType;
+import org.igdevx.shopservice.search.SearchProperties;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
 /**
- * Initializes Elasticsearch index on application startup if needed
+ * Initializes the search index (Elasticsearch or embedded Lucene) on application startup if needed
  */
 @Component
 @RequiredArgsConstructor
@@ -16,25 +18,35 @@ import org.springframework.stereotype.Component;
 public class ElasticsearchInitializer {
 
     private final ProductIndexService productIndexService;
+    private final SearchProperties searchProperties;
 
     @EventListener(ApplicationReadyEvent.class)
     public void initializeElasticsearchIndex() {
+        if (searchProperties.getBackend() == SearchBackendType.POSTGRES) {
+            log.info("Search backend is {}, no search index to initialize", searchProperties.getBackend());
+            return;
+        }
+
         try {
-            log.info("Checking Elasticsearch index status...");
+            log.info("Checking {} index status...", searchProperties.getBackend());
+
+            if (searchProperties.usesElasticsearch()) {
+                productIndexService.ensureIndex();
+            }
 
             long count = productIndexService.getIndexedProductsCount();
 
             if (count == 0) {
-                log.warn("Elasticsearch index is empty. Starting automatic reindexation...");
+                log.warn("Search index is empty. Starting automatic reindexation...");
                 productIndexService.reindexAll();
                 long newCount = productIndexService.getIndexedProductsCount();
-                log.info("✅ Elasticsearch index initialized successfully with {} products", newCount);
+                log.info("✅ Search index initialized successfully with {} products", newCount);
             } else {
-                log.info("✅ Elasticsearch index already contains {} products", count);
+                log.info("✅ Search index already contains {} products", count);
             }
 
         } catch (Exception e) {
-            log.error("❌ Failed to initialize Elasticsearch index. You may need to run reindex-all manually.", e);
+            log.error("❌ Failed to initialize search index. You may need to run reindex-all manually.", e);
             log.error("To reindex manually, call: POST /api/products/index/reindex-all");
         }
     }
@@ -16,7 +16,7 @@ public class CertificationInfo {
     @Field(type = FieldType.Long)
     private Long id;
 
-    @Field(type = FieldType.Keyword)
+    @Field(type = FieldType.Keyword, index = false, docValues = false)
     private String label;
 }
 
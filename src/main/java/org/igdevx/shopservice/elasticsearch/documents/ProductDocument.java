@@ -1,76 +1,86 @@
 package org.igdevx.shopservice.elasticsearch.documents;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
 import org.springframework.data.elasticsearch.annotations.Document;
 import org.springframework.data.elasticsearch.annotations.Field;
 import org.springframework.data.elasticsearch.annotations.FieldType;
+import org.springframework.data.elasticsearch.annotations.Setting;
+import org.springframework.data.elasticsearch.annotations.WriteTypeHint;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Set;
-
+import java.util.stream.Collectors;
+
+/**
+ * Search document of a product. Only the fields that are queried or sorted on are indexed:
+ * display fields live in _source only (index = false, no doc values), the rarely used
+ * currency and shelf filters are doc-values-only, and certifications are a single plain object list.
+ * No _class type hint is written, the index only holds ProductDocuments.
+ * The index is sorted on createdAt desc (product-settings.json), so newest-first searches that do not need an exact total
+ * (ProductSearchRequest.approximateTotal) stop collecting once they have their page.
+ */
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-@Document(indexName = "products")
+@Document(indexName = "products", createIndex = false, writeTypeHint = WriteTypeHint.FALSE)
+@Setting(settingPath = "elasticsearch/product-settings.json")
 public class ProductDocument {
 
     @Id
     private Long id;
 
-    @Field(type = FieldType.Text, analyzer = "standard")
+    @Field(type = FieldType.Text, analyzer = "french_text")
     private String title;
 
-    @Field(type = FieldType.Text, analyzer = "standard")
+    @Field(type = FieldType.Text, analyzer = "french_text")
     private String description;
 
-    @Field(type = FieldType.Double)
+    // Prices have two decimals: stored as a long of cents instead of a double
+    @Field(type = FieldType.Scaled_Float, scalingFactor = 100)
     private BigDecimal price;
 
-    @Field(type = FieldType.Keyword)
+    @Field(type = FieldType.Keyword, index = false, docValues = false)
     private String currencyCode;
 
-    @Field(type = FieldType.Long)
+    @Field(type = FieldType.Long, index = false)
     private Long currencyId;
 
-    @Field(type = FieldType.Keyword)
+    @Field(type = FieldType.Keyword, index = false, docValues = false)
     private String unitName;
 
-    @Field(type = FieldType.Long)
+    @Field(type = FieldType.Long, index = false, docValues = false)
     private Long unitId;
 
-    @Field(type = FieldType.Keyword)
+    @Field(type = FieldType.Keyword, index = false, docValues = false)
     private String shelfName;
 
-    @Field(type = FieldType.Long)
+    // Only filtered on together with producerId, which already narrows the candidates
+    @Field(type = FieldType.Long, index = false)
     private Long shelfId;
 
-    @Field(type = FieldType.Keyword)
+    @Field(type = FieldType.Keyword, index = false, docValues = false)
     private String categoryName;
 
     @Field(type = FieldType.Long)
     private Long categoryId;
 
-    @Field(type = FieldType.Nested, includeInParent = true)
+    // Filtered on certifications.id; never queried per certification, so not nested
+    @Field(type = FieldType.Object)
     private List<CertificationInfo> certifications;
 
-    // Keep these for backward compatibility and easy searching
-    @Field(type = FieldType.Keyword)
-    private Set<String> certificationNames;
-
-    @Field(type = FieldType.Long)
-    private Set<Long> certificationIds;
-
-    @Field(type = FieldType.Keyword)
+    @Field(type = FieldType.Keyword, index = false, docValues = false)
     private String mainImageId;
 
-    @Field(type = FieldType.Keyword)
+    @Field(type = FieldType.Keyword, index = false, docValues = false)
     private String mainImageUrl;
 
     @Field(type = FieldType.Boolean)
@@ -82,10 +92,22 @@ public class ProductDocument {
     @Field(type = FieldType.Date, format = {}, pattern = "uuuu-MM-dd'T'HH:mm:ss.SSSSSS||uuuu-MM-dd")
     private LocalDateTime createdAt;
 
-    @Field(type = FieldType.Date, format = {}, pattern = "uuuu-MM-dd'T'HH:mm:ss.SSSSSS||uuuu-MM-dd")
+    @Field(type = FieldType.Date, format = {}, pattern = "uuuu-MM-dd'T'HH:mm:ss.SSSSSS||uuuu-MM-dd",
+            index = false, docValues = false)
     private LocalDateTime updatedAt;
 
     @Field(type = FieldType.Boolean)
     private Boolean isDeleted;
+
+    /**
+     * Ids of the certifications, for the Lucene index and the catalog bitmaps
+     */
+    @Transient
+    @JsonIgnore
+    public Set<Long> getCertificationIds() {
+        return certifications == null ? Set.of() : certifications.stream()
+                .map(CertificationInfo::getId)
+                .collect(Collectors.toSet());
+    }
 }
 
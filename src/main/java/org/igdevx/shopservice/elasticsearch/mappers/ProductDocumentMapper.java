@@ -3,7 +3,6 @@ package org.igdevx.shopservice.elasticsearch.mappers;
 import org.igdevx.shopservice.elasticsearch.documents.CertificationInfo;
 import org.igdevx.shopservice.elasticsearch.documents.ProductDocument;
 import org.igdevx.shopservice.models.Product;
-import org.igdevx.shopservice.models.ProductCertification;
 import org.springframework.stereotype.Component;
 
 import java.util.stream.Collectors;
@@ -36,14 +35,6 @@ public class ProductDocumentMapper {
                                         .label(cert.getLabel())
                                         .build())
                                 .collect(Collectors.toList()) : null)
-                .certificationNames(product.getCertifications() != null ?
-                        product.getCertifications().stream()
-                                .map(ProductCertification::getLabel)
-                                .collect(Collectors.toSet()) : null)
-                .certificationIds(product.getCertifications() != null ?
-                        product.getCertifications().stream()
-                                .map(ProductCertification::getId)
-                                .collect(Collectors.toSet()) : null)
                 .mainImageId(product.getMainImageId() != null ? product.getMainImageId().toString() : null)
                 .mainImageUrl(product.getMainImageUrl())
                 .isFresh(product.getIsFresh())
@@ -2,8 +2,12 @@ package org.igdevx.shopservice.elasticsearch.mappers;
 
 import org.igdevx.shopservice.dtos.*;
 import org.igdevx.shopservice.elasticsearch.documents.ProductDocument;
+import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchHits;
+import org.springframework.data.elasticsearch.core.TotalHitsRelation;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
 import java.util.stream.Collectors;
 
 @Component
@@ -51,5 +55,20 @@ public class ProductDocumentResponseMapper {
                 .isDeleted(document.getIsDeleted())
                 .build();
     }
-}
 
+    public ProductSearchResponse toSearchResponse(SearchHits<ProductDocument> searchHits, int page, int size) {
+        List<ProductResponse> products = searchHits.getSearchHits().stream()
+                .map(SearchHit::getContent)
+                .map(this::toProductResponse)
+                .collect(Collectors.toList());
+
+        return ProductSearchResponse.builder()
+                .products(products)
+                .totalElements(searchHits.getTotalHits())
+                .totalPages((int) Math.ceil((double) searchHits.getTotalHits() / size))
+                .totalApproximate(searchHits.getTotalHitsRelation() == TotalHitsRelation.GREATER_THAN_OR_EQUAL_TO)
+                .currentPage(page)
+                .pageSize(size)
+                .build();
+    }
+}
@@ -0,0 +1,247 @@
+package org.igdevx.shopservice.elasticsearch.queries;
+
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch._types.SortOptions;
+import co.elastic.clients.elasticsearch._types.SortOrder;
+import co.elastic.clients.elasticsearch._types.query_dsl.BoolQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch._types.query_dsl.TextQueryType;
+import org.igdevx.shopservice.dtos.ProductSearchRequest;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the Elasticsearch queries used by ProductSearchService.
+ * Constant fragments (deleted/fresh filters, sort options) are built once and shared,
+ * and every non-scoring predicate goes in filter context so the node query cache can reuse it.
+ */
+@Component
+public class ProductQueryFactory {
+
+    static final Query NOT_DELETED = termQuery("isDeleted", false);
+    static final Query ONLY_DELETED = termQuery("isDeleted", true);
+    static final Query FRESH_ONLY = termQuery("isFresh", true);
+
+    static final SortOptions SCORE_DESC = SortOptions.of(s -> s.score(score -> score.order(SortOrder.Desc)));
+    static final SortOptions CREATED_AT_DESC = fieldSort("createdAt", SortOrder.Desc);
+
+    static final List<SortOptions> RELEVANCE_THEN_NEWEST = List.of(SCORE_DESC, CREATED_AT_DESC);
+    static final List<SortOptions> NEWEST_FIRST = List.of(CREATED_AT_DESC);
+
+    private static final Map<String, List<SortOptions>> SORTS = Map.of(
+            "relevance", List.of(SCORE_DESC),
+            "price_asc", List.of(fieldSort("price", SortOrder.Asc)),
+            "price_desc", List.of(fieldSort("price", SortOrder.Desc)),
+            "date_asc", List.of(fieldSort("createdAt", SortOrder.Asc)),
+            "date_desc", NEWEST_FIRST,
+            "title_asc", List.of(fieldSort("title", SortOrder.Asc)),
+            "title_desc", List.of(fieldSort("title", SortOrder.Desc))
+    );
+
+    /**
+     * Which of the expensive full-text clauses a search keeps, see QueryCostGovernor
+     */
+    public record FullTextOptions(boolean fuzzy, boolean fuzzyDescription, boolean prefix) {
+
+        public static final FullTextOptions FULL = new FullTextOptions(true, true, true);
+    }
+
+    /**
+     * Query for POST /products/search.
+     * Without q nothing is scored: the filters are wrapped in constant_score.
+     */
+    public Query searchQuery(ProductSearchRequest request) {
+        return searchQuery(request, FullTextOptions.FULL);
+    }
+
+    public Query searchQuery(ProductSearchRequest request, FullTextOptions fullText) {
+        BoolQuery.Builder filters = new BoolQuery.Builder()
+                .filter(deletedFilter(request.getOnlyDeleted()));
+
+        if (request.getCategoryIds() != null && !request.getCategoryIds().isEmpty()) {
+            filters.filter(termsQuery("categoryId", request.getCategoryIds()));
+        }
+
+        Query priceRange = priceRangeQuery(request.getPriceMin(), request.getPriceMax());
+        if (priceRange != null) {
+            filters.filter(priceRange);
+        }
+
+        if (request.getCurrencyId() != null) {
+            filters.filter(termQuery("currencyId", request.getCurrencyId()));
+        }
+
+        if (Boolean.TRUE.equals(request.getFresh())) {
+            filters.filter(FRESH_ONLY);
+        }
+
+        if (request.getCertificationIds() != null && !request.getCertificationIds().isEmpty()) {
+            filters.filter(termsQuery("certifications.id", request.getCertificationIds()));
+        }
+
+        if (hasText(request.getQ())) {
+            filters.must(fullTextQuery(request.getQ().trim(), fullText));
+            return Query.of(q -> q.bool(filters.build()));
+        }
+
+        return constantScore(filters.build());
+    }
+
+    /**
+     * Query for the producer shop page. Pure filtering, never scored.
+     */
+    public Query producerQuery(Long producerId, Long shelfId, Boolean onlyDeleted) {
+        BoolQuery.Builder filters = new BoolQuery.Builder()
+                .filter(termQuery("producerId", producerId))
+                .filter(deletedFilter(onlyDeleted));
+
+        if (shelfId != null) {
+            filters.filter(termQuery("shelfId", shelfId));
+        }
+
+        return constantScore(filters.build());
+    }
+
+    /**
+     * Query for autocomplete suggestions on the title.
+     * The typed text goes through the french_text analyzer like the indexed titles, the last word as a prefix,
+     * so "Pomm" finds "pommes" and "légu" or "LEGUM" find "Légumes".
+     */
+    public Query suggestionQuery(String text) {
+        return Query.of(q -> q
+                .bool(b -> b
+                        .should(s -> s.matchPhrase(m -> m.field("title").query(text)))
+                        .should(s -> s.matchBoolPrefix(m -> m.field("title").query(text)))
+                        .minimumShouldMatch("1")
+                        .filter(NOT_DELETED)
+                )
+        );
+    }
+
+    /**
+     * Sort options for a search request. Without q the score is constant, so it is not used as a sort key.
+     */
+    public List<SortOptions> sortFor(String sort, boolean scored) {
+        if (sort == null || sort.isBlank()) {
+            return scored ? RELEVANCE_THEN_NEWEST : NEWEST_FIRST;
+        }
+        return SORTS.getOrDefault(sort.toLowerCase(), NEWEST_FIRST);
+    }
+
+    public List<SortOptions> producerSort() {
+        return NEWEST_FIRST;
+    }
+
+    /**
+     * Relevance query on title and description.
+     * Both fields use the french_text analyzer (elision, lowercase, ASCII folding, light stemming),
+     * so "pommes"/"pomme" and "légumes"/"legumes" already share the same terms in the index.
+     */
+    Query fullTextQuery(String text, FullTextOptions options) {
+        BoolQuery.Builder clauses = new BoolQuery.Builder()
+                // Exact phrase in the title ranks first
+                .should(s -> s
+                        .matchPhrase(m -> m
+                                .field("title")
+                                .query(text)
+                                .boost(4.0f)
+                        )
+                );
+
+        if (options.fuzzy()) {
+            // Typo-tolerant match on both fields, title weighted higher
+            List<String> fuzzyFields = options.fuzzyDescription() ? List.of("title^3", "description") : List.of("title^3");
+            clauses.should(s -> s
+                    .multiMatch(m -> m
+                            .query(text)
+                            .fields(fuzzyFields)
+                            .type(TextQueryType.BestFields)
+                            .fuzziness("AUTO")
+                            .prefixLength(1)
+                    )
+            );
+        }
+        if (!options.fuzzy() || !options.fuzzyDescription()) {
+            // Downgraded: the fields that lost fuzziness are still matched on exact terms
+            clauses.should(s -> s
+                    .multiMatch(m -> m
+                            .query(text)
+                            .fields(options.fuzzy() ? List.of("description") : List.of("title^3", "description"))
+                            .type(TextQueryType.BestFields)
+                    )
+            );
+        }
+        if (options.prefix()) {
+            // Partial last word while the user is still typing ("tom" -> "tomates")
+            clauses.should(s -> s
+                    .multiMatch(m -> m
+                            .query(text)
+                            .fields("title^2")
+                            .type(TextQueryType.BoolPrefix)
+                    )
+            );
+        }
+
+        return Query.of(q -> q.bool(clauses.minimumShouldMatch("1").build()));
+    }
+
+    static Query deletedFilter(Boolean onlyDeleted) {
+        return Boolean.TRUE.equals(onlyDeleted) ? ONLY_DELETED : NOT_DELETED;
+    }
+
+    private static Query priceRangeQuery(BigDecimal min, BigDecimal max) {
+        if (min == null && max == null) {
+            return null;
+        }
+        return Query.of(q -> q
+                .range(r -> r
+                        .number(n -> {
+                            n.field("price");
+                            if (min != null) {
+                                n.gte(min.doubleValue());
+                            }
+                            if (max != null) {
+                                n.lte(max.doubleValue());
+                            }
+                            return n;
+                        })
+                )
+        );
+    }
+
+    private static Query constantScore(BoolQuery filters) {
+        return Query.of(q -> q
+                .constantScore(c -> c
+                        .filter(f -> f.bool(filters))
+                )
+        );
+    }
+
+    private static Query termQuery(String field, boolean value) {
+        return Query.of(q -> q.term(t -> t.field(field).value(value)));
+    }
+
+    private static Query termQuery(String field, long value) {
+        return Query.of(q -> q.term(t -> t.field(field).value(value)));
+    }
+
+    private static Query termsQuery(String field, Collection<Long> values) {
+        List<FieldValue> fieldValues = values.stream()
+                .sorted()
+                .map(FieldValue::of)
+                .toList();
+        return Query.of(q -> q.terms(t -> t.field(field).terms(terms -> terms.value(fieldValues))));
+    }
+
+    private static SortOptions fieldSort(String field, SortOrder order) {
+        return SortOptions.of(s -> s.field(f -> f.field(field).order(order)));
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+}
@@ -0,0 +1,78 @@
+package org.igdevx.shopservice.elasticsearch.queries;
+
+import org.igdevx.shopservice.dtos.ProductSearchRequest;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Normalized form of a search request: two requests with the same key return the same results.
+ * Defaults are applied, ids are sorted and q is trimmed, lowercased and whitespace-collapsed
+ * (the french_text analyzer lowercases anyway).
+ */
+public record ProductSearchKey(
+        String type,
+        String q,
+        List<Long> categoryIds,
+        BigDecimal priceMin,
+        BigDecimal priceMax,
+        Long currencyId,
+        boolean fresh,
+        List<Long> certificationIds,
+        boolean onlyDeleted,
+        Long producerId,
+        Long shelfId,
+        String sort,
+        int page,
+        int size,
+        boolean approximateTotal
+) {
+
+    public static ProductSearchKey of(ProductSearchRequest request) {
+        return new ProductSearchKey(
+                "search",
+                normalizeText(request.getQ()),
+                sortedIds(request.getCategoryIds()),
+                normalizePrice(request.getPriceMin()),
+                normalizePrice(request.getPriceMax()),
+                request.getCurrencyId(),
+                Boolean.TRUE.equals(request.getFresh()),
+                sortedIds(request.getCertificationIds()),
+                Boolean.TRUE.equals(request.getOnlyDeleted()),
+                null,
+                null,
+                request.getSort() != null && !request.getSort().isBlank() ? request.getSort().toLowerCase(Locale.ROOT) : null,
+                request.getPage() != null ? request.getPage() : 0,
+                request.getSize() != null ? request.getSize() : 20,
+                Boolean.TRUE.equals(request.getApproximateTotal())
+        );
+    }
+
+    public static ProductSearchKey ofProducer(Long producerId, Long shelfId, Boolean onlyDeleted, int page, int size) {
+        return new ProductSearchKey("producer", null, List.of(), null, null, null, false, List.of(),
+                Boolean.TRUE.equals(onlyDeleted), producerId, shelfId, null, page, size, false);
+    }
+
+    public static ProductSearchKey ofSuggestion(String q, int size) {
+        // match_phrase and match_bool_prefix analyze q with the title analyzer, so q is normalized like a search
+        return new ProductSearchKey("suggest", normalizeText(q), List.of(), null, null, null, false, List.of(),
+                false, null, null, null, 0, size, false);
+    }
+
+    private static String normalizeText(String text) {
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+        return text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private static List<Long> sortedIds(Collection<Long> ids) {
+        return ids == null ? List.of() : ids.stream().sorted().distinct().toList();
+    }
+
+    private static BigDecimal normalizePrice(BigDecimal price) {
+        return price == null ? null : price.stripTrailingZeros();
+    }
+}
@@ -0,0 +1,148 @@
+package org.igdevx.shopservice.elasticsearch.queries;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.igdevx.shopservice.dtos.ProductSearchRequest;
+import org.igdevx.shopservice.exceptions.InvalidPageRequestException;
+import org.igdevx.shopservice.exceptions.SearchCostExceededException;
+import org.igdevx.shopservice.search.SearchProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Estimates what a search costs Elasticsearch and fits it into the limits of search.cost.
+ * <p>
+ * The cost is counted in "term lookups": each word of q costs one lookup for the title phrase, FUZZY_TITLE for the
+ * fuzzy match on the title (a fuzzy term expands to up to 50 dictionary terms) and FUZZY_DESCRIPTION on the far
+ * larger description dictionary. The prefix clause on the last word costs PREFIX. Collecting costs one per hundred
+ * hits each shard has to keep (page * size + size). Filters are cached by the node query cache and not counted.
+ * <p>
+ * Pages below 0 and sizes below 1 are rejected whether the limits are enabled or not.
+ * Hard limits come first: size is capped, q is cut to max-query-length characters and max-query-terms words,
+ * and requests beyond max-result-window are rejected. Then, while the cost is above max-cost, the clauses are
+ * dropped in this order: fuzziness on description, fuzziness on title, prefix on the last word.
+ * Each step is reported in SearchPlan.downgrades and counted in product.search.downgrade.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class QueryCostGovernor {
+
+    public static final String SIZE_CAPPED = "size_capped";
+    public static final String QUERY_TRUNCATED = "q_truncated";
+    public static final String DESCRIPTION_FUZZINESS_DROPPED = "description_fuzziness_dropped";
+    public static final String FUZZINESS_DROPPED = "fuzziness_dropped";
+    public static final String PREFIX_DROPPED = "prefix_dropped";
+
+    static final double FUZZY_TITLE = 3;
+    static final double FUZZY_DESCRIPTION = 6;
+    static final double PREFIX = 4;
+    static final double HITS_PER_COST_UNIT = 100;
+
+    private final SearchProperties searchProperties;
+    private final MeterRegistry meterRegistry;
+
+    public SearchPlan plan(ProductSearchRequest request) {
+        int page = request.getPage() != null ? request.getPage() : 0;
+        int size = request.getSize() != null ? request.getSize() : 20;
+        if (page < 0 || size < 1) {
+            throw new InvalidPageRequestException("Page must be 0 or more and size 1 or more, got page " + page
+                    + " and size " + size);
+        }
+
+        SearchProperties.Cost limits = searchProperties.getCost();
+        ProductQueryFactory.FullTextOptions fullText = ProductQueryFactory.FullTextOptions.FULL;
+        if (!limits.isEnabled()) {
+            return new SearchPlan(request, fullText, cost(request, fullText), List.of());
+        }
+
+        List<String> downgrades = new ArrayList<>();
+        ProductSearchRequest.ProductSearchRequestBuilder effective = request.toBuilder();
+
+        if (size > limits.getMaxSize()) {
+            size = limits.getMaxSize();
+            effective.size(size);
+            downgrades.add(SIZE_CAPPED);
+        }
+        if ((long) page * size + size > limits.getMaxResultWindow()) {
+            throw new SearchCostExceededException("Page " + page + " of size " + size + " is beyond the first "
+                    + limits.getMaxResultWindow() + " results, narrow the search or use POST /products/search/export");
+        }
+
+        String q = truncate(request.getQ(), limits.getMaxQueryLength(), limits.getMaxQueryTerms());
+        if (q != null && !q.equals(request.getQ())) {
+            effective.q(q);
+            downgrades.add(QUERY_TRUNCATED);
+        }
+
+        ProductSearchRequest planned = downgrades.isEmpty() ? request : effective.build();
+        double cost = cost(planned, fullText);
+        if (cost > limits.getMaxCost() && fullText.fuzzyDescription()) {
+            fullText = new ProductQueryFactory.FullTextOptions(true, false, true);
+            cost = cost(planned, fullText);
+            downgrades.add(DESCRIPTION_FUZZINESS_DROPPED);
+        }
+        if (cost > limits.getMaxCost() && fullText.fuzzy()) {
+            fullText = new ProductQueryFactory.FullTextOptions(false, false, true);
+            cost = cost(planned, fullText);
+            downgrades.add(FUZZINESS_DROPPED);
+        }
+        if (cost > limits.getMaxCost() && fullText.prefix()) {
+            fullText = new ProductQueryFactory.FullTextOptions(false, false, false);
+            cost = cost(planned, fullText);
+            downgrades.add(PREFIX_DROPPED);
+        }
+
+        if (!downgrades.isEmpty()) {
+            log.debug("Search downgraded ({}), estimated cost {}: {}", downgrades, cost, request);
+            downgrades.forEach(downgrade -> meterRegistry.counter("product.search.downgrade", "downgrade", downgrade).increment());
+        }
+        return new SearchPlan(planned, fullText, cost, List.copyOf(downgrades));
+    }
+
+    /**
+     * Estimated cost of a request run with these full-text clauses
+     */
+    public static double cost(ProductSearchRequest request, ProductQueryFactory.FullTextOptions fullText) {
+        int page = request.getPage() != null ? request.getPage() : 0;
+        int size = request.getSize() != null ? request.getSize() : 20;
+        double cost = ((double) page * size + size) / HITS_PER_COST_UNIT;
+
+        int terms = terms(request.getQ()).length;
+        if (terms == 0) {
+            return cost;
+        }
+        // Title phrase, then title and description matched fuzzily or on exact terms
+        cost += terms;
+        cost += terms * (fullText.fuzzy() ? FUZZY_TITLE : 1);
+        cost += terms * (fullText.fuzzy() && fullText.fuzzyDescription() ? FUZZY_DESCRIPTION : 1);
+        if (fullText.prefix()) {
+            cost += PREFIX;
+        }
+        return cost;
+    }
+
+    private static String truncate(String q, int maxLength, int maxTerms) {
+        if (q == null || q.isBlank()) {
+            return q;
+        }
+        String truncated = q.strip();
+        if (truncated.length() > maxLength) {
+            int cut = truncated.lastIndexOf(' ', maxLength);
+            truncated = truncated.substring(0, cut > 0 ? cut : maxLength).strip();
+        }
+        String[] terms = terms(truncated);
+        if (terms.length > maxTerms) {
+            truncated = String.join(" ", Arrays.copyOf(terms, maxTerms));
+        }
+        return truncated.equals(q.strip()) ? q : truncated;
+    }
+
+    private static String[] terms(String q) {
+        return q == null || q.isBlank() ? new String[0] : q.strip().split("\\s+");
+    }
+}
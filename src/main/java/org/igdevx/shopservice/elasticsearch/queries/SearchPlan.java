@@ -0,0 +1,25 @@
+package org.igdevx.shopservice.elasticsearch.queries;
+
+import org.igdevx.shopservice.dtos.ProductSearchRequest;
+
+import java.util.List;
+
+/**
+ * A search request as it will be run: with q and size within the limits, the full-text clauses it keeps,
+ * its estimated cost after the downgrades, and the downgrades applied to it
+ */
+public record SearchPlan(
+        ProductSearchRequest request,
+        ProductQueryFactory.FullTextOptions fullText,
+        double cost,
+        List<String> downgrades
+) {
+
+    public int page() {
+        return request.getPage() != null ? request.getPage() : 0;
+    }
+
+    public int size() {
+        return request.getSize() != null ? request.getSize() : 20;
+    }
+}
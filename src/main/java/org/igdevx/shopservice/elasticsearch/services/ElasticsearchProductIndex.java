@@ -0,0 +1,652 @@
+package org.igdevx.shopservice.elasticsearch.services;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.Conflicts;
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch._types.Time;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
+import co.elastic.clients.elasticsearch.core.search.Hit;
+import co.elastic.clients.elasticsearch.indices.IndexState;
+import co.elastic.clients.elasticsearch.indices.get.Feature;
+import co.elastic.clients.elasticsearch.indices.update_aliases.Action;
+import co.elastic.clients.json.JsonData;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.igdevx.shopservice.elasticsearch.documents.ProductDocument;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.IndexOperations;
+import org.springframework.data.elasticsearch.core.document.Document;
+import org.springframework.data.elasticsearch.core.index.Settings;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.data.elasticsearch.core.routing.RoutingResolver;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Writes to the Elasticsearch product index and manages its lifecycle.
+ * <p>
+ * Documents are written with the routing of the live index (see ProducerRouting). "products" is either a
+ * concrete index or an alias over one: ProductIndexService.migrateIndex() copies into a new index with the
+ * configured routing while writes go to both indices, then switches the alias atomically.
+ * <p>
+ * The layout lives in the cluster, not in the instance: the routing of an index is recorded in its mapping _meta,
+ * and a running migration by the "products-migration" alias on its target. Each instance keeps the layout it last
+ * read, read again every search.elasticsearch.layout-refresh-interval and whenever it starts, finishes or aborts
+ * a migration. Writes go through a write alias named after the layout ("products-write" for the index "products",
+ * "products-write-products-20250101120000" while migrating to that index), with require_alias. Starting, finishing
+ * or aborting a migration replaces it in the same atomic alias update, so the next write of an instance holding an
+ * older layout fails on the missing alias: it reads the layout and writes again, with the new routing and mirror.
+ * <p>
+ * Products archived by ProductArchiveService are moved to a separate "products-deleted" index. It has a single
+ * shard, so the producer routing of a search always lands on it, and it is left out of migrations and rebuilds.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ElasticsearchProductIndex {
+
+    private static final DateTimeFormatter INDEX_SUFFIX = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+    private static final String DELETED_SUFFIX = "-deleted";
+    private static final String MIGRATION_SUFFIX = "-migration";
+    private static final String WRITE_SUFFIX = "-write";
+    private static final Time TARGET_SCAN_KEEP_ALIVE = Time.of(t -> t.time("1m"));
+
+    private final ElasticsearchOperations elasticsearchOperations;
+    private final ElasticsearchClient elasticsearchClient;
+    private final ProducerRouting producerRouting;
+
+    /**
+     * Layout last read from the cluster, null until the first read
+     */
+    private volatile Layout layout;
+
+    /**
+     * The concrete live index and its routing, and the migration target when a migration is running
+     */
+    private record Layout(String live, boolean routed, Migration migration) {
+
+        RoutingResolver routing() {
+            return ProducerRouting.forLayout(routed);
+        }
+
+        /**
+         * Alias the writes go through, which only exists while this is the layout of the cluster
+         */
+        String writeAlias() {
+            return migration == null ? live + WRITE_SUFFIX : live + WRITE_SUFFIX + "-" + migration.index();
+        }
+    }
+
+    private record Migration(String index, boolean routed) {
+
+        RoutingResolver routing() {
+            return ProducerRouting.forLayout(routed);
+        }
+    }
+
+    public String name() {
+        return live().getIndexName();
+    }
+
+    /**
+     * Index of the archived products
+     */
+    public String deletedName() {
+        return name() + DELETED_SUFFIX;
+    }
+
+    public void save(ProductDocument document) {
+        saveAll(List.of(document));
+    }
+
+    /**
+     * Index documents into the live index and the migration target, in one bulk request
+     */
+    public void saveAll(List<ProductDocument> documents) {
+        if (documents.isEmpty()) {
+            return;
+        }
+        write(layout -> {
+            List<BulkOperation> operations = new ArrayList<>(indexOperations(documents, layout.writeAlias(), layout.routing()));
+            Migration current = layout.migration();
+            if (current != null) {
+                operations.addAll(indexOperations(documents, migrationAlias(), current.routing()));
+            }
+            bulk(operations);
+        });
+        refresh();
+    }
+
+    /**
+     * Delete a product, archived or not, by id with the routing of its producers (the previous one too when it moved).
+     * Without a known producer, falls back to delete(productId).
+     */
+    public void delete(Long productId, Set<Long> producerIds) {
+        if (producerIds.isEmpty()) {
+            delete(productId);
+            return;
+        }
+        write(layout -> {
+            List<BulkOperation> operations = new ArrayList<>(deletes(layout.writeAlias(), productId, layout.routed(), producerIds));
+            Migration current = layout.migration();
+            if (current != null) {
+                operations.addAll(deletes(migrationAlias(), productId, current.routed(), producerIds));
+            }
+            // A single shard: no routing needed
+            operations.add(deleteOperation(deletedName(), productId, null));
+            bulk(operations);
+        });
+        refresh();
+    }
+
+    /**
+     * Delete a product whose producer is unknown. By query on its id in the live index (and the migration target),
+     * which finds it whatever shard it was routed to, and by id in the deleted index.
+     */
+    public void delete(Long productId) {
+        deleteByQuery(idQuery(productId));
+        deleteArchived(productId);
+    }
+
+    /**
+     * Move archived products from the live index to the deleted index: copied by a reindex on their ids,
+     * then deleted from the live index (and the migration target)
+     */
+    public void moveToDeleted(List<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        Query ids = Query.of(q -> q.ids(i -> i.values(productIds.stream().map(String::valueOf).toList())));
+        ensureDeleted();
+        try {
+            elasticsearchClient.reindex(r -> r
+                    .source(source -> source.index(name()).query(ids))
+                    .dest(dest -> dest.index(deletedName()))
+                    .conflicts(Conflicts.Proceed)
+                    .refresh(true));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to copy " + productIds.size() + " products to " + deletedName(), e);
+        }
+        deleteByQuery(ids);
+    }
+
+    /**
+     * Delete the archived copy of a restored product. Not refreshed: archived products are only listed
+     * by onlyDeleted searches.
+     */
+    public void deleteArchived(Long productId) {
+        bulk(List.of(deleteOperation(deletedName(), productId, null)));
+    }
+
+    /**
+     * Before saving a product that moved to another producer, delete the copies routed to its previous producers,
+     * by id with their routing. Done before the save, as a previous producer may be routed to the same shard.
+     * Nothing to do in an index that is not routed, where the save overwrites the only copy.
+     */
+    public void deleteStaleCopies(Long productId, Set<Long> previousProducerIds) {
+        write(layout -> {
+            List<BulkOperation> operations = new ArrayList<>();
+            if (layout.routed()) {
+                operations.addAll(deletes(layout.writeAlias(), productId, true, previousProducerIds));
+            }
+            Migration current = layout.migration();
+            if (current != null && current.routed()) {
+                operations.addAll(deletes(migrationAlias(), productId, true, previousProducerIds));
+            }
+            if (!operations.isEmpty()) {
+                bulk(operations);
+            }
+        });
+    }
+
+    public void deleteAll() {
+        deleteByQuery(Query.of(q -> q.matchAll(m -> m)));
+    }
+
+    /**
+     * Create the index if it does not exist, with the given routing layout, and adopt the layout of the existing one otherwise.
+     * Also gives an index created before write aliases the write alias of its layout.
+     */
+    public void ensure(boolean routed) {
+        if (!elasticsearchOperations.indexOps(live()).exists()) {
+            log.info("Creating Elasticsearch index {} (routing by producerId: {})", name(), routed);
+            create(live(), routed);
+        }
+        Layout current = readLayout();
+        if (!aliasExists(current.writeAlias())) {
+            log.info("Adding write alias {} to {}", current.writeAlias(), current.live());
+            updateAliases(List.of(addAlias(current.live(), current.writeAlias())), "add write alias " + current.writeAlias());
+        }
+        if (current.routed() != routed) {
+            log.warn("Index {} is {}routed by producerId but search.elasticsearch.routing-by-producer is {}, "
+                            + "call POST /products/index/migrate to rebuild it",
+                    name(), current.routed() ? "" : "not ", routed);
+        }
+        if (current.migration() != null) {
+            log.warn("A migration of {} to {} is running, writes are mirrored to it. If no instance is running it, "
+                    + "call abortMigration or delete {} and the write alias {} of {} to end it", name(),
+                    current.migration().index(), current.migration().index(), current.writeAlias(), current.live());
+        }
+    }
+
+    /**
+     * Read the layout again from the cluster, for the searches of an instance that is not writing
+     */
+    public void refreshLayout() {
+        readLayout();
+    }
+
+    /**
+     * Delete the index (every index behind the alias, and the target of a migration) and create an empty one
+     * with the given routing layout
+     */
+    public void recreate(boolean routed) {
+        List<String> indices = concreteIndices(name(), migrationAlias());
+        if (!indices.isEmpty()) {
+            try {
+                elasticsearchClient.indices().delete(d -> d.index(indices));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to delete index " + indices, e);
+            }
+        }
+        create(live(), routed);
+        Layout created = readLayout();
+        updateAliases(List.of(addAlias(created.live(), created.writeAlias())), "add write alias " + created.writeAlias());
+    }
+
+    /**
+     * Create the index a migration copies into and mark it with the migration alias. The write alias is replaced
+     * in the same alias update, so every instance mirrors its writes to the target from its next write on.
+     * Only one migration runs at a time in the cluster: the update fails if another instance changed the layout.
+     */
+    public String beginMigration(boolean routed) {
+        Layout current = readLayout();
+        if (current.migration() != null) {
+            throw new IllegalStateException("An index migration is already running to " + current.migration().index());
+        }
+        IndexCoordinates target = IndexCoordinates.of(name() + "-" + LocalDateTime.now().format(INDEX_SUFFIX));
+        create(target, routed);
+        Layout migrating = new Layout(current.live(), current.routed(), new Migration(target.getIndexName(), routed));
+        try {
+            updateAliases(List.of(
+                    removeAlias(current.live(), current.writeAlias()),
+                    addAlias(current.live(), migrating.writeAlias()),
+                    addAlias(target.getIndexName(), migrationAlias())), "mark " + target.getIndexName() + " as the migration target");
+        } catch (RuntimeException e) {
+            elasticsearchOperations.indexOps(target).delete();
+            throw e;
+        }
+        readLayout();
+        log.info("Migrating index {} to {} (routing by producerId: {})", name(), target.getIndexName(), routed);
+        return target.getIndexName();
+    }
+
+    /**
+     * Copy documents into the migration target only
+     */
+    public void copy(List<ProductDocument> documents) {
+        Migration current = requireMigration();
+        if (!documents.isEmpty()) {
+            bulk(indexOperations(documents, migrationAlias(), current.routing()));
+        }
+    }
+
+    /**
+     * Walk the ids of the migration target, batchSize at a time, through a point in time
+     */
+    public void forEachTargetIds(int batchSize, Consumer<List<Long>> action) {
+        Migration current = requireMigration();
+        String pointInTimeId;
+        try {
+            pointInTimeId = elasticsearchClient.openPointInTime(o -> o
+                    .index(current.index())
+                    .keepAlive(TARGET_SCAN_KEEP_ALIVE)).id();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open a point in time on " + current.index(), e);
+        }
+
+        try {
+            List<FieldValue> searchAfter = null;
+            List<Hit<Void>> hits;
+            do {
+                String pitId = pointInTimeId;
+                List<FieldValue> after = searchAfter;
+                SearchResponse<Void> response = elasticsearchClient.search(s -> {
+                    s.pit(p -> p.id(pitId).keepAlive(TARGET_SCAN_KEEP_ALIVE))
+                            .size(batchSize)
+                            .source(source -> source.fetch(false))
+                            .sort(sort -> sort.field(f -> f.field("_shard_doc")))
+                            .trackTotalHits(t -> t.enabled(false));
+                    return after == null ? s : s.searchAfter(after);
+                }, Void.class);
+                if (response.pitId() != null) {
+                    pointInTimeId = response.pitId();
+                }
+                hits = response.hits().hits();
+                if (!hits.isEmpty()) {
+                    action.accept(hits.stream().map(hit -> Long.valueOf(hit.id())).toList());
+                    searchAfter = hits.get(hits.size() - 1).sort();
+                }
+            } while (hits.size() == batchSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read the ids of " + current.index(), e);
+        } finally {
+            closePointInTime(pointInTimeId);
+        }
+    }
+
+    /**
+     * Delete products from the migration target only, by id whatever their routing
+     */
+    public void deleteFromTarget(List<Long> productIds) {
+        Migration current = requireMigration();
+        if (productIds.isEmpty()) {
+            return;
+        }
+        try {
+            elasticsearchClient.deleteByQuery(d -> d
+                    .index(migrationAlias())
+                    .query(q -> q.ids(i -> i.values(productIds.stream().map(String::valueOf).toList())))
+                    .conflicts(Conflicts.Proceed)
+                    .refresh(true));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to delete from " + current.index(), e);
+        }
+    }
+
+    public long targetCount() {
+        Migration current = requireMigration();
+        elasticsearchOperations.indexOps(IndexCoordinates.of(current.index())).refresh();
+        try {
+            return elasticsearchClient.count(c -> c.index(current.index())).count();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to count " + current.index(), e);
+        }
+    }
+
+    /**
+     * Point the alias at the migration target, drop the previous index with its write alias, and replace the
+     * migration alias with the write alias of the new layout, in one atomic alias update
+     */
+    public void finishMigration() {
+        Layout current = readLayout();
+        Migration migration = current.migration();
+        if (migration == null) {
+            throw new IllegalStateException("No index migration is running");
+        }
+        Layout finished = new Layout(migration.index(), migration.routed(), null);
+        elasticsearchOperations.indexOps(IndexCoordinates.of(migration.index())).refresh();
+        updateAliases(List.of(
+                Action.of(a -> a.removeIndex(r -> r.index(current.live()))),
+                addAlias(migration.index(), name()),
+                removeAlias(migration.index(), migrationAlias()),
+                addAlias(migration.index(), finished.writeAlias())), "switch alias " + name() + " to " + migration.index());
+        readLayout();
+        log.info("Alias {} now points to {}", name(), migration.index());
+    }
+
+    /**
+     * Give the live index back the write alias it had before the migration, then delete the target of the
+     * failed migration, and its migration alias with it
+     */
+    public void abortMigration(String target) {
+        log.warn("Aborting migration, deleting {}", target);
+        Layout current = readLayout();
+        if (current.migration() != null && current.migration().index().equals(target)) {
+            Layout restored = new Layout(current.live(), current.routed(), null);
+            updateAliases(List.of(
+                    removeAlias(current.live(), current.writeAlias()),
+                    addAlias(current.live(), restored.writeAlias())), "restore write alias " + restored.writeAlias());
+        }
+        elasticsearchOperations.indexOps(IndexCoordinates.of(target)).delete();
+        readLayout();
+    }
+
+    private void closePointInTime(String pointInTimeId) {
+        try {
+            elasticsearchClient.closePointInTime(c -> c.id(pointInTimeId));
+        } catch (IOException | RuntimeException e) {
+            // It expires after the keep-alive anyway
+            log.warn("Failed to close point in time after reading the migration target: {}", e.getMessage());
+        }
+    }
+
+    private void create(IndexCoordinates coordinates, boolean routed) {
+        IndexOperations productOps = elasticsearchOperations.indexOps(ProductDocument.class);
+        Document mapping = productOps.createMapping();
+        if (routed) {
+            mapping.put("_meta", Map.of(ProducerRouting.META_KEY, ProducerRouting.META_VALUE));
+            // A write without routing is a mistake in a routed index: reject it rather than place it by id
+            mapping.put("_routing", Map.of("required", true));
+        }
+        elasticsearchOperations.indexOps(coordinates).create(productOps.createSettings(), mapping);
+    }
+
+    private void ensureDeleted() {
+        IndexCoordinates deleted = IndexCoordinates.of(deletedName());
+        if (elasticsearchOperations.indexOps(deleted).exists()) {
+            return;
+        }
+        IndexOperations productOps = elasticsearchOperations.indexOps(ProductDocument.class);
+        Settings settings = productOps.createSettings();
+        // Whatever the routing of a document or a search, there is only one shard to go to
+        settings.put("number_of_shards", 1);
+        log.info("Creating Elasticsearch index {} for archived products", deletedName());
+        elasticsearchOperations.indexOps(deleted).create(settings, productOps.createMapping());
+    }
+
+    /**
+     * Layout of the cluster as last read, read now if it never was
+     */
+    private Layout layout() {
+        Layout current = layout;
+        return current != null ? current : readLayout();
+    }
+
+    /**
+     * Read the layout from the cluster: the indices behind the live alias and the migration alias, with their
+     * mapping _meta. Also updates ProducerRouting for the searches.
+     */
+    private Layout readLayout() {
+        Map<String, IndexState> indices;
+        try {
+            indices = elasticsearchClient.indices().get(g -> g
+                    .index(name(), migrationAlias())
+                    .features(Feature.Aliases, Feature.Mappings)
+                    .ignoreUnavailable(true)
+                    .allowNoIndices(true)).result();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read the layout of " + name(), e);
+        }
+
+        String live = name();
+        boolean routed = false;
+        Migration migration = null;
+        for (Map.Entry<String, IndexState> index : indices.entrySet()) {
+            if (index.getValue().aliases().containsKey(migrationAlias())) {
+                migration = new Migration(index.getKey(), routed(index.getValue()));
+            } else {
+                live = index.getKey();
+                routed = routed(index.getValue());
+            }
+        }
+        Layout read = new Layout(live, routed, migration);
+        layout = read;
+        producerRouting.setIndexRouted(routed);
+        return read;
+    }
+
+    /**
+     * Run a write with the layout last read. When it fails and the layout has changed since (its write alias is
+     * gone, or a routed index rejected a write without routing), it is run again once with the new layout.
+     */
+    private void write(Consumer<Layout> operation) {
+        Layout current = layout();
+        try {
+            operation.accept(current);
+        } catch (RuntimeException e) {
+            Layout changed;
+            try {
+                changed = readLayout();
+            } catch (RuntimeException readFailure) {
+                e.addSuppressed(readFailure);
+                throw e;
+            }
+            if (changed.equals(current)) {
+                throw e;
+            }
+            log.info("Layout of {} changed from {} to {}, writing again", name(), current.writeAlias(), changed.writeAlias());
+            operation.accept(changed);
+        }
+    }
+
+    private static boolean routed(IndexState index) {
+        if (index.mappings() == null) {
+            return false;
+        }
+        JsonData value = index.mappings().meta().get(ProducerRouting.META_KEY);
+        return value != null && ProducerRouting.META_VALUE.equals(value.to(String.class));
+    }
+
+    private List<String> concreteIndices(String... names) {
+        try {
+            Set<String> indices = elasticsearchClient.indices()
+                    .get(g -> g.index(List.of(names)).ignoreUnavailable(true).allowNoIndices(true))
+                    .result().keySet();
+            return new ArrayList<>(indices);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to resolve index " + List.of(names), e);
+        }
+    }
+
+    private boolean aliasExists(String alias) {
+        try {
+            return elasticsearchClient.indices().existsAlias(e -> e.name(alias)).value();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to look up alias " + alias, e);
+        }
+    }
+
+    private void updateAliases(List<Action> actions, String description) {
+        try {
+            elasticsearchClient.indices().updateAliases(u -> u.actions(actions));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to " + description, e);
+        }
+    }
+
+    private static Action addAlias(String index, String alias) {
+        return Action.of(a -> a.add(add -> add.index(index).alias(alias)));
+    }
+
+    private static Action removeAlias(String index, String alias) {
+        return Action.of(a -> a.remove(remove -> remove.index(index).alias(alias).mustExist(true)));
+    }
+
+    /**
+     * Delete by query from the live index and the migration target
+     */
+    private void deleteByQuery(Query query) {
+        write(layout -> {
+            List<String> indices = layout.migration() == null
+                    ? List.of(layout.writeAlias())
+                    : List.of(layout.writeAlias(), migrationAlias());
+            try {
+                elasticsearchClient.deleteByQuery(d -> d
+                        .index(indices)
+                        .query(query)
+                        .conflicts(Conflicts.Proceed)
+                        .refresh(true));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to delete from " + indices, e);
+            }
+        });
+    }
+
+    private void bulk(List<BulkOperation> operations) {
+        BulkResponse response;
+        try {
+            response = elasticsearchClient.bulk(b -> b.operations(operations));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write to " + name(), e);
+        }
+        List<String> failures = response.items().stream()
+                .filter(item -> item.error() != null)
+                // The deleted index only exists once products have been archived
+                .filter(item -> !deletedName().equals(item.index()) || !"index_not_found_exception".equals(item.error().type()))
+                .map(item -> item.index() + "/" + item.id() + ": " + item.error().reason())
+                .toList();
+        if (!failures.isEmpty()) {
+            throw new IllegalStateException("Failed to write " + failures);
+        }
+    }
+
+    /**
+     * Index operations through an alias, which fail instead of creating an index when the alias is gone
+     */
+    private List<BulkOperation> indexOperations(List<ProductDocument> documents, String alias, RoutingResolver routing) {
+        return documents.stream()
+                .map(document -> {
+                    Document source = elasticsearchOperations.getElasticsearchConverter().mapObject(document);
+                    return BulkOperation.of(o -> o.index(i -> i
+                            .index(alias)
+                            .id(document.getId().toString())
+                            .routing(routing.getRouting(document))
+                            .requireAlias(true)
+                            .document(source)));
+                })
+                .toList();
+    }
+
+    /**
+     * Deletes by id from an index, with the routing of each producer when the index is routed
+     */
+    private static List<BulkOperation> deletes(String index, Long productId, boolean routed, Set<Long> producerIds) {
+        if (!routed) {
+            return List.of(deleteOperation(index, productId, null));
+        }
+        return producerIds.stream()
+                .map(producerId -> deleteOperation(index, productId, producerId.toString()))
+                .toList();
+    }
+
+    private static BulkOperation deleteOperation(String index, Long productId, String routing) {
+        return BulkOperation.of(o -> o.delete(d -> d.index(index).id(productId.toString()).routing(routing)));
+    }
+
+    private Migration requireMigration() {
+        Migration current = layout().migration();
+        if (current == null) {
+            throw new IllegalStateException("No index migration is running");
+        }
+        return current;
+    }
+
+    private void refresh() {
+        elasticsearchOperations.indexOps(live()).refresh();
+    }
+
+    private String migrationAlias() {
+        return name() + MIGRATION_SUFFIX;
+    }
+
+    private IndexCoordinates live() {
+        return elasticsearchOperations.getIndexCoordinatesFor(ProductDocument.class);
+    }
+
+    private static Query idQuery(Long productId) {
+        return Query.of(q -> q.ids(i -> i.values(productId.toString())));
+    }
+}
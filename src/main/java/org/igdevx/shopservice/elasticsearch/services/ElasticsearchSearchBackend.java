@@ -0,0 +1,50 @@
+package org.igdevx.shopservice.elasticsearch.services;
+
+import lombok.RequiredArgsConstructor;
+import org.igdevx.shopservice.dtos.ProductSearchResponse;
+import org.igdevx.shopservice.dtos.ProductSuggestion;
+import org.igdevx.shopservice.elasticsearch.documents.ProductDocument;
+import org.igdevx.shopservice.elasticsearch.mappers.ProductDocumentResponseMapper;
+import org.igdevx.shopservice.elasticsearch.queries.SearchPlan;
+import org.igdevx.shopservice.search.SearchProfiler;
+import org.igdevx.shopservice.search.SearchBackend;
+import org.igdevx.shopservice.search.SearchBackendType;
+import org.springframework.data.elasticsearch.core.SearchHits;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * SearchBackend served from the Elasticsearch "products" index
+ */
+@Component
+@RequiredArgsConstructor
+public class ElasticsearchSearchBackend implements SearchBackend {
+
+    private final ProductSearchService productSearchService;
+    private final ProductDocumentResponseMapper documentResponseMapper;
+    private final SearchProfiler searchProfiler;
+
+    @Override
+    public SearchBackendType type() {
+        return SearchBackendType.ELASTICSEARCH;
+    }
+
+    @Override
+    public ProductSearchResponse search(SearchPlan plan) {
+        SearchHits<ProductDocument> hits = productSearchService.searchProducts(plan);
+        return searchProfiler.time(SearchProfiler.MAPPING,
+                () -> documentResponseMapper.toSearchResponse(hits, plan.page(), plan.size()));
+    }
+
+    @Override
+    public ProductSearchResponse searchByProducer(Long producerId, Long shelfId, Boolean onlyDeleted, int page, int size) {
+        SearchHits<ProductDocument> hits = productSearchService.searchProductsByProducer(producerId, shelfId, onlyDeleted, page, size);
+        return searchProfiler.time(SearchProfiler.MAPPING, () -> documentResponseMapper.toSearchResponse(hits, page, size));
+    }
+
+    @Override
+    public List<ProductSuggestion> suggest(String query, int size) {
+        return productSearchService.getSuggestions(query, size);
+    }
+}
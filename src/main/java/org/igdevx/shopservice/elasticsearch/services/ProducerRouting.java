@@ -0,0 +1,82 @@
+package org.igdevx.shopservice.elasticsearch.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.igdevx.shopservice.elasticsearch.documents.ProductDocument;
+import org.springframework.data.elasticsearch.core.routing.RoutingResolver;
+import org.springframework.stereotype.Component;
+
+/**
+ * Routing of the live product index. When the index was built with search.elasticsearch.routing-by-producer,
+ * documents are routed by producerId and producer-scoped searches only hit the shard of that producer.
+ * <p>
+ * Follows the layout of the index actually in use (recorded in its mapping _meta), not the setting:
+ * switching the setting only takes effect once ProductIndexService.migrateIndex() has rebuilt the index.
+ * ElasticsearchProductIndex sets it each time it reads the layout from the cluster: every
+ * search.elasticsearch.layout-refresh-interval, when it starts, finishes or aborts a migration, and when a write
+ * fails because the write alias of its layout is gone. So it also follows a migration run by another instance.
+ */
+@Component
+@Slf4j
+public class ProducerRouting implements RoutingResolver {
+
+    public static final String META_KEY = "routing";
+    public static final String META_VALUE = "producerId";
+
+    private volatile boolean indexRouted;
+
+    public boolean isIndexRouted() {
+        return indexRouted;
+    }
+
+    /**
+     * Set from the mapping _meta of the live index, each time it is read from the cluster
+     */
+    public void setIndexRouted(boolean indexRouted) {
+        if (this.indexRouted != indexRouted) {
+            log.info("Product index routing by producerId is now {}", indexRouted ? "on" : "off");
+        }
+        this.indexRouted = indexRouted;
+    }
+
+    /**
+     * Routing value for a producer-scoped search, null to search every shard
+     */
+    public String searchRoute(Long producerId) {
+        return indexRouted ? route(producerId) : null;
+    }
+
+    @Override
+    public String getRouting() {
+        return null;
+    }
+
+    @Override
+    public <T> String getRouting(T bean) {
+        return indexRouted ? routeOf(bean) : null;
+    }
+
+    /**
+     * Resolver for an index built with the given layout, used while migrating to a new index
+     */
+    public static RoutingResolver forLayout(boolean routed) {
+        return new RoutingResolver() {
+            @Override
+            public String getRouting() {
+                return null;
+            }
+
+            @Override
+            public <T> String getRouting(T bean) {
+                return routed ? routeOf(bean) : null;
+            }
+        };
+    }
+
+    private static String routeOf(Object bean) {
+        return bean instanceof ProductDocument document ? route(document.getProducerId()) : null;
+    }
+
+    private static String route(Long producerId) {
+        return producerId != null ? producerId.toString() : null;
+    }
+}
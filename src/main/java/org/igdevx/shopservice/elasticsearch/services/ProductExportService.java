@@ -0,0 +1,122 @@
+package org.igdevx.shopservice.elasticsearch.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.igdevx.shopservice.dtos.ProductSearchRequest;
+import org.igdevx.shopservice.elasticsearch.documents.ProductDocument;
+import org.igdevx.shopservice.elasticsearch.mappers.ProductDocumentResponseMapper;
+import org.igdevx.shopservice.elasticsearch.queries.ProductQueryFactory;
+import org.igdevx.shopservice.search.SearchProperties;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.client.elc.NativeQueryBuilder;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchHits;
+import org.springframework.data.elasticsearch.core.query.Query;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Export of every product matching a search request as NDJSON, one ProductResponse per line.
+ * <p>
+ * Reads the index in batches of search.export.batch-size through a point in time and search_after, so the export
+ * sees one consistent snapshot and only one batch is held in memory whatever the size of the result set.
+ * Each batch is flushed to the client before the next one is read. The page and size of the request are ignored.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductExportService {
+
+    private static final byte NEWLINE = '\n';
+
+    private final ElasticsearchOperations elasticsearchOperations;
+    private final ProductQueryFactory queryFactory;
+    private final ProductDocumentResponseMapper documentResponseMapper;
+    private final ObjectMapper objectMapper;
+    private final SearchProperties searchProperties;
+
+    /**
+     * Open the point in time now, so that an unavailable index fails the request before the response starts,
+     * and return the body that streams the export and closes it. The id closed is the latest one Elasticsearch
+     * returned, even when the export fails halfway.
+     */
+    public StreamingResponseBody export(ProductSearchRequest request) {
+        if (!searchProperties.usesElasticsearch()) {
+            throw new IllegalStateException("Product exports need the Elasticsearch search backend");
+        }
+        Duration keepAlive = searchProperties.getExport().getKeepAlive();
+        String pointInTimeId = elasticsearchOperations.openPointInTime(
+                elasticsearchOperations.getIndexCoordinatesFor(ProductDocument.class), keepAlive);
+        log.info("Exporting products for request: {}", request);
+
+        return out -> {
+            AtomicReference<String> latestId = new AtomicReference<>(pointInTimeId);
+            try {
+                write(request, latestId, keepAlive, out);
+            } finally {
+                close(latestId.get());
+            }
+        };
+    }
+
+    /**
+     * Stream every batch, keeping latestId on the point in time id of the last response
+     */
+    private void write(ProductSearchRequest request, AtomicReference<String> latestId, Duration keepAlive,
+                       OutputStream out) throws IOException {
+        boolean scored = request.getQ() != null && !request.getQ().isBlank();
+        int batchSize = searchProperties.getExport().getBatchSize();
+        long start = System.nanoTime();
+        long exported = 0;
+        List<Object> searchAfter = null;
+
+        while (true) {
+            NativeQuery query = new NativeQueryBuilder()
+                    .withQuery(queryFactory.searchQuery(request))
+                    // The point in time adds the _shard_doc tiebreaker, so the sort values of a hit are unique
+                    .withSort(queryFactory.sortFor(request.getSort(), scored))
+                    .withPageable(PageRequest.of(0, batchSize))
+                    .withPointInTime(new Query.PointInTime(latestId.get(), keepAlive))
+                    .withSearchAfter(searchAfter)
+                    .withTrackTotalHits(false)
+                    .build();
+            SearchHits<ProductDocument> hits = elasticsearchOperations.search(query, ProductDocument.class);
+            // Elasticsearch may return a new id for the point in time, the latest one has to be used and closed
+            if (hits.getPointInTimeId() != null) {
+                latestId.set(hits.getPointInTimeId());
+            }
+
+            for (SearchHit<ProductDocument> hit : hits.getSearchHits()) {
+                out.write(objectMapper.writeValueAsBytes(documentResponseMapper.toProductResponse(hit.getContent())));
+                out.write(NEWLINE);
+            }
+            out.flush();
+            exported += hits.getSearchHits().size();
+
+            if (hits.getSearchHits().size() < batchSize) {
+                break;
+            }
+            searchAfter = hits.getSearchHit(hits.getSearchHits().size() - 1).getSortValues();
+        }
+
+        log.info("Exported {} products in {} ms", exported, Duration.ofNanos(System.nanoTime() - start).toMillis());
+    }
+
+    private void close(String pointInTimeId) {
+        try {
+            elasticsearchOperations.closePointInTime(pointInTimeId);
+        } catch (RuntimeException e) {
+            // It expires after the keep-alive anyway
+            log.warn("Failed to close point in time after export: {}", e.getMessage());
+        }
+    }
+}
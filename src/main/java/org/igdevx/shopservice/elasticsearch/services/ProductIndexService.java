@@ -1,13 +1,26 @@
 package org.igdevx.shopservice.elasticsearch.services;
 
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.indices.IndicesStatsResponse;
+import co.elastic.clients.elasticsearch.indices.stats.IndexStats;
+import co.elastic.clients.json.JsonpUtils;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.igdevx.shopservice.catalog.ProductCatalogEngine;
+import org.igdevx.shopservice.dtos.IndexStatsResponse;
 import org.igdevx.shopservice.elasticsearch.documents.ProductDocument;
 import org.igdevx.shopservice.elasticsearch.mappers.ProductDocumentMapper;
 import org.igdevx.shopservice.elasticsearch.repositories.ProductSearchRepository;
 import org.igdevx.shopservice.exceptions.ResourceNotFoundException;
+import org.igdevx.shopservice.lucene.LuceneProductIndex;
 import org.igdevx.shopservice.models.Product;
 import org.igdevx.shopservice.repositories.ProductRepository;
+import org.igdevx.shopservice.search.ProducerPageCache;
+import org.igdevx.shopservice.search.SearchProperties;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -15,50 +28,156 @@ import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
 import org.springframework.retry.annotation.Backoff;
 import org.springframework.retry.annotation.Retryable;
 import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
+/**
+ * Keeps the product search index in sync: the Elasticsearch index, or the embedded Lucene index
+ * when search.backend=lucene (nothing with the Postgres backend), plus the in-heap ProductCatalogEngine
+ * when search.catalog.enabled.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ProductIndexService {
 
+    private static final int BULK_INDEX_BATCH = 500;
+
     private final ProductRepository productRepository;
     private final ProductSearchRepository productSearchRepository;
     private final ProductDocumentMapper documentMapper;
     private final ElasticsearchOperations elasticsearchOperations;
+    private final SearchProperties searchProperties;
+    private final ObjectProvider<LuceneProductIndex> luceneProductIndex;
+    private final ProductCatalogEngine productCatalog;
+    private final ProducerPageCache producerPageCache;
+    private final ElasticsearchClient elasticsearchClient;
+    private final ObjectMapper objectMapper;
+    private final ElasticsearchProductIndex elasticsearchIndex;
 
     /**
      * Index a single product
      */
     public void indexProduct(Product product) {
+        if (!indexingEnabled()) {
+            return;
+        }
         log.debug("Indexing product with id: {}", product.getId());
-        ProductDocument document = documentMapper.toDocument(product);
-        productSearchRepository.save(document);
+        saveDocument(documentMapper.toDocument(product));
         log.info("Successfully indexed product with id: {}", product.getId());
     }
 
+    /**
+     * Index many products in one bulk write (bulk imports and updates), then drop the cached pages of their producers
+     */
+    public void indexProducts(List<Product> products) {
+        if (products.isEmpty()) {
+            return;
+        }
+        try {
+            if (indexingEnabled()) {
+                saveDocuments(toDocuments(products));
+                log.info("Successfully indexed {} products", products.size());
+            }
+        } finally {
+            producerPageCache.invalidate(products.stream().map(Product::getProducerId).collect(Collectors.toSet()));
+        }
+    }
+
+    /**
+     * Index products by ID, deleted or not, BULK_INDEX_BATCH at a time (products changed by a bulk statement).
+     * Not transactional on purpose: each batch is loaded with its associations in its own short transaction
+     * and then dropped, so memory does not grow with the number of products.
+     */
+    public void indexProductsById(List<Long> productIds) {
+        for (int from = 0; from < productIds.size(); from += BULK_INDEX_BATCH) {
+            List<Long> batch = productIds.subList(from, Math.min(from + BULK_INDEX_BATCH, productIds.size()));
+            indexProducts(productRepository.findAllByIdInIncludingDeleted(batch));
+        }
+    }
+
     /**
      * Index a product by ID
      */
     @Transactional(readOnly = true)
     public void indexProductById(Long productId) {
+        indexProductById(productId, Set.of());
+    }
+
+    /**
+     * Index a product by ID, knowing the producers it belonged to: when it moved to another producer,
+     * the copy routed to the previous producer is deleted first
+     */
+    @Transactional(readOnly = true)
+    public void indexProductById(Long productId, Set<Long> producerIds) {
+        if (!indexingEnabled()) {
+            return;
+        }
         log.debug("Indexing product by id: {}", productId);
         Product product = productRepository.findByIdIncludingDeleted(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + productId));
+        Set<Long> previousProducerIds = producerIds.stream()
+                .filter(id -> !id.equals(product.getProducerId()))
+                .collect(Collectors.toSet());
+        if (searchProperties.usesElasticsearch() && !previousProducerIds.isEmpty()) {
+            elasticsearchIndex.deleteStaleCopies(productId, previousProducerIds);
+        }
         indexProduct(product);
     }
 
+    /**
+     * Index a product moved back from the archive, and delete its copy from the deleted index
+     */
+    @Transactional(readOnly = true)
+    public void indexRestoredProduct(Long productId, Set<Long> producerIds) {
+        indexProductById(productId, producerIds);
+        if (searchProperties.usesElasticsearch()) {
+            elasticsearchIndex.deleteArchived(productId);
+        }
+    }
+
+    /**
+     * Take products moved to the archive out of the catalog, and move their documents to the deleted index.
+     * The Lucene index keeps them as deleted documents.
+     */
+    public void archiveDocuments(List<Long> productIds) {
+        if (catalogEnabled()) {
+            productIds.forEach(productCatalog::remove);
+        }
+        if (searchProperties.usesElasticsearch()) {
+            elasticsearchIndex.moveToDeleted(productIds);
+        }
+        log.info("Moved {} archived products out of the live index", productIds.size());
+    }
+
     /**
      * Delete a product from index
      */
     public void deleteFromIndex(Long productId) {
+        deleteFromIndex(productId, Set.of());
+    }
+
+    /**
+     * Delete a product from index, knowing its producers: the Elasticsearch documents are then deleted by id
+     * with their routing rather than by query
+     */
+    public void deleteFromIndex(Long productId, Set<Long> producerIds) {
+        if (!indexingEnabled()) {
+            return;
+        }
         log.debug("Deleting product from index with id: {}", productId);
-        productSearchRepository.deleteById(productId);
+        deleteDocument(productId, producerIds);
         log.info("Successfully deleted product from index with id: {}", productId);
     }
 
@@ -67,10 +186,14 @@ public class ProductIndexService {
      */
     @Transactional(readOnly = true)
     public void reindexAll() {
+        if (!indexingEnabled()) {
+            log.info("Search backend is {} and the catalog is disabled, skipping reindexation", searchProperties.getBackend());
+            return;
+        }
         log.info("Starting full reindexation of all products");
 
         // Clear existing index
-        productSearchRepository.deleteAll();
+        clearDocuments();
         log.debug("Cleared existing index");
 
         // Get all products (including deleted for complete sync)
@@ -82,7 +205,8 @@ public class ProductIndexService {
                 .map(documentMapper::toDocument)
                 .collect(Collectors.toList());
 
-        productSearchRepository.saveAll(documents);
+        saveDocuments(documents);
+        markCatalogReady();
 
         log.info("Successfully reindexed {} products", products.size());
     }
@@ -92,7 +216,8 @@ public class ProductIndexService {
      */
     public void clearIndex() {
         log.info("Clearing all products from index");
-        productSearchRepository.deleteAll();
+        clearDocuments();
+        producerPageCache.clear();
         log.info("Successfully cleared index");
     }
 
@@ -102,33 +227,148 @@ public class ProductIndexService {
      */
     public void recreateIndex() {
         log.info("Recreating Elasticsearch index with new mapping");
+        elasticsearchIndex.recreate(routingByProducer());
+        producerPageCache.clear();
+        log.info("Successfully recreated index with new mapping");
+    }
 
-        var indexOps = elasticsearchOperations.indexOps(ProductDocument.class);
+    /**
+     * Create the index with its settings and mapping if it does not exist yet.
+     * ProductDocument has createIndex = false so that startup does not need a reachable node.
+     */
+    public void ensureIndex() {
+        elasticsearchIndex.ensure(routingByProducer());
+    }
 
-        // Delete existing index if it exists
-        if (indexOps.exists()) {
-            log.debug("Deleting existing index");
-            indexOps.delete();
+    /**
+     * Rebuild the Elasticsearch index without downtime, with the routing of search.elasticsearch.routing-by-producer:
+     * copy every product into a new index while live writes go to both, catch up the products changed
+     * during the copy, drop from the new index the products hard-deleted or archived during the copy (gone from
+     * the product table, they are not in the catch-up), then switch the "products" alias to the new index and
+     * drop the old one.
+     * Runs without a surrounding transaction so that the catch-up reads fresh rows.
+     */
+    public long migrateIndex() {
+        if (!searchProperties.usesElasticsearch()) {
+            throw new IllegalStateException("Search backend is " + searchProperties.getBackend() + ", there is no Elasticsearch index to migrate");
         }
+        boolean routed = routingByProducer();
+        LocalDateTime start = LocalDateTime.now();
+        String target = elasticsearchIndex.beginMigration(routed);
 
-        // Create new index
-        log.debug("Creating new index");
-        indexOps.create();
+        try {
+            long total = productRepository.count();
+            long[] progress = {0};
+            long copied = forEachBatch(products -> {
+                elasticsearchIndex.copy(toDocuments(products));
+                progress[0] += products.size();
+                log.info("Copied {}/{} products into {}", progress[0], total, target);
+            });
+
+            // Rows committed during the copy may have been read before their change reached the new index
+            List<Product> changed = productRepository.findAllUpdatedSince(start);
+            elasticsearchIndex.copy(toDocuments(changed));
+
+            // A product copied before it was hard-deleted or archived has no row left to catch up: its delete may
+            // have reached the new index first
+            long[] dropped = {0};
+            elasticsearchIndex.forEachTargetIds(BULK_INDEX_BATCH, ids -> {
+                Set<Long> existing = new HashSet<>(productRepository.findExistingIds(ids));
+                List<Long> gone = ids.stream().filter(id -> !existing.contains(id)).toList();
+                elasticsearchIndex.deleteFromTarget(gone);
+                dropped[0] += gone.size();
+            });
+
+            long indexed = elasticsearchIndex.targetCount();
+            long expected = productRepository.count();
+            if (indexed != expected) {
+                log.warn("{} holds {} documents for {} products", target, indexed, expected);
+            }
 
-        // Put mapping
-        log.debug("Applying new mapping");
-        indexOps.putMapping(indexOps.createMapping());
+            elasticsearchIndex.finishMigration();
+            producerPageCache.clear();
+            log.info("Migrated {} products to {}, {} caught up, {} dropped", copied, target, changed.size(), dropped[0]);
+            return copied;
+        } catch (RuntimeException e) {
+            elasticsearchIndex.abortMigration(target);
+            throw e;
+        }
+    }
 
-        log.info("Successfully recreated index with new mapping");
+    /**
+     * Re-read the layout of the live index from the cluster, for the producer searches of an instance that is not
+     * writing while another instance migrates the index (writes re-read it when their write alias is gone)
+     */
+    @Scheduled(fixedDelayString = "${search.elasticsearch.layout-refresh-interval:30s}",
+            initialDelayString = "${search.elasticsearch.layout-refresh-interval:30s}")
+    public void refreshIndexLayout() {
+        if (!searchProperties.usesElasticsearch()) {
+            return;
+        }
+        try {
+            elasticsearchIndex.refreshLayout();
+        } catch (RuntimeException e) {
+            log.warn("Failed to read the layout of the product index: {}", e.getMessage());
+        }
     }
 
     /**
      * Check if index exists and has documents
      */
     public long getIndexedProductsCount() {
+        if (searchProperties.usesLucene()) {
+            return luceneProductIndex.getObject().count();
+        }
         return productSearchRepository.count();
     }
 
+    /**
+     * Document count and on-disk size of the search index, to compare mappings before and after a change.
+     * With perField, adds the Elasticsearch _disk_usage breakdown, which reads the whole index.
+     */
+    public IndexStatsResponse indexStats(boolean perField) {
+        if (searchProperties.usesLucene()) {
+            LuceneProductIndex index = luceneProductIndex.getObject();
+            return stats(searchProperties.getLucene().getPath(), index.count(), index.sizeInBytes(), null);
+        }
+
+        String index = elasticsearchOperations.getIndexCoordinatesFor(ProductDocument.class).getIndexName();
+        try {
+            elasticsearchClient.indices().flush(f -> f.index(index));
+            IndicesStatsResponse response = elasticsearchClient.indices().stats(s -> s.index(index).metric("docs", "store"));
+            IndexStats primaries = response.all().primaries();
+
+            // Keyed by the concrete index name, which differs from "products" once it is an alias
+            JsonNode fields = null;
+            if (perField) {
+                JsonNode usage = objectMapper.readTree(JsonpUtils.toJsonString(
+                        elasticsearchClient.indices().diskUsage(d -> d.index(index).runExpensiveTasks(true)).valueBody(),
+                        elasticsearchClient._jsonpMapper()));
+                fields = usage.properties().stream()
+                        .filter(entry -> !entry.getKey().startsWith("_"))
+                        .map(entry -> entry.getValue().path("fields"))
+                        .findFirst()
+                        .orElse(null);
+            }
+
+            return stats(index, primaries.docs().count(), primaries.store().sizeInBytes(), fields);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read index stats", e);
+        }
+    }
+
+    private IndexStatsResponse stats(String index, long documentCount, long sizeInBytes,
+                                     JsonNode fields) {
+        return IndexStatsResponse.builder()
+                .backend(searchProperties.getBackend().name())
+                .index(index)
+                .documentCount(documentCount)
+                .storeSizeBytes(sizeInBytes)
+                .bytesPerDocument(documentCount > 0 ? sizeInBytes / documentCount : 0)
+                .fields(fields)
+                .build();
+    }
+
     // ==================== ASYNC METHODS ====================
 
     /**
@@ -198,10 +438,14 @@ public class ProductIndexService {
      */
     @Transactional(readOnly = true)
     public long reindexAllPaginated() {
+        if (!indexingEnabled()) {
+            log.info("Search backend is {} and the catalog is disabled, skipping reindexation", searchProperties.getBackend());
+            return 0;
+        }
         log.info("Starting paginated reindexation of all products");
 
         // Clear existing index
-        productSearchRepository.deleteAll();
+        clearDocuments();
         log.debug("Cleared existing index");
 
         int pageSize = 1000;
@@ -224,7 +468,7 @@ public class ProductIndexService {
                     .collect(Collectors.toList());
 
             try {
-                productSearchRepository.saveAll(documents);
+                saveDocuments(documents);
                 totalIndexed += documents.size();
                 log.info("Indexed batch {}/{} - Progress: {}/{} products ({}%)",
                         page + 1,
@@ -244,8 +488,140 @@ public class ProductIndexService {
             }
         }
 
+        markCatalogReady();
+
         log.info("Successfully reindexed {} products out of {}", totalIndexed, totalCount);
         return totalIndexed;
     }
-}
 
+    /**
+     * Load every product into the in-heap catalog, batch by batch, without touching the search index.
+     * Runs without a surrounding transaction so that the products of a batch are released once it is loaded.
+     */
+    public void loadCatalog() {
+        log.info("Loading product catalog");
+        productCatalog.clear();
+        forEachBatch(products -> productCatalog.indexAll(toDocuments(products)));
+        productCatalog.markReady();
+    }
+
+    /**
+     * Reload into the catalog the products changed since a point in time, deleted included, without emptying it.
+     * Hard deletes and archive moves leave no row to read: rebuildCatalog() drops them.
+     * Returns the number of products reloaded.
+     */
+    public int refreshCatalog(LocalDateTime since) {
+        List<Long> ids = productRepository.findIdsUpdatedSince(since);
+        for (int from = 0; from < ids.size(); from += BULK_INDEX_BATCH) {
+            List<Long> batch = ids.subList(from, Math.min(from + BULK_INDEX_BATCH, ids.size()));
+            productCatalog.indexAll(toDocuments(productRepository.findAllByIdInIncludingDeleted(batch)));
+        }
+        if (!ids.isEmpty()) {
+            log.debug("Reloaded {} products changed since {} into the catalog", ids.size(), since);
+        }
+        return ids.size();
+    }
+
+    /**
+     * Reload every product into the catalog while it keeps serving, then remove the products that are gone.
+     * A product removed by mistake (created or restored during the reload) comes back with the next refreshCatalog().
+     */
+    public void rebuildCatalog() {
+        Set<Long> seen = new HashSet<>();
+        long read = forEachBatch(products -> {
+            productCatalog.indexAll(toDocuments(products));
+            products.forEach(product -> seen.add(product.getId()));
+        });
+        int removed = productCatalog.retainAll(seen);
+        log.info("Rebuilt product catalog from {} products, {} removed", read, removed);
+    }
+
+    /**
+     * Every product, deleted included, BULK_INDEX_BATCH at a time: the ids are read in keyset order,
+     * then each batch is loaded with its associations. Returns the number of products read.
+     */
+    private long forEachBatch(Consumer<List<Product>> action) {
+        long read = 0;
+        long afterId = 0;
+        List<Long> ids;
+        do {
+            ids = productRepository.findIdsIncludingDeletedAfter(afterId, Limit.of(BULK_INDEX_BATCH));
+            if (!ids.isEmpty()) {
+                action.accept(productRepository.findAllByIdInIncludingDeleted(ids));
+                afterId = ids.get(ids.size() - 1);
+                read += ids.size();
+            }
+        } while (ids.size() == BULK_INDEX_BATCH);
+        return read;
+    }
+
+    private boolean indexingEnabled() {
+        return searchProperties.usesElasticsearch() || searchProperties.usesLucene() || catalogEnabled();
+    }
+
+    private boolean routingByProducer() {
+        return searchProperties.getElasticsearch().isRoutingByProducer();
+    }
+
+    private List<ProductDocument> toDocuments(List<Product> products) {
+        return products.stream()
+                .map(documentMapper::toDocument)
+                .collect(Collectors.toList());
+    }
+
+    private boolean catalogEnabled() {
+        return searchProperties.getCatalog().isEnabled();
+    }
+
+    private void saveDocument(ProductDocument document) {
+        if (catalogEnabled()) {
+            productCatalog.index(document);
+        }
+        if (searchProperties.usesLucene()) {
+            luceneProductIndex.getObject().index(document);
+        } else if (searchProperties.usesElasticsearch()) {
+            elasticsearchIndex.save(document);
+        }
+    }
+
+    private void deleteDocument(Long productId, Set<Long> producerIds) {
+        if (catalogEnabled()) {
+            productCatalog.remove(productId);
+        }
+        if (searchProperties.usesLucene()) {
+            luceneProductIndex.getObject().delete(productId);
+        } else if (searchProperties.usesElasticsearch()) {
+            elasticsearchIndex.delete(productId, producerIds);
+        }
+    }
+
+    private void saveDocuments(List<ProductDocument> documents) {
+        if (catalogEnabled()) {
+            productCatalog.indexAll(documents);
+        }
+        if (searchProperties.usesLucene()) {
+            luceneProductIndex.getObject().indexAll(documents);
+        } else if (searchProperties.usesElasticsearch()) {
+            elasticsearchIndex.saveAll(documents);
+        }
+    }
+
+    private void clearDocuments() {
+        if (catalogEnabled()) {
+            productCatalog.clear();
+        }
+        if (searchProperties.usesLucene()) {
+            luceneProductIndex.getObject().deleteAll();
+        } else if (searchProperties.usesElasticsearch()) {
+            elasticsearchIndex.deleteAll();
+        }
+    }
+
+    private void markCatalogReady() {
+        if (catalogEnabled()) {
+            productCatalog.markReady();
+        }
+        // Pages cached while the index was being rebuilt may be incomplete
+        producerPageCache.clear();
+    }
+}
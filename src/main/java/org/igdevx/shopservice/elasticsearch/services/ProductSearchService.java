@@ -1,24 +1,35 @@
 package org.igdevx.shopservice.elasticsearch.services;
 
-import co.elastic.clients.elasticsearch._types.SortOrder;
-import co.elastic.clients.elasticsearch._types.query_dsl.BoolQuery;
-import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.elasticsearch.core.search.TrackHits;
+import co.elastic.clients.json.JsonpUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.igdevx.shopservice.archive.ProductArchiveProperties;
 import org.igdevx.shopservice.dtos.ProductSearchRequest;
-import org.igdevx.shopservice.dtos.ProductSearchResponse;
 import org.igdevx.shopservice.dtos.ProductSuggestion;
+import org.igdevx.shopservice.dtos.SearchProfileResponse;
 import org.igdevx.shopservice.elasticsearch.documents.ProductDocument;
+import org.igdevx.shopservice.elasticsearch.queries.ProductQueryFactory;
+import org.igdevx.shopservice.elasticsearch.queries.ProductSearchKey;
+import org.igdevx.shopservice.elasticsearch.queries.QueryCostGovernor;
+import org.igdevx.shopservice.elasticsearch.queries.SearchPlan;
 import org.igdevx.shopservice.elasticsearch.repositories.ProductSearchRepository;
+import org.igdevx.shopservice.search.SearchProfiler;
+import org.igdevx.shopservice.search.SearchProperties;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.elasticsearch.client.elc.NativeQuery;
 import org.springframework.data.elasticsearch.client.elc.NativeQueryBuilder;
 import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
-import org.springframework.data.elasticsearch.core.SearchHit;
 import org.springframework.data.elasticsearch.core.SearchHits;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.data.elasticsearch.core.query.IndicesOptions;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -30,176 +41,30 @@ public class ProductSearchService {
 
     private final ProductSearchRepository productSearchRepository;
     private final ElasticsearchOperations elasticsearchOperations;
+    private final ProductQueryFactory queryFactory;
+    private final SearchRequestCoalescer coalescer;
+    private final SearchProfiler searchProfiler;
+    private final ElasticsearchClient elasticsearchClient;
+    private final ObjectMapper objectMapper;
+    private final ProducerRouting producerRouting;
+    private final SearchProperties searchProperties;
+    private final QueryCostGovernor costGovernor;
+    private final ProductArchiveProperties archiveProperties;
+    private final ElasticsearchProductIndex elasticsearchIndex;
 
     /**
      * Search products with filters, sorting, and pagination
      */
     public SearchHits<ProductDocument> searchProducts(ProductSearchRequest request) {
-        log.debug("Searching products with request: {}", request);
-
-        NativeQueryBuilder queryBuilder = new NativeQueryBuilder();
-
-        // Build query
-        BoolQuery.Builder boolQueryBuilder = new BoolQuery.Builder();
-
-        // Full-text search on title and description
-        if (request.getQ() != null && !request.getQ().isBlank()) {
-            String searchQuery = request.getQ().trim().toLowerCase();
-
-            boolQueryBuilder.must(Query.of(q -> q
-                    .bool(b -> b
-                            .should(s -> s
-                                    .matchPhrase(m -> m
-                                            .field("title")
-                                            .query(request.getQ())
-                                            .boost(10.0f)
-                                    )
-                            )
-                            .should(s -> s
-                                    .match(m -> m
-                                            .field("title")
-                                            .query(request.getQ())
-                                            .boost(8.0f)
-                                    )
-                            )
-                            .should(s -> s
-                                    .wildcard(w -> w
-                                            .field("title")
-                                            .value("*" + searchQuery + "*")
-                                            .caseInsensitive(true)
-                                            .boost(5.0f)
-                                    )
-                            )
-                            .should(s -> s
-                                    .match(m -> m
-                                            .field("title")
-                                            .query(request.getQ())
-                                            .fuzziness("AUTO")
-                                            .boost(3.0f)
-                                    )
-                            )
-                            .should(s -> s
-                                    .matchPhrase(m -> m
-                                            .field("description")
-                                            .query(request.getQ())
-                                            .boost(2.0f)
-                                    )
-                            )
-                            .should(s -> s
-                                    .match(m -> m
-                                            .field("description")
-                                            .query(request.getQ())
-                                            .boost(1.5f)
-                                    )
-                            )
-                            .should(s -> s
-                                    .wildcard(w -> w
-                                            .field("description")
-                                            .value("*" + searchQuery + "*")
-                                            .caseInsensitive(true)
-                                            .boost(0.5f)
-                                    )
-                            )
-                            .minimumShouldMatch("1")
-                    )
-            ));
-        }
-
-        // Filter by deleted status
-        if (request.getOnlyDeleted() != null && request.getOnlyDeleted()) {
-            boolQueryBuilder.filter(Query.of(q -> q
-                    .term(t -> t.field("isDeleted").value(true))
-            ));
-        } else {
-            boolQueryBuilder.filter(Query.of(q -> q
-                    .term(t -> t.field("isDeleted").value(false))
-            ));
-        }
-
-        // Filter by categories
-        if (request.getCategoryIds() != null && !request.getCategoryIds().isEmpty()) {
-            boolQueryBuilder.filter(Query.of(q -> q
-                    .terms(t -> t
-                            .field("categoryId")
-                            .terms(terms -> terms.value(request.getCategoryIds().stream()
-                                    .map(id -> co.elastic.clients.elasticsearch._types.FieldValue.of(id))
-                                    .collect(Collectors.toList())))
-                    )
-            ));
-        }
-
-        // Filter by price range
-        if (request.getPriceMin() != null && request.getPriceMax() != null) {
-            boolQueryBuilder.filter(Query.of(q -> q
-                    .range(r -> r
-                            .number(n -> n
-                                    .field("price")
-                                    .gte(request.getPriceMin().doubleValue())
-                                    .lte(request.getPriceMax().doubleValue())
-                            )
-                    )
-            ));
-        } else if (request.getPriceMin() != null) {
-            boolQueryBuilder.filter(Query.of(q -> q
-                    .range(r -> r
-                            .number(n -> n
-                                    .field("price")
-                                    .gte(request.getPriceMin().doubleValue())
-                            )
-                    )
-            ));
-        } else if (request.getPriceMax() != null) {
-            boolQueryBuilder.filter(Query.of(q -> q
-                    .range(r -> r
-                            .number(n -> n
-                                    .field("price")
-                                    .lte(request.getPriceMax().doubleValue())
-                            )
-                    )
-            ));
-        }
-
-        // Filter by currency
-        if (request.getCurrencyId() != null) {
-            boolQueryBuilder.filter(Query.of(q -> q
-                    .term(t -> t.field("currencyId").value(request.getCurrencyId()))
-            ));
-        }
-
-        // Filter by fresh products
-        if (request.getFresh() != null && request.getFresh()) {
-            boolQueryBuilder.filter(Query.of(q -> q
-                    .term(t -> t.field("isFresh").value(true))
-            ));
-        }
-
-        // Filter by certifications
-        if (request.getCertificationIds() != null && !request.getCertificationIds().isEmpty()) {
-            boolQueryBuilder.filter(Query.of(q -> q
-                    .terms(t -> t
-                            .field("certificationIds")
-                            .terms(terms -> terms.value(request.getCertificationIds().stream()
-                                    .map(id -> co.elastic.clients.elasticsearch._types.FieldValue.of(id))
-                                    .collect(Collectors.toList())))
-                    )
-            ));
-        }
-
-
-        queryBuilder.withQuery(Query.of(q -> q.bool(boolQueryBuilder.build())));
-
-        // Sorting
-        applySorting(queryBuilder, request.getSort());
-
-        // Pagination
-        int page = request.getPage() != null ? request.getPage() : 0;
-        int size = request.getSize() != null ? request.getSize() : 20;
-        Pageable pageable = PageRequest.of(page, size);
-        queryBuilder.withPageable(pageable);
-
-        NativeQuery query = queryBuilder.build();
+        return searchProducts(costGovernor.plan(request));
+    }
 
-        return elasticsearchOperations.search(query, ProductDocument.class);
+    /**
+     * Search with a request fitted into the cost limits (search.cost) by QueryCostGovernor
+     */
+    public SearchHits<ProductDocument> searchProducts(SearchPlan plan) {
+        log.debug("Searching products with request: {}", plan.request());
+        return coalescer.execute(ProductSearchKey.of(plan.request()), () -> executeSearch(plan));
     }
 
     /**
@@ -208,47 +73,74 @@ public class ProductSearchService {
      */
     public SearchHits<ProductDocument> searchProductsByProducer(Long producerId, Long shelfId, Boolean onlyDeleted, int page, int size) {
         log.debug("Searching products for producer: {}, shelf: {}, onlyDeleted: {}", producerId, shelfId, onlyDeleted);
+        return coalescer.execute(ProductSearchKey.ofProducer(producerId, shelfId, onlyDeleted, page, size),
+                () -> executeProducerSearch(producerId, shelfId, onlyDeleted, page, size));
+    }
 
-        NativeQueryBuilder queryBuilder = new NativeQueryBuilder();
-        BoolQuery.Builder boolQueryBuilder = new BoolQuery.Builder();
+    private SearchHits<ProductDocument> executeSearch(SearchPlan plan) {
+        ProductSearchRequest request = plan.request();
+        boolean scored = request.getQ() != null && !request.getQ().isBlank();
 
-        // Filter by producer (required)
-        boolQueryBuilder.filter(Query.of(q -> q
-                .term(t -> t.field("producerId").value(producerId))
-        ));
+        NativeQuery query = searchProfiler.time(SearchProfiler.QUERY_BUILD, () -> new NativeQueryBuilder()
+                .withQuery(queryFactory.searchQuery(request, plan.fullText()))
+                .withSort(queryFactory.sortFor(request.getSort(), scored))
+                .withPageable(PageRequest.of(plan.page(), plan.size()))
+                .withTrackTotalHitsUpTo(trackTotalHitsUpTo(request))
+                .build());
 
-        // Filter by shelf (optional)
-        if (shelfId != null) {
-            boolQueryBuilder.filter(Query.of(q -> q
-                    .term(t -> t.field("shelfId").value(shelfId))
-            ));
-        }
+        return timedSearch(query, request.getOnlyDeleted());
+    }
 
-        // Filter by deleted status
-        if (onlyDeleted != null && onlyDeleted) {
-            boolQueryBuilder.filter(Query.of(q -> q
-                    .term(t -> t.field("isDeleted").value(true))
-            ));
-        } else {
-            boolQueryBuilder.filter(Query.of(q -> q
-                    .term(t -> t.field("isDeleted").value(false))
-            ));
-        }
+    private SearchHits<ProductDocument> executeProducerSearch(Long producerId, Long shelfId, Boolean onlyDeleted, int page, int size) {
+        NativeQuery query = searchProfiler.time(SearchProfiler.QUERY_BUILD, () -> new NativeQueryBuilder()
+                .withQuery(queryFactory.producerQuery(producerId, shelfId, onlyDeleted))
+                .withSort(queryFactory.producerSort())
+                .withPageable(PageRequest.of(page, size))
+                // Only the producer's shard when the index is routed by producerId
+                .withRoute(producerRouting.searchRoute(producerId))
+                .build());
 
-        queryBuilder.withQuery(Query.of(q -> q.bool(boolQueryBuilder.build())));
+        return timedSearch(query, onlyDeleted);
+    }
 
-        // Default sorting by creation date
-        queryBuilder.withSort(co.elastic.clients.elasticsearch._types.SortOptions.of(s -> s
-                .field(f -> f.field("createdAt").order(SortOrder.Desc))
-        ));
+    /**
+     * Count cap of a search: null keeps the Elasticsearch default (10,000) unless the request asks for an approximate total.
+     * A low cap is what lets Elasticsearch stop early: with the newest-first sort on the createdAt-sorted index,
+     * each segment is read in sort order and abandoned once it can no longer beat the page.
+     */
+    private Integer trackTotalHitsUpTo(ProductSearchRequest request) {
+        if (!Boolean.TRUE.equals(request.getApproximateTotal())) {
+            return null;
+        }
+        return searchProperties.getElasticsearch().getApproximateTotalHits();
+    }
 
-        // Pagination
-        Pageable pageable = PageRequest.of(page, size);
-        queryBuilder.withPageable(pageable);
+    /**
+     * Searches for deleted products also read the index of archived products, once archiving is enabled.
+     * Lenient, as that index is only created by the first archive run.
+     */
+    private SearchHits<ProductDocument> timedSearch(NativeQuery query, Boolean onlyDeleted) {
+        if (!Boolean.TRUE.equals(onlyDeleted) || !archiveProperties.isEnabled()) {
+            return timedSearch(query);
+        }
+        query.setIndicesOptions(IndicesOptions.LENIENT_EXPAND_OPEN);
+        return timedSearch(query, IndexCoordinates.of(elasticsearchIndex.name(), elasticsearchIndex.deletedName()));
+    }
 
-        NativeQuery query = queryBuilder.build();
+    private SearchHits<ProductDocument> timedSearch(NativeQuery query) {
+        return timedSearch(query, elasticsearchOperations.getIndexCoordinatesFor(ProductDocument.class));
+    }
 
-        return elasticsearchOperations.search(query, ProductDocument.class);
+    /**
+     * Run a query, recording the client round-trip and the time Elasticsearch reports for the search itself
+     */
+    private SearchHits<ProductDocument> timedSearch(NativeQuery query, IndexCoordinates index) {
+        SearchHits<ProductDocument> hits = searchProfiler.time(SearchProfiler.ROUND_TRIP,
+                () -> elasticsearchOperations.search(query, ProductDocument.class, index));
+        if (hits.getExecutionDuration() != null) {
+            searchProfiler.record(SearchProfiler.ES_TOOK, hits.getExecutionDuration());
+        }
+        return hits;
     }
 
     /**
@@ -261,38 +153,15 @@ public class ProductSearchService {
             return new ArrayList<>();
         }
 
-        NativeQueryBuilder queryBuilder = new NativeQueryBuilder();
-
-        BoolQuery.Builder boolQueryBuilder = new BoolQuery.Builder();
-
-        // Search in title with prefix match
-        boolQueryBuilder.should(Query.of(q -> q
-                .matchPhrase(m -> m
-                        .field("title")
-                        .query(query)
-                )
-        ));
-
-        boolQueryBuilder.should(Query.of(q -> q
-                .prefix(p -> p
-                        .field("title")
-                        .value(query)
-                )
-        ));
-
-        // Only non-deleted products
-        boolQueryBuilder.filter(Query.of(q -> q
-                .term(t -> t.field("isDeleted").value(false))
-        ));
-
-        queryBuilder.withQuery(Query.of(q -> q.bool(boolQueryBuilder.build())));
-        queryBuilder.withPageable(PageRequest.of(0, size));
+        NativeQuery nativeQuery = searchProfiler.time(SearchProfiler.QUERY_BUILD, () -> new NativeQueryBuilder()
+                .withQuery(queryFactory.suggestionQuery(query))
+                .withPageable(PageRequest.of(0, size))
+                .build());
 
-        NativeQuery nativeQuery = queryBuilder.build();
+        SearchHits<ProductDocument> searchHits = coalescer.execute(ProductSearchKey.ofSuggestion(query, size),
+                () -> timedSearch(nativeQuery));
 
-        SearchHits<ProductDocument> searchHits = elasticsearchOperations.search(nativeQuery, ProductDocument.class);
-
-        return searchHits.getSearchHits().stream()
+        return searchProfiler.time(SearchProfiler.MAPPING, () -> searchHits.getSearchHits().stream()
                 .map(hit -> {
                     ProductDocument doc = hit.getContent();
                     return ProductSuggestion.builder()
@@ -301,62 +170,45 @@ public class ProductSearchService {
                             .imageUrl(doc.getMainImageUrl())
                             .build();
                 })
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
     }
 
-    private void applySorting(NativeQueryBuilder queryBuilder, String sort) {
-        if (sort == null || sort.isBlank()) {
-            queryBuilder.withSort(co.elastic.clients.elasticsearch._types.SortOptions.of(s -> s
-                    .score(score -> score.order(SortOrder.Desc))
-            ));
-            queryBuilder.withSort(co.elastic.clients.elasticsearch._types.SortOptions.of(s -> s
-                    .field(f -> f.field("createdAt").order(SortOrder.Desc))
-            ));
-            return;
-        }
-
-        switch (sort.toLowerCase()) {
-            case "relevance":
-                queryBuilder.withSort(co.elastic.clients.elasticsearch._types.SortOptions.of(s -> s
-                        .score(score -> score.order(SortOrder.Desc))
-                ));
-                break;
-            case "price_asc":
-                queryBuilder.withSort(co.elastic.clients.elasticsearch._types.SortOptions.of(s -> s
-                        .field(f -> f.field("price").order(SortOrder.Asc))
-                ));
-                break;
-            case "price_desc":
-                queryBuilder.withSort(co.elastic.clients.elasticsearch._types.SortOptions.of(s -> s
-                        .field(f -> f.field("price").order(SortOrder.Desc))
-                ));
-                break;
-            case "date_asc":
-                queryBuilder.withSort(co.elastic.clients.elasticsearch._types.SortOptions.of(s -> s
-                        .field(f -> f.field("createdAt").order(SortOrder.Asc))
-                ));
-                break;
-            case "date_desc":
-                queryBuilder.withSort(co.elastic.clients.elasticsearch._types.SortOptions.of(s -> s
-                        .field(f -> f.field("createdAt").order(SortOrder.Desc))
-                ));
-                break;
-            case "title_asc":
-                queryBuilder.withSort(co.elastic.clients.elasticsearch._types.SortOptions.of(s -> s
-                        .field(f -> f.field("title").order(SortOrder.Asc))
-                ));
-                break;
-            case "title_desc":
-                queryBuilder.withSort(co.elastic.clients.elasticsearch._types.SortOptions.of(s -> s
-                        .field(f -> f.field("title").order(SortOrder.Desc))
-                ));
-                break;
-            default:
-                // Default sorting
-                queryBuilder.withSort(co.elastic.clients.elasticsearch._types.SortOptions.of(s -> s
-                        .field(f -> f.field("createdAt").order(SortOrder.Desc))
-                ));
+    /**
+     * Rerun a search with the Elasticsearch profile API enabled, for diagnosing slow queries.
+     * Bypasses the coalescer and does not fetch _source.
+     */
+    public SearchProfileResponse profileSearch(ProductSearchRequest originalRequest) {
+        log.info("Profiling search request: {}", originalRequest);
+        SearchPlan plan = costGovernor.plan(originalRequest);
+        ProductSearchRequest request = plan.request();
+        boolean scored = request.getQ() != null && !request.getQ().isBlank();
+        int page = plan.page();
+        int size = plan.size();
+        String index = elasticsearchOperations.getIndexCoordinatesFor(ProductDocument.class).getIndexName();
+
+        Integer trackTotalHitsUpTo = trackTotalHitsUpTo(request);
+        try {
+            SearchResponse<Void> response = elasticsearchClient.search(s -> s
+                    .index(index)
+                    .query(queryFactory.searchQuery(request, plan.fullText()))
+                    .sort(queryFactory.sortFor(request.getSort(), scored))
+                    .from(page * size)
+                    .size(size)
+                    .trackTotalHits(trackTotalHitsUpTo != null ? TrackHits.of(t -> t.count(trackTotalHitsUpTo)) : null)
+                    .source(source -> source.fetch(false))
+                    .profile(true), Void.class);
+
+            return SearchProfileResponse.builder()
+                    .request(ProductSearchKey.of(request).toString())
+                    .estimatedCost(plan.cost())
+                    .downgrades(plan.downgrades())
+                    .tookMs(response.took())
+                    .totalHits(response.hits().total() != null ? response.hits().total().value() : 0)
+                    .profile(objectMapper.readTree(
+                            JsonpUtils.toJsonString(response.profile(), elasticsearchClient._jsonpMapper())))
+                    .build();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to profile search request", e);
         }
     }
 }
-
@@ -0,0 +1,10 @@
+package org.igdevx.shopservice.events;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Soft-deleted products moved to the archive by one batch, with the producers whose shop pages show them
+ */
+public record ProductArchiveEvent(List<Long> productIds, Set<Long> producerIds) {
+}
@@ -0,0 +1,10 @@
+package org.igdevx.shopservice.events;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Products changed by one bulk statement, to reindex together, with the producers whose shop pages show them
+ */
+public record ProductBulkIndexEvent(List<Long> productIds, Set<Long> producerIds) {
+}
@@ -1,12 +1,30 @@
 package org.igdevx.shopservice.events;
 
-public record ProductIndexEvent(Long productId, String action) {
-    public static ProductIndexEvent updated(Long id) {
-        return new ProductIndexEvent(id, "UPDATE");
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Product to reindex, with the producers whose shop pages show it (old and new producer when it moved)
+ */
+public record ProductIndexEvent(Long productId, String action, Set<Long> producerIds) {
+    public static ProductIndexEvent updated(Long id, Long... producerIds) {
+        return new ProductIndexEvent(id, "UPDATE", producers(producerIds));
     }
 
-    public static ProductIndexEvent deleted(Long id) {
-        return new ProductIndexEvent(id, "DELETE");
+    /**
+     * Product moved back from the archive
+     */
+    public static ProductIndexEvent restored(Long id, Long producerId) {
+        return new ProductIndexEvent(id, "RESTORE", producers(producerId));
+    }
+
+    public static ProductIndexEvent deleted(Long id, Long producerId) {
+        return new ProductIndexEvent(id, "DELETE", producers(producerId));
     }
-}
 
+    private static Set<Long> producers(Long... producerIds) {
+        return Arrays.stream(producerIds).filter(Objects::nonNull).collect(Collectors.toUnmodifiableSet());
+    }
+}
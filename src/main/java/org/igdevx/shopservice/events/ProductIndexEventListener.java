@@ -2,7 +2,9 @@ package org.igdevx.shopservice.events;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.igdevx.shopservice.datasource.ReadYourWrites;
 import org.igdevx.shopservice.elasticsearch.services.ProductIndexService;
+import org.igdevx.shopservice.search.ProducerPageCache;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.event.TransactionPhase;
@@ -14,6 +16,7 @@ import org.springframework.transaction.event.TransactionalEventListener;
 public class ProductIndexEventListener {
 
     private final ProductIndexService productIndexService;
+    private final ProducerPageCache producerPageCache;
 
     @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
     @Async
@@ -23,17 +26,52 @@ public class ProductIndexEventListener {
         try {
             if ("UPDATE".equals(event.action())) {
                 log.info("📝 Indexation du produit {}", event.productId());
-                productIndexService.indexProductById(event.productId());
+                // On another thread than the write: its read-your-writes window does not apply here,
+                // and the replica may not have replayed the commit yet
+                ReadYourWrites.onPrimary(() -> productIndexService.indexProductById(event.productId(), event.producerIds()));
                 log.info("✅ Produit {} indexé avec succès", event.productId());
+            } else if ("RESTORE".equals(event.action())) {
+                log.info("Indexing product {} restored from the archive", event.productId());
+                ReadYourWrites.onPrimary(() -> productIndexService.indexRestoredProduct(event.productId(), event.producerIds()));
             } else if ("DELETE".equals(event.action())) {
                 log.info("🗑️ Suppression du produit {} de l'index", event.productId());
-                productIndexService.deleteFromIndex(event.productId());
+                productIndexService.deleteFromIndex(event.productId(), event.producerIds());
                 log.info("✅ Produit {} supprimé de l'index", event.productId());
             }
         } catch (Exception e) {
             log.error("❌ Erreur lors du traitement de l'événement pour le produit {}: {}",
                      event.productId(), e.getMessage(), e);
+        } finally {
+            // After the index write, so that a page reloaded right away already sees the change
+            producerPageCache.invalidate(event.producerIds());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    @Async
+    public void handleProductBulkIndexEvent(ProductBulkIndexEvent event) {
+        log.info("Reindexing {} products after a bulk change", event.productIds().size());
+        try {
+            ReadYourWrites.onPrimary(() -> productIndexService.indexProductsById(event.productIds()));
+        } catch (Exception e) {
+            log.error("Failed to reindex {} products after a bulk change: {}", event.productIds().size(), e.getMessage(), e);
+        } finally {
+            // Even when a batch failed, the pages cached before the change must not be served again
+            producerPageCache.invalidate(event.producerIds());
         }
     }
-}
 
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    @Async
+    public void handleProductArchiveEvent(ProductArchiveEvent event) {
+        log.info("Moving {} archived products to the deleted index", event.productIds().size());
+        try {
+            productIndexService.archiveDocuments(event.productIds());
+        } catch (Exception e) {
+            // The documents stay in the live index, still marked deleted
+            log.error("Failed to move {} archived products to the deleted index: {}", event.productIds().size(), e.getMessage(), e);
+        } finally {
+            producerPageCache.invalidate(event.producerIds());
+        }
+    }
+}
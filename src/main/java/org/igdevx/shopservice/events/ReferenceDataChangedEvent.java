@@ -0,0 +1,12 @@
+package org.igdevx.shopservice.events;
+
+/**
+ * A currency, unit, shelf, category or certification was changed, its cached table has to be reloaded.
+ * The id of the changed entity is given for the references cached one by one (shelves), null otherwise.
+ */
+public record ReferenceDataChangedEvent(Class<?> entityType, Long id) {
+
+    public ReferenceDataChangedEvent(Class<?> entityType) {
+        this(entityType, null);
+    }
+}
@@ -0,0 +1,7 @@
+package org.igdevx.shopservice.exceptions;
+
+public class InvalidBulkRequestException extends RuntimeException {
+    public InvalidBulkRequestException(String message) {
+        super(message);
+    }
+}
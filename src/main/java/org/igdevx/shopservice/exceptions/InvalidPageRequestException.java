@@ -0,0 +1,7 @@
+package org.igdevx.shopservice.exceptions;
+
+public class InvalidPageRequestException extends RuntimeException {
+    public InvalidPageRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package org.igdevx.shopservice.exceptions;
+
+public class SearchCostExceededException extends RuntimeException {
+    public SearchCostExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,232 @@
+package org.igdevx.shopservice.lucene;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.DoubleDocValuesField;
+import org.apache.lucene.document.DoublePoint;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.SortedDocValuesField;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.store.MMapDirectory;
+import org.apache.lucene.util.BytesRef;
+import org.igdevx.shopservice.elasticsearch.documents.ProductDocument;
+import org.igdevx.shopservice.search.SearchProperties;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.Locale;
+
+/**
+ * Embedded product index for search.backend=lucene.
+ * Stored on an MMapDirectory; searches go through a near-real-time SearcherManager refreshed after every write,
+ * so a product is searchable as soon as ProductIndexService has written it. The full ProductDocument is kept
+ * as JSON in a stored field, like the Elasticsearch _source.
+ * Writes are committed (fsync of the segments) every search.lucene.commit-interval and on shutdown, not one by one.
+ * A crash loses the writes of the last interval from disk: POST /products/index/reindex-all restores them.
+ */
+@Component
+@ConditionalOnProperty(prefix = "search", name = "backend", havingValue = "lucene")
+@Slf4j
+public class LuceneProductIndex implements DisposableBean {
+
+    static final String ID = "id";
+    static final String TITLE = "title";
+    static final String TITLE_SORT = "titleSort";
+    static final String DESCRIPTION = "description";
+    static final String PRICE = "price";
+    static final String CURRENCY_ID = "currencyId";
+    static final String CATEGORY_ID = "categoryId";
+    static final String SHELF_ID = "shelfId";
+    static final String CERTIFICATION_IDS = "certificationIds";
+    static final String PRODUCER_ID = "producerId";
+    static final String IS_FRESH = "isFresh";
+    static final String IS_DELETED = "isDeleted";
+    static final String CREATED_AT = "createdAt";
+    static final String SOURCE = "_source";
+
+    private final ObjectMapper objectMapper;
+    private final MMapDirectory directory;
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+
+    public LuceneProductIndex(SearchProperties searchProperties, ObjectMapper objectMapper) throws IOException {
+        Path path = Path.of(searchProperties.getLucene().getPath());
+        Files.createDirectories(path);
+        this.objectMapper = objectMapper;
+        this.directory = new MMapDirectory(path);
+        this.writer = new IndexWriter(directory, new IndexWriterConfig(new FrenchTextAnalyzer())
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+        this.searcherManager = new SearcherManager(writer, null);
+        log.info("Opened Lucene product index at {}", path.toAbsolutePath());
+    }
+
+    /**
+     * Add or replace a product
+     */
+    public void index(ProductDocument document) {
+        write(() -> writer.updateDocument(idTerm(document.getId()), toLuceneDocument(document)));
+    }
+
+    /**
+     * Add or replace a batch of products, made searchable at once
+     */
+    public void indexAll(Collection<ProductDocument> documents) {
+        write(() -> {
+            for (ProductDocument document : documents) {
+                writer.updateDocument(idTerm(document.getId()), toLuceneDocument(document));
+            }
+        });
+    }
+
+    public void delete(Long productId) {
+        write(() -> writer.deleteDocuments(idTerm(productId)));
+    }
+
+    public void deleteAll() {
+        write(writer::deleteAll);
+    }
+
+    public long count() {
+        return search(searcher -> (long) searcher.getIndexReader().numDocs());
+    }
+
+    /**
+     * Size of the index files on disk
+     */
+    public long sizeInBytes() {
+        try {
+            long size = 0;
+            for (String file : directory.listAll()) {
+                size += directory.fileLength(file);
+            }
+            return size;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read the Lucene index size", e);
+        }
+    }
+
+    /**
+     * Run a search on the latest near-real-time searcher
+     */
+    public <T> T search(SearchFunction<T> function) {
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                return function.apply(searcher);
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Lucene search failed", e);
+        }
+    }
+
+    /**
+     * Rebuild the ProductDocument of a hit from its stored source
+     */
+    ProductDocument load(IndexSearcher searcher, int docId) throws IOException {
+        BytesRef source = searcher.storedFields().document(docId).getBinaryValue(SOURCE);
+        return objectMapper.readValue(source.bytes, source.offset, source.length, ProductDocument.class);
+    }
+
+    /**
+     * Make the writes since the previous commit durable
+     */
+    @Scheduled(fixedDelayString = "${search.lucene.commit-interval:30s}",
+            initialDelayString = "${search.lucene.commit-interval:30s}")
+    public void commit() {
+        try {
+            if (writer.hasUncommittedChanges()) {
+                writer.commit();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Lucene index commit failed", e);
+        }
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        searcherManager.close();
+        writer.close();
+        directory.close();
+    }
+
+    private void write(IndexOperation operation) {
+        try {
+            operation.run();
+            searcherManager.maybeRefreshBlocking();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Lucene index write failed", e);
+        }
+    }
+
+    private Document toLuceneDocument(ProductDocument product) throws IOException {
+        Document document = new Document();
+        document.add(new StringField(ID, product.getId().toString(), Field.Store.NO));
+
+        if (product.getTitle() != null) {
+            document.add(new TextField(TITLE, product.getTitle(), Field.Store.NO));
+            document.add(new SortedDocValuesField(TITLE_SORT, new BytesRef(product.getTitle().toLowerCase(Locale.ROOT))));
+        }
+        if (product.getDescription() != null) {
+            document.add(new TextField(DESCRIPTION, product.getDescription(), Field.Store.NO));
+        }
+        if (product.getPrice() != null) {
+            double price = product.getPrice().doubleValue();
+            document.add(new DoublePoint(PRICE, price));
+            document.add(new DoubleDocValuesField(PRICE, price));
+        }
+        addLong(document, CURRENCY_ID, product.getCurrencyId());
+        addLong(document, CATEGORY_ID, product.getCategoryId());
+        addLong(document, SHELF_ID, product.getShelfId());
+        addLong(document, PRODUCER_ID, product.getProducerId());
+        product.getCertificationIds().forEach(id -> addLong(document, CERTIFICATION_IDS, id));
+        document.add(new StringField(IS_FRESH, String.valueOf(Boolean.TRUE.equals(product.getIsFresh())), Field.Store.NO));
+        document.add(new StringField(IS_DELETED, String.valueOf(Boolean.TRUE.equals(product.getIsDeleted())), Field.Store.NO));
+        if (product.getCreatedAt() != null) {
+            document.add(new NumericDocValuesField(CREATED_AT,
+                    product.getCreatedAt().toInstant(ZoneOffset.UTC).toEpochMilli()));
+        }
+
+        document.add(new StoredField(SOURCE, objectMapper.writeValueAsBytes(product)));
+        return document;
+    }
+
+    private static void addLong(Document document, String field, Long value) {
+        if (value != null) {
+            document.add(new LongPoint(field, value));
+        }
+    }
+
+    private static Term idTerm(Long productId) {
+        return new Term(ID, productId.toString());
+    }
+
+    @FunctionalInterface
+    public interface SearchFunction<T> {
+        T apply(IndexSearcher searcher) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface IndexOperation {
+        void run() throws IOException;
+    }
+}
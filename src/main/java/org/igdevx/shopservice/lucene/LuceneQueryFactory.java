@@ -0,0 +1,222 @@
+package org.igdevx.shopservice.lucene;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.DoublePoint;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.ConstantScoreQuery;
+import org.apache.lucene.search.DisjunctionMaxQuery;
+import org.apache.lucene.search.FuzzyQuery;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.util.QueryBuilder;
+import org.igdevx.shopservice.dtos.ProductSearchRequest;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.igdevx.shopservice.lucene.LuceneProductIndex.*;
+
+/**
+ * Lucene counterpart of ProductQueryFactory: same filters, relevance clauses and sort keys.
+ */
+@Component
+@ConditionalOnProperty(prefix = "search", name = "backend", havingValue = "lucene")
+public class LuceneQueryFactory {
+
+    static final Query NOT_DELETED = new TermQuery(new Term(IS_DELETED, "false"));
+    static final Query ONLY_DELETED = new TermQuery(new Term(IS_DELETED, "true"));
+    static final Query FRESH_ONLY = new TermQuery(new Term(IS_FRESH, "true"));
+
+    static final SortField CREATED_AT_DESC = new SortField(CREATED_AT, SortField.Type.LONG, true);
+    static final Sort RELEVANCE_THEN_NEWEST = new Sort(SortField.FIELD_SCORE, CREATED_AT_DESC);
+    static final Sort NEWEST_FIRST = new Sort(CREATED_AT_DESC);
+
+    private static final Map<String, Sort> SORTS = Map.of(
+            "relevance", Sort.RELEVANCE,
+            "price_asc", new Sort(new SortField(PRICE, SortField.Type.DOUBLE)),
+            "price_desc", new Sort(new SortField(PRICE, SortField.Type.DOUBLE, true)),
+            "date_asc", new Sort(new SortField(CREATED_AT, SortField.Type.LONG)),
+            "date_desc", NEWEST_FIRST,
+            "title_asc", new Sort(new SortField(TITLE_SORT, SortField.Type.STRING)),
+            "title_desc", new Sort(new SortField(TITLE_SORT, SortField.Type.STRING, true))
+    );
+
+    private final Analyzer analyzer = new FrenchTextAnalyzer();
+    private final QueryBuilder queryBuilder = new QueryBuilder(analyzer);
+
+    /**
+     * Query for POST /products/search. Without q the filters are wrapped in a constant score query.
+     */
+    public Query searchQuery(ProductSearchRequest request) {
+        BooleanQuery.Builder filters = new BooleanQuery.Builder()
+                .add(deletedFilter(request.getOnlyDeleted()), BooleanClause.Occur.FILTER);
+
+        if (request.getCategoryIds() != null && !request.getCategoryIds().isEmpty()) {
+            filters.add(setQuery(CATEGORY_ID, request.getCategoryIds()), BooleanClause.Occur.FILTER);
+        }
+
+        if (request.getPriceMin() != null || request.getPriceMax() != null) {
+            filters.add(priceRangeQuery(request.getPriceMin(), request.getPriceMax()), BooleanClause.Occur.FILTER);
+        }
+
+        if (request.getCurrencyId() != null) {
+            filters.add(LongPoint.newExactQuery(CURRENCY_ID, request.getCurrencyId()), BooleanClause.Occur.FILTER);
+        }
+
+        if (Boolean.TRUE.equals(request.getFresh())) {
+            filters.add(FRESH_ONLY, BooleanClause.Occur.FILTER);
+        }
+
+        if (request.getCertificationIds() != null && !request.getCertificationIds().isEmpty()) {
+            filters.add(setQuery(CERTIFICATION_IDS, request.getCertificationIds()), BooleanClause.Occur.FILTER);
+        }
+
+        if (hasText(request.getQ())) {
+            Query fullText = fullTextQuery(request.getQ().trim());
+            if (fullText != null) {
+                filters.add(fullText, BooleanClause.Occur.MUST);
+                return filters.build();
+            }
+        }
+
+        return new ConstantScoreQuery(filters.build());
+    }
+
+    /**
+     * Query for the producer shop page. Pure filtering, never scored.
+     */
+    public Query producerQuery(Long producerId, Long shelfId, Boolean onlyDeleted) {
+        BooleanQuery.Builder filters = new BooleanQuery.Builder()
+                .add(LongPoint.newExactQuery(PRODUCER_ID, producerId), BooleanClause.Occur.FILTER)
+                .add(deletedFilter(onlyDeleted), BooleanClause.Occur.FILTER);
+
+        if (shelfId != null) {
+            filters.add(LongPoint.newExactQuery(SHELF_ID, shelfId), BooleanClause.Occur.FILTER);
+        }
+
+        return new ConstantScoreQuery(filters.build());
+    }
+
+    /**
+     * Query for autocomplete suggestions: phrase or prefix on the title.
+     */
+    public Query suggestionQuery(String text) {
+        BooleanQuery.Builder suggestion = new BooleanQuery.Builder()
+                .add(new PrefixQuery(new Term(TITLE, analyzer.normalize(TITLE, text.trim()).utf8ToString())),
+                        BooleanClause.Occur.SHOULD)
+                .add(NOT_DELETED, BooleanClause.Occur.FILTER)
+                .setMinimumNumberShouldMatch(1);
+
+        Query phrase = queryBuilder.createPhraseQuery(TITLE, text);
+        if (phrase != null) {
+            suggestion.add(phrase, BooleanClause.Occur.SHOULD);
+        }
+        return suggestion.build();
+    }
+
+    public Sort sortFor(String sort, boolean scored) {
+        if (sort == null || sort.isBlank()) {
+            return scored ? RELEVANCE_THEN_NEWEST : NEWEST_FIRST;
+        }
+        return SORTS.getOrDefault(sort.toLowerCase(Locale.ROOT), NEWEST_FIRST);
+    }
+
+    public Sort producerSort() {
+        return NEWEST_FIRST;
+    }
+
+    /**
+     * Same clauses as ProductQueryFactory.fullTextQuery: title phrase (boost 4),
+     * fuzzy best_fields on title^3/description, and bool_prefix on title^2. Null when the text has no terms.
+     */
+    Query fullTextQuery(String text) {
+        List<String> titleTerms = analyze(TITLE, text);
+        if (titleTerms.isEmpty()) {
+            return null;
+        }
+
+        BooleanQuery.Builder fullText = new BooleanQuery.Builder().setMinimumNumberShouldMatch(1);
+
+        Query phrase = queryBuilder.createPhraseQuery(TITLE, text);
+        if (phrase != null) {
+            fullText.add(new BoostQuery(phrase, 4.0f), BooleanClause.Occur.SHOULD);
+        }
+
+        fullText.add(new DisjunctionMaxQuery(List.of(
+                new BoostQuery(fuzzyMatch(TITLE, titleTerms), 3.0f),
+                fuzzyMatch(DESCRIPTION, analyze(DESCRIPTION, text))), 0.0f), BooleanClause.Occur.SHOULD);
+
+        BooleanQuery.Builder boolPrefix = new BooleanQuery.Builder();
+        for (int i = 0; i < titleTerms.size() - 1; i++) {
+            boolPrefix.add(new TermQuery(new Term(TITLE, titleTerms.get(i))), BooleanClause.Occur.SHOULD);
+        }
+        boolPrefix.add(new PrefixQuery(new Term(TITLE, titleTerms.get(titleTerms.size() - 1))), BooleanClause.Occur.SHOULD);
+        fullText.add(new BoostQuery(boolPrefix.build(), 2.0f), BooleanClause.Occur.SHOULD);
+
+        return fullText.build();
+    }
+
+    static Query deletedFilter(Boolean onlyDeleted) {
+        return Boolean.TRUE.equals(onlyDeleted) ? ONLY_DELETED : NOT_DELETED;
+    }
+
+    /**
+     * Fuzzy OR match with Elasticsearch "AUTO" fuzziness and a prefix length of 1
+     */
+    private static Query fuzzyMatch(String field, List<String> terms) {
+        BooleanQuery.Builder match = new BooleanQuery.Builder();
+        for (String term : terms) {
+            int edits = term.length() < 3 ? 0 : term.length() <= 5 ? 1 : 2;
+            match.add(edits == 0
+                    ? new TermQuery(new Term(field, term))
+                    : new FuzzyQuery(new Term(field, term), edits, 1), BooleanClause.Occur.SHOULD);
+        }
+        return match.build();
+    }
+
+    private static Query priceRangeQuery(BigDecimal min, BigDecimal max) {
+        return DoublePoint.newRangeQuery(PRICE,
+                min != null ? min.doubleValue() : Double.NEGATIVE_INFINITY,
+                max != null ? max.doubleValue() : Double.POSITIVE_INFINITY);
+    }
+
+    private static Query setQuery(String field, Collection<Long> values) {
+        return LongPoint.newSetQuery(field, values);
+    }
+
+    private List<String> analyze(String field, String text) {
+        List<String> terms = new ArrayList<>();
+        try (TokenStream stream = analyzer.tokenStream(field, text)) {
+            CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken()) {
+                terms.add(term.toString());
+            }
+            stream.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return terms;
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+}
@@ -0,0 +1,111 @@
+package org.igdevx.shopservice.lucene;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TopFieldCollectorManager;
+import org.igdevx.shopservice.dtos.ProductResponse;
+import org.igdevx.shopservice.dtos.ProductSearchRequest;
+import org.igdevx.shopservice.dtos.ProductSearchResponse;
+import org.igdevx.shopservice.dtos.ProductSuggestion;
+import org.igdevx.shopservice.elasticsearch.documents.ProductDocument;
+import org.igdevx.shopservice.elasticsearch.mappers.ProductDocumentResponseMapper;
+import org.igdevx.shopservice.elasticsearch.queries.SearchPlan;
+import org.igdevx.shopservice.search.SearchBackend;
+import org.igdevx.shopservice.search.SearchBackendType;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SearchBackend served in-process from the embedded Lucene index
+ */
+@Component
+@ConditionalOnProperty(prefix = "search", name = "backend", havingValue = "lucene")
+@RequiredArgsConstructor
+@Slf4j
+public class LuceneSearchBackend implements SearchBackend {
+
+    private final LuceneProductIndex index;
+    private final LuceneQueryFactory queryFactory;
+    private final ProductDocumentResponseMapper documentResponseMapper;
+
+    @Override
+    public SearchBackendType type() {
+        return SearchBackendType.LUCENE;
+    }
+
+    @Override
+    public ProductSearchResponse search(SearchPlan plan) {
+        ProductSearchRequest request = plan.request();
+        log.debug("Searching products in Lucene with request: {}", request);
+        int page = plan.page();
+        int size = plan.size();
+        boolean scored = request.getQ() != null && !request.getQ().isBlank();
+
+        Query query = queryFactory.searchQuery(request);
+        Sort sort = queryFactory.sortFor(request.getSort(), scored);
+        return index.search(searcher -> page(searcher, query, sort, page, size));
+    }
+
+    @Override
+    public ProductSearchResponse searchByProducer(Long producerId, Long shelfId, Boolean onlyDeleted, int page, int size) {
+        log.debug("Searching products in Lucene for producer: {}, shelf: {}, onlyDeleted: {}", producerId, shelfId, onlyDeleted);
+        Query query = queryFactory.producerQuery(producerId, shelfId, onlyDeleted);
+        return index.search(searcher -> page(searcher, query, queryFactory.producerSort(), page, size));
+    }
+
+    @Override
+    public List<ProductSuggestion> suggest(String query, int size) {
+        log.debug("Getting suggestions from Lucene for query: {}, size: {}", query, size);
+
+        if (query == null || query.isBlank()) {
+            return new ArrayList<>();
+        }
+
+        Query suggestionQuery = queryFactory.suggestionQuery(query);
+        return index.search(searcher -> {
+            List<ProductSuggestion> suggestions = new ArrayList<>();
+            for (ScoreDoc hit : searcher.search(suggestionQuery, size).scoreDocs) {
+                ProductDocument doc = index.load(searcher, hit.doc);
+                suggestions.add(ProductSuggestion.builder()
+                        .id(doc.getId())
+                        .title(doc.getTitle())
+                        .imageUrl(doc.getMainImageUrl())
+                        .build());
+            }
+            return suggestions;
+        });
+    }
+
+    private ProductSearchResponse page(IndexSearcher searcher, Query query, Sort sort, int page, int size) throws IOException {
+        long from = (long) page * size;
+        // Page and size come planned by ProductSearchFacade (search.cost); the queue never gets more slots
+        // than there are documents, as in IndexSearcher.search(query, n, sort)
+        int numHits = (int) Math.max(1, Math.min(from + size, searcher.getIndexReader().maxDoc()));
+        // Exact hit count collected in the same pass as the top hits, instead of a second count() pass
+        TopDocs topDocs = searcher.search(query,
+                new TopFieldCollectorManager(sort, numHits, null, Integer.MAX_VALUE, false));
+        long total = topDocs.totalHits.value;
+
+        List<ProductResponse> products = new ArrayList<>();
+        for (int i = (int) Math.min(from, topDocs.scoreDocs.length); i < topDocs.scoreDocs.length; i++) {
+            products.add(documentResponseMapper.toProductResponse(index.load(searcher, topDocs.scoreDocs[i].doc)));
+        }
+
+        return ProductSearchResponse.builder()
+                .products(products)
+                .totalElements(total)
+                .totalPages((int) Math.ceil((double) total / size))
+                .currentPage(page)
+                .pageSize(size)
+                .build();
+    }
+}
@@ -2,9 +2,13 @@ package org.igdevx.shopservice.mappers;
 
 import org.igdevx.shopservice.dtos.ProductRequest;
 import org.igdevx.shopservice.dtos.ProductResponse;
+import org.hibernate.Hibernate;
 import org.igdevx.shopservice.models.Product;
+import org.igdevx.shopservice.reference.ReferenceDataCache;
 import org.springframework.stereotype.Component;
 
+import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Component
@@ -15,17 +19,20 @@ public class ProductMapper {
     private final ShelfMapper shelfMapper;
     private final CategoryMapper categoryMapper;
     private final ProductCertificationMapper certificationMapper;
+    private final ReferenceDataCache referenceData;
 
     public ProductMapper(CurrencyMapper currencyMapper,
                         UnitMapper unitMapper,
                         ShelfMapper shelfMapper,
                         CategoryMapper categoryMapper,
-                        ProductCertificationMapper certificationMapper) {
+                        ProductCertificationMapper certificationMapper,
+                        ReferenceDataCache referenceData) {
         this.currencyMapper = currencyMapper;
         this.unitMapper = unitMapper;
         this.shelfMapper = shelfMapper;
         this.categoryMapper = categoryMapper;
         this.certificationMapper = certificationMapper;
+        this.referenceData = referenceData;
     }
 
     public ProductResponse toResponse(Product product) {
@@ -38,13 +45,13 @@ public class ProductMapper {
                 .title(product.getTitle())
                 .description(product.getDescription())
                 .price(product.getPrice())
-                .category(categoryMapper.toResponse(product.getCategory()))
-                .currency(currencyMapper.toResponse(product.getCurrency()))
-                .unit(unitMapper.toResponse(product.getUnit()))
-                .shelf(shelfMapper.toResponse(product.getShelf()))
+                .category(reference(product.getCategory(), c -> referenceData.category(c.getId()), categoryMapper::toResponse))
+                .currency(reference(product.getCurrency(), c -> referenceData.currency(c.getId()), currencyMapper::toResponse))
+                .unit(reference(product.getUnit(), u -> referenceData.unit(u.getId()), unitMapper::toResponse))
+                .shelf(reference(product.getShelf(), s -> referenceData.shelf(s.getId()), shelfMapper::toResponse))
                 .certifications(product.getCertifications() != null
                         ? product.getCertifications().stream()
-                        .map(certificationMapper::toResponse)
+                        .map(c -> reference(c, cert -> referenceData.certification(cert.getId()), certificationMapper::toResponse))
                         .collect(Collectors.toSet())
                         : null)
                 .mainImageId(product.getMainImageId())
@@ -70,4 +77,18 @@ public class ProductMapper {
         product.setMainImageId(request.getMainImageId());
         product.setMainImageUrl(request.getMainImageUrl());
     }
+
+    /**
+     * Map a reference of the product. One that is not loaded (a reference set by id on a product write)
+     * is served by the reference data cache instead of being loaded from Postgres.
+     */
+    private static <E, R> R reference(E entity, Function<E, Optional<R>> cached, Function<E, R> mapper) {
+        if (entity != null && !Hibernate.isInitialized(entity)) {
+            Optional<R> response = cached.apply(entity);
+            if (response.isPresent()) {
+                return response.get();
+            }
+        }
+        return mapper.apply(entity);
+    }
 }
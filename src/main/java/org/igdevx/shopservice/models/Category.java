@@ -2,6 +2,8 @@ package org.igdevx.shopservice.models;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * Category entity representing standardized product categories.
@@ -10,6 +12,8 @@ import lombok.*;
  */
 @Entity
 @Table(name = "category")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 // Unique constraints enforced by partial indexes in database:
 // - uq_category_name_not_deleted (name WHERE is_deleted = FALSE)
 // - uq_category_slug_not_deleted (slug WHERE is_deleted = FALSE)
@@ -2,11 +2,15 @@ package org.igdevx.shopservice.models;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.math.BigDecimal;
 
 @Entity
 @Table(name = "currency")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 // Unique constraint enforced by partial index in database: uq_currency_code_not_deleted
 // Index applies only where is_deleted = FALSE to allow unlimited soft deletes
 @Getter
@@ -2,6 +2,9 @@ package org.igdevx.shopservice.models;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.SQLInsert;
 
 import java.math.BigDecimal;
 import java.util.HashSet;
@@ -9,6 +12,16 @@ import java.util.Set;
 
 @Entity
 @Table(name = "product")
+@NamedEntityGraph(
+        name = Product.WITH_ASSOCIATIONS,
+        attributeNodes = {
+                @NamedAttributeNode("currency"),
+                @NamedAttributeNode("unit"),
+                @NamedAttributeNode("shelf"),
+                @NamedAttributeNode("category"),
+                @NamedAttributeNode("certifications")
+        }
+)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -16,8 +29,16 @@ import java.util.Set;
 @Builder
 public class Product extends BaseEntity {
 
+    /**
+     * Entity graph of everything ProductMapper.toResponse reads, loaded in the same statement as the products
+     */
+    public static final String WITH_ASSOCIATIONS = "Product.withAssociations";
+
+    // Ids come from product_id_seq in blocks of 50 (pooled optimizer), so Hibernate knows them before
+    // the insert and can send inserts in JDBC batches, which IDENTITY rules out
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_id_seq")
+    @SequenceGenerator(name = "product_id_seq", sequenceName = "product_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, length = 200)
@@ -45,7 +66,15 @@ public class Product extends BaseEntity {
     @JoinColumn(name = "category_id", nullable = false)
     private Category category;
 
+    // Cached as ids, the certifications themselves come from their own second-level cache region.
+    // The link table is partitioned by producer_id (V19): each link is inserted with the producer of its product,
+    // read from the product row Hibernate has inserted or updated before the links.
     @ManyToMany(fetch = FetchType.LAZY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+    @SQLInsert(sql = "INSERT INTO product_certification_link (product_id, certification_id, producer_id) " +
+            "SELECT l.product_id, l.certification_id, p.producer_id " +
+            "FROM (VALUES (CAST(? AS BIGINT), CAST(? AS BIGINT))) AS l(product_id, certification_id) " +
+            "JOIN product p ON p.id = l.product_id")
     @JoinTable(
             name = "product_certification_link",
             joinColumns = @JoinColumn(name = "product_id"),
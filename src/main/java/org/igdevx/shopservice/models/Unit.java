@@ -2,9 +2,13 @@ package org.igdevx.shopservice.models;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
 @Table(name = "units")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 // Unique constraint enforced by partial index in database: uq_unit_code_not_deleted
 // Index applies only where is_deleted = FALSE to allow unlimited soft deletes
 @Getter
@@ -0,0 +1,238 @@
+package org.igdevx.shopservice.reference;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.igdevx.shopservice.dtos.*;
+import org.igdevx.shopservice.events.ReferenceDataChangedEvent;
+import org.igdevx.shopservice.mappers.*;
+import org.igdevx.shopservice.models.*;
+import org.igdevx.shopservice.repositories.*;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * In-process copy of the reference data of product writes: the non-deleted currencies, units, shelves,
+ * categories and certifications, as responses keyed by id.
+ * <p>
+ * The small tables (currencies, units, categories, certifications) are loaded whole at startup, and reloaded after
+ * a change committed through their service (ReferenceDataChangedEvent) or once older than reference-data.cache.ttl,
+ * which bounds staleness for changes made on other instances. An id missing from the copy is looked up in Postgres,
+ * so a reference created on another instance is never rejected.
+ * <p>
+ * Shelves belong to producers and grow with them, so they are cached one by one instead: loaded on their first use,
+ * evicted when changed through ShelfService and loaded again once older than the ttl.
+ */
+@Component
+@Slf4j
+public class ReferenceDataCache {
+
+    private final ReferenceDataProperties properties;
+    private final Counter hits;
+    private final Counter misses;
+
+    private final Table<Currency, CurrencyResponse> currencies;
+    private final Table<Unit, UnitResponse> units;
+    private final Entries<Shelf, ShelfResponse> shelves;
+    private final Table<Category, CategoryResponse> categories;
+    private final Table<ProductCertification, ProductCertificationResponse> certifications;
+    private final Map<Class<?>, Table<?, ?>> tables;
+
+    public ReferenceDataCache(CurrencyRepository currencyRepository, CurrencyMapper currencyMapper,
+                              UnitRepository unitRepository, UnitMapper unitMapper,
+                              ShelfRepository shelfRepository, ShelfMapper shelfMapper,
+                              CategoryRepository categoryRepository, CategoryMapper categoryMapper,
+                              ProductCertificationRepository certificationRepository, ProductCertificationMapper certificationMapper,
+                              ReferenceDataProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.hits = meterRegistry.counter("reference_data.cache", "result", "hit");
+        this.misses = meterRegistry.counter("reference_data.cache", "result", "miss");
+        this.currencies = new Table<>("currencies", currencyRepository::findAll, currencyRepository::findById,
+                Currency::getId, currencyMapper::toResponse);
+        this.units = new Table<>("units", unitRepository::findAll, unitRepository::findById,
+                Unit::getId, unitMapper::toResponse);
+        this.shelves = new Entries<>(shelfRepository::findById, shelfMapper::toResponse);
+        this.categories = new Table<>("categories", categoryRepository::findAll, categoryRepository::findById,
+                Category::getId, categoryMapper::toResponse);
+        this.certifications = new Table<>("certifications", certificationRepository::findAll, certificationRepository::findById,
+                ProductCertification::getId, certificationMapper::toResponse);
+        this.tables = Map.of(Currency.class, currencies, Unit.class, units,
+                Category.class, categories, ProductCertification.class, certifications);
+    }
+
+    public Optional<CurrencyResponse> currency(Long id) {
+        return currencies.get(id);
+    }
+
+    public Optional<UnitResponse> unit(Long id) {
+        return units.get(id);
+    }
+
+    public Optional<ShelfResponse> shelf(Long id) {
+        return shelves.get(id);
+    }
+
+    public Optional<CategoryResponse> category(Long id) {
+        return categories.get(id);
+    }
+
+    public Optional<ProductCertificationResponse> certification(Long id) {
+        return certifications.get(id);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadAll() {
+        if (!properties.getCache().isEnabled()) {
+            log.info("Reference data cache is disabled, product writes look references up in Postgres");
+            return;
+        }
+        try {
+            tables.values().forEach(Table::reload);
+        } catch (Exception e) {
+            // Each table is loaded again on its first use
+            log.error("❌ Failed to load the reference data cache", e);
+        }
+    }
+
+    /**
+     * Reload the table of the changed entity, or evict the changed shelf, once the change is visible to other
+     * transactions
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void handleReferenceDataChanged(ReferenceDataChangedEvent event) {
+        if (!properties.getCache().isEnabled()) {
+            return;
+        }
+        if (event.entityType() == Shelf.class) {
+            shelves.evict(event.id());
+            return;
+        }
+        Table<?, ?> table = tables.get(event.entityType());
+        if (table != null) {
+            table.reload();
+        }
+    }
+
+    private record Snapshot<R>(Map<Long, R> byId, long loadedAt) {
+    }
+
+    private record Entry<R>(R response, long loadedAt) {
+    }
+
+    private final class Table<E, R> {
+
+        private final String name;
+        private final Supplier<List<E>> loadAll;
+        private final Function<Long, Optional<E>> loadOne;
+        private final Function<E, Long> id;
+        private final Function<E, R> toResponse;
+        private volatile Snapshot<R> snapshot;
+
+        private Table(String name, Supplier<List<E>> loadAll, Function<Long, Optional<E>> loadOne,
+                      Function<E, Long> id, Function<E, R> toResponse) {
+            this.name = name;
+            this.loadAll = loadAll;
+            this.loadOne = loadOne;
+            this.id = id;
+            this.toResponse = toResponse;
+        }
+
+        private Optional<R> get(Long key) {
+            if (key == null) {
+                return Optional.empty();
+            }
+            if (properties.getCache().isEnabled()) {
+                R cached = current().byId().get(key);
+                if (cached != null) {
+                    hits.increment();
+                    return Optional.of(cached);
+                }
+            }
+            misses.increment();
+            return loadOne.apply(key).map(toResponse);
+        }
+
+        private Snapshot<R> current() {
+            Snapshot<R> current = snapshot;
+            if (current == null || isStale(current)) {
+                synchronized (this) {
+                    current = snapshot;
+                    if (current == null || isStale(current)) {
+                        current = reload();
+                    }
+                }
+            }
+            return current;
+        }
+
+        private boolean isStale(Snapshot<R> current) {
+            return System.nanoTime() - current.loadedAt() > properties.getCache().getTtl().toNanos();
+        }
+
+        private synchronized Snapshot<R> reload() {
+            Map<Long, R> byId = loadAll.get().stream()
+                    .collect(Collectors.toUnmodifiableMap(id, toResponse));
+            snapshot = new Snapshot<>(byId, System.nanoTime());
+            log.debug("Loaded {} {} into the reference data cache", byId.size(), name);
+            return snapshot;
+        }
+    }
+
+    /**
+     * References cached one by one, for a table too large to load whole. Ids missing from Postgres are not cached.
+     */
+    private final class Entries<E, R> {
+
+        private final Function<Long, Optional<E>> loadOne;
+        private final Function<E, R> toResponse;
+        private final ConcurrentMap<Long, Entry<R>> byId = new ConcurrentHashMap<>();
+
+        private Entries(Function<Long, Optional<E>> loadOne, Function<E, R> toResponse) {
+            this.loadOne = loadOne;
+            this.toResponse = toResponse;
+        }
+
+        private Optional<R> get(Long key) {
+            if (key == null) {
+                return Optional.empty();
+            }
+            if (properties.getCache().isEnabled()) {
+                Entry<R> cached = byId.get(key);
+                if (cached != null && System.nanoTime() - cached.loadedAt() <= properties.getCache().getTtl().toNanos()) {
+                    hits.increment();
+                    return Optional.of(cached.response());
+                }
+            }
+            misses.increment();
+            Optional<R> loaded = loadOne.apply(key).map(toResponse);
+            if (properties.getCache().isEnabled()) {
+                loaded.ifPresentOrElse(response -> byId.put(key, new Entry<>(response, System.nanoTime())),
+                        () -> byId.remove(key));
+            }
+            return loaded;
+        }
+
+        /**
+         * Forget the changed id, or every id when it is unknown
+         */
+        private void evict(Long key) {
+            if (key == null) {
+                byId.clear();
+            } else {
+                byId.remove(key);
+            }
+        }
+    }
+}
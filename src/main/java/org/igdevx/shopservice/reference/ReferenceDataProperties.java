@@ -0,0 +1,35 @@
+package org.igdevx.shopservice.reference;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Reference data cache settings (prefix "reference-data")
+ */
+@Component
+@ConfigurationProperties(prefix = "reference-data")
+@Getter
+@Setter
+public class ReferenceDataProperties {
+
+    private final Cache cache = new Cache();
+
+    @Getter
+    @Setter
+    public static class Cache {
+
+        /**
+         * Serve currencies, units, shelves, categories and certifications of product writes from memory
+         */
+        private boolean enabled = true;
+
+        /**
+         * Age after which a table is reloaded, bounds staleness for changes made on other instances
+         */
+        private Duration ttl = Duration.ofMinutes(10);
+    }
+}
@@ -1,12 +1,17 @@
 package org.igdevx.shopservice.repositories;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.igdevx.shopservice.models.Category;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -30,14 +35,21 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
     boolean existsBySlug(@Param("slug") String slug);
 
     // Find all non-deleted categories ordered by display order
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT c FROM Category c WHERE c.isDeleted = false ORDER BY c.displayOrder ASC, c.name ASC")
     List<Category> findAll();
 
     // Find by ID (only non-deleted)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT c FROM Category c WHERE c.id = :id AND c.isDeleted = false")
     Optional<Category> findById(@Param("id") Long id);
 
+    // Find by IDs (non-deleted only), to validate many references in one query
+    @Query("SELECT c FROM Category c WHERE c.id IN :ids AND c.isDeleted = false")
+    List<Category> findAllByIdIn(@Param("ids") Collection<Long> ids);
+
     // Find all deleted categories
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT c FROM Category c WHERE c.isDeleted = true")
     List<Category> findAllDeleted();
 
@@ -45,6 +57,13 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
     @Query("SELECT c FROM Category c WHERE c.id = :id")
     Optional<Category> findByIdIncludingDeleted(@Param("id") Long id);
 
+    // Keyset pages of non-deleted categories, ordered by display order (categories without one last) then id
+    @Query("SELECT c FROM Category c WHERE c.isDeleted = false " +
+           "AND (COALESCE(c.displayOrder, 2147483647) > :afterOrder " +
+           "OR (COALESCE(c.displayOrder, 2147483647) = :afterOrder AND c.id > :afterId)) " +
+           "ORDER BY COALESCE(c.displayOrder, 2147483647) ASC, c.id ASC")
+    List<Category> findPageAfter(@Param("afterOrder") Integer afterOrder, @Param("afterId") Long afterId, Limit limit);
+
     // Soft delete by ID
     @Modifying
     @Query("UPDATE Category c SET c.isDeleted = true WHERE c.id = :id")
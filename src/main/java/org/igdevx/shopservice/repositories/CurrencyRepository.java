@@ -1,12 +1,16 @@
 package org.igdevx.shopservice.repositories;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.igdevx.shopservice.models.Currency;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,13 +18,19 @@ import java.util.Optional;
 public interface CurrencyRepository extends JpaRepository<Currency, Long> {
 
     // Find all non-deleted currencies
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT c FROM Currency c WHERE c.isDeleted = false")
     List<Currency> findAll();
 
     // Find by ID (non-deleted only)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT c FROM Currency c WHERE c.id = :id AND c.isDeleted = false")
     Optional<Currency> findById(@Param("id") Long id);
 
+    // Find by IDs (non-deleted only), to validate many references in one query
+    @Query("SELECT c FROM Currency c WHERE c.id IN :ids AND c.isDeleted = false")
+    List<Currency> findAllByIdIn(@Param("ids") Collection<Long> ids);
+
     // Find by code (non-deleted only)
     @Query("SELECT c FROM Currency c WHERE c.code = :code AND c.isDeleted = false")
     Optional<Currency> findByCode(@Param("code") String code);
@@ -34,6 +44,7 @@ public interface CurrencyRepository extends JpaRepository<Currency, Long> {
     Optional<Currency> findByIdIncludingDeleted(@Param("id") Long id);
 
     // Find all deleted currencies
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT c FROM Currency c WHERE c.isDeleted = true")
     List<Currency> findAllDeleted();
 
@@ -0,0 +1,174 @@
+package org.igdevx.shopservice.repositories;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import org.hibernate.query.NativeQuery;
+import org.igdevx.shopservice.models.Product;
+import org.igdevx.shopservice.repositories.ProductBulkRepository.Changed;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Moves soft-deleted products between the product table and the product_archive cold store, one statement per move.
+ * <p>
+ * Like ProductBulkRepository, the statements are synchronized with the Product entity: pending changes are
+ * flushed before they run and cached Product state, certifications included, is invalidated after.
+ */
+@Repository
+public class ProductArchiveRepository {
+
+    private static final String COLUMNS = "id, title, description, price, currency_id, unit_id, shelf_id, category_id, " +
+            "main_image_id, main_image_url, is_fresh, producer_id, created_at";
+
+    public record ArchivedProduct(Long id, String title, String description, BigDecimal price,
+                                  Long currencyId, Long unitId, Long shelfId, Long categoryId, List<Long> certificationIds,
+                                  UUID mainImageId, String mainImageUrl, Boolean isFresh, Long producerId,
+                                  LocalDateTime createdAt, LocalDateTime updatedAt) {
+    }
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Move at most limit products deleted for longer than the grace period into the archive, oldest deletion first.
+     * Rows locked by another transaction are skipped, so that concurrent runs never wait on each other.
+     */
+    @SuppressWarnings("unchecked")
+    public List<Changed> archiveDeletedBefore(Duration gracePeriod, int limit) {
+        NativeQuery<Tuple> query = synchronizedQuery(
+                "WITH batch AS (" +
+                "    SELECT id FROM product " +
+                "    WHERE is_deleted = TRUE AND updated_at < LOCALTIMESTAMP - make_interval(secs => :graceSeconds) " +
+                "    ORDER BY updated_at LIMIT :limit FOR UPDATE SKIP LOCKED" +
+                "), moved AS (" +
+                // The link rows go with the product (ON DELETE CASCADE), the statement still reads them from its snapshot
+                "    DELETE FROM product p USING batch b WHERE p.id = b.id RETURNING p.*" +
+                ") " +
+                "INSERT INTO product_archive (" + COLUMNS + ", updated_at, certification_ids) " +
+                "SELECT " + COLUMNS + ", updated_at, " +
+                "ARRAY(SELECT l.certification_id FROM product_certification_link l " +
+                "      WHERE l.product_id = m.id AND l.producer_id = m.producer_id ORDER BY 1) " +
+                "FROM moved m " +
+                "RETURNING id, producer_id", Tuple.class);
+        query.setParameter("graceSeconds", (double) gracePeriod.toSeconds());
+        query.setParameter("limit", limit);
+        return query.getResultList().stream()
+                .map(row -> new Changed(toLong(row.get("id")), toLong(row.get("producer_id"))))
+                .toList();
+    }
+
+    /**
+     * Move an archived product back into the product table, not deleted, with its certifications that still exist.
+     * Returns its producer, or empty when the product is not archived.
+     */
+    @SuppressWarnings("unchecked")
+    public Optional<Long> restore(Long id) {
+        NativeQuery<Object> query = synchronizedQuery(
+                "WITH moved AS (" +
+                "    DELETE FROM product_archive WHERE id = :id RETURNING *" +
+                "), restored AS (" +
+                "    INSERT INTO product (" + COLUMNS + ", is_deleted) " +
+                "    SELECT " + COLUMNS + ", FALSE FROM moved " +
+                "    RETURNING id, producer_id" +
+                "), relinked AS (" +
+                "    INSERT INTO product_certification_link (product_id, certification_id, producer_id) " +
+                "    SELECT m.id, c.id, m.producer_id FROM moved m CROSS JOIN LATERAL unnest(m.certification_ids) AS c(id) " +
+                "    WHERE EXISTS (SELECT 1 FROM product_certification pc WHERE pc.id = c.id)" +
+                ") " +
+                "SELECT producer_id FROM restored", Object.class);
+        query.setParameter("id", id);
+        return query.getResultList().stream().findFirst().map(ProductArchiveRepository::toLong);
+    }
+
+    /**
+     * Delete an archived product for good. Returns its producer, or empty when the product is not archived.
+     */
+    @SuppressWarnings("unchecked")
+    public Optional<Long> delete(Long id) {
+        NativeQuery<Object> query = entityManager
+                .createNativeQuery("DELETE FROM product_archive WHERE id = :id RETURNING producer_id", Object.class)
+                .unwrap(NativeQuery.class);
+        query.setParameter("id", id);
+        return query.getResultList().stream().findFirst().map(ProductArchiveRepository::toLong);
+    }
+
+    /**
+     * Archived products by ids, in no particular order
+     */
+    @SuppressWarnings("unchecked")
+    public List<ArchivedProduct> findAllByIdIn(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        List<Tuple> rows = entityManager.createNativeQuery(
+                        "SELECT " + COLUMNS + ", updated_at, certification_ids FROM product_archive WHERE id IN (:ids)",
+                        Tuple.class)
+                .setParameter("ids", ids)
+                .getResultList();
+        return rows.stream().map(ProductArchiveRepository::toArchivedProduct).toList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> NativeQuery<T> synchronizedQuery(String sql, Class<T> resultType) {
+        return entityManager.createNativeQuery(sql, resultType)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(Product.class);
+    }
+
+    private static ArchivedProduct toArchivedProduct(Tuple row) {
+        return new ArchivedProduct(
+                toLong(row.get("id")),
+                (String) row.get("title"),
+                (String) row.get("description"),
+                (BigDecimal) row.get("price"),
+                toLong(row.get("currency_id")),
+                toLong(row.get("unit_id")),
+                toLong(row.get("shelf_id")),
+                toLong(row.get("category_id")),
+                toLongs(row.get("certification_ids")),
+                (UUID) row.get("main_image_id"),
+                (String) row.get("main_image_url"),
+                (Boolean) row.get("is_fresh"),
+                toLong(row.get("producer_id")),
+                toDateTime(row.get("created_at")),
+                toDateTime(row.get("updated_at")));
+    }
+
+    private static Long toLong(Object value) {
+        return value == null ? null : ((Number) value).longValue();
+    }
+
+    private static List<Long> toLongs(Object value) {
+        Object elements = value;
+        if (value instanceof Array array) {
+            try {
+                elements = array.getArray();
+            } catch (SQLException e) {
+                throw new IllegalStateException("Failed to read certification_ids", e);
+            }
+        }
+        if (elements == null) {
+            return List.of();
+        }
+        return Arrays.stream((Object[]) elements).map(ProductArchiveRepository::toLong).toList();
+    }
+
+    private static LocalDateTime toDateTime(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime();
+        }
+        return (LocalDateTime) value;
+    }
+}
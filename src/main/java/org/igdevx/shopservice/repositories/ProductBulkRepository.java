@@ -0,0 +1,114 @@
+package org.igdevx.shopservice.repositories;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import org.hibernate.query.NativeQuery;
+import org.igdevx.shopservice.dtos.ProductBulkFilter;
+import org.igdevx.shopservice.models.Product;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Set-based product changes: each method is one UPDATE over the products of a filter,
+ * returning the id and producer of every row it changed so that they can be reindexed.
+ * <p>
+ * The statements are synchronized with the Product entity: pending changes are flushed before
+ * they run and cached Product state is invalidated after. updated_at is set by the product trigger.
+ */
+@Repository
+public class ProductBulkRepository {
+
+    public record Changed(Long id, Long producerId) {
+    }
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Set the price of the non-deleted products of the filter
+     */
+    public List<Changed> setPrice(ProductBulkFilter filter, BigDecimal price) {
+        return update("price = :price", false, filter, Map.of("price", price));
+    }
+
+    /**
+     * Change the price of the non-deleted products of the filter by a percentage, rounded to the cent
+     * and never below 0.01
+     */
+    public List<Changed> changePrice(ProductBulkFilter filter, BigDecimal percent) {
+        return update("price = GREATEST(ROUND(price * (100 + :percent) / 100, 2), 0.01)", false, filter,
+                Map.of("percent", percent));
+    }
+
+    /**
+     * Move the non-deleted products of the filter that belong to the producer of the shelf onto it
+     */
+    public List<Changed> moveToShelf(ProductBulkFilter filter, Long shelfId, Long shelfProducerId) {
+        return update("shelf_id = :targetShelfId", false, filter, Map.of("targetShelfId", shelfId),
+                "producer_id = :shelfProducerId", Map.of("shelfProducerId", shelfProducerId));
+    }
+
+    /**
+     * Soft delete the non-deleted products of the filter
+     */
+    public List<Changed> softDelete(ProductBulkFilter filter) {
+        return update("is_deleted = TRUE", false, filter, Map.of());
+    }
+
+    /**
+     * Restore the deleted products of the filter
+     */
+    public List<Changed> restore(ProductBulkFilter filter) {
+        return update("is_deleted = FALSE", true, filter, Map.of());
+    }
+
+    private List<Changed> update(String set, boolean deleted, ProductBulkFilter filter, Map<String, Object> setParameters) {
+        return update(set, deleted, filter, setParameters, null, Map.of());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Changed> update(String set, boolean deleted, ProductBulkFilter filter, Map<String, Object> setParameters,
+                                 String condition, Map<String, Object> conditionParameters) {
+        StringBuilder sql = new StringBuilder("UPDATE product SET ").append(set)
+                .append(" WHERE is_deleted = ").append(deleted ? "TRUE" : "FALSE");
+        Map<String, Object> parameters = new HashMap<>(setParameters);
+        parameters.putAll(conditionParameters);
+        if (condition != null) {
+            sql.append(" AND ").append(condition);
+        }
+        if (filter.getProducerId() != null) {
+            sql.append(" AND producer_id = :producerId");
+            parameters.put("producerId", filter.getProducerId());
+        }
+        if (filter.getShelfId() != null) {
+            sql.append(" AND shelf_id = :shelfId");
+            parameters.put("shelfId", filter.getShelfId());
+        }
+        if (filter.getCategoryId() != null) {
+            sql.append(" AND category_id = :categoryId");
+            parameters.put("categoryId", filter.getCategoryId());
+        }
+        if (filter.getIds() != null && !filter.getIds().isEmpty()) {
+            sql.append(" AND id IN (:ids)");
+            parameters.put("ids", filter.getIds());
+        }
+        sql.append(" RETURNING id, producer_id");
+
+        NativeQuery<Tuple> query = entityManager.createNativeQuery(sql.toString(), Tuple.class)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(Product.class);
+        parameters.forEach(query::setParameter);
+        return query.getResultList().stream()
+                .map(row -> new Changed(toLong(row.get("id")), toLong(row.get("producer_id"))))
+                .toList();
+    }
+
+    private static Long toLong(Object value) {
+        return value == null ? null : ((Number) value).longValue();
+    }
+}
@@ -1,12 +1,16 @@
 package org.igdevx.shopservice.repositories;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.igdevx.shopservice.models.ProductCertification;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,12 +23,19 @@ public interface ProductCertificationRepository extends JpaRepository<ProductCer
     @Query("SELECT COUNT(pc) > 0 FROM ProductCertification pc WHERE pc.label = :label AND pc.isDeleted = false")
     boolean existsByLabel(@Param("label") String label);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT pc FROM ProductCertification pc WHERE pc.isDeleted = false")
     List<ProductCertification> findAll();
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT pc FROM ProductCertification pc WHERE pc.id = :id AND pc.isDeleted = false")
     Optional<ProductCertification> findById(@Param("id") Long id);
 
+    // Find by IDs (non-deleted only), to validate many references in one query
+    @Query("SELECT pc FROM ProductCertification pc WHERE pc.id IN :ids AND pc.isDeleted = false")
+    List<ProductCertification> findAllByIdIn(@Param("ids") Collection<Long> ids);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT pc FROM ProductCertification pc WHERE pc.isDeleted = true")
     List<ProductCertification> findAllDeleted();
 
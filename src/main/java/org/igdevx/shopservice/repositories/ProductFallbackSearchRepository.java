@@ -0,0 +1,65 @@
+package org.igdevx.shopservice.repositories;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.igdevx.shopservice.dtos.ProductSearchRequest;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Product id lookups for the degraded Postgres search path.
+ * Title matching relies on the idx_product_title_trgm GIN index (LIKE and % similarity on lower(title)).
+ */
+@Repository
+public class ProductFallbackSearchRepository {
+
+    private static final String TITLE_MATCH = "(lower(p.title) LIKE :pattern OR lower(p.title) % :q)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Page of product ids matching a search request, in the requested order
+     */
+    public Page<Long> searchIds(ProductSearchRequest request, int page, int size) {
+        ProductSqlFilter filter = ProductSqlFilter.forSearch(request);
+        String relevance = ProductSqlFilter.NEWEST_FIRST;
+
+        if (request.getQ() != null && !request.getQ().isBlank()) {
+            String q = request.getQ().trim().toLowerCase(Locale.ROOT);
+            filter.and(TITLE_MATCH, "pattern", ProductSqlFilter.containsPattern(q)).param("q", q);
+            relevance = "similarity(lower(p.title), :q) DESC, " + ProductSqlFilter.NEWEST_FIRST;
+        }
+
+        return filter.pageIds(entityManager, ProductSqlFilter.orderBy(request.getSort(), relevance), page, size);
+    }
+
+    /**
+     * Page of product ids for a producer shop page, newest first
+     */
+    public Page<Long> producerIds(Long producerId, Long shelfId, boolean onlyDeleted, int page, int size) {
+        return ProductSqlFilter.forProducer(producerId, shelfId, onlyDeleted)
+                .pageIds(entityManager, ProductSqlFilter.NEWEST_FIRST, page, size);
+    }
+
+    /**
+     * Ids of non-deleted products whose title best matches the given text
+     */
+    @SuppressWarnings("unchecked")
+    public List<Long> suggestionIds(String text, int size) {
+        String q = text.trim().toLowerCase(Locale.ROOT);
+        Query query = entityManager.createNativeQuery(
+                "SELECT p.id FROM product p " +
+                "WHERE p.is_deleted = FALSE AND " + TITLE_MATCH + " " +
+                "ORDER BY similarity(lower(p.title), :q) DESC, p.id " +
+                "LIMIT :size", Long.class);
+        query.setParameter("pattern", ProductSqlFilter.containsPattern(q));
+        query.setParameter("q", q);
+        query.setParameter("size", size);
+        return query.getResultList();
+    }
+}
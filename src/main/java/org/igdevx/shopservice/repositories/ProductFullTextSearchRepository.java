@@ -0,0 +1,78 @@
+package org.igdevx.shopservice.repositories;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.igdevx.shopservice.dtos.ProductSearchRequest;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Product id lookups for the Postgres search backend.
+ * Matches against the generated product.search_vector column (french_unaccent configuration, GIN index, see V14)
+ * and ranks with ts_rank.
+ */
+@Repository
+public class ProductFullTextSearchRepository {
+
+    private static final String QUERY = "websearch_to_tsquery('french_unaccent', :q)";
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Page of product ids matching a search request, best ts_rank first unless another sort is requested
+     */
+    public Page<Long> searchIds(ProductSearchRequest request, int page, int size) {
+        ProductSqlFilter filter = ProductSqlFilter.forSearch(request);
+        String relevance = ProductSqlFilter.NEWEST_FIRST;
+
+        if (request.getQ() != null && !request.getQ().isBlank()) {
+            filter.and("p.search_vector @@ " + QUERY, "q", request.getQ().trim());
+            relevance = "ts_rank(p.search_vector, " + QUERY + ") DESC, " + ProductSqlFilter.NEWEST_FIRST;
+        }
+
+        return filter.pageIds(entityManager, ProductSqlFilter.orderBy(request.getSort(), relevance), page, size);
+    }
+
+    /**
+     * Ids of non-deleted products matching the typed text, the last word being treated as a prefix ("tom" -> "tomates")
+     */
+    @SuppressWarnings("unchecked")
+    public List<Long> suggestionIds(String text, int size) {
+        String prefixQuery = toPrefixQuery(text);
+        if (prefixQuery.isEmpty()) {
+            return List.of();
+        }
+
+        Query query = entityManager.createNativeQuery(
+                "SELECT p.id FROM product p " +
+                "WHERE p.is_deleted = FALSE AND p.search_vector @@ to_tsquery('french_unaccent', :q) " +
+                "ORDER BY ts_rank(p.search_vector, to_tsquery('french_unaccent', :q)) DESC, p.id " +
+                "LIMIT :size", Long.class);
+        query.setParameter("q", prefixQuery);
+        query.setParameter("size", size);
+        return query.getResultList();
+    }
+
+    /**
+     * "pommes gol" -> "pommes & gol:*". Only letters and digits are kept, so user input cannot inject tsquery operators.
+     */
+    static String toPrefixQuery(String text) {
+        List<String> words = NON_WORD.splitAsStream(text.toLowerCase(Locale.ROOT))
+                .filter(word -> !word.isEmpty())
+                .collect(Collectors.toList());
+        if (words.isEmpty()) {
+            return "";
+        }
+        int last = words.size() - 1;
+        words.set(last, words.get(last) + ":*");
+        return String.join(" & ", words);
+    }
+}
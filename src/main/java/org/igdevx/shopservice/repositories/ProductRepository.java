@@ -1,49 +1,81 @@
 package org.igdevx.shopservice.repositories;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.igdevx.shopservice.models.Product;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
 
+    // Rows the JDBC driver fetches per round trip when streaming (Postgres only honours it inside a transaction)
+    String STREAM_FETCH_SIZE = "500";
+
+    // List queries load the associations mapped to ProductResponse through the Product.withAssociations graph,
+    // so a list of N products costs one statement instead of up to 5N + 1
+
     // Find all non-deleted products
+    @EntityGraph(Product.WITH_ASSOCIATIONS)
     @Query("SELECT p FROM Product p WHERE p.isDeleted = false")
     List<Product> findAll();
 
     // Find by ID (non-deleted only)
     @Query("SELECT p FROM Product p LEFT JOIN FETCH p.currency LEFT JOIN FETCH p.unit " +
-           "LEFT JOIN FETCH p.shelf LEFT JOIN FETCH p.certifications " +
+           "LEFT JOIN FETCH p.shelf LEFT JOIN FETCH p.category LEFT JOIN FETCH p.certifications " +
            "WHERE p.id = :id AND p.isDeleted = false")
     Optional<Product> findById(@Param("id") Long id);
 
     // Find all fresh products
+    @EntityGraph(Product.WITH_ASSOCIATIONS)
     @Query("SELECT p FROM Product p WHERE p.isDeleted = false AND p.isFresh = true")
     List<Product> findAllFresh();
 
     // Find by shelf
+    @EntityGraph(Product.WITH_ASSOCIATIONS)
     @Query("SELECT p FROM Product p WHERE p.shelf.id = :shelfId AND p.isDeleted = false")
     List<Product> findByShelfId(@Param("shelfId") Long shelfId);
 
-    // Search by title (case-insensitive)
-    @Query("SELECT p FROM Product p WHERE LOWER(p.title) LIKE LOWER(CONCAT('%', :searchTerm, '%')) AND p.isDeleted = false")
-    List<Product> searchByTitle(@Param("searchTerm") String searchTerm);
+    // Ids of the non-deleted products whose title or description contains the text, or whose title is similar to it,
+    // best title matches first. :pattern is the lower-cased text escaped for LIKE between %, :q the lower-cased text.
+    // Each condition is served by a trigram index (idx_product_title_trgm, idx_product_description_trgm).
+    @Query(value = "SELECT p.id FROM product p " +
+                   "WHERE p.is_deleted = FALSE " +
+                   "AND (lower(p.title) LIKE :pattern OR lower(p.title) % :q OR lower(p.description) LIKE :pattern) " +
+                   "ORDER BY similarity(lower(p.title), :q) DESC, " +
+                   "COALESCE(word_similarity(:q, lower(p.description)), 0) DESC, p.id " +
+                   "LIMIT :limit",
+           nativeQuery = true)
+    List<Long> searchIdsByText(@Param("pattern") String pattern, @Param("q") String q, @Param("limit") int limit);
+
+    default List<Long> searchIdsByText(String text, int limit) {
+        String q = text.trim().toLowerCase(Locale.ROOT);
+        return searchIdsByText(ProductSqlFilter.containsPattern(q), q, limit);
+    }
 
     // Find by ID including deleted
     @Query("SELECT p FROM Product p LEFT JOIN FETCH p.currency LEFT JOIN FETCH p.unit " +
-           "LEFT JOIN FETCH p.shelf LEFT JOIN FETCH p.certifications " +
+           "LEFT JOIN FETCH p.shelf LEFT JOIN FETCH p.category LEFT JOIN FETCH p.certifications " +
            "WHERE p.id = :id")
     Optional<Product> findByIdIncludingDeleted(@Param("id") Long id);
 
     // Find all deleted products
+    @EntityGraph(Product.WITH_ASSOCIATIONS)
     @Query("SELECT p FROM Product p WHERE p.isDeleted = true")
     List<Product> findAllDeleted();
 
@@ -58,22 +90,106 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
            countQuery = "SELECT COUNT(p) FROM Product p")
     Page<Product> findAllIncludingDeletedPaginated(Pageable pageable);
 
+    // Find products changed since a point in time, including deleted (to catch up after copying an index)
+    @Query("SELECT DISTINCT p FROM Product p LEFT JOIN FETCH p.currency LEFT JOIN FETCH p.unit " +
+           "LEFT JOIN FETCH p.shelf LEFT JOIN FETCH p.category LEFT JOIN FETCH p.certifications " +
+           "WHERE p.updatedAt >= :since")
+    List<Product> findAllUpdatedSince(@Param("since") LocalDateTime since);
+
+    // Ids of the products changed since a point in time, including deleted (delta reloads of the catalog)
+    @Query("SELECT p.id FROM Product p WHERE p.updatedAt >= :since ORDER BY p.id")
+    List<Long> findIdsUpdatedSince(@Param("since") LocalDateTime since);
+
+    // Find products by IDs, including deleted (to reindex the products of a bulk change)
+    @EntityGraph(Product.WITH_ASSOCIATIONS)
+    @Query("SELECT p FROM Product p WHERE p.id IN :ids")
+    List<Product> findAllByIdInIncludingDeleted(@Param("ids") Collection<Long> ids);
+
     // Find by producer ID (non-deleted only)
+    @EntityGraph(Product.WITH_ASSOCIATIONS)
     @Query("SELECT p FROM Product p WHERE p.producerId = :producerId AND p.isDeleted = false")
     List<Product> findByProducerId(@Param("producerId") Long producerId);
 
     // Find products by producer ID and shelf ID
+    @EntityGraph(Product.WITH_ASSOCIATIONS)
     @Query("SELECT p FROM Product p WHERE p.producerId = :producerId AND p.shelf.id = :shelfId AND p.isDeleted = false")
     List<Product> findByProducerIdAndShelfId(@Param("producerId") Long producerId, @Param("shelfId") Long shelfId);
 
     // Find products by single category ID
+    @EntityGraph(Product.WITH_ASSOCIATIONS)
     @Query("SELECT p FROM Product p WHERE p.category.id = :categoryId AND p.isDeleted = false")
     List<Product> findByCategoryId(@Param("categoryId") Long categoryId);
 
     // Find products by multiple category IDs
+    @EntityGraph(Product.WITH_ASSOCIATIONS)
     @Query("SELECT p FROM Product p WHERE p.category.id IN :categoryIds AND p.isDeleted = false")
     List<Product> findByCategoryIdIn(@Param("categoryIds") List<Long> categoryIds);
 
+    // Keyset pages of product ids, ordered by id: the page after a given id (0 for the first one)
+    @Query("SELECT p.id FROM Product p WHERE p.isDeleted = false AND p.id > :afterId ORDER BY p.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Limit limit);
+
+    // Those of the given ids still in the product table, deleted included (to drop the others from a migrated index)
+    @Query("SELECT p.id FROM Product p WHERE p.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    // Deleted products included (to load every product BULK_INDEX_BATCH at a time with findAllByIdInIncludingDeleted)
+    @Query("SELECT p.id FROM Product p WHERE p.id > :afterId ORDER BY p.id")
+    List<Long> findIdsIncludingDeletedAfter(@Param("afterId") Long afterId, Limit limit);
+
+    @Query("SELECT p.id FROM Product p WHERE p.isDeleted = false AND p.isFresh = true AND p.id > :afterId ORDER BY p.id")
+    List<Long> findFreshIdsAfter(@Param("afterId") Long afterId, Limit limit);
+
+    @Query("SELECT p.id FROM Product p WHERE p.isDeleted = true AND p.id > :afterId ORDER BY p.id")
+    List<Long> findDeletedIdsAfter(@Param("afterId") Long afterId, Limit limit);
+
+    @Query("SELECT p.id FROM Product p WHERE p.producerId = :producerId AND p.isDeleted = false " +
+           "AND p.id > :afterId ORDER BY p.id")
+    List<Long> findIdsByProducerIdAfter(@Param("producerId") Long producerId, @Param("afterId") Long afterId, Limit limit);
+
+    @Query("SELECT p.id FROM Product p WHERE p.category.id IN :categoryIds AND p.isDeleted = false " +
+           "AND p.id > :afterId ORDER BY p.id")
+    List<Long> findIdsByCategoryIdInAfter(@Param("categoryIds") Collection<Long> categoryIds,
+                                          @Param("afterId") Long afterId, Limit limit);
+
+    // Streams of products with their associations, read from a cursor STREAM_FETCH_SIZE rows at a time.
+    // Ordered by id so that Hibernate can group the rows of the certifications fetch join per product.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Product p LEFT JOIN FETCH p.currency LEFT JOIN FETCH p.unit " +
+           "LEFT JOIN FETCH p.shelf LEFT JOIN FETCH p.category LEFT JOIN FETCH p.certifications " +
+           "WHERE p.isDeleted = :deleted ORDER BY p.id")
+    Stream<Product> streamAll(@Param("deleted") boolean deleted);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Product p LEFT JOIN FETCH p.currency LEFT JOIN FETCH p.unit " +
+           "LEFT JOIN FETCH p.shelf LEFT JOIN FETCH p.category LEFT JOIN FETCH p.certifications " +
+           "WHERE p.isDeleted = false AND p.isFresh = true ORDER BY p.id")
+    Stream<Product> streamAllFresh();
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Product p LEFT JOIN FETCH p.currency LEFT JOIN FETCH p.unit " +
+           "LEFT JOIN FETCH p.shelf LEFT JOIN FETCH p.category LEFT JOIN FETCH p.certifications " +
+           "WHERE p.producerId = :producerId AND p.isDeleted = false ORDER BY p.id")
+    Stream<Product> streamByProducerId(@Param("producerId") Long producerId);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Product p LEFT JOIN FETCH p.currency LEFT JOIN FETCH p.unit " +
+           "LEFT JOIN FETCH p.shelf LEFT JOIN FETCH p.category LEFT JOIN FETCH p.certifications " +
+           "WHERE p.category.id IN :categoryIds AND p.isDeleted = false ORDER BY p.id")
+    Stream<Product> streamByCategoryIdIn(@Param("categoryIds") Collection<Long> categoryIds);
+
     // Soft delete by ID
     @Modifying
     @Query("UPDATE Product p SET p.isDeleted = true WHERE p.id = :id")
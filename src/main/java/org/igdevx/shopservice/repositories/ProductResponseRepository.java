@@ -0,0 +1,173 @@
+package org.igdevx.shopservice.repositories;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import lombok.RequiredArgsConstructor;
+import org.igdevx.shopservice.dtos.*;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Read-only product queries projected straight into ProductResponse.
+ * <p>
+ * One native statement reads the product and its currency, unit, shelf and category as columns,
+ * with the certifications aggregated by Postgres into a JSON array. Nothing is hydrated into managed
+ * entities, so there is no persistence context entry or dirty-checking snapshot per row.
+ * Writes and everything that needs an entity keep going through ProductRepository.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProductResponseRepository {
+
+    private static final TypeReference<Set<ProductCertificationResponse>> CERTIFICATIONS = new TypeReference<>() {
+    };
+
+    private static final String SELECT =
+            "SELECT p.id, p.title, p.description, p.price, p.main_image_id, p.main_image_url, p.is_fresh, " +
+            "p.producer_id, p.created_at, p.updated_at, p.is_deleted, " +
+            "c.id AS currency_id, c.code AS currency_code, c.label AS currency_label, " +
+            "c.usd_exchange_rate AS currency_rate, c.created_at AS currency_created_at, " +
+            "c.updated_at AS currency_updated_at, c.is_deleted AS currency_is_deleted, " +
+            "u.id AS unit_id, u.code AS unit_code, u.label AS unit_label, " +
+            "s.id AS shelf_id, s.label AS shelf_label, s.producer_id AS shelf_producer_id, " +
+            "s.created_at AS shelf_created_at, s.updated_at AS shelf_updated_at, s.is_deleted AS shelf_is_deleted, " +
+            "cat.id AS category_id, cat.name AS category_name, cat.slug AS category_slug, " +
+            "cat.description AS category_description, cat.display_order AS category_display_order, " +
+            "cat.created_at AS category_created_at, cat.updated_at AS category_updated_at, " +
+            "cat.is_deleted AS category_is_deleted, " +
+            "CAST(COALESCE((SELECT json_agg(json_build_object('id', pc.id, 'label', pc.label, " +
+            "'createdAt', pc.created_at, 'updatedAt', pc.updated_at, 'isDeleted', pc.is_deleted) ORDER BY pc.id) " +
+            "FROM product_certification_link l JOIN product_certification pc ON pc.id = l.certification_id " +
+            "WHERE l.product_id = p.id AND l.producer_id = p.producer_id), '[]') AS text) AS certifications " +
+            "FROM product p " +
+            "JOIN currency c ON c.id = p.currency_id " +
+            "JOIN units u ON u.id = p.unit_id " +
+            "JOIN shelf s ON s.id = p.shelf_id " +
+            "LEFT JOIN category cat ON cat.id = p.category_id ";
+
+    private final ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Non-deleted product by id
+     */
+    public Optional<ProductResponse> findById(Long id) {
+        List<?> rows = entityManager.createNativeQuery(SELECT + "WHERE p.id = :id AND p.is_deleted = FALSE", Tuple.class)
+                .setParameter("id", id)
+                .getResultList();
+        return rows.stream().map(row -> toResponse((Tuple) row)).findFirst();
+    }
+
+    /**
+     * Products by ids, deleted or not, in the order of the ids
+     */
+    public List<ProductResponse> findAllByIdIn(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        List<?> rows = entityManager.createNativeQuery(SELECT + "WHERE p.id IN (:ids)", Tuple.class)
+                .setParameter("ids", ids)
+                .getResultList();
+        Map<Long, ProductResponse> byId = rows.stream()
+                .map(row -> toResponse((Tuple) row))
+                .collect(Collectors.toMap(ProductResponse::getId, Function.identity()));
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private ProductResponse toResponse(Tuple row) {
+        return ProductResponse.builder()
+                .id(toLong(row.get("id")))
+                .title((String) row.get("title"))
+                .description((String) row.get("description"))
+                .price((BigDecimal) row.get("price"))
+                .currency(CurrencyResponse.builder()
+                        .id(toLong(row.get("currency_id")))
+                        .code((String) row.get("currency_code"))
+                        .label((String) row.get("currency_label"))
+                        .usdExchangeRate((BigDecimal) row.get("currency_rate"))
+                        .createdAt(toDateTime(row.get("currency_created_at")))
+                        .updatedAt(toDateTime(row.get("currency_updated_at")))
+                        .isDeleted((Boolean) row.get("currency_is_deleted"))
+                        .build())
+                .unit(UnitResponse.builder()
+                        .id(toLong(row.get("unit_id")))
+                        .code((String) row.get("unit_code"))
+                        .label((String) row.get("unit_label"))
+                        .build())
+                .shelf(ShelfResponse.builder()
+                        .id(toLong(row.get("shelf_id")))
+                        .label((String) row.get("shelf_label"))
+                        .producerId(toLong(row.get("shelf_producer_id")))
+                        .createdAt(toDateTime(row.get("shelf_created_at")))
+                        .updatedAt(toDateTime(row.get("shelf_updated_at")))
+                        .isDeleted((Boolean) row.get("shelf_is_deleted"))
+                        .build())
+                .category(row.get("category_id") == null ? null : CategoryResponse.builder()
+                        .id(toLong(row.get("category_id")))
+                        .name((String) row.get("category_name"))
+                        .slug((String) row.get("category_slug"))
+                        .description((String) row.get("category_description"))
+                        .displayOrder(row.get("category_display_order") == null ? null
+                                : ((Number) row.get("category_display_order")).intValue())
+                        .createdAt(toDateTime(row.get("category_created_at")))
+                        .updatedAt(toDateTime(row.get("category_updated_at")))
+                        .isDeleted((Boolean) row.get("category_is_deleted"))
+                        .build())
+                .certifications(toCertifications((String) row.get("certifications")))
+                .mainImageId(toUuid(row.get("main_image_id")))
+                .mainImageUrl((String) row.get("main_image_url"))
+                .isFresh((Boolean) row.get("is_fresh"))
+                .producerId(toLong(row.get("producer_id")))
+                .createdAt(toDateTime(row.get("created_at")))
+                .updatedAt(toDateTime(row.get("updated_at")))
+                .isDeleted((Boolean) row.get("is_deleted"))
+                .build();
+    }
+
+    private Set<ProductCertificationResponse> toCertifications(String json) {
+        try {
+            return objectMapper.readValue(json, CERTIFICATIONS);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable certifications aggregate: " + json, e);
+        }
+    }
+
+    private static Long toLong(Object value) {
+        return value == null ? null : ((Number) value).longValue();
+    }
+
+    private static LocalDateTime toDateTime(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime();
+        }
+        return (LocalDateTime) value;
+    }
+
+    private static UUID toUuid(Object value) {
+        if (value == null || value instanceof UUID) {
+            return (UUID) value;
+        }
+        return UUID.fromString(value.toString());
+    }
+}
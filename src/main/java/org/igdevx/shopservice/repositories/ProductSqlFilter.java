@@ -0,0 +1,168 @@
+package org.igdevx.shopservice.repositories;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.igdevx.shopservice.dtos.ProductSearchRequest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * WHERE clause and parameters for native product id queries on the "product p" table
+ * (or the union of deleted and archived products), shared by the Postgres search paths.
+ */
+final class ProductSqlFilter {
+
+    /**
+     * Deleted products of both stores, with the columns a producer shop page filters and sorts on
+     */
+    private static final String DELETED_AND_ARCHIVED =
+            "(SELECT id, producer_id, shelf_id, is_deleted, created_at FROM product WHERE is_deleted = TRUE " +
+            "UNION ALL SELECT id, producer_id, shelf_id, TRUE, created_at FROM product_archive) p";
+
+    /**
+     * Deleted products of both stores, with the columns a search filters, matches and sorts on. The archive has no
+     * search_vector: it is computed like the generated column of product, on the fly, as onlyDeleted searches are
+     * rare. Its certifications are an array instead of product_certification_link rows.
+     */
+    private static final String DELETED_AND_ARCHIVED_FOR_SEARCH =
+            "(SELECT id, producer_id, shelf_id, is_deleted, created_at, category_id, price, currency_id, is_fresh, " +
+            "title, search_vector, NULL::BIGINT[] AS certification_ids FROM product WHERE is_deleted = TRUE " +
+            "UNION ALL SELECT id, producer_id, shelf_id, TRUE, created_at, category_id, price, currency_id, is_fresh, " +
+            "title, setweight(to_tsvector('french_unaccent', coalesce(title, '')), 'A') || " +
+            "setweight(to_tsvector('french_unaccent', coalesce(description, '')), 'B'), certification_ids " +
+            "FROM product_archive) p";
+
+    private String table = "product p";
+    private final List<String> clauses = new ArrayList<>();
+    private final Map<String, Object> params = new HashMap<>();
+
+    /**
+     * Non-text filters of a search request. Deleted products are read from the product table and the archive.
+     */
+    static ProductSqlFilter forSearch(ProductSearchRequest request) {
+        boolean onlyDeleted = Boolean.TRUE.equals(request.getOnlyDeleted());
+        ProductSqlFilter filter = new ProductSqlFilter()
+                .and("p.is_deleted = :deleted", "deleted", onlyDeleted);
+        if (onlyDeleted) {
+            filter.table = DELETED_AND_ARCHIVED_FOR_SEARCH;
+        }
+
+        if (request.getCategoryIds() != null && !request.getCategoryIds().isEmpty()) {
+            filter.and("p.category_id IN (:categoryIds)", "categoryIds", request.getCategoryIds());
+        }
+        if (request.getPriceMin() != null) {
+            filter.and("p.price >= :priceMin", "priceMin", request.getPriceMin());
+        }
+        if (request.getPriceMax() != null) {
+            filter.and("p.price <= :priceMax", "priceMax", request.getPriceMax());
+        }
+        if (request.getCurrencyId() != null) {
+            filter.and("p.currency_id = :currencyId", "currencyId", request.getCurrencyId());
+        }
+        if (Boolean.TRUE.equals(request.getFresh())) {
+            filter.and("p.is_fresh = TRUE");
+        }
+        if (request.getCertificationIds() != null && !request.getCertificationIds().isEmpty()) {
+            String linked = "EXISTS (SELECT 1 FROM product_certification_link l " +
+                    "WHERE l.product_id = p.id AND l.producer_id = p.producer_id AND l.certification_id IN (:certificationIds))";
+            if (onlyDeleted) {
+                linked = "(" + linked + " OR EXISTS (SELECT 1 FROM unnest(p.certification_ids) c " +
+                        "WHERE c IN (:certificationIds)))";
+            }
+            filter.and(linked, "certificationIds", request.getCertificationIds());
+        }
+        return filter;
+    }
+
+    /**
+     * Filters of a producer shop page. Deleted products are read from the product table and the archive.
+     */
+    static ProductSqlFilter forProducer(Long producerId, Long shelfId, boolean onlyDeleted) {
+        ProductSqlFilter filter = new ProductSqlFilter()
+                .and("p.producer_id = :producerId", "producerId", producerId)
+                .and("p.is_deleted = :deleted", "deleted", onlyDeleted);
+        if (onlyDeleted) {
+            filter.table = DELETED_AND_ARCHIVED;
+        }
+        if (shelfId != null) {
+            filter.and("p.shelf_id = :shelfId", "shelfId", shelfId);
+        }
+        return filter;
+    }
+
+    ProductSqlFilter and(String clause) {
+        clauses.add(clause);
+        return this;
+    }
+
+    ProductSqlFilter and(String clause, String name, Object value) {
+        clauses.add(clause);
+        params.put(name, value);
+        return this;
+    }
+
+    ProductSqlFilter param(String name, Object value) {
+        params.put(name, value);
+        return this;
+    }
+
+    /**
+     * Page of matching product ids: a count query, then the ids of the requested page
+     */
+    @SuppressWarnings("unchecked")
+    Page<Long> pageIds(EntityManager entityManager, String orderBy, int page, int size) {
+        String from = " FROM " + table + " WHERE " + String.join(" AND ", clauses);
+
+        Query countQuery = entityManager.createNativeQuery("SELECT count(*)" + from);
+        params.entrySet().stream()
+                .filter(e -> from.contains(":" + e.getKey()))
+                .forEach(e -> countQuery.setParameter(e.getKey(), e.getValue()));
+        long total = ((Number) countQuery.getSingleResult()).longValue();
+
+        if (total == 0) {
+            return new PageImpl<>(List.of(), PageRequest.of(page, size), 0);
+        }
+
+        Query idQuery = entityManager.createNativeQuery(
+                "SELECT p.id" + from + " ORDER BY " + orderBy + " LIMIT :limit OFFSET :offset", Long.class);
+        params.forEach(idQuery::setParameter);
+        idQuery.setParameter("limit", size);
+        idQuery.setParameter("offset", (long) page * size);
+
+        return new PageImpl<>(idQuery.getResultList(), PageRequest.of(page, size), total);
+    }
+
+    /**
+     * ORDER BY for a search sort key; relevance uses the given expression
+     */
+    static String orderBy(String sort, String relevance) {
+        if (sort == null || sort.isBlank()) {
+            return relevance;
+        }
+        return switch (sort.toLowerCase(Locale.ROOT)) {
+            case "relevance" -> relevance;
+            case "price_asc" -> "p.price ASC, p.id";
+            case "price_desc" -> "p.price DESC, p.id";
+            case "date_asc" -> "p.created_at ASC, p.id";
+            case "title_asc" -> "p.title ASC, p.id";
+            case "title_desc" -> "p.title DESC, p.id";
+            default -> NEWEST_FIRST;
+        };
+    }
+
+    /**
+     * LIKE pattern matching the given text anywhere, with the LIKE wildcards of the text escaped
+     */
+    static String containsPattern(String text) {
+        return "%" + text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+
+    static final String NEWEST_FIRST = "p.created_at DESC, p.id DESC";
+}
@@ -1,12 +1,14 @@
 package org.igdevx.shopservice.repositories;
 
 import org.igdevx.shopservice.models.Shelf;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -29,6 +31,10 @@ public interface ShelfRepository extends JpaRepository<Shelf, Long> {
     @Query("SELECT s FROM Shelf s WHERE s.id = :id AND s.isDeleted = false")
     Optional<Shelf> findById(@Param("id") Long id);
 
+    // Find by IDs (non-deleted only), to validate many references in one query
+    @Query("SELECT s FROM Shelf s WHERE s.id IN :ids AND s.isDeleted = false")
+    List<Shelf> findAllByIdIn(@Param("ids") Collection<Long> ids);
+
     // Find all deleted shelves
     @Query("SELECT s FROM Shelf s WHERE s.isDeleted = true")
     List<Shelf> findAllDeleted();
@@ -41,6 +47,14 @@ public interface ShelfRepository extends JpaRepository<Shelf, Long> {
     @Query("SELECT s FROM Shelf s WHERE s.producerId = :producerId AND s.isDeleted = false")
     List<Shelf> findByProducerId(@Param("producerId") Long producerId);
 
+    // Keyset pages of non-deleted shelves, ordered by id: the page after a given id (0 for the first one)
+    @Query("SELECT s FROM Shelf s WHERE s.isDeleted = false AND s.id > :afterId ORDER BY s.id")
+    List<Shelf> findPageAfter(@Param("afterId") Long afterId, Limit limit);
+
+    @Query("SELECT s FROM Shelf s WHERE s.producerId = :producerId AND s.isDeleted = false " +
+           "AND s.id > :afterId ORDER BY s.id")
+    List<Shelf> findPageByProducerIdAfter(@Param("producerId") Long producerId, @Param("afterId") Long afterId, Limit limit);
+
     // Soft delete by ID
     @Modifying
     @Query("UPDATE Shelf s SET s.isDeleted = true WHERE s.id = :id")
@@ -1,12 +1,16 @@
 package org.igdevx.shopservice.repositories;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.igdevx.shopservice.models.Unit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,14 +26,21 @@ public interface UnitRepository extends JpaRepository<Unit, Long> {
     boolean existsByCode(@Param("code") String code);
 
     // Find all non-deleted units
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT u FROM Unit u WHERE u.isDeleted = false")
     List<Unit> findAll();
 
     // Find by ID (only non-deleted)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT u FROM Unit u WHERE u.id = :id AND u.isDeleted = false")
     Optional<Unit> findById(@Param("id") Long id);
 
+    // Find by IDs (non-deleted only), to validate many references in one query
+    @Query("SELECT u FROM Unit u WHERE u.id IN :ids AND u.isDeleted = false")
+    List<Unit> findAllByIdIn(@Param("ids") Collection<Long> ids);
+
     // Find all deleted units
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT u FROM Unit u WHERE u.isDeleted = true")
     List<Unit> findAllDeleted();
 
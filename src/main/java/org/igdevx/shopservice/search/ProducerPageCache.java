@@ -0,0 +1,147 @@
+package org.igdevx.shopservice.search;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.igdevx.shopservice.dtos.ProductSearchResponse;
+import org.igdevx.shopservice.elasticsearch.queries.ProductSearchKey;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Cache of the producer shop pages (GET /products/producer/{producerId}), keyed by
+ * (producerId, shelfId, onlyDeleted, page, size) and grouped by producer so that a ProductIndexEvent
+ * only drops the pages of the producers it touches. Each page carries a strong ETag, a hash of its JSON.
+ * <p>
+ * A page loaded while its producer is invalidated is returned but not stored, so a load racing with
+ * an index update never caches the old content. Entries also expire after search.producer-cache.ttl,
+ * which bounds staleness on the other instances of the service (events are local to an instance).
+ * Degraded responses from the Postgres fallback are never cached, and neither are the pages served by the in-heap
+ * catalog, already a cache with its own refresh: their ETag is recomputed from each response, so it follows the catalog.
+ */
+@Component
+@Slf4j
+public class ProducerPageCache {
+
+    private final SearchProperties searchProperties;
+    private final ObjectMapper objectMapper;
+    private final Counter hits;
+    private final Counter misses;
+
+    private volatile ConcurrentMap<Long, ProducerPages> producers = new ConcurrentHashMap<>();
+
+    public ProducerPageCache(SearchProperties searchProperties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.searchProperties = searchProperties;
+        this.objectMapper = objectMapper;
+        this.hits = meterRegistry.counter("product.producer_page.cache", "result", "hit");
+        this.misses = meterRegistry.counter("product.producer_page.cache", "result", "miss");
+    }
+
+    /**
+     * A cached producer page with its strong ETag (quoted, null when the page is not cacheable)
+     */
+    public record ProducerPage(ProductSearchResponse response, String etag, long loadedAt) {
+    }
+
+    /**
+     * Return the cached page for the key, loading and caching it on a miss
+     */
+    public ProducerPage get(ProductSearchKey key, Supplier<ProductSearchResponse> loader) {
+        SearchProperties.ProducerCache settings = searchProperties.getProducerCache();
+        if (!settings.isEnabled()) {
+            return page(loader.get());
+        }
+
+        ConcurrentMap<Long, ProducerPages> snapshot = producers;
+        ProducerPages pages = snapshot.get(key.producerId());
+        if (pages != null) {
+            ProducerPage cached = pages.entries.get(key);
+            if (cached != null && System.nanoTime() - cached.loadedAt() < settings.getTtl().toNanos()) {
+                hits.increment();
+                return cached;
+            }
+        } else {
+            pages = producerPages(snapshot, key.producerId(), settings.getMaxProducers());
+        }
+
+        misses.increment();
+        ProducerPage loaded = page(loader.get());
+        if (loaded.etag() != null
+                && producers == snapshot
+                && snapshot.get(key.producerId()) == pages
+                && (pages.entries.size() < settings.getMaxPagesPerProducer() || pages.entries.containsKey(key))) {
+            pages.entries.put(key, loaded);
+        }
+        return loaded;
+    }
+
+    /**
+     * Tag a page without caching it
+     */
+    public ProducerPage uncached(ProductSearchResponse response) {
+        return page(response);
+    }
+
+    /**
+     * Drop every cached page of these producers
+     */
+    public void invalidate(Collection<Long> producerIds) {
+        for (Long producerId : producerIds) {
+            if (producers.remove(producerId) != null) {
+                log.debug("Invalidated cached pages of producer {}", producerId);
+            }
+        }
+    }
+
+    /**
+     * Drop every cached page, after a full reindexation
+     */
+    public void clear() {
+        producers = new ConcurrentHashMap<>();
+    }
+
+    public int size() {
+        return producers.values().stream().mapToInt(pages -> pages.entries.size()).sum();
+    }
+
+    private static ProducerPages producerPages(ConcurrentMap<Long, ProducerPages> snapshot, Long producerId, int maxProducers) {
+        if (snapshot.size() >= maxProducers) {
+            // Not an LRU: evicting any producer is enough to keep the cache bounded
+            Iterator<Long> iterator = snapshot.keySet().iterator();
+            if (iterator.hasNext()) {
+                snapshot.remove(iterator.next());
+            }
+        }
+        return snapshot.computeIfAbsent(producerId, id -> new ProducerPages());
+    }
+
+    private ProducerPage page(ProductSearchResponse response) {
+        String etag = response.isDegraded() ? null : etag(response);
+        return new ProducerPage(response, etag, System.nanoTime());
+    }
+
+    private String etag(ProductSearchResponse response) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(response));
+            return "\"" + HexFormat.of().formatHex(Arrays.copyOf(digest, 16)) + "\"";
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            log.warn("Could not compute the ETag of a producer page: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static final class ProducerPages {
+        private final ConcurrentMap<ProductSearchKey, ProducerPage> entries = new ConcurrentHashMap<>();
+    }
+}
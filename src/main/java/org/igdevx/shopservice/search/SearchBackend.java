@@ -0,0 +1,22 @@
+package org.igdevx.shopservice.search;
+
+import org.igdevx.shopservice.dtos.ProductSearchResponse;
+import org.igdevx.shopservice.dtos.ProductSuggestion;
+import org.igdevx.shopservice.elasticsearch.queries.SearchPlan;
+
+import java.util.List;
+
+/**
+ * Engine serving the product search endpoints. The active one is chosen with search.backend.
+ * Searches and producer pages reach it already planned by the query cost governor (see ProductSearchFacade).
+ */
+public interface SearchBackend {
+
+    SearchBackendType type();
+
+    ProductSearchResponse search(SearchPlan plan);
+
+    ProductSearchResponse searchByProducer(Long producerId, Long shelfId, Boolean onlyDeleted, int page, int size);
+
+    List<ProductSuggestion> suggest(String query, int size);
+}
@@ -0,0 +1,13 @@
+package org.igdevx.shopservice.search;
+
+public enum SearchBackendType {
+
+    /** Elasticsearch index kept in sync by ProductIndexService */
+    ELASTICSEARCH,
+
+    /** Postgres full-text search on product.search_vector, no external node */
+    POSTGRES,
+
+    /** Embedded Lucene index on local disk, for single-node deployments */
+    LUCENE
+}
@@ -0,0 +1,126 @@
+package org.igdevx.shopservice.search;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Per-request timing of the search endpoints.
+ * Phases (query_build, es_took, round_trip, mapping, serialization) are recorded on the
+ * "product.search.phase" timer, tagged with the operation and phase, and the whole request on "product.search.request".
+ * A trace is opened by SearchProfilingInterceptor for the search endpoints and closed after the response is written;
+ * requests slower than search.slow-log.threshold are logged on the "search.slowlog" logger with their normalized request.
+ */
+@Component
+@Slf4j
+public class SearchProfiler {
+
+    public static final String QUERY_BUILD = "query_build";
+    public static final String ES_TOOK = "es_took";
+    public static final String ROUND_TRIP = "round_trip";
+    public static final String MAPPING = "mapping";
+    public static final String SERIALIZATION = "serialization";
+
+    private static final Logger SLOW_LOG = LoggerFactory.getLogger("search.slowlog");
+
+    private final MeterRegistry meterRegistry;
+    private final SearchProperties searchProperties;
+    private final ThreadLocal<Trace> current = new ThreadLocal<>();
+
+    public SearchProfiler(MeterRegistry meterRegistry, SearchProperties searchProperties) {
+        this.meterRegistry = meterRegistry;
+        this.searchProperties = searchProperties;
+    }
+
+    /**
+     * Open a trace for the current request
+     */
+    public void start(String operation) {
+        current.set(new Trace(operation, System.nanoTime()));
+    }
+
+    /**
+     * Attach the normalized request to the current trace, for the slow-query log
+     */
+    public void describe(Object normalizedRequest) {
+        Trace trace = current.get();
+        if (trace != null) {
+            trace.request = normalizedRequest;
+        }
+    }
+
+    public boolean isActive() {
+        return current.get() != null;
+    }
+
+    public <T> T time(String phase, Supplier<T> work) {
+        long start = System.nanoTime();
+        try {
+            return work.get();
+        } finally {
+            record(phase, Duration.ofNanos(System.nanoTime() - start));
+        }
+    }
+
+    public void record(String phase, Duration duration) {
+        Trace trace = current.get();
+        String operation = trace != null ? trace.operation : "unknown";
+        Timer.builder("product.search.phase")
+                .tag("operation", operation)
+                .tag("phase", phase)
+                .register(meterRegistry)
+                .record(duration);
+        if (trace != null) {
+            trace.phases.merge(phase, duration, Duration::plus);
+        }
+    }
+
+    /**
+     * Close the current trace: record the request timer and write the slow-query log entry if needed
+     */
+    public void finish() {
+        Trace trace = current.get();
+        if (trace == null) {
+            return;
+        }
+        current.remove();
+
+        Duration total = Duration.ofNanos(System.nanoTime() - trace.startNanos);
+        Timer.builder("product.search.request")
+                .tag("operation", trace.operation)
+                .register(meterRegistry)
+                .record(total);
+
+        SearchProperties.SlowLog slowLog = searchProperties.getSlowLog();
+        if (slowLog.isEnabled() && total.compareTo(slowLog.getThreshold()) >= 0) {
+            SLOW_LOG.warn("Slow {} took {} ms, phases {} ms, request {}",
+                    trace.operation, total.toMillis(), millis(trace.phases), trace.request);
+        }
+    }
+
+    private static Map<String, Long> millis(Map<String, Duration> phases) {
+        Map<String, Long> millis = new LinkedHashMap<>();
+        phases.forEach((phase, duration) -> millis.put(phase, duration.toMillis()));
+        return millis;
+    }
+
+    private static final class Trace {
+        private final String operation;
+        private final long startNanos;
+        private final Map<String, Duration> phases = new LinkedHashMap<>();
+        private Object request;
+
+        private Trace(String operation, long startNanos) {
+            this.operation = operation;
+            this.startNanos = startNanos;
+        }
+    }
+}
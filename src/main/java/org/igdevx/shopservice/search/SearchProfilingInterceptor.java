@@ -0,0 +1,32 @@
+package org.igdevx.shopservice.search;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Opens a SearchProfiler trace around the search endpoints, named after the controller method,
+ * and closes it once the response body has been serialized
+ */
+@Component
+@RequiredArgsConstructor
+public class SearchProfilingInterceptor implements HandlerInterceptor {
+
+    private final SearchProfiler searchProfiler;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod method) {
+            searchProfiler.start(method.getMethod().getName());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        searchProfiler.finish();
+    }
+}
@@ -0,0 +1,190 @@
+package org.igdevx.shopservice.search;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Product search settings (prefix "search")
+ */
+@Component
+@ConfigurationProperties(prefix = "search")
+@Getter
+@Setter
+public class SearchProperties {
+
+    /**
+     * Backend serving the search endpoints
+     */
+    private SearchBackendType backend = SearchBackendType.ELASTICSEARCH;
+
+    private final Elasticsearch elasticsearch = new Elasticsearch();
+
+    private final Lucene lucene = new Lucene();
+
+    private final Catalog catalog = new Catalog();
+
+    private final SlowLog slowLog = new SlowLog();
+
+    private final ProducerCache producerCache = new ProducerCache();
+
+    private final Export export = new Export();
+
+    private final Cost cost = new Cost();
+
+    /**
+     * Whether the Elasticsearch index has to be maintained
+     */
+    public boolean usesElasticsearch() {
+        return backend == SearchBackendType.ELASTICSEARCH;
+    }
+
+    public boolean usesLucene() {
+        return backend == SearchBackendType.LUCENE;
+    }
+
+    @Getter
+    @Setter
+    public static class Elasticsearch {
+
+        /**
+         * Route documents and producer-scoped searches by producerId, so a producer shop page hits one shard.
+         * Applied to new indices; an existing index is rebuilt with POST /products/index/migrate.
+         */
+        private boolean routingByProducer = false;
+
+        /**
+         * How often the routing of the live index is read again for searches, so that an instance follows
+         * a migration finished by another one. Writes read it again as soon as theirs is out of date. Read at startup.
+         */
+        private Duration layoutRefreshInterval = Duration.ofSeconds(30);
+
+        /**
+         * How many matches a search with approximateTotal counts before it stops. On the createdAt-sorted index,
+         * a newest-first search then stops collecting once it has its page and this many hits.
+         */
+        private int approximateTotalHits = 1000;
+    }
+
+    @Getter
+    @Setter
+    public static class Lucene {
+
+        /**
+         * Directory of the embedded index, rebuilt from Postgres at startup when empty
+         */
+        private String path = "data/lucene/products";
+
+        /**
+         * How often the writes are committed to disk. They are searchable right away, committed or not.
+         * Read at startup.
+         */
+        private Duration commitInterval = Duration.ofSeconds(30);
+    }
+
+    @Getter
+    @Setter
+    public static class Catalog {
+
+        /**
+         * Serve filter-only listings (no q) from the in-heap bitmap catalog
+         */
+        private boolean enabled = false;
+
+        /**
+         * Products changed in Postgres since the previous refresh are reloaded this often, which bounds staleness
+         * on the other instances of the service (events are local to an instance). Read at startup.
+         */
+        private Duration refreshInterval = Duration.ofMinutes(1);
+
+        /**
+         * The whole catalog is reloaded this often, dropping the products hard-deleted or archived through another
+         * instance, which a refresh cannot see. Read at startup.
+         */
+        private Duration rebuildInterval = Duration.ofHours(1);
+    }
+
+    @Getter
+    @Setter
+    public static class SlowLog {
+
+        private boolean enabled = true;
+
+        /**
+         * Search requests slower than this, serialization included, are logged with their phase timings
+         */
+        private Duration threshold = Duration.ofMillis(500);
+    }
+
+    @Getter
+    @Setter
+    public static class ProducerCache {
+
+        /**
+         * Cache the producer shop pages until a product of the producer changes
+         */
+        private boolean enabled = true;
+
+        /**
+         * Safety net for changes made through another instance of the service
+         */
+        private Duration ttl = Duration.ofMinutes(5);
+
+        private int maxProducers = 5000;
+
+        private int maxPagesPerProducer = 64;
+    }
+
+    @Getter
+    @Setter
+    public static class Export {
+
+        /**
+         * Documents read per search_after round trip, the only ones held in memory by an export
+         */
+        private int batchSize = 1000;
+
+        /**
+         * How long the point in time is kept between two batches
+         */
+        private Duration keepAlive = Duration.ofMinutes(1);
+    }
+
+    @Getter
+    @Setter
+    public static class Cost {
+
+        /**
+         * Estimate the cost of Elasticsearch searches and downgrade the ones above max-cost
+         */
+        private boolean enabled = true;
+
+        /**
+         * Larger sizes are capped
+         */
+        private int maxSize = 100;
+
+        /**
+         * Longer q strings are cut at the last word boundary
+         */
+        private int maxQueryLength = 100;
+
+        /**
+         * Words of q beyond this are dropped
+         */
+        private int maxQueryTerms = 10;
+
+        /**
+         * Requests reaching further than this many results (page * size + size) are rejected
+         */
+        private int maxResultWindow = 10_000;
+
+        /**
+         * Cost above which the fuzzy and prefix clauses are dropped, cheapest loss first (see QueryCostGovernor)
+         */
+        private double maxCost = 60;
+    }
+}
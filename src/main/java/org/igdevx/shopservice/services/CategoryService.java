@@ -3,12 +3,16 @@ package org.igdevx.shopservice.services;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.igdevx.shopservice.dtos.CategoryRequest;
+import org.igdevx.shopservice.dtos.CursorPage;
 import org.igdevx.shopservice.dtos.CategoryResponse;
+import org.igdevx.shopservice.events.ReferenceDataChangedEvent;
 import org.igdevx.shopservice.exceptions.DuplicateResourceException;
 import org.igdevx.shopservice.exceptions.ResourceNotFoundException;
 import org.igdevx.shopservice.mappers.CategoryMapper;
 import org.igdevx.shopservice.models.Category;
 import org.igdevx.shopservice.repositories.CategoryRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -20,8 +24,12 @@ import java.util.stream.Collectors;
 @Slf4j
 public class CategoryService {
 
+    // Sort key of the categories without a display order, which come last
+    private static final int NO_DISPLAY_ORDER = Integer.MAX_VALUE;
+
     private final CategoryRepository categoryRepository;
     private final CategoryMapper categoryMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional(readOnly = true)
     public List<CategoryResponse> getAllCategories() {
@@ -32,6 +40,33 @@ public class CategoryService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Keyset page of the categories, ordered by display order then id (the cursor holds both)
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<CategoryResponse> getCategories(String cursor, Integer size) {
+        int pageSize = KeysetCursor.size(size);
+        long[] after = KeysetCursor.decode(cursor, 2);
+        int afterOrder = after == null ? Integer.MIN_VALUE : (int) after[0];
+        long afterId = after == null ? 0 : after[1];
+        log.debug("Fetching categories page after ({}, {}) ({} items)", afterOrder, afterId, pageSize);
+        List<Category> categories = categoryRepository.findPageAfter(afterOrder, afterId, Limit.of(pageSize + 1));
+
+        boolean hasNext = categories.size() > pageSize;
+        List<Category> page = hasNext ? categories.subList(0, pageSize) : categories;
+        String nextCursor = null;
+        if (hasNext) {
+            Category last = page.get(page.size() - 1);
+            nextCursor = KeysetCursor.encode(
+                    last.getDisplayOrder() != null ? last.getDisplayOrder() : NO_DISPLAY_ORDER, last.getId());
+        }
+        return CursorPage.<CategoryResponse>builder()
+                .items(page.stream().map(categoryMapper::toResponse).toList())
+                .size(page.size())
+                .nextCursor(nextCursor)
+                .build();
+    }
+
     @Transactional(readOnly = true)
     public CategoryResponse getCategoryById(Long id) {
         log.debug("Fetching category with id: {}", id);
@@ -62,6 +97,7 @@ public class CategoryService {
 
         Category category = categoryMapper.toEntity(request);
         Category savedCategory = categoryRepository.save(category);
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent(Category.class));
         log.info("Category created successfully with id: {}", savedCategory.getId());
 
         return categoryMapper.toResponse(savedCategory);
@@ -87,6 +123,7 @@ public class CategoryService {
 
         categoryMapper.updateEntity(category, request);
         Category updatedCategory = categoryRepository.save(category);
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent(Category.class));
         log.info("Category updated successfully with id: {}", updatedCategory.getId());
 
         return categoryMapper.toResponse(updatedCategory);
@@ -101,6 +138,7 @@ public class CategoryService {
 
         category.softDelete();
         categoryRepository.save(category);
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent(Category.class));
         log.info("Category soft deleted successfully with id: {}", id);
     }
 
@@ -117,6 +155,7 @@ public class CategoryService {
 
         category.restore();
         categoryRepository.save(category);
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent(Category.class));
         log.info("Category restored successfully with id: {}", id);
     }
 
@@ -129,6 +168,7 @@ public class CategoryService {
                 .orElseThrow(() -> new ResourceNotFoundException("Category not found with id: " + id));
 
         categoryRepository.hardDeleteById(id);
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent(Category.class));
         log.info("Category hard deleted successfully with id: {}", id);
     }
 
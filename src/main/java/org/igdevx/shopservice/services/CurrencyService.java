@@ -4,11 +4,13 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.igdevx.shopservice.dtos.CurrencyRequest;
 import org.igdevx.shopservice.dtos.CurrencyResponse;
+import org.igdevx.shopservice.events.ReferenceDataChangedEvent;
 import org.igdevx.shopservice.exceptions.DuplicateResourceException;
 import org.igdevx.shopservice.exceptions.ResourceNotFoundException;
 import org.igdevx.shopservice.mappers.CurrencyMapper;
 import org.igdevx.shopservice.models.Currency;
 import org.igdevx.shopservice.repositories.CurrencyRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -22,6 +24,7 @@ public class CurrencyService {
 
     private final CurrencyRepository currencyRepository;
     private final CurrencyMapper currencyMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional(readOnly = true)
     public List<CurrencyResponse> getAllCurrencies() {
@@ -58,6 +61,7 @@ public class CurrencyService {
 
         Currency currency = currencyMapper.toEntity(request);
         Currency savedCurrency = currencyRepository.save(currency);
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent(Currency.class));
         log.info("Currency created with id: {}", savedCurrency.getId());
         return currencyMapper.toResponse(savedCurrency);
     }
@@ -76,6 +80,7 @@ public class CurrencyService {
 
         currencyMapper.updateEntity(currency, request);
         Currency updatedCurrency = currencyRepository.save(currency);
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent(Currency.class));
         log.info("Currency updated with id: {}", id);
         return currencyMapper.toResponse(updatedCurrency);
     }
@@ -89,6 +94,7 @@ public class CurrencyService {
 
         currency.softDelete();
         currencyRepository.save(currency);
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent(Currency.class));
         log.info("Currency soft deleted with id: {}", id);
     }
 
@@ -105,6 +111,7 @@ public class CurrencyService {
 
         currency.restore();
         currencyRepository.save(currency);
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent(Currency.class));
         log.info("Currency restored with id: {}", id);
     }
 
@@ -116,6 +123,7 @@ public class CurrencyService {
                 .orElseThrow(() -> new ResourceNotFoundException("Currency not found with id: " + id));
 
         currencyRepository.hardDeleteById(id);
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent(Currency.class));
         log.info("Currency hard deleted with id: {}", id);
     }
 
@@ -0,0 +1,61 @@
+package org.igdevx.shopservice.services;
+
+import org.igdevx.shopservice.exceptions.InvalidPageRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Cursors of the keyset-paginated listings.
+ * <p>
+ * A cursor holds the sort key of the last item of a page (its id, or display order and id for categories),
+ * encoded as base64url so clients treat it as opaque. The next page is read with "WHERE key > cursor ORDER BY key
+ * LIMIT size + 1" on an index, which costs the same on the last page as on the first, unlike OFFSET.
+ */
+public final class KeysetCursor {
+
+    public static final int DEFAULT_SIZE = 50;
+    public static final int MAX_SIZE = 500;
+
+    private KeysetCursor() {
+    }
+
+    public static String encode(long... keys) {
+        String joined = String.join(":", Arrays.stream(keys).mapToObj(Long::toString).toList());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(joined.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Keys of a cursor, or null for the first page
+     */
+    public static long[] decode(String cursor, int keys) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+            if (parts.length != keys) {
+                throw new InvalidPageRequestException("Invalid cursor: " + cursor);
+            }
+            return Arrays.stream(parts).mapToLong(Long::parseLong).toArray();
+        } catch (IllegalArgumentException e) {
+            throw new InvalidPageRequestException("Invalid cursor: " + cursor);
+        }
+    }
+
+    /**
+     * Id after which a page keyed on the id starts, 0 for the first page (ids start at 1)
+     */
+    public static long afterId(String cursor) {
+        long[] keys = decode(cursor, 1);
+        return keys == null ? 0 : keys[0];
+    }
+
+    public static int size(Integer requested) {
+        if (requested == null) {
+            return DEFAULT_SIZE;
+        }
+        return Math.max(1, Math.min(requested, MAX_SIZE));
+    }
+}
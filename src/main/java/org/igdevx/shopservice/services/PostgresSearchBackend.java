@@ -0,0 +1,41 @@
+package org.igdevx.shopservice.services;
+
+import lombok.RequiredArgsConstructor;
+import org.igdevx.shopservice.dtos.ProductSearchResponse;
+import org.igdevx.shopservice.dtos.ProductSuggestion;
+import org.igdevx.shopservice.elasticsearch.queries.SearchPlan;
+import org.igdevx.shopservice.search.SearchBackend;
+import org.igdevx.shopservice.search.SearchBackendType;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * SearchBackend served from Postgres full-text search, for deployments without an Elasticsearch node
+ */
+@Component
+@RequiredArgsConstructor
+public class PostgresSearchBackend implements SearchBackend {
+
+    private final ProductDatabaseSearchService databaseSearchService;
+
+    @Override
+    public SearchBackendType type() {
+        return SearchBackendType.POSTGRES;
+    }
+
+    @Override
+    public ProductSearchResponse search(SearchPlan plan) {
+        return databaseSearchService.fullTextSearch(plan.request());
+    }
+
+    @Override
+    public ProductSearchResponse searchByProducer(Long producerId, Long shelfId, Boolean onlyDeleted, int page, int size) {
+        return databaseSearchService.producerListing(producerId, shelfId, onlyDeleted, page, size);
+    }
+
+    @Override
+    public List<ProductSuggestion> suggest(String query, int size) {
+        return databaseSearchService.fullTextSuggestions(query, size);
+    }
+}
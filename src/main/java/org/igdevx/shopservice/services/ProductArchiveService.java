@@ -0,0 +1,125 @@
+package org.igdevx.shopservice.services;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.igdevx.shopservice.archive.ProductArchiveProperties;
+import org.igdevx.shopservice.dtos.ProductCertificationResponse;
+import org.igdevx.shopservice.dtos.ProductResponse;
+import org.igdevx.shopservice.events.ProductArchiveEvent;
+import org.igdevx.shopservice.reference.ReferenceDataCache;
+import org.igdevx.shopservice.repositories.ProductArchiveRepository;
+import org.igdevx.shopservice.repositories.ProductArchiveRepository.ArchivedProduct;
+import org.igdevx.shopservice.repositories.ProductBulkRepository.Changed;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Hot/cold split of soft-deleted products.
+ * <p>
+ * Every product-archive.interval, products soft-deleted for longer than product-archive.grace-period are moved
+ * from the product table to product_archive, batch-size per transaction, and their documents from the live search
+ * index to the deleted index once each batch is committed. The product table and index then only hold live
+ * products and recent deletions; onlyDeleted listings read both stores, and restoring moves a product back.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductArchiveService {
+
+    private final ProductArchiveRepository archiveRepository;
+    private final ProductArchiveProperties properties;
+    private final ReferenceDataCache referenceData;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    @Scheduled(fixedDelayString = "${product-archive.interval:1h}", initialDelayString = "${product-archive.interval:1h}")
+    public void archiveOnSchedule() {
+        if (properties.isEnabled()) {
+            archiveDeleted();
+        }
+    }
+
+    /**
+     * Move every product deleted for longer than the grace period to the archive, one batch per transaction.
+     * Returns the number of products moved.
+     */
+    public int archiveDeleted() {
+        int archived = 0;
+        int moved;
+        do {
+            List<Changed> batch = transactionTemplate.execute(status -> archiveBatch());
+            moved = batch == null ? 0 : batch.size();
+            archived += moved;
+        } while (moved == properties.getBatchSize());
+
+        if (archived > 0) {
+            log.info("Archived {} products deleted for more than {}", archived, properties.getGracePeriod());
+        }
+        return archived;
+    }
+
+    /**
+     * Move an archived product back into the product table. Returns its producer, or empty when it is not archived.
+     */
+    public Optional<Long> restore(Long id) {
+        return archiveRepository.restore(id);
+    }
+
+    /**
+     * Delete an archived product for good. Returns its producer, or empty when it is not archived.
+     */
+    public Optional<Long> delete(Long id) {
+        return archiveRepository.delete(id);
+    }
+
+    /**
+     * Archived products by ids as deleted ProductResponse, in no particular order.
+     * References deleted since the product was archived are left out.
+     */
+    public List<ProductResponse> responses(Collection<Long> ids) {
+        return archiveRepository.findAllByIdIn(ids).stream().map(this::toResponse).toList();
+    }
+
+    private List<Changed> archiveBatch() {
+        List<Changed> batch = archiveRepository.archiveDeletedBefore(properties.getGracePeriod(), properties.getBatchSize());
+        if (!batch.isEmpty()) {
+            eventPublisher.publishEvent(new ProductArchiveEvent(
+                    batch.stream().map(Changed::id).toList(),
+                    batch.stream().map(Changed::producerId).collect(Collectors.toSet())));
+        }
+        return batch;
+    }
+
+    private ProductResponse toResponse(ArchivedProduct product) {
+        Set<ProductCertificationResponse> certifications = product.certificationIds().stream()
+                .map(referenceData::certification)
+                .flatMap(Optional::stream)
+                .collect(Collectors.toSet());
+        return ProductResponse.builder()
+                .id(product.id())
+                .title(product.title())
+                .description(product.description())
+                .price(product.price())
+                .currency(referenceData.currency(product.currencyId()).orElse(null))
+                .unit(referenceData.unit(product.unitId()).orElse(null))
+                .shelf(referenceData.shelf(product.shelfId()).orElse(null))
+                .category(product.categoryId() == null ? null : referenceData.category(product.categoryId()).orElse(null))
+                .certifications(certifications)
+                .mainImageId(product.mainImageId())
+                .mainImageUrl(product.mainImageUrl())
+                .isFresh(product.isFresh())
+                .producerId(product.producerId())
+                .createdAt(product.createdAt())
+                .updatedAt(product.updatedAt())
+                .isDeleted(true)
+                .build();
+    }
+}
@@ -0,0 +1,92 @@
+package org.igdevx.shopservice.services;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.igdevx.shopservice.dtos.ProductBulkFilter;
+import org.igdevx.shopservice.dtos.ProductBulkMoveRequest;
+import org.igdevx.shopservice.dtos.ProductBulkPriceRequest;
+import org.igdevx.shopservice.dtos.ProductBulkResponse;
+import org.igdevx.shopservice.events.ProductBulkIndexEvent;
+import org.igdevx.shopservice.exceptions.InvalidBulkRequestException;
+import org.igdevx.shopservice.exceptions.ResourceNotFoundException;
+import org.igdevx.shopservice.models.Shelf;
+import org.igdevx.shopservice.repositories.ProductBulkRepository;
+import org.igdevx.shopservice.repositories.ProductBulkRepository.Changed;
+import org.igdevx.shopservice.repositories.ShelfRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Changes to many products at once, each applied by a single UPDATE statement.
+ * <p>
+ * Same semantics as the one-product operations of ProductService: price changes and moves only touch
+ * non-deleted products, soft-deleted products stay in the search index flagged as deleted.
+ * The changed products are reindexed together once the transaction is committed.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductBulkService {
+
+    private final ProductBulkRepository productBulkRepository;
+    private final ShelfRepository shelfRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Transactional
+    public ProductBulkResponse changePrice(ProductBulkPriceRequest request) {
+        ProductBulkFilter filter = checked(request.getFilter());
+        if ((request.getPrice() == null) == (request.getPercent() == null)) {
+            throw new InvalidBulkRequestException("Exactly one of price and percent is required");
+        }
+
+        List<Changed> changed = request.getPrice() != null
+                ? productBulkRepository.setPrice(filter, request.getPrice())
+                : productBulkRepository.changePrice(filter, request.getPercent());
+        return reindex("Price changed", changed);
+    }
+
+    @Transactional
+    public ProductBulkResponse moveToShelf(ProductBulkMoveRequest request) {
+        ProductBulkFilter filter = checked(request.getFilter());
+        Shelf shelf = shelfRepository.findById(request.getShelfId())
+                .orElseThrow(() -> new ResourceNotFoundException("Shelf not found with id: " + request.getShelfId()));
+        if (filter.getProducerId() != null && !filter.getProducerId().equals(shelf.getProducerId())) {
+            throw new InvalidBulkRequestException("Shelf " + shelf.getId() + " does not belong to producer " + filter.getProducerId());
+        }
+
+        // A shelf belongs to one producer, products of other producers matching the filter are left where they are
+        return reindex("Moved to shelf " + shelf.getId(), productBulkRepository.moveToShelf(filter, shelf.getId(), shelf.getProducerId()));
+    }
+
+    @Transactional
+    public ProductBulkResponse softDelete(ProductBulkFilter filter) {
+        return reindex("Soft deleted", productBulkRepository.softDelete(checked(filter)));
+    }
+
+    @Transactional
+    public ProductBulkResponse restore(ProductBulkFilter filter) {
+        return reindex("Restored", productBulkRepository.restore(checked(filter)));
+    }
+
+    private static ProductBulkFilter checked(ProductBulkFilter filter) {
+        if (filter == null || filter.isEmpty()) {
+            throw new InvalidBulkRequestException("At least one of producerId, shelfId, categoryId and ids is required");
+        }
+        return filter;
+    }
+
+    private ProductBulkResponse reindex(String change, List<Changed> changed) {
+        if (!changed.isEmpty()) {
+            eventPublisher.publishEvent(new ProductBulkIndexEvent(
+                    changed.stream().map(Changed::id).toList(),
+                    changed.stream().map(Changed::producerId).filter(Objects::nonNull).collect(Collectors.toUnmodifiableSet())));
+        }
+        log.info("{}: {} products", change, changed.size());
+        return ProductBulkResponse.builder().updated(changed.size()).build();
+    }
+}
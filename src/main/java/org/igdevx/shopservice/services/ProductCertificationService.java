@@ -4,11 +4,13 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.igdevx.shopservice.dtos.ProductCertificationRequest;
 import org.igdevx.shopservice.dtos.ProductCertificationResponse;
+import org.igdevx.shopservice.events.ReferenceDataChangedEvent;
 import org.igdevx.shopservice.exceptions.DuplicateResourceException;
 import org.igdevx.shopservice.exceptions.ResourceNotFoundException;
 import org.igdevx.shopservice.mappers.ProductCertificationMapper;
 import org.igdevx.shopservice.models.ProductCertification;
 import org.igdevx.shopservice.repositories.ProductCertificationRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -22,6 +24,7 @@ public class ProductCertificationService {
 
     private final ProductCertificationRepository productCertificationRepository;
     private final ProductCertificationMapper productCertificationMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional(readOnly = true)
     public List<ProductCertificationResponse> getAllCertifications() {
@@ -58,6 +61,7 @@ public class ProductCertificationService {
 
         ProductCertification certification = productCertificationMapper.toEntity(request);
         ProductCertification savedCertification = productCertificationRepository.save(certification);
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent(ProductCertification.class));
         log.info("Product certification created successfully with id: {}", savedCertification.getId());
         
         return productCertificationMapper.toResponse(savedCertification);
@@ -78,6 +82,7 @@ public class ProductCertificationService {
 
         productCertificationMapper.updateEntity(certification, request);
         ProductCertification updatedCertification = productCertificationRepository.save(certification);
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent(ProductCertification.class));
         log.info("Product certification updated successfully with id: {}", updatedCertification.getId());
         
         return productCertificationMapper.toResponse(updatedCertification);
@@ -92,6 +97,7 @@ public class ProductCertificationService {
 
         certification.softDelete();
         productCertificationRepository.save(certification);
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent(ProductCertification.class));
         log.info("Product certification soft deleted successfully with id: {}", id);
     }
 
@@ -108,6 +114,7 @@ public class ProductCertificationService {
 
         certification.restore();
         productCertificationRepository.save(certification);
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent(ProductCertification.class));
         log.info("Product certification restored successfully with id: {}", id);
     }
 
@@ -120,6 +127,7 @@ public class ProductCertificationService {
                 .orElseThrow(() -> new ResourceNotFoundException("Product certification not found with id: " + id));
 
         productCertificationRepository.hardDeleteById(id);
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent(ProductCertification.class));
         log.info("Product certification hard deleted successfully with id: {}", id);
     }
 
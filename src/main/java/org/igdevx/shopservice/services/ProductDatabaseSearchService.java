@@ -0,0 +1,128 @@
+package org.igdevx.shopservice.services;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.igdevx.shopservice.dtos.ProductResponse;
+import org.igdevx.shopservice.dtos.ProductSearchRequest;
+import org.igdevx.shopservice.dtos.ProductSearchResponse;
+import org.igdevx.shopservice.dtos.ProductSuggestion;
+import org.igdevx.shopservice.repositories.ProductFallbackSearchRepository;
+import org.igdevx.shopservice.repositories.ProductFullTextSearchRepository;
+import org.igdevx.shopservice.repositories.ProductResponseRepository;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Product search served from Postgres.
+ * The search/getSuggestions methods are the degraded path used when Elasticsearch is unavailable
+ * (trigram similarity on the title); the fullText* methods back PostgresSearchBackend (tsvector + ts_rank).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductDatabaseSearchService {
+
+    private final ProductFallbackSearchRepository fallbackSearchRepository;
+    private final ProductFullTextSearchRepository fullTextSearchRepository;
+    private final ProductResponseRepository productResponseRepository;
+    private final ProductArchiveService archiveService;
+
+    @Transactional(readOnly = true)
+    public ProductSearchResponse searchProducts(ProductSearchRequest request) {
+        log.debug("Searching products in database with request: {}", request);
+        int page = request.getPage() != null ? request.getPage() : 0;
+        int size = request.getSize() != null ? request.getSize() : 20;
+        return toSearchResponse(fallbackSearchRepository.searchIds(request, page, size), page, size, true);
+    }
+
+    @Transactional(readOnly = true)
+    public ProductSearchResponse searchProductsByProducer(Long producerId, Long shelfId, Boolean onlyDeleted, int page, int size) {
+        log.debug("Searching products in database for producer: {}, shelf: {}, onlyDeleted: {}", producerId, shelfId, onlyDeleted);
+        Page<Long> ids = fallbackSearchRepository.producerIds(producerId, shelfId, Boolean.TRUE.equals(onlyDeleted), page, size);
+        return toSearchResponse(ids, page, size, true);
+    }
+
+    @Transactional(readOnly = true)
+    public List<ProductSuggestion> getSuggestions(String query, int size) {
+        log.debug("Getting suggestions from database for query: {}, size: {}", query, size);
+
+        if (query == null || query.isBlank()) {
+            return new ArrayList<>();
+        }
+
+        return toSuggestions(fallbackSearchRepository.suggestionIds(query, size));
+    }
+
+    @Transactional(readOnly = true)
+    public ProductSearchResponse fullTextSearch(ProductSearchRequest request) {
+        log.debug("Full-text searching products in database with request: {}", request);
+        int page = request.getPage() != null ? request.getPage() : 0;
+        int size = request.getSize() != null ? request.getSize() : 20;
+        return toSearchResponse(fullTextSearchRepository.searchIds(request, page, size), page, size, false);
+    }
+
+    @Transactional(readOnly = true)
+    public ProductSearchResponse producerListing(Long producerId, Long shelfId, Boolean onlyDeleted, int page, int size) {
+        log.debug("Listing products in database for producer: {}, shelf: {}, onlyDeleted: {}", producerId, shelfId, onlyDeleted);
+        Page<Long> ids = fallbackSearchRepository.producerIds(producerId, shelfId, Boolean.TRUE.equals(onlyDeleted), page, size);
+        return toSearchResponse(ids, page, size, false);
+    }
+
+    @Transactional(readOnly = true)
+    public List<ProductSuggestion> fullTextSuggestions(String query, int size) {
+        log.debug("Getting full-text suggestions from database for query: {}, size: {}", query, size);
+
+        if (query == null || query.isBlank()) {
+            return new ArrayList<>();
+        }
+
+        return toSuggestions(fullTextSearchRepository.suggestionIds(query, size));
+    }
+
+    private List<ProductSuggestion> toSuggestions(List<Long> ids) {
+        return productResponseRepository.findAllByIdIn(ids).stream()
+                .map(product -> ProductSuggestion.builder()
+                        .id(product.getId())
+                        .title(product.getTitle())
+                        .imageUrl(product.getMainImageUrl())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Add the archived products of a page of deleted products, keeping the order of the ids
+     */
+    private List<ProductResponse> withArchived(List<Long> ids, List<ProductResponse> products) {
+        if (products.size() == ids.size()) {
+            return products;
+        }
+        Set<Long> found = products.stream().map(ProductResponse::getId).collect(Collectors.toSet());
+        List<Long> archivedIds = ids.stream().filter(id -> !found.contains(id)).toList();
+        Map<Long, ProductResponse> byId = Stream.concat(products.stream(), archiveService.responses(archivedIds).stream())
+                .collect(Collectors.toMap(ProductResponse::getId, Function.identity()));
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+    }
+
+    private ProductSearchResponse toSearchResponse(Page<Long> ids, int page, int size, boolean degraded) {
+        List<ProductResponse> products = withArchived(ids.getContent(), productResponseRepository.findAllByIdIn(ids.getContent()));
+
+        return ProductSearchResponse.builder()
+                .products(products)
+                .totalElements(ids.getTotalElements())
+                .totalPages((int) Math.ceil((double) ids.getTotalElements() / size))
+                .currentPage(page)
+                .pageSize(size)
+                .degraded(degraded)
+                .build();
+    }
+}
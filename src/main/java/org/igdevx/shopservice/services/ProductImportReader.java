@@ -0,0 +1,190 @@
+package org.igdevx.shopservice.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.igdevx.shopservice.dtos.ProductRequest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Reads the rows of a product import one at a time, from NDJSON (one ProductRequest per line)
+ * or CSV (a header row naming ProductRequest fields, certificationIds separated by ';').
+ * A row that cannot be read is returned with its error instead of failing the whole import.
+ */
+public abstract class ProductImportReader {
+
+    public record Row(long line, ProductRequest request, String error) {
+    }
+
+    private static final Set<String> COLUMNS = Arrays.stream(ProductRequest.class.getDeclaredFields())
+            .filter(field -> !Modifier.isStatic(field.getModifiers()))
+            .map(Field::getName)
+            .collect(Collectors.toUnmodifiableSet());
+
+    protected final BufferedReader reader;
+    protected final ObjectMapper objectMapper;
+    protected long line;
+
+    private ProductImportReader(InputStream in, ObjectMapper objectMapper) {
+        this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        this.objectMapper = objectMapper;
+    }
+
+    public static ProductImportReader ndjson(InputStream in, ObjectMapper objectMapper) {
+        return new Ndjson(in, objectMapper);
+    }
+
+    public static ProductImportReader csv(InputStream in, ObjectMapper objectMapper) {
+        return new Csv(in, objectMapper);
+    }
+
+    /**
+     * Next row, or null at the end of the input
+     */
+    public abstract Row next() throws IOException;
+
+    private static final class Ndjson extends ProductImportReader {
+
+        private Ndjson(InputStream in, ObjectMapper objectMapper) {
+            super(in, objectMapper);
+        }
+
+        @Override
+        public Row next() throws IOException {
+            String text;
+            do {
+                text = reader.readLine();
+                if (text == null) {
+                    return null;
+                }
+                line++;
+            } while (text.isBlank());
+
+            try {
+                return new Row(line, objectMapper.readValue(text, ProductRequest.class), null);
+            } catch (JsonProcessingException e) {
+                return new Row(line, null, "Unreadable JSON: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    private static final class Csv extends ProductImportReader {
+
+        private List<String> header;
+        private boolean invalidHeader;
+
+        private Csv(InputStream in, ObjectMapper objectMapper) {
+            super(in, objectMapper);
+        }
+
+        @Override
+        public Row next() throws IOException {
+            if (invalidHeader) {
+                return null;
+            }
+            if (header == null) {
+                header = readRecord();
+                if (header == null) {
+                    return null;
+                }
+                header = header.stream().map(String::strip).toList();
+                List<String> unknown = header.stream().filter(column -> !COLUMNS.contains(column)).toList();
+                if (!unknown.isEmpty()) {
+                    // Nothing can be read with a wrong header: reported as the only row
+                    invalidHeader = true;
+                    return new Row(1, null, "Unknown CSV columns " + unknown + ", expected some of " + COLUMNS.stream().sorted().toList());
+                }
+            }
+
+            List<String> fields;
+            long start;
+            do {
+                start = line + 1;
+                fields = readRecord();
+                if (fields == null) {
+                    return null;
+                }
+            } while (fields.size() == 1 && fields.get(0).isBlank());
+
+            if (fields.size() != header.size()) {
+                return new Row(start, null, "Expected " + header.size() + " fields, found " + fields.size());
+            }
+            Map<String, Object> values = new HashMap<>();
+            for (int i = 0; i < fields.size(); i++) {
+                String value = fields.get(i).strip();
+                if (value.isEmpty()) {
+                    continue;
+                }
+                values.put(header.get(i), "certificationIds".equals(header.get(i))
+                        ? Arrays.stream(value.split(";")).map(String::strip).toList()
+                        : value);
+            }
+            try {
+                return new Row(start, objectMapper.convertValue(values, ProductRequest.class), null);
+            } catch (IllegalArgumentException e) {
+                return new Row(start, null, "Invalid value: " + e.getMessage().split("\n")[0]);
+            }
+        }
+
+        /**
+         * Fields of the next record (RFC 4180: quoted fields may hold commas, doubled quotes and line breaks)
+         */
+        private List<String> readRecord() throws IOException {
+            String text = reader.readLine();
+            if (text == null) {
+                return null;
+            }
+            line++;
+
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                for (int i = 0; i < text.length(); i++) {
+                    char c = text.charAt(i);
+                    if (quoted) {
+                        if (c != '"') {
+                            field.append(c);
+                        } else if (i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                            field.append('"');
+                            i++;
+                        } else {
+                            quoted = false;
+                        }
+                    } else if (c == '"') {
+                        quoted = true;
+                    } else if (c == ',') {
+                        fields.add(field.toString());
+                        field.setLength(0);
+                    } else {
+                        field.append(c);
+                    }
+                }
+                if (!quoted) {
+                    break;
+                }
+                text = reader.readLine();
+                if (text == null) {
+                    break;
+                }
+                line++;
+                field.append('\n');
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package org.igdevx.shopservice.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.igdevx.shopservice.dtos.ProductImportResponse;
+import org.igdevx.shopservice.dtos.ProductRequest;
+import org.igdevx.shopservice.elasticsearch.services.ProductIndexService;
+import org.igdevx.shopservice.models.*;
+import org.igdevx.shopservice.repositories.*;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk product import from NDJSON or CSV.
+ * <p>
+ * The upload is read as a stream, CHUNK_SIZE rows at a time, so memory does not grow with the file.
+ * For each chunk the references of all its rows are checked with one IN query per table, then the valid
+ * rows are inserted in one transaction: ids come from the pooled product sequence and Hibernate sends the
+ * product and product_certification_link inserts in JDBC batches (hibernate.jdbc.batch_size).
+ * The imported products are then indexed with one bulk write per chunk.
+ * Rejected rows do not stop the import: they are reported with their line and reason.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductImportService {
+
+    static final int CHUNK_SIZE = 500;
+    static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final ProductRepository productRepository;
+    private final CurrencyRepository currencyRepository;
+    private final UnitRepository unitRepository;
+    private final ShelfRepository shelfRepository;
+    private final CategoryRepository categoryRepository;
+    private final ProductCertificationRepository certificationRepository;
+    private final ProductIndexService productIndexService;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+
+    private record ChunkResult(List<Product> products, List<ProductImportResponse.RowError> errors) {
+    }
+
+    public ProductImportResponse importNdjson(InputStream in) throws IOException {
+        return importRows(ProductImportReader.ndjson(in, objectMapper));
+    }
+
+    public ProductImportResponse importCsv(InputStream in) throws IOException {
+        return importRows(ProductImportReader.csv(in, objectMapper));
+    }
+
+    private ProductImportResponse importRows(ProductImportReader reader) throws IOException {
+        long start = System.nanoTime();
+        Report report = new Report();
+        List<ProductImportReader.Row> chunk = new ArrayList<>(CHUNK_SIZE);
+
+        ProductImportReader.Row row;
+        while ((row = reader.next()) != null) {
+            report.received++;
+            if (row.error() != null) {
+                report.fail(row.line(), row.error());
+                continue;
+            }
+            Set<ConstraintViolation<ProductRequest>> violations = validator.validate(row.request());
+            if (!violations.isEmpty()) {
+                report.fail(row.line(), violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining(", ")));
+                continue;
+            }
+            chunk.add(row);
+            if (chunk.size() == CHUNK_SIZE) {
+                importChunk(chunk, report);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, report);
+        }
+
+        log.info("Imported {} of {} products ({} rejected) in {} ms", report.imported, report.received, report.failed,
+                (System.nanoTime() - start) / 1_000_000);
+        return report.toResponse();
+    }
+
+    private void importChunk(List<ProductImportReader.Row> rows, Report report) {
+        ChunkResult result;
+        try {
+            result = transactionTemplate.execute(status -> insert(rows));
+        } catch (RuntimeException e) {
+            log.error("Failed to import the chunk of rows {}-{}", rows.get(0).line(), rows.get(rows.size() - 1).line(), e);
+            rows.forEach(row -> report.fail(row.line(), "Not imported, the batch failed: " + e.getMessage()));
+            return;
+        }
+
+        result.errors().forEach(error -> report.fail(error.getLine(), error.getMessage()));
+        report.imported += result.products().size();
+        try {
+            productIndexService.indexProducts(result.products());
+        } catch (RuntimeException e) {
+            log.error("Failed to index {} imported products", result.products().size(), e);
+            report.notIndexed += result.products().size();
+        }
+    }
+
+    /**
+     * Resolve the references of a chunk with one query per table and insert the rows that have them all
+     */
+    private ChunkResult insert(List<ProductImportReader.Row> rows) {
+        List<ProductRequest> requests = rows.stream().map(ProductImportReader.Row::request).toList();
+        Map<Long, Currency> currencies = byId(currencyRepository.findAllByIdIn(ids(requests, ProductRequest::getCurrencyId)), Currency::getId);
+        Map<Long, Unit> units = byId(unitRepository.findAllByIdIn(ids(requests, ProductRequest::getUnitId)), Unit::getId);
+        Map<Long, Shelf> shelves = byId(shelfRepository.findAllByIdIn(ids(requests, ProductRequest::getShelfId)), Shelf::getId);
+        Map<Long, Category> categories = byId(categoryRepository.findAllByIdIn(ids(requests, ProductRequest::getCategoryId)), Category::getId);
+        Set<Long> certificationIds = requests.stream()
+                .filter(request -> request.getCertificationIds() != null)
+                .flatMap(request -> request.getCertificationIds().stream())
+                .collect(Collectors.toSet());
+        Map<Long, ProductCertification> certifications = certificationIds.isEmpty() ? Map.of()
+                : byId(certificationRepository.findAllByIdIn(certificationIds), ProductCertification::getId);
+
+        List<Product> products = new ArrayList<>(rows.size());
+        List<ProductImportResponse.RowError> errors = new ArrayList<>();
+        for (ProductImportReader.Row row : rows) {
+            ProductRequest request = row.request();
+            List<String> missing = new ArrayList<>();
+            missing(missing, "Currency", request.getCurrencyId(), currencies);
+            missing(missing, "Unit", request.getUnitId(), units);
+            missing(missing, "Shelf", request.getShelfId(), shelves);
+            missing(missing, "Category", request.getCategoryId(), categories);
+            Set<Long> requestedCertifications = request.getCertificationIds() != null ? request.getCertificationIds() : Set.of();
+            requestedCertifications.forEach(id -> missing(missing, "Certification", id, certifications));
+            if (!missing.isEmpty()) {
+                errors.add(new ProductImportResponse.RowError(row.line(), String.join(", ", missing)));
+                continue;
+            }
+
+            products.add(Product.builder()
+                    .title(request.getTitle())
+                    .description(request.getDescription())
+                    .category(categories.get(request.getCategoryId()))
+                    .price(request.getPrice())
+                    .currency(currencies.get(request.getCurrencyId()))
+                    .unit(units.get(request.getUnitId()))
+                    .shelf(shelves.get(request.getShelfId()))
+                    .certifications(requestedCertifications.stream().map(certifications::get).collect(Collectors.toCollection(HashSet::new)))
+                    .isFresh(request.getIsFresh() != null ? request.getIsFresh() : false)
+                    .producerId(request.getProducerId())
+                    .mainImageId(request.getMainImageId())
+                    .mainImageUrl(request.getMainImageUrl())
+                    .build());
+        }
+
+        productRepository.saveAll(products);
+        // Send the batched inserts now and drop the chunk from the persistence context,
+        // which the open-in-view EntityManager would otherwise keep for the whole upload
+        entityManager.flush();
+        entityManager.clear();
+        return new ChunkResult(products, errors);
+    }
+
+    private static void missing(List<String> missing, String type, Long id, Map<Long, ?> found) {
+        if (!found.containsKey(id)) {
+            missing.add(type + " not found with id: " + id);
+        }
+    }
+
+    private static Set<Long> ids(List<ProductRequest> requests, Function<ProductRequest, Long> id) {
+        return requests.stream().map(id).filter(Objects::nonNull).collect(Collectors.toSet());
+    }
+
+    private static <T> Map<Long, T> byId(Collection<T> entities, Function<T, Long> id) {
+        return entities.stream().collect(Collectors.toMap(id, Function.identity()));
+    }
+
+    private static final class Report {
+
+        private long received;
+        private long imported;
+        private long failed;
+        private long notIndexed;
+        private final List<ProductImportResponse.RowError> errors = new ArrayList<>();
+
+        private void fail(long line, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new ProductImportResponse.RowError(line, message));
+            }
+        }
+
+        private ProductImportResponse toResponse() {
+            return ProductImportResponse.builder()
+                    .received(received)
+                    .imported(imported)
+                    .failed(failed)
+                    .notIndexed(notIndexed)
+                    .errors(errors)
+                    .errorsTruncated(failed > errors.size())
+                    .build();
+        }
+    }
+}
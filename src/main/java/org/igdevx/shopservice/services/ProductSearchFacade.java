@@ -0,0 +1,118 @@
+package org.igdevx.shopservice.services;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.igdevx.shopservice.archive.ProductArchiveProperties;
+import org.igdevx.shopservice.catalog.ProductCatalogEngine;
+import org.igdevx.shopservice.dtos.ProductSearchRequest;
+import org.igdevx.shopservice.dtos.ProductSearchResponse;
+import org.igdevx.shopservice.dtos.ProductSuggestion;
+import org.igdevx.shopservice.elasticsearch.queries.QueryCostGovernor;
+import org.igdevx.shopservice.elasticsearch.queries.SearchPlan;
+import org.igdevx.shopservice.search.SearchBackend;
+import org.igdevx.shopservice.search.SearchBackendType;
+import org.igdevx.shopservice.search.SearchProperties;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Entry point for product search endpoints, delegating to the SearchBackend selected by search.backend.
+ * Every search is first planned by the query cost governor (search.cost): the planned request, with its size cap
+ * and within the result window, is what the backend, the catalog and the Postgres fallback run. Requests beyond
+ * the window are rejected before any of them is called.
+ * The Elasticsearch backend is called through the "productSearch" circuit breaker (error rate and slow call thresholds,
+ * see resilience4j.circuitbreaker.instances.productSearch) and falls back to the degraded Postgres search path
+ * when the call fails or the breaker is open. The Postgres and Lucene backends are called directly.
+ * Filter-only listings (no q) are answered by the in-heap ProductCatalogEngine once it is loaded,
+ * except listings of deleted products once product-archive is enabled: the catalog does not hold archived products.
+ */
+@Service
+@Slf4j
+public class ProductSearchFacade {
+
+    public static final String CIRCUIT_BREAKER_NAME = "productSearch";
+
+    private final SearchBackend backend;
+    private final ProductDatabaseSearchService databaseSearchService;
+    private final ProductCatalogEngine productCatalog;
+    private final CircuitBreaker circuitBreaker;
+    private final ProductArchiveProperties archiveProperties;
+    private final QueryCostGovernor costGovernor;
+
+    public ProductSearchFacade(List<SearchBackend> backends,
+                               SearchProperties searchProperties,
+                               ProductDatabaseSearchService databaseSearchService,
+                               ProductCatalogEngine productCatalog,
+                               CircuitBreakerRegistry circuitBreakerRegistry,
+                               ProductArchiveProperties archiveProperties,
+                               QueryCostGovernor costGovernor) {
+        this.backend = backends.stream()
+                .filter(candidate -> candidate.type() == searchProperties.getBackend())
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("No search backend of type " + searchProperties.getBackend()));
+        this.databaseSearchService = databaseSearchService;
+        this.productCatalog = productCatalog;
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker(CIRCUIT_BREAKER_NAME);
+        this.archiveProperties = archiveProperties;
+        this.costGovernor = costGovernor;
+        log.info("Product search served by the {} backend", backend.type());
+    }
+
+    public ProductSearchResponse searchProducts(ProductSearchRequest request) {
+        SearchPlan plan = costGovernor.plan(request);
+        ProductSearchResponse response = productCatalog.supports(request) && !archived(request.getOnlyDeleted())
+                ? productCatalog.search(plan.request())
+                : withFallback("search",
+                        () -> backend.search(plan),
+                        () -> databaseSearchService.searchProducts(plan.request()));
+        response.setDowngrades(plan.downgrades());
+        return response;
+    }
+
+    public ProductSearchResponse searchProductsByProducer(Long producerId, Long shelfId, Boolean onlyDeleted, int page, int size) {
+        SearchPlan plan = costGovernor.plan(ProductSearchRequest.builder().page(page).size(size).build());
+        ProductSearchResponse response = servesProducerListingsFromCatalog(onlyDeleted)
+                ? productCatalog.producerListing(producerId, shelfId, onlyDeleted, plan.page(), plan.size())
+                : withFallback("producer search",
+                        () -> backend.searchByProducer(producerId, shelfId, onlyDeleted, plan.page(), plan.size()),
+                        () -> databaseSearchService.searchProductsByProducer(producerId, shelfId, onlyDeleted, plan.page(), plan.size()));
+        response.setDowngrades(plan.downgrades());
+        return response;
+    }
+
+    /**
+     * Whether producer listings are answered by the in-heap catalog, which ProducerPageCache does not cache again
+     */
+    public boolean servesProducerListingsFromCatalog(Boolean onlyDeleted) {
+        return productCatalog.isReady() && !archived(onlyDeleted);
+    }
+
+    public List<ProductSuggestion> getSuggestions(String query, int size) {
+        return withFallback("suggest",
+                () -> backend.suggest(query, size),
+                () -> databaseSearchService.getSuggestions(query, size));
+    }
+
+    private boolean archived(Boolean onlyDeleted) {
+        return Boolean.TRUE.equals(onlyDeleted) && archiveProperties.isEnabled();
+    }
+
+    private <T> T withFallback(String operation, Supplier<T> backendCall, Supplier<T> databaseCall) {
+        if (backend.type() != SearchBackendType.ELASTICSEARCH) {
+            return backendCall.get();
+        }
+        try {
+            return circuitBreaker.executeSupplier(backendCall);
+        } catch (CallNotPermittedException e) {
+            log.debug("Circuit breaker {} is open, serving {} from Postgres", CIRCUIT_BREAKER_NAME, operation);
+            return databaseCall.get();
+        } catch (RuntimeException e) {
+            log.warn("Elasticsearch {} failed, serving it from Postgres: {}", operation, e.getMessage());
+            return databaseCall.get();
+        }
+    }
+}
@@ -1,38 +1,70 @@
 package org.igdevx.shopservice.services;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.igdevx.shopservice.dtos.CursorPage;
 import org.igdevx.shopservice.dtos.ProductRequest;
 import org.igdevx.shopservice.dtos.ProductResponse;
 import org.igdevx.shopservice.elasticsearch.services.ProductIndexService;
 import org.igdevx.shopservice.events.ProductIndexEvent;
+import org.igdevx.shopservice.exceptions.InvalidPageRequestException;
 import org.igdevx.shopservice.exceptions.ResourceNotFoundException;
 import org.igdevx.shopservice.mappers.ProductMapper;
 import org.igdevx.shopservice.models.*;
+import org.igdevx.shopservice.reference.ReferenceDataCache;
 import org.igdevx.shopservice.repositories.*;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ProductService {
 
+    private static final byte NEWLINE = '\n';
+    private static final int STREAM_FLUSH_EVERY = 500;
+    private static final int TEXT_SEARCH_LIMIT = 100;
+
     private final ProductRepository productRepository;
-    private final CurrencyRepository currencyRepository;
-    private final UnitRepository unitRepository;
-    private final ShelfRepository shelfRepository;
-    private final CategoryRepository categoryRepository;
-    private final ProductCertificationRepository certificationRepository;
+    private final ProductResponseRepository productResponseRepository;
     private final ProductMapper productMapper;
+    private final ReferenceDataCache referenceData;
     private final ProductIndexService productIndexService;
     private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final ProductArchiveService archiveService;
+
+    /**
+     * Filter of the product listings: all products (the default), or only one of fresh, deleted, producerId and categoryIds
+     */
+    public record ListFilter(boolean fresh, boolean deleted, Long producerId, List<Long> categoryIds) {
+
+        public static final ListFilter ALL = new ListFilter(false, false, null, null);
+
+        public ListFilter {
+            categoryIds = categoryIds == null || categoryIds.isEmpty() ? null : List.copyOf(categoryIds);
+            int filters = (fresh ? 1 : 0) + (deleted ? 1 : 0) + (producerId != null ? 1 : 0) + (categoryIds != null ? 1 : 0);
+            if (filters > 1) {
+                throw new InvalidPageRequestException("Only one of fresh, deleted, producerId and categoryIds can be set");
+            }
+        }
+    }
 
     @Transactional(readOnly = true)
     public List<ProductResponse> getAllProducts() {
@@ -43,12 +75,84 @@ public class ProductService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Keyset page of a product listing, ordered by id. Reads size + 1 ids from the index after the cursor,
+     * then projects the page into ProductResponse in one query.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<ProductResponse> getProducts(ListFilter filter, String cursor, Integer size) {
+        int pageSize = KeysetCursor.size(size);
+        long afterId = KeysetCursor.afterId(cursor);
+        Limit limit = Limit.of(pageSize + 1);
+        log.debug("Fetching products page after id {} ({} items): {}", afterId, pageSize, filter);
+
+        List<Long> ids;
+        if (filter.deleted()) {
+            ids = productRepository.findDeletedIdsAfter(afterId, limit);
+        } else if (filter.producerId() != null) {
+            ids = productRepository.findIdsByProducerIdAfter(filter.producerId(), afterId, limit);
+        } else if (filter.categoryIds() != null) {
+            ids = productRepository.findIdsByCategoryIdInAfter(filter.categoryIds(), afterId, limit);
+        } else if (filter.fresh()) {
+            ids = productRepository.findFreshIdsAfter(afterId, limit);
+        } else {
+            ids = productRepository.findIdsAfter(afterId, limit);
+        }
+
+        boolean hasNext = ids.size() > pageSize;
+        List<Long> pageIds = hasNext ? ids.subList(0, pageSize) : ids;
+        List<ProductResponse> items = productResponseRepository.findAllByIdIn(pageIds);
+
+        return CursorPage.<ProductResponse>builder()
+                .items(items)
+                .size(items.size())
+                .nextCursor(hasNext ? KeysetCursor.encode(pageIds.get(pageIds.size() - 1)) : null)
+                .build();
+    }
+
+    /**
+     * Write every product of a listing as NDJSON, one ProductResponse per line, ordered by id.
+     * The rows are read from a database cursor and each product is detached once written,
+     * so memory stays bounded by the JDBC fetch size whatever the size of the table.
+     */
+    @Transactional(readOnly = true)
+    public void streamProducts(ListFilter filter, OutputStream out) throws IOException {
+        log.debug("Streaming products: {}", filter);
+        long written = 0;
+        try (Stream<Product> products = stream(filter)) {
+            Iterator<Product> iterator = products.iterator();
+            while (iterator.hasNext()) {
+                Product product = iterator.next();
+                out.write(objectMapper.writeValueAsBytes(productMapper.toResponse(product)));
+                out.write(NEWLINE);
+                entityManager.detach(product);
+                if (++written % STREAM_FLUSH_EVERY == 0) {
+                    out.flush();
+                }
+            }
+        }
+        out.flush();
+        log.debug("Streamed {} products", written);
+    }
+
+    private Stream<Product> stream(ListFilter filter) {
+        if (filter.deleted()) {
+            return productRepository.streamAll(true);
+        } else if (filter.producerId() != null) {
+            return productRepository.streamByProducerId(filter.producerId());
+        } else if (filter.categoryIds() != null) {
+            return productRepository.streamByCategoryIdIn(filter.categoryIds());
+        } else if (filter.fresh()) {
+            return productRepository.streamAllFresh();
+        }
+        return productRepository.streamAll(false);
+    }
+
     @Transactional(readOnly = true)
     public ProductResponse getProductById(Long id) {
         log.debug("Fetching product with id: {}", id);
-        Product product = productRepository.findById(id)
+        return productResponseRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
-        return productMapper.toResponse(product);
     }
 
     @Transactional(readOnly = true)
@@ -69,40 +173,29 @@ public class ProductService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Non-deleted products whose title or description contains the term or whose title is similar to it,
+     * best title matches first, at most TEXT_SEARCH_LIMIT
+     */
     @Transactional(readOnly = true)
     public List<ProductResponse> searchProducts(String searchTerm) {
         log.debug("Searching products with term: {}", searchTerm);
-        return productRepository.searchByTitle(searchTerm)
-                .stream()
-                .map(productMapper::toResponse)
-                .collect(Collectors.toList());
+        if (searchTerm == null || searchTerm.isBlank()) {
+            return List.of();
+        }
+        return productResponseRepository.findAllByIdIn(productRepository.searchIdsByText(searchTerm, TEXT_SEARCH_LIMIT));
     }
 
     @Transactional
     public ProductResponse createProduct(ProductRequest request) {
         log.debug("Creating new product: {}", request.getTitle());
 
-        // Fetch and validate related entities
-        Currency currency = currencyRepository.findById(request.getCurrencyId())
-                .orElseThrow(() -> new ResourceNotFoundException("Currency not found with id: " + request.getCurrencyId()));
-
-        Unit unit = unitRepository.findById(request.getUnitId())
-                .orElseThrow(() -> new ResourceNotFoundException("Unit not found with id: " + request.getUnitId()));
-
-        Shelf shelf = shelfRepository.findById(request.getShelfId())
-                .orElseThrow(() -> new ResourceNotFoundException("Shelf not found with id: " + request.getShelfId()));
-        Category category = categoryRepository.findById(request.getCategoryId())
-                .orElseThrow(() -> new ResourceNotFoundException("Category not found with id: " + request.getCategoryId()));
-
-
-        // Fetch certifications if provided
-        Set<ProductCertification> certifications = new HashSet<>();
-        if (request.getCertificationIds() != null && !request.getCertificationIds().isEmpty()) {
-            certifications = request.getCertificationIds().stream()
-                    .map(id -> certificationRepository.findById(id)
-                            .orElseThrow(() -> new ResourceNotFoundException("Certification not found with id: " + id)))
-                    .collect(Collectors.toSet());
-        }
+        // Validate related entities against the reference data cache and set them by id, without loading them
+        Currency currency = reference(Currency.class, "Currency", request.getCurrencyId(), referenceData::currency);
+        Unit unit = reference(Unit.class, "Unit", request.getUnitId(), referenceData::unit);
+        Shelf shelf = reference(Shelf.class, "Shelf", request.getShelfId(), referenceData::shelf);
+        Category category = reference(Category.class, "Category", request.getCategoryId(), referenceData::category);
+        Set<ProductCertification> certifications = certifications(request.getCertificationIds());
 
         // Build product
         Product product = Product.builder()
@@ -122,7 +215,7 @@ public class ProductService {
 
         Product savedProduct = productRepository.save(product);
 
-        eventPublisher.publishEvent(ProductIndexEvent.updated(savedProduct.getId()));
+        eventPublisher.publishEvent(ProductIndexEvent.updated(savedProduct.getId(), savedProduct.getProducerId()));
 
         log.info("Product created with id: {}", savedProduct.getId());
         return productMapper.toResponse(savedProduct);
@@ -136,46 +229,36 @@ public class ProductService {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
 
+        Long previousProducerId = product.getProducerId();
+
         // Update basic fields
         productMapper.updateBasicFields(product, request);
 
         // Update related entities if changed
         if (!product.getCurrency().getId().equals(request.getCurrencyId())) {
-            Currency currency = currencyRepository.findById(request.getCurrencyId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Currency not found with id: " + request.getCurrencyId()));
-            product.setCurrency(currency);
+            product.setCurrency(reference(Currency.class, "Currency", request.getCurrencyId(), referenceData::currency));
         }
 
         if (!product.getUnit().getId().equals(request.getUnitId())) {
-            Unit unit = unitRepository.findById(request.getUnitId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Unit not found with id: " + request.getUnitId()));
-            product.setUnit(unit);
+            product.setUnit(reference(Unit.class, "Unit", request.getUnitId(), referenceData::unit));
         }
 
         if (!product.getShelf().getId().equals(request.getShelfId())) {
-        if (!product.getCategory().getId().equals(request.getCategoryId())) {
-            Category category = categoryRepository.findById(request.getCategoryId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Category not found with id: " + request.getCategoryId()));
-            product.setCategory(category);
+            product.setShelf(reference(Shelf.class, "Shelf", request.getShelfId(), referenceData::shelf));
         }
 
-            Shelf shelf = shelfRepository.findById(request.getShelfId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Shelf not found with id: " + request.getShelfId()));
-            product.setShelf(shelf);
+        if (!product.getCategory().getId().equals(request.getCategoryId())) {
+            product.setCategory(reference(Category.class, "Category", request.getCategoryId(), referenceData::category));
         }
 
         // Update certifications
         if (request.getCertificationIds() != null) {
-            Set<ProductCertification> certifications = request.getCertificationIds().stream()
-                    .map(certId -> certificationRepository.findById(certId)
-                            .orElseThrow(() -> new ResourceNotFoundException("Certification not found with id: " + certId)))
-                    .collect(Collectors.toSet());
-            product.setCertifications(certifications);
+            product.setCertifications(certifications(request.getCertificationIds()));
         }
 
         Product updatedProduct = productRepository.save(product);
 
-        eventPublisher.publishEvent(ProductIndexEvent.updated(id));
+        eventPublisher.publishEvent(ProductIndexEvent.updated(id, previousProducerId, updatedProduct.getProducerId()));
 
         log.info("Product updated with id: {}", id);
         return productMapper.toResponse(updatedProduct);
@@ -191,7 +274,7 @@ public class ProductService {
         product.softDelete();
         productRepository.save(product);
 
-        eventPublisher.publishEvent(ProductIndexEvent.updated(id));
+        eventPublisher.publishEvent(ProductIndexEvent.updated(id, product.getProducerId()));
 
         log.info("Product soft deleted with id: {}", id);
     }
@@ -200,9 +283,17 @@ public class ProductService {
     public void restoreProduct(Long id) {
         log.debug("Restoring product with id: {}", id);
 
-        Product product = productRepository.findByIdIncludingDeleted(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
+        Optional<Product> found = productRepository.findByIdIncludingDeleted(id);
+        if (found.isEmpty()) {
+            // Deleted long enough ago to have been moved to the archive
+            Long producerId = archiveService.restore(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
+            eventPublisher.publishEvent(ProductIndexEvent.restored(id, producerId));
+            log.info("Product restored from the archive with id: {}", id);
+            return;
+        }
 
+        Product product = found.get();
         if (!product.getIsDeleted()) {
             throw new IllegalStateException("Product with id " + id + " is not deleted");
         }
@@ -210,7 +301,7 @@ public class ProductService {
         product.restore();
         productRepository.save(product);
 
-        eventPublisher.publishEvent(ProductIndexEvent.updated(id));
+        eventPublisher.publishEvent(ProductIndexEvent.updated(id, product.getProducerId()));
 
         log.info("Product restored with id: {}", id);
     }
@@ -219,15 +310,38 @@ public class ProductService {
     public void hardDeleteProduct(Long id) {
         log.debug("Hard deleting product with id: {}", id);
 
-        Product product = productRepository.findByIdIncludingDeleted(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
+        Optional<Product> product = productRepository.findByIdIncludingDeleted(id);
+        Long producerId;
+        if (product.isPresent()) {
+            producerId = product.get().getProducerId();
+            productRepository.hardDeleteById(id);
+        } else {
+            producerId = archiveService.delete(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
+        }
 
+        eventPublisher.publishEvent(ProductIndexEvent.deleted(id, producerId));
 
-        productRepository.hardDeleteById(id);
+        log.info("Product hard deleted with id: {}", id);
+    }
 
-        eventPublisher.publishEvent(ProductIndexEvent.deleted(id));
+    /**
+     * Reference to a related entity that exists in the reference data cache, as an unloaded proxy
+     */
+    private <T> T reference(Class<T> type, String name, Long id, Function<Long, Optional<?>> cached) {
+        if (cached.apply(id).isEmpty()) {
+            throw new ResourceNotFoundException(name + " not found with id: " + id);
+        }
+        return entityManager.getReference(type, id);
+    }
 
-        log.info("Product hard deleted with id: {}", id);
+    private Set<ProductCertification> certifications(Set<Long> ids) {
+        Set<ProductCertification> certifications = new HashSet<>();
+        if (ids != null) {
+            ids.forEach(id -> certifications.add(
+                    reference(ProductCertification.class, "Certification", id, referenceData::certification)));
+        }
+        return certifications;
     }
 
     @Transactional(readOnly = true)
@@ -2,13 +2,17 @@ package org.igdevx.shopservice.services;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.igdevx.shopservice.dtos.CursorPage;
 import org.igdevx.shopservice.dtos.ShelfRequest;
 import org.igdevx.shopservice.dtos.ShelfResponse;
+import org.igdevx.shopservice.events.ReferenceDataChangedEvent;
 import org.igdevx.shopservice.exceptions.DuplicateResourceException;
 import org.igdevx.shopservice.exceptions.ResourceNotFoundException;
 import org.igdevx.shopservice.mappers.ShelfMapper;
 import org.igdevx.shopservice.models.Shelf;
 import org.igdevx.shopservice.repositories.ShelfRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -22,6 +26,7 @@ public class ShelfService {
 
     private final ShelfRepository shelfRepository;
     private final ShelfMapper shelfMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional(readOnly = true)
     public List<ShelfResponse> getAllShelves() {
@@ -32,6 +37,27 @@ public class ShelfService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Keyset page of the shelves, of every producer or of one, ordered by id
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<ShelfResponse> getShelves(Long producerId, String cursor, Integer size) {
+        int pageSize = KeysetCursor.size(size);
+        long afterId = KeysetCursor.afterId(cursor);
+        log.debug("Fetching shelves page after id {} ({} items) for producer: {}", afterId, pageSize, producerId);
+        List<Shelf> shelves = producerId == null
+                ? shelfRepository.findPageAfter(afterId, Limit.of(pageSize + 1))
+                : shelfRepository.findPageByProducerIdAfter(producerId, afterId, Limit.of(pageSize + 1));
+
+        boolean hasNext = shelves.size() > pageSize;
+        List<Shelf> page = hasNext ? shelves.subList(0, pageSize) : shelves;
+        return CursorPage.<ShelfResponse>builder()
+                .items(page.stream().map(shelfMapper::toResponse).toList())
+                .size(page.size())
+                .nextCursor(hasNext ? KeysetCursor.encode(page.get(page.size() - 1).getId()) : null)
+                .build();
+    }
+
     @Transactional(readOnly = true)
     public ShelfResponse getShelfById(Long id) {
         log.debug("Fetching shelf with id: {}", id);
@@ -51,6 +77,7 @@ public class ShelfService {
 
         Shelf shelf = shelfMapper.toEntity(request);
         Shelf savedShelf = shelfRepository.save(shelf);
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent(Shelf.class, savedShelf.getId()));
         log.info("Shelf created successfully with id: {} for producer: {}", savedShelf.getId(), savedShelf.getProducerId());
         
         return shelfMapper.toResponse(savedShelf);
@@ -76,6 +103,7 @@ public class ShelfService {
 
         shelfMapper.updateEntity(shelf, request);
         Shelf updatedShelf = shelfRepository.save(shelf);
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent(Shelf.class, updatedShelf.getId()));
         log.info("Shelf updated successfully with id: {}", updatedShelf.getId());
         
         return shelfMapper.toResponse(updatedShelf);
@@ -90,6 +118,7 @@ public class ShelfService {
 
         shelf.softDelete();
         shelfRepository.save(shelf);
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent(Shelf.class, id));
         log.info("Shelf soft deleted successfully with id: {}", id);
     }
 
@@ -106,6 +135,7 @@ public class ShelfService {
 
         shelf.restore();
         shelfRepository.save(shelf);
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent(Shelf.class, id));
         log.info("Shelf restored successfully with id: {}", id);
     }
 
@@ -118,6 +148,7 @@ public class ShelfService {
                 .orElseThrow(() -> new ResourceNotFoundException("Shelf not found with id: " + id));
 
         shelfRepository.hardDeleteById(id);
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent(Shelf.class, id));
         log.info("Shelf hard deleted successfully with id: {}", id);
     }
 
@@ -4,11 +4,13 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.igdevx.shopservice.dtos.UnitRequest;
 import org.igdevx.shopservice.dtos.UnitResponse;
+import org.igdevx.shopservice.events.ReferenceDataChangedEvent;
 import org.igdevx.shopservice.exceptions.DuplicateResourceException;
 import org.igdevx.shopservice.exceptions.ResourceNotFoundException;
 import org.igdevx.shopservice.mappers.UnitMapper;
 import org.igdevx.shopservice.models.Unit;
 import org.igdevx.shopservice.repositories.UnitRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -22,6 +24,7 @@ public class UnitService {
 
     private final UnitRepository unitRepository;
     private final UnitMapper unitMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional(readOnly = true)
     public List<UnitResponse> getAllUnits() {
@@ -58,6 +61,7 @@ public class UnitService {
 
         Unit unit = unitMapper.toEntity(request);
         Unit savedUnit = unitRepository.save(unit);
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent(Unit.class));
         log.info("Unit created successfully with id: {}", savedUnit.getId());
         
         return unitMapper.toResponse(savedUnit);
@@ -77,6 +81,7 @@ public class UnitService {
 
         unitMapper.updateEntity(unit, request);
         Unit updatedUnit = unitRepository.save(unit);
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent(Unit.class));
         log.info("Unit updated successfully with id: {}", updatedUnit.getId());
         
         return unitMapper.toResponse(updatedUnit);
@@ -91,6 +96,7 @@ public class UnitService {
 
         unit.softDelete();
         unitRepository.save(unit);
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent(Unit.class));
         log.info("Unit soft deleted successfully with id: {}", id);
     }
 
@@ -107,6 +113,7 @@ public class UnitService {
 
         unit.restore();
         unitRepository.save(unit);
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent(Unit.class));
         log.info("Unit restored successfully with id: {}", id);
     }
 
@@ -119,6 +126,7 @@ public class UnitService {
                 .orElseThrow(() -> new ResourceNotFoundException("Unit not found with id: " + id));
 
         unitRepository.hardDeleteById(id);
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent(Unit.class));
         log.info("Unit hard deleted successfully with id: {}", id);
     }
 
@@ -0,0 +1,8 @@
+-- Trigram index on the product title for the degraded Postgres search path
+-- Used when Elasticsearch is unavailable (circuit breaker open) for substring and similarity matching
+-- pg_trgm is enabled in V1__create_extensions.sql
+CREATE INDEX IF NOT EXISTS idx_product_title_trgm
+    ON product USING GIN (lower(title) gin_trgm_ops);
+
+COMMENT ON INDEX idx_product_title_trgm IS
+    'Trigram index on lower(title) for LIKE/similarity matching in the Postgres search fallback';
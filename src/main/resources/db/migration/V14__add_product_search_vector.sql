@@ -0,0 +1,15 @@
+-- Full-text search column for the Postgres search backend (search.backend=postgres)
+-- unaccent is enabled in V1__create_extensions.sql
+
+-- French configuration with accent folding, the Postgres counterpart of the french_text Elasticsearch analyzer
+CREATE TEXT SEARCH CONFIGURATION french_unaccent (COPY = french);
+ALTER TEXT SEARCH CONFIGURATION french_unaccent
+    ALTER MAPPING FOR hword, hword_part, word WITH unaccent, french_stem;
+
+-- Title weighs more than description in ts_rank
+ALTER TABLE product ADD COLUMN search_vector tsvector GENERATED ALWAYS AS (
+    setweight(to_tsvector('french_unaccent', coalesce(title, '')), 'A') ||
+    setweight(to_tsvector('french_unaccent', coalesce(description, '')), 'B')
+) STORED;
+
+CREATE INDEX idx_product_search_vector ON product USING GIN (search_vector);
@@ -0,0 +1,23 @@
+-- Indexes of the keyset-paginated listings (GET /products, /shelves/page and their streams)
+-- A page is read with "WHERE <filter> AND id > :cursor ORDER BY id LIMIT n": with the filter columns leading
+-- and id last, Postgres walks the index from the cursor and stops after n rows, on the last page as on the first.
+-- The unfiltered product listing walks the primary key.
+CREATE INDEX IF NOT EXISTS idx_product_keyset_producer
+    ON product(producer_id, id) WHERE is_deleted = FALSE;
+
+CREATE INDEX IF NOT EXISTS idx_product_keyset_category
+    ON product(category_id, id) WHERE is_deleted = FALSE;
+
+CREATE INDEX IF NOT EXISTS idx_product_keyset_fresh
+    ON product(id) WHERE is_deleted = FALSE AND is_fresh = TRUE;
+
+CREATE INDEX IF NOT EXISTS idx_product_keyset_deleted
+    ON product(id) WHERE is_deleted = TRUE;
+
+CREATE INDEX IF NOT EXISTS idx_shelf_keyset_producer
+    ON shelf(producer_id, id) WHERE is_deleted = FALSE;
+
+COMMENT ON INDEX idx_product_keyset_producer IS
+    'Keyset pages of the products of a producer, ordered by id';
+COMMENT ON INDEX idx_product_keyset_category IS
+    'Keyset pages of the products of a category, ordered by id';
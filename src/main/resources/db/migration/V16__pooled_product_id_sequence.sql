@@ -0,0 +1,5 @@
+-- Product ids are allocated by Hibernate in blocks of 50 (SequenceGenerator allocationSize = 50, pooled optimizer):
+-- each nextval reserves the 50 ids ending at the returned value. The increment has to match the allocation size,
+-- Hibernate checks it at startup. Rows inserted with the column default keep working: they take the top id of
+-- their own block, which Hibernate never hands out.
+ALTER SEQUENCE product_id_seq INCREMENT BY 50;
@@ -0,0 +1,8 @@
+-- Trigram index on the product description, for the substring matches of ProductRepository.searchIdsByText
+-- Partial like the query it serves, which only matches non-deleted products; the title is covered by V13
+CREATE INDEX IF NOT EXISTS idx_product_description_trgm
+    ON product USING GIN (lower(description) gin_trgm_ops)
+    WHERE is_deleted = FALSE;
+
+COMMENT ON INDEX idx_product_description_trgm IS
+    'Trigram index on lower(description) of non-deleted products for LIKE matching in the database text search';
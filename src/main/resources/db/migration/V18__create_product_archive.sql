@@ -0,0 +1,35 @@
+-- Cold store of soft-deleted products: ProductArchiveService moves products deleted for longer than
+-- product-archive.grace-period out of the product table, restoring one moves it back with the same id.
+-- The certification links are kept as an array, the product_certification_link rows going with the product.
+-- No foreign keys: references deleted after the product was archived are checked when it is restored.
+CREATE TABLE IF NOT EXISTS product_archive (
+    id BIGINT PRIMARY KEY,
+    title VARCHAR(200) NOT NULL,
+    description TEXT,
+    price DECIMAL(10, 2) NOT NULL,
+    currency_id BIGINT NOT NULL,
+    unit_id BIGINT NOT NULL,
+    shelf_id BIGINT NOT NULL,
+    category_id BIGINT,
+    certification_ids BIGINT[] NOT NULL DEFAULT '{}',
+    main_image_id UUID,
+    main_image_url VARCHAR(500),
+    is_fresh BOOLEAN NOT NULL,
+    producer_id BIGINT NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+    archived_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Deleted products of a producer shop page (onlyDeleted), newest first like the product listings
+CREATE INDEX IF NOT EXISTS idx_product_archive_producer
+    ON product_archive(producer_id, created_at DESC, id DESC);
+
+-- Candidates of the next archive run: deleted products, oldest deletion first (updated_at is set by the soft delete)
+CREATE INDEX IF NOT EXISTS idx_product_deleted_updated_at
+    ON product(updated_at) WHERE is_deleted = TRUE;
+
+COMMENT ON TABLE product_archive IS
+    'Soft-deleted products moved out of product after the archive grace period';
+COMMENT ON COLUMN product_archive.certification_ids IS
+    'Certifications of the product when it was archived, relinked on restore';
@@ -0,0 +1,171 @@
+-- Hash partitioning of product and product_certification_link by producer_id
+--
+-- Almost every product access filters on producer_id (shop pages, shelf listings, bulk edits): with the key in
+-- the WHERE clause, Postgres prunes the plan to one of the 16 partitions, and vacuum, index maintenance and row
+-- locks are spread over tables a sixteenth of the size. Accesses by id alone (findById, the Hibernate updates)
+-- still work, probing the primary key index of every partition.
+--
+-- A partitioned table only enforces uniqueness on keys that contain the partition key:
+-- - the primary key becomes (id, producer_id); ids stay unique as they all come from product_id_seq;
+-- - product_certification_link carries the producer_id of its product, is partitioned the same way, and references
+--   product(id, producer_id). ON UPDATE CASCADE moves the links with a product that changes producer.
+--   Product.certifications inserts the links through @SQLInsert, which reads producer_id from product.
+--   Inserts that leave producer_id out (the seed migrations written before this one) are completed by the
+--   product_certification_link_fill_producer trigger.
+--
+-- The tables are rebuilt and swapped in one transaction, which holds an exclusive lock for the copy.
+-- On a large production table, run it in a maintenance window.
+-- The modulus cannot be changed in place: a bigger one means building a new table the same way.
+
+-- The sequence would be dropped with the old table
+ALTER SEQUENCE product_id_seq OWNED BY NONE;
+
+CREATE TABLE product_partitioned (
+    id BIGINT NOT NULL DEFAULT nextval('product_id_seq'),
+    title VARCHAR(200) NOT NULL,
+    description TEXT,
+    price DECIMAL(10, 2) NOT NULL CHECK (price >= 0),
+    currency_id BIGINT NOT NULL,
+    unit_id BIGINT NOT NULL,
+    shelf_id BIGINT NOT NULL,
+    is_fresh BOOLEAN NOT NULL DEFAULT FALSE,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    is_deleted BOOLEAN NOT NULL DEFAULT FALSE,
+    producer_id BIGINT NOT NULL,
+    category_id BIGINT,
+    main_image_id UUID,
+    main_image_url VARCHAR(500),
+    search_vector tsvector GENERATED ALWAYS AS (
+        setweight(to_tsvector('french_unaccent', coalesce(title, '')), 'A') ||
+        setweight(to_tsvector('french_unaccent', coalesce(description, '')), 'B')
+    ) STORED,
+
+    CONSTRAINT fk_product_currency FOREIGN KEY (currency_id) REFERENCES currency(id),
+    CONSTRAINT fk_product_unit FOREIGN KEY (unit_id) REFERENCES units(id),
+    CONSTRAINT fk_product_shelf FOREIGN KEY (shelf_id) REFERENCES shelf(id),
+    CONSTRAINT fk_product_category FOREIGN KEY (category_id) REFERENCES category(id) ON DELETE RESTRICT
+) PARTITION BY HASH (producer_id);
+
+CREATE TABLE product_certification_link_partitioned (
+    product_id BIGINT NOT NULL,
+    certification_id BIGINT NOT NULL,
+    producer_id BIGINT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT fk_pcl_certification FOREIGN KEY (certification_id) REFERENCES product_certification(id) ON DELETE CASCADE
+) PARTITION BY HASH (producer_id);
+
+-- product_p00..product_p15 and product_certification_link_p00..p15: same modulus, so that a producer's products
+-- and their links sit in partitions of the same number
+DO $$
+BEGIN
+    FOR remainder IN 0..15 LOOP
+        EXECUTE format('CREATE TABLE product_p%s PARTITION OF product_partitioned '
+                       'FOR VALUES WITH (MODULUS 16, REMAINDER %s)', lpad(remainder::text, 2, '0'), remainder);
+        EXECUTE format('CREATE TABLE product_certification_link_p%s PARTITION OF product_certification_link_partitioned '
+                       'FOR VALUES WITH (MODULUS 16, REMAINDER %s)', lpad(remainder::text, 2, '0'), remainder);
+    END LOOP;
+END $$;
+
+INSERT INTO product_partitioned (id, title, description, price, currency_id, unit_id, shelf_id, is_fresh,
+                                 created_at, updated_at, is_deleted, producer_id, category_id, main_image_id, main_image_url)
+SELECT id, title, description, price, currency_id, unit_id, shelf_id, is_fresh,
+       created_at, updated_at, is_deleted, producer_id, category_id, main_image_id, main_image_url
+FROM product;
+
+INSERT INTO product_certification_link_partitioned (product_id, certification_id, producer_id, created_at)
+SELECT l.product_id, l.certification_id, p.producer_id, l.created_at
+FROM product_certification_link l
+JOIN product p ON p.id = l.product_id;
+
+DROP TABLE product_certification_link;
+DROP TABLE product;
+
+ALTER TABLE product_partitioned RENAME TO product;
+ALTER TABLE product_certification_link_partitioned RENAME TO product_certification_link;
+ALTER SEQUENCE product_id_seq OWNED BY product.id;
+
+ALTER TABLE product ADD CONSTRAINT product_pkey PRIMARY KEY (id, producer_id);
+
+-- Also serves the collection loads of Product.certifications, by product_id alone
+ALTER TABLE product_certification_link
+    ADD CONSTRAINT product_certification_link_pkey PRIMARY KEY (product_id, certification_id, producer_id);
+ALTER TABLE product_certification_link
+    ADD CONSTRAINT fk_pcl_product FOREIGN KEY (product_id, producer_id) REFERENCES product(id, producer_id)
+        ON DELETE CASCADE ON UPDATE CASCADE;
+CREATE INDEX idx_pcl_certification ON product_certification_link(certification_id);
+
+-- A BEFORE trigger cannot set the partition key of a routed row: Postgres has already sent it to the partition of a
+-- NULL producer_id and refuses to move it. The trigger inserts the link again with its product's producer_id and
+-- drops the original row, so such inserts report no row and return nothing from RETURNING.
+CREATE OR REPLACE FUNCTION product_certification_link_fill_producer()
+RETURNS TRIGGER AS $$
+DECLARE
+    link_producer_id BIGINT;
+BEGIN
+    IF NEW.producer_id IS NOT NULL THEN
+        RETURN NEW;
+    END IF;
+
+    SELECT p.producer_id INTO link_producer_id FROM product p WHERE p.id = NEW.product_id;
+    IF NOT FOUND THEN
+        RAISE foreign_key_violation USING MESSAGE = format('product %s does not exist', NEW.product_id);
+    END IF;
+
+    INSERT INTO product_certification_link (product_id, certification_id, producer_id, created_at)
+    VALUES (NEW.product_id, NEW.certification_id, link_producer_id, NEW.created_at);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER product_certification_link_fill_producer_trigger
+    BEFORE INSERT ON product_certification_link
+    FOR EACH ROW
+    EXECUTE FUNCTION product_certification_link_fill_producer();
+
+-- Indexes of V6 to V18, created on every partition
+CREATE INDEX idx_product_shelf ON product(shelf_id) WHERE is_deleted = FALSE;
+CREATE INDEX idx_product_is_deleted ON product(is_deleted);
+CREATE INDEX idx_product_is_fresh ON product(is_fresh) WHERE is_deleted = FALSE;
+CREATE INDEX idx_product_currency ON product(currency_id);
+CREATE INDEX idx_product_unit ON product(unit_id);
+CREATE INDEX idx_product_producer_id ON product(producer_id);
+CREATE INDEX idx_product_producer_deleted ON product(producer_id, is_deleted);
+CREATE INDEX idx_product_category_id ON product(category_id);
+CREATE INDEX idx_product_category_deleted ON product(category_id, is_deleted);
+CREATE INDEX idx_product_title_trgm ON product USING GIN (lower(title) gin_trgm_ops);
+CREATE INDEX idx_product_search_vector ON product USING GIN (search_vector);
+CREATE INDEX idx_product_keyset_producer ON product(producer_id, id) WHERE is_deleted = FALSE;
+CREATE INDEX idx_product_keyset_category ON product(category_id, id) WHERE is_deleted = FALSE;
+CREATE INDEX idx_product_keyset_fresh ON product(id) WHERE is_deleted = FALSE AND is_fresh = TRUE;
+CREATE INDEX idx_product_keyset_deleted ON product(id) WHERE is_deleted = TRUE;
+CREATE INDEX idx_product_description_trgm ON product USING GIN (lower(description) gin_trgm_ops)
+    WHERE is_deleted = FALSE;
+CREATE INDEX idx_product_deleted_updated_at ON product(updated_at) WHERE is_deleted = TRUE;
+
+CREATE TRIGGER product_updated_at_trigger
+    BEFORE UPDATE ON product
+    FOR EACH ROW
+    EXECUTE FUNCTION update_product_updated_at();
+
+COMMENT ON TABLE product IS 'Stores product information with pricing, categorization, and image references, hash-partitioned by producer_id';
+COMMENT ON COLUMN product.title IS 'Product name (max 200 characters)';
+COMMENT ON COLUMN product.description IS 'Detailed product description (max 2000 characters recommended)';
+COMMENT ON COLUMN product.price IS 'Product price (must be positive)';
+COMMENT ON COLUMN product.is_fresh IS 'Indicates if product is fresh/perishable';
+COMMENT ON COLUMN product.main_image_id IS 'ID de l''image dans le service image';
+COMMENT ON COLUMN product.main_image_url IS 'URL directe MinIO pour l''image principale';
+COMMENT ON TABLE product_certification_link IS 'Many-to-Many relationship between products and certifications, partitioned like product';
+COMMENT ON COLUMN product_certification_link.producer_id IS 'Producer of the product, partition key';
+COMMENT ON INDEX idx_product_title_trgm IS
+    'Trigram index on lower(title) for LIKE/similarity matching in the Postgres search fallback';
+COMMENT ON INDEX idx_product_keyset_producer IS
+    'Keyset pages of the products of a producer, ordered by id';
+COMMENT ON INDEX idx_product_keyset_category IS
+    'Keyset pages of the products of a category, ordered by id';
+COMMENT ON INDEX idx_product_description_trgm IS
+    'Trigram index on lower(description) of non-deleted products for LIKE matching in the database text search';
+
+ANALYZE product;
+ANALYZE product_certification_link;
@@ -0,0 +1,7 @@
+-- Index of the products changed since a point in time, deleted included
+-- Read every search.catalog.refresh-interval by each instance of the service (ProductRepository.findIdsUpdatedSince)
+-- to reload into its in-heap catalog the products changed through the other instances
+CREATE INDEX IF NOT EXISTS idx_product_updated_at ON product(updated_at);
+
+COMMENT ON INDEX idx_product_updated_at IS
+    'Products changed since a point in time, for the delta reloads of the in-heap catalog';
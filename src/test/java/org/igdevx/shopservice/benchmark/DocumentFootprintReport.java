@@ -0,0 +1,118 @@
+package org.igdevx.shopservice.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.igdevx.shopservice.elasticsearch.documents.ProductDocument;
+import org.igdevx.shopservice.elasticsearch.mappers.ProductDocumentMapper;
+import org.igdevx.shopservice.lucene.LuceneProductIndex;
+import org.igdevx.shopservice.models.Category;
+import org.igdevx.shopservice.models.Currency;
+import org.igdevx.shopservice.models.Product;
+import org.igdevx.shopservice.models.ProductCertification;
+import org.igdevx.shopservice.models.Shelf;
+import org.igdevx.shopservice.models.Unit;
+import org.igdevx.shopservice.search.SearchProperties;
+import org.springframework.data.elasticsearch.core.convert.ElasticsearchCustomConversions;
+import org.springframework.data.elasticsearch.core.convert.MappingElasticsearchConverter;
+import org.springframework.data.elasticsearch.core.document.Document;
+import org.springframework.data.elasticsearch.core.mapping.SimpleElasticsearchMappingContext;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Footprint of ProductDocument on a 50k product catalog: the _source Elasticsearch stores per document,
+ * the heap held by the documents (what the in-heap catalog keeps) and the size of the embedded Lucene index.
+ * Not a JUnit test: run the main method from the test classpath, before and after a mapping change.
+ * The Elasticsearch index itself is measured with GET /products/index/stats?perField=true.
+ */
+public class DocumentFootprintReport {
+
+    private static final int PRODUCTS = 50_000;
+
+    public static void main(String[] args) throws Exception {
+        ProductDocumentMapper mapper = new ProductDocumentMapper();
+        List<Product> products = products();
+
+        long heapBefore = usedHeap();
+        List<ProductDocument> documents = new ArrayList<>(PRODUCTS);
+        for (Product product : products) {
+            documents.add(mapper.toDocument(product));
+        }
+        long heap = usedHeap() - heapBefore;
+
+        ElasticsearchCustomConversions conversions = new ElasticsearchCustomConversions(List.of());
+        SimpleElasticsearchMappingContext context = new SimpleElasticsearchMappingContext();
+        context.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        MappingElasticsearchConverter converter = new MappingElasticsearchConverter(context);
+        converter.setConversions(conversions);
+        converter.afterPropertiesSet();
+
+        long sourceBytes = 0;
+        for (ProductDocument document : documents) {
+            Document source = Document.create();
+            converter.write(document, source);
+            sourceBytes += source.toJson().getBytes().length;
+        }
+
+        Path path = Files.createTempDirectory("footprint");
+        SearchProperties properties = new SearchProperties();
+        properties.getLucene().setPath(path.toString());
+        LuceneProductIndex index = new LuceneProductIndex(properties, new ObjectMapper().findAndRegisterModules());
+        index.indexAll(documents);
+        long luceneBytes = 0;
+        try (var files = Files.list(path)) {
+            for (Path file : files.toList()) {
+                luceneBytes += Files.size(file);
+            }
+        }
+        index.destroy();
+
+        System.out.printf("documents            %d%n", documents.size());
+        System.out.printf("_source bytes/doc    %d%n", sourceBytes / PRODUCTS);
+        System.out.printf("heap bytes/doc       %d%n", heap / PRODUCTS);
+        System.out.printf("lucene bytes/doc     %d%n", luceneBytes / PRODUCTS);
+    }
+
+    private static List<Product> products() {
+        Currency currency = Currency.builder().id(1L).code("EUR").label("Euro").build();
+        Unit unit = Unit.builder().id(1L).code("kg").label("Kilogramme").build();
+        Shelf shelf = Shelf.builder().id(1L).label("Fruits de saison").build();
+        Category category = Category.builder().id(1L).name("Fruits").slug("fruits").build();
+        ProductCertification organic = ProductCertification.builder().id(1L).label("Agriculture biologique").build();
+        ProductCertification local = ProductCertification.builder().id(2L).label("Produit local").build();
+
+        List<Product> products = new ArrayList<>(PRODUCTS);
+        for (long id = 1; id <= PRODUCTS; id++) {
+            products.add(Product.builder()
+                    .id(id)
+                    .title("Pommes golden bio " + id)
+                    .description("Pommes golden cueillies à la main dans notre verger, lot " + id)
+                    .price(BigDecimal.valueOf(id % 4000, 2))
+                    .currency(currency)
+                    .unit(unit)
+                    .shelf(shelf)
+                    .category(category)
+                    .certifications(id % 3 == 0 ? Set.of(organic, local) : Set.of(organic))
+                    .isFresh(id % 2 == 0)
+                    .producerId(id % 500)
+                    .mainImageId(UUID.randomUUID())
+                    .mainImageUrl("https://cdn.example.org/products/" + id + "/main.webp")
+                    .build());
+        }
+        return products;
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
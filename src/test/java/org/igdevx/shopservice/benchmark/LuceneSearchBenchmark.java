@@ -0,0 +1,105 @@
+package org.igdevx.shopservice.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.igdevx.shopservice.dtos.ProductSearchRequest;
+import org.igdevx.shopservice.elasticsearch.documents.ProductDocument;
+import org.igdevx.shopservice.elasticsearch.mappers.ProductDocumentResponseMapper;
+import org.igdevx.shopservice.elasticsearch.queries.QueryCostGovernor;
+import org.igdevx.shopservice.elasticsearch.queries.SearchPlan;
+import org.igdevx.shopservice.lucene.LuceneProductIndex;
+import org.igdevx.shopservice.lucene.LuceneQueryFactory;
+import org.igdevx.shopservice.lucene.LuceneSearchBackend;
+import org.igdevx.shopservice.search.SearchProperties;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process search latency of the embedded Lucene backend on a 20k product catalog.
+ * Not a JUnit test: run the main method (or org.openjdk.jmh.Main) from the test classpath.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LuceneSearchBenchmark {
+
+    private static final String[] WORDS = {"pommes", "tomates", "miel", "fromage", "salade", "carottes", "poires", "oeufs"};
+
+    private LuceneProductIndex index;
+    private LuceneSearchBackend backend;
+    private SearchPlan fullTextPlan;
+    private SearchPlan filterPlan;
+
+    @Setup
+    public void setUp() throws Exception {
+        Path path = Files.createTempDirectory("lucene-benchmark");
+        SearchProperties properties = new SearchProperties();
+        properties.getLucene().setPath(path.toString());
+        index = new LuceneProductIndex(properties, new ObjectMapper().findAndRegisterModules());
+        backend = new LuceneSearchBackend(index, new LuceneQueryFactory(), new ProductDocumentResponseMapper());
+
+        List<ProductDocument> documents = new ArrayList<>();
+        for (long id = 1; id <= 20_000; id++) {
+            String word = WORDS[(int) (id % WORDS.length)];
+            documents.add(ProductDocument.builder()
+                    .id(id)
+                    .title(word + " bio " + id)
+                    .description("Produit local " + word + " de la ferme " + (id % 50))
+                    .price(BigDecimal.valueOf(id % 40))
+                    .categoryId(id % 10)
+                    .producerId(id % 200)
+                    .isFresh(id % 3 == 0)
+                    .isDeleted(false)
+                    .createdAt(LocalDateTime.now().minusMinutes(id))
+                    .build());
+        }
+        index.indexAll(documents);
+
+        QueryCostGovernor costGovernor = new QueryCostGovernor(properties, new SimpleMeterRegistry());
+        fullTextPlan = costGovernor.plan(ProductSearchRequest.builder().q("tomate bio").build());
+        filterPlan = costGovernor.plan(ProductSearchRequest.builder()
+                .categoryIds(Set.of(1L, 2L)).fresh(true).sort("price_asc").build());
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        index.destroy();
+    }
+
+    @Benchmark
+    public Object fullTextSearch() {
+        return backend.search(fullTextPlan);
+    }
+
+    @Benchmark
+    public Object filteredListing() {
+        return backend.search(filterPlan);
+    }
+
+    @Benchmark
+    public Object suggest() {
+        return backend.suggest("poi", 5);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(LuceneSearchBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,85 @@
+package org.igdevx.shopservice.benchmark;
+
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch._types.SortOptions;
+import co.elastic.clients.elasticsearch._types.SortOrder;
+import co.elastic.clients.elasticsearch._types.query_dsl.BoolQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import org.igdevx.shopservice.dtos.ProductSearchRequest;
+import org.igdevx.shopservice.elasticsearch.queries.ProductQueryFactory;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compares per-request query construction before and after ProductQueryFactory.
+ * Not a JUnit test: run the main method (or org.openjdk.jmh.Main) from the test classpath,
+ * and read gc.alloc.rate.norm for the bytes allocated per request.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductQueryBenchmark {
+
+    private final ProductQueryFactory factory = new ProductQueryFactory();
+
+    private ProductSearchRequest filterOnlyRequest;
+
+    @Setup
+    public void setUp() {
+        filterOnlyRequest = ProductSearchRequest.builder()
+                .categoryIds(Set.of(1L, 2L))
+                .priceMin(BigDecimal.ONE)
+                .priceMax(BigDecimal.TEN)
+                .fresh(true)
+                .build();
+    }
+
+    @Benchmark
+    public void precompiledFragments(Blackhole blackhole) {
+        blackhole.consume(factory.searchQuery(filterOnlyRequest));
+        blackhole.consume(factory.sortFor(filterOnlyRequest.getSort(), false));
+    }
+
+    /**
+     * The construction ProductSearchService used to do on every call: every fragment rebuilt from lambdas.
+     */
+    @Benchmark
+    public void rebuiltFragments(Blackhole blackhole) {
+        ProductSearchRequest request = filterOnlyRequest;
+        BoolQuery.Builder bool = new BoolQuery.Builder();
+        bool.filter(Query.of(q -> q.term(t -> t.field("isDeleted").value(false))));
+        bool.filter(Query.of(q -> q.terms(t -> t.field("categoryId")
+                .terms(terms -> terms.value(request.getCategoryIds().stream()
+                        .map(FieldValue::of)
+                        .collect(Collectors.toList()))))));
+        bool.filter(Query.of(q -> q.range(r -> r.number(n -> n.field("price")
+                .gte(request.getPriceMin().doubleValue())
+                .lte(request.getPriceMax().doubleValue())))));
+        bool.filter(Query.of(q -> q.term(t -> t.field("isFresh").value(true))));
+        blackhole.consume(Query.of(q -> q.bool(bool.build())));
+        blackhole.consume(List.of(
+                SortOptions.of(s -> s.score(score -> score.order(SortOrder.Desc))),
+                SortOptions.of(s -> s.field(f -> f.field("createdAt").order(SortOrder.Desc)))));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ProductQueryBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build();
+        new Runner(options).run();
+    }
+}
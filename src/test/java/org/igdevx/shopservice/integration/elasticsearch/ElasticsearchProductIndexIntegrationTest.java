@@ -0,0 +1,163 @@
+package org.igdevx.shopservice.integration.elasticsearch;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import org.igdevx.shopservice.elasticsearch.documents.ProductDocument;
+import org.igdevx.shopservice.elasticsearch.services.ElasticsearchProductIndex;
+import org.igdevx.shopservice.elasticsearch.services.ProducerRouting;
+import org.igdevx.shopservice.elasticsearch.services.ProductIndexService;
+import org.igdevx.shopservice.search.SearchProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Index layout shared by the instances of the service: a second ElasticsearchProductIndex, with its own
+ * ProducerRouting, stands for another instance that did not run the migration
+ */
+@DisplayName("Elasticsearch product index layout")
+class ElasticsearchProductIndexIntegrationTest extends ElasticsearchIntegrationTestBase {
+
+    @Autowired
+    private ElasticsearchProductIndex elasticsearchIndex;
+
+    @Autowired
+    private ProductIndexService productIndexService;
+
+    @Autowired
+    private SearchProperties searchProperties;
+
+    @Autowired
+    private ElasticsearchOperations elasticsearchOperations;
+
+    @Autowired
+    private ElasticsearchClient elasticsearchClient;
+
+    private ProducerRouting otherRouting;
+    private ElasticsearchProductIndex otherInstance;
+
+    @BeforeEach
+    void setUp() {
+        otherRouting = new ProducerRouting();
+        otherInstance = new ElasticsearchProductIndex(elasticsearchOperations, elasticsearchClient, otherRouting);
+    }
+
+    @Test
+    @DisplayName("Should mirror the writes of every instance to a migration started by one of them")
+    void shouldMirrorWritesOfOtherInstances() throws IOException {
+        // Given
+        String target = elasticsearchIndex.beginMigration(true);
+
+        try {
+            // When
+            otherInstance.save(document(900L, 7L));
+
+            // Then
+            assertThat(found(target, 900L, "7")).isTrue();
+        } finally {
+            elasticsearchIndex.abortMigration(target);
+        }
+    }
+
+    @Test
+    @DisplayName("Should mirror the writes of an instance that read the layout before the migration started")
+    void shouldMirrorWritesOfInstanceHoldingOlderLayout() throws IOException {
+        // Given
+        otherInstance.save(document(903L, 7L));
+        String target = elasticsearchIndex.beginMigration(true);
+
+        try {
+            // When
+            otherInstance.save(document(904L, 7L));
+
+            // Then
+            assertThat(found(elasticsearchIndex.name(), 904L, null)).isTrue();
+            assertThat(found(target, 904L, "7")).isTrue();
+        } finally {
+            elasticsearchIndex.abortMigration(target);
+        }
+    }
+
+    @Test
+    @DisplayName("Should route the writes of every instance like the live index once a migration switched it")
+    void shouldFollowLayoutSwitchedByOtherInstance() throws IOException {
+        // Given
+        searchProperties.getElasticsearch().setRoutingByProducer(true);
+
+        try {
+            productIndexService.migrateIndex();
+
+            // When
+            otherInstance.save(document(901L, 7L));
+
+            // Then
+            assertThat(found(elasticsearchIndex.name(), 901L, "7")).isTrue();
+            assertThat(otherRouting.searchRoute(7L)).isEqualTo("7");
+        } finally {
+            // Back to the unrouted layout the other tests expect
+            searchProperties.getElasticsearch().setRoutingByProducer(false);
+            productIndexService.migrateIndex();
+        }
+    }
+
+    @Test
+    @DisplayName("Should walk the ids of the migration target and drop the given ones from it only")
+    void shouldDropIdsFromMigrationTarget() throws IOException {
+        // Given
+        String target = elasticsearchIndex.beginMigration(true);
+
+        try {
+            elasticsearchIndex.copy(List.of(document(905L, 7L), document(906L, 8L)));
+            List<Long> ids = new ArrayList<>();
+
+            // When
+            elasticsearchIndex.forEachTargetIds(1, ids::addAll);
+            elasticsearchIndex.deleteFromTarget(List.of(905L));
+
+            // Then
+            assertThat(ids).contains(905L, 906L);
+            assertThat(found(target, 905L, "7")).isFalse();
+            assertThat(found(target, 906L, "8")).isTrue();
+        } finally {
+            elasticsearchIndex.abortMigration(target);
+        }
+    }
+
+    @Test
+    @DisplayName("Should delete a product by id with its producer, whether or not products were ever archived")
+    void shouldDeleteByIdWithProducer() throws IOException {
+        // Given
+        elasticsearchIndex.save(document(902L, 7L));
+
+        // When
+        elasticsearchIndex.delete(902L, Set.of(7L));
+
+        // Then
+        assertThat(found(elasticsearchIndex.name(), 902L, null)).isFalse();
+    }
+
+    private boolean found(String index, Long id, String routing) throws IOException {
+        return elasticsearchClient.get(g -> g.index(index).id(id.toString()).routing(routing), ProductDocument.class).found();
+    }
+
+    private static ProductDocument document(Long id, Long producerId) {
+        return ProductDocument.builder()
+                .id(id)
+                .title("Miel de lavande")
+                .price(BigDecimal.valueOf(8.50))
+                .certifications(List.of())
+                .isFresh(false)
+                .producerId(producerId)
+                .isDeleted(false)
+                .build();
+    }
+}
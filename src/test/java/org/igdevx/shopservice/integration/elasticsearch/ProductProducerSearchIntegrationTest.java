@@ -1,5 +1,6 @@
 package org.igdevx.shopservice.integration.elasticsearch;
 
+import org.igdevx.shopservice.elasticsearch.documents.CertificationInfo;
 import org.igdevx.shopservice.elasticsearch.documents.ProductDocument;
 import org.igdevx.shopservice.elasticsearch.repositories.ProductSearchRepository;
 import org.igdevx.shopservice.elasticsearch.services.ProductSearchService;
@@ -12,7 +13,6 @@ import org.springframework.data.elasticsearch.core.SearchHits;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -46,8 +46,7 @@ class ProductProducerSearchIntegrationTest extends ElasticsearchIntegrationTestB
                 .shelfId(1L)
                 .categoryName("Fresh Produce")
                 .categoryId(1L)
-                .certificationNames(Set.of("Organic"))
-                .certificationIds(Set.of(1L))
+                .certifications(List.of(certification(1L, "Organic")))
                 .isFresh(true)
                 .producerId(1L)
                 .createdAt(LocalDateTime.now())
@@ -68,8 +67,7 @@ class ProductProducerSearchIntegrationTest extends ElasticsearchIntegrationTestB
                 .shelfId(1L)
                 .categoryName("Fresh Produce")
                 .categoryId(1L)
-                .certificationNames(Set.of("Local"))
-                .certificationIds(Set.of(2L))
+                .certifications(List.of(certification(2L, "Local")))
                 .isFresh(true)
                 .producerId(1L)
                 .createdAt(LocalDateTime.now())
@@ -90,8 +88,7 @@ class ProductProducerSearchIntegrationTest extends ElasticsearchIntegrationTestB
                 .shelfId(2L)
                 .categoryName("Fresh Produce")
                 .categoryId(1L)
-                .certificationNames(Set.of("Organic"))
-                .certificationIds(Set.of(1L))
+                .certifications(List.of(certification(1L, "Organic")))
                 .isFresh(true)
                 .producerId(1L)
                 .createdAt(LocalDateTime.now())
@@ -113,8 +110,7 @@ class ProductProducerSearchIntegrationTest extends ElasticsearchIntegrationTestB
                 .shelfId(3L)
                 .categoryName("Dairy Products")
                 .categoryId(2L)
-                .certificationNames(Set.of("Local"))
-                .certificationIds(Set.of(2L))
+                .certifications(List.of(certification(2L, "Local")))
                 .isFresh(true)
                 .producerId(2L)
                 .createdAt(LocalDateTime.now())
@@ -135,8 +131,7 @@ class ProductProducerSearchIntegrationTest extends ElasticsearchIntegrationTestB
                 .shelfId(3L)
                 .categoryName("Dairy Products")
                 .categoryId(2L)
-                .certificationNames(Set.of("Organic", "Local"))
-                .certificationIds(Set.of(1L, 2L))
+                .certifications(List.of(certification(1L, "Organic"), certification(2L, "Local")))
                 .isFresh(true)
                 .producerId(2L)
                 .createdAt(LocalDateTime.now())
@@ -158,8 +153,7 @@ class ProductProducerSearchIntegrationTest extends ElasticsearchIntegrationTestB
                 .shelfId(1L)
                 .categoryName("Fresh Produce")
                 .categoryId(1L)
-                .certificationNames(Set.of())
-                .certificationIds(Set.of())
+                .certifications(List.of())
                 .isFresh(false)
                 .producerId(1L)
                 .createdAt(LocalDateTime.now())
@@ -391,5 +385,8 @@ class ProductProducerSearchIntegrationTest extends ElasticsearchIntegrationTestB
                 .allMatch(hit -> hit.getContent().getShelfId().equals(shelfId))
                 .allMatch(hit -> hit.getContent().getShelfName().equals("Dairy"));
     }
-}
 
+    private static CertificationInfo certification(Long id, String label) {
+        return CertificationInfo.builder().id(id).label(label).build();
+    }
+}
@@ -1,14 +1,17 @@
 package org.igdevx.shopservice.integration.elasticsearch;
 
 import org.igdevx.shopservice.dtos.ProductSearchRequest;
+import org.igdevx.shopservice.elasticsearch.documents.CertificationInfo;
 import org.igdevx.shopservice.elasticsearch.documents.ProductDocument;
 import org.igdevx.shopservice.elasticsearch.repositories.ProductSearchRepository;
 import org.igdevx.shopservice.elasticsearch.services.ProductSearchService;
+import org.igdevx.shopservice.search.SearchProperties;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.elasticsearch.core.SearchHits;
+import org.springframework.data.elasticsearch.core.TotalHitsRelation;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -28,6 +31,9 @@ class ProductSearchServiceIntegrationTest extends ElasticsearchIntegrationTestBa
     @Autowired
     private ProductSearchRepository productSearchRepository;
 
+    @Autowired
+    private SearchProperties searchProperties;
+
     @BeforeEach
     void setUpSearchTestData() {
         productSearchRepository.deleteAll();
@@ -46,8 +52,7 @@ class ProductSearchServiceIntegrationTest extends ElasticsearchIntegrationTestBa
                 .shelfId(1L)
                 .categoryName("Fresh Produce")
                 .categoryId(1L)
-                .certificationNames(Set.of("Organic", "Local"))
-                .certificationIds(Set.of(1L, 2L))
+                .certifications(List.of(certification(1L, "Organic"), certification(2L, "Local")))
                 .isFresh(true)
                 .producerId(1L)
                 .createdAt(LocalDateTime.now())
@@ -68,8 +73,7 @@ class ProductSearchServiceIntegrationTest extends ElasticsearchIntegrationTestBa
                 .shelfId(1L)
                 .categoryName("Fresh Produce")
                 .categoryId(1L)
-                .certificationNames(Set.of("Local"))
-                .certificationIds(Set.of(2L))
+                .certifications(List.of(certification(2L, "Local")))
                 .isFresh(true)
                 .producerId(1L)
                 .createdAt(LocalDateTime.now())
@@ -90,8 +94,7 @@ class ProductSearchServiceIntegrationTest extends ElasticsearchIntegrationTestBa
                 .shelfId(2L)
                 .categoryName("Canned Goods")
                 .categoryId(2L)
-                .certificationNames(Set.of())
-                .certificationIds(Set.of())
+                .certifications(List.of())
                 .isFresh(false)
                 .producerId(2L)
                 .createdAt(LocalDateTime.now())
@@ -112,8 +115,7 @@ class ProductSearchServiceIntegrationTest extends ElasticsearchIntegrationTestBa
                 .shelfId(1L)
                 .categoryName("Fresh Produce")
                 .categoryId(1L)
-                .certificationNames(Set.of())
-                .certificationIds(Set.of())
+                .certifications(List.of())
                 .isFresh(false)
                 .producerId(1L)
                 .createdAt(LocalDateTime.now())
@@ -312,5 +314,99 @@ class ProductSearchServiceIntegrationTest extends ElasticsearchIntegrationTestBa
         assertThat(results.getSearchHits().get(0).getContent().getTitle())
                 .isEqualTo("Fresh Organic Tomatoes");
     }
-}
 
+    @Test
+    void shouldStopCountingAtTheCapWhenTheTotalMayBeApproximate() {
+        // Given
+        int cap = searchProperties.getElasticsearch().getApproximateTotalHits();
+        searchProperties.getElasticsearch().setApproximateTotalHits(2);
+        ProductSearchRequest request = ProductSearchRequest.builder()
+                .sort("date_desc")
+                .size(1)
+                .approximateTotal(true)
+                .build();
+
+        try {
+            // When
+            SearchHits<ProductDocument> approximate = productSearchService.searchProducts(request);
+            SearchHits<ProductDocument> exact = productSearchService.searchProducts(
+                    ProductSearchRequest.builder().sort("date_desc").size(1).build());
+
+            // Then
+            assertThat(approximate.getSearchHits()).hasSize(1);
+            assertThat(approximate.getTotalHits()).isEqualTo(2);
+            assertThat(approximate.getTotalHitsRelation()).isEqualTo(TotalHitsRelation.GREATER_THAN_OR_EQUAL_TO);
+            assertThat(exact.getTotalHits()).isGreaterThan(2);
+            assertThat(exact.getTotalHitsRelation()).isEqualTo(TotalHitsRelation.EQUAL_TO);
+            assertThat(approximate.getSearchHits().get(0).getContent().getId())
+                    .isEqualTo(exact.getSearchHits().get(0).getContent().getId());
+        } finally {
+            searchProperties.getElasticsearch().setApproximateTotalHits(cap);
+        }
+    }
+
+    @Test
+    void shouldMatchFrenchSingularAndPluralForms() {
+        // Given
+        indexFrenchProduct(10L, "Pommes Golden", "Pommes croquantes du verger");
+
+        ProductSearchRequest request = ProductSearchRequest.builder()
+                .q("pomme")
+                .build();
+
+        // When
+        SearchHits<ProductDocument> results = productSearchService.searchProducts(request);
+
+        // Then
+        assertThat(results.getSearchHits())
+                .extracting(hit -> hit.getContent().getTitle())
+                .contains("Pommes Golden");
+    }
+
+    @Test
+    void shouldMatchFrenchTermsRegardlessOfAccentsAndElision() {
+        // Given
+        indexFrenchProduct(11L, "Panier de légumes", "L'assortiment de saison");
+
+        // When
+        SearchHits<ProductDocument> withoutAccent = productSearchService.searchProducts(
+                ProductSearchRequest.builder().q("legumes").build());
+        SearchHits<ProductDocument> withElision = productSearchService.searchProducts(
+                ProductSearchRequest.builder().q("assortiment").build());
+
+        // Then
+        assertThat(withoutAccent.getSearchHits())
+                .extracting(hit -> hit.getContent().getTitle())
+                .contains("Panier de légumes");
+        assertThat(withElision.getSearchHits())
+                .extracting(hit -> hit.getContent().getTitle())
+                .contains("Panier de légumes");
+    }
+
+    private void indexFrenchProduct(Long id, String title, String description) {
+        productSearchRepository.save(ProductDocument.builder()
+                .id(id)
+                .title(title)
+                .description(description)
+                .price(BigDecimal.valueOf(4.20))
+                .currencyCode("EUR")
+                .currencyId(1L)
+                .unitName("kg")
+                .unitId(1L)
+                .shelfName("Vegetables")
+                .shelfId(1L)
+                .categoryName("Fresh Produce")
+                .categoryId(1L)
+                .certifications(List.of())
+                .isFresh(true)
+                .producerId(1L)
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .isDeleted(false)
+                .build());
+    }
+
+    private static CertificationInfo certification(Long id, String label) {
+        return CertificationInfo.builder().id(id).label(label).build();
+    }
+}
@@ -1,6 +1,7 @@
 package org.igdevx.shopservice.integration.elasticsearch;
 
 import org.igdevx.shopservice.dtos.ProductSuggestion;
+import org.igdevx.shopservice.elasticsearch.documents.CertificationInfo;
 import org.igdevx.shopservice.elasticsearch.documents.ProductDocument;
 import org.igdevx.shopservice.elasticsearch.repositories.ProductSearchRepository;
 import org.igdevx.shopservice.elasticsearch.services.ProductSearchService;
@@ -12,7 +13,6 @@ import org.springframework.beans.factory.annotation.Autowired;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -46,8 +46,7 @@ class ProductSuggestionsIntegrationTest extends ElasticsearchIntegrationTestBase
                 .shelfId(1L)
                 .categoryName("Smartphones")
                 .categoryId(1L)
-                .certificationNames(Set.of())
-                .certificationIds(Set.of())
+                .certifications(List.of())
                 .isFresh(false)
                 .producerId(1L)
                 .mainImageUrl("http://example.com/iphone.jpg")
@@ -69,8 +68,7 @@ class ProductSuggestionsIntegrationTest extends ElasticsearchIntegrationTestBase
                 .shelfId(1L)
                 .categoryName("Computers")
                 .categoryId(2L)
-                .certificationNames(Set.of())
-                .certificationIds(Set.of())
+                .certifications(List.of())
                 .isFresh(false)
                 .producerId(1L)
                 .mainImageUrl("http://example.com/macbook.jpg")
@@ -92,8 +90,7 @@ class ProductSuggestionsIntegrationTest extends ElasticsearchIntegrationTestBase
                 .shelfId(1L)
                 .categoryName("Audio")
                 .categoryId(3L)
-                .certificationNames(Set.of())
-                .certificationIds(Set.of())
+                .certifications(List.of())
                 .isFresh(false)
                 .producerId(1L)
                 .mainImageUrl("http://example.com/airpods.jpg")
@@ -115,8 +112,7 @@ class ProductSuggestionsIntegrationTest extends ElasticsearchIntegrationTestBase
                 .shelfId(2L)
                 .categoryName("Fresh Produce")
                 .categoryId(4L)
-                .certificationNames(Set.of("Organic"))
-                .certificationIds(Set.of(1L))
+                .certifications(List.of(certification(1L, "Organic")))
                 .isFresh(true)
                 .producerId(2L)
                 .mainImageUrl("http://example.com/apples.jpg")
@@ -138,8 +134,7 @@ class ProductSuggestionsIntegrationTest extends ElasticsearchIntegrationTestBase
                 .shelfId(2L)
                 .categoryName("Fresh Produce")
                 .categoryId(4L)
-                .certificationNames(Set.of("Local"))
-                .certificationIds(Set.of(2L))
+                .certifications(List.of(certification(2L, "Local")))
                 .isFresh(true)
                 .producerId(2L)
                 .mainImageUrl("http://example.com/banana.jpg")
@@ -161,8 +156,7 @@ class ProductSuggestionsIntegrationTest extends ElasticsearchIntegrationTestBase
                 .shelfId(3L)
                 .categoryName("Books")
                 .categoryId(5L)
-                .certificationNames(Set.of())
-                .certificationIds(Set.of())
+                .certifications(List.of())
                 .isFresh(false)
                 .producerId(3L)
                 .mainImageUrl("http://example.com/book.jpg")
@@ -185,8 +179,7 @@ class ProductSuggestionsIntegrationTest extends ElasticsearchIntegrationTestBase
                 .shelfId(1L)
                 .categoryName("Wearables")
                 .categoryId(6L)
-                .certificationNames(Set.of())
-                .certificationIds(Set.of())
+                .certifications(List.of())
                 .isFresh(false)
                 .producerId(1L)
                 .mainImageUrl("http://example.com/watch.jpg")
@@ -226,6 +219,42 @@ class ProductSuggestionsIntegrationTest extends ElasticsearchIntegrationTestBase
                 .anyMatch(title -> title.toLowerCase().contains("app"));
     }
 
+    @Test
+    void shouldMatchCapitalisedAndAccentedPrefixes() {
+        // Given - French titles, analyzed with elision, lowercase, ASCII folding and light stemming
+        ProductDocument apples = ProductDocument.builder()
+                .id(8L)
+                .title("Pommes Golden")
+                .price(BigDecimal.valueOf(2.99))
+                .certifications(List.of())
+                .isFresh(true)
+                .producerId(2L)
+                .isDeleted(false)
+                .build();
+        ProductDocument vegetables = ProductDocument.builder()
+                .id(9L)
+                .title("Légumes d'été")
+                .price(BigDecimal.valueOf(4.50))
+                .certifications(List.of())
+                .isFresh(true)
+                .producerId(2L)
+                .isDeleted(false)
+                .build();
+        productSearchRepository.saveAll(List.of(apples, vegetables));
+
+        // When - The user types with capitals, accents or none
+        List<ProductSuggestion> pomm = productSearchService.getSuggestions("Pomm", 10);
+        List<ProductSuggestion> legu = productSearchService.getSuggestions("légu", 10);
+        List<ProductSuggestion> legum = productSearchService.getSuggestions("LEGUM", 10);
+        List<ProductSuggestion> ete = productSearchService.getSuggestions("legumes d'et", 10);
+
+        // Then
+        assertThat(pomm).extracting(ProductSuggestion::getTitle).contains("Pommes Golden");
+        assertThat(legu).extracting(ProductSuggestion::getTitle).contains("Légumes d'été");
+        assertThat(legum).extracting(ProductSuggestion::getTitle).contains("Légumes d'été");
+        assertThat(ete).extracting(ProductSuggestion::getTitle).containsExactly("Légumes d'été");
+    }
+
     @Test
     void shouldReturnLimitedNumberOfSuggestions() {
         // Given - User types "apple" and wants max 2 suggestions
@@ -439,5 +468,8 @@ class ProductSuggestionsIntegrationTest extends ElasticsearchIntegrationTestBase
         assertThat(executionTime).isLessThan(1000); // 1 second max
         assertThat(suggestions).isNotEmpty();
     }
-}
 
+    private static CertificationInfo certification(Long id, String label) {
+        return CertificationInfo.builder().id(id).label(label).build();
+    }
+}
@@ -0,0 +1,128 @@
+package org.igdevx.shopservice.integration.repositories;
+
+import jakarta.persistence.EntityManager;
+import org.igdevx.shopservice.dtos.ProductResponse;
+import org.igdevx.shopservice.dtos.ProductSearchRequest;
+import org.igdevx.shopservice.dtos.ProductSearchResponse;
+import org.igdevx.shopservice.integration.elasticsearch.ElasticsearchIntegrationTestBase;
+import org.igdevx.shopservice.models.Product;
+import org.igdevx.shopservice.repositories.ProductArchiveRepository;
+import org.igdevx.shopservice.repositories.ProductBulkRepository.Changed;
+import org.igdevx.shopservice.repositories.ProductRepository;
+import org.igdevx.shopservice.services.ProductDatabaseSearchService;
+import org.igdevx.shopservice.services.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Moves between the product table and product_archive, and the deleted listings reading both
+ */
+@DisplayName("Product archive")
+class ProductArchiveIntegrationTest extends ElasticsearchIntegrationTestBase {
+
+    // Raw Honey, certified Organic in the seed data
+    private static final long HONEY = 4L;
+
+    @Autowired
+    private ProductArchiveRepository archiveRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductDatabaseSearchService databaseSearchService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @BeforeEach
+    void deleteHoneyLongAgo() {
+        entityManager.createNativeQuery("UPDATE product SET is_deleted = TRUE, " +
+                "updated_at = LOCALTIMESTAMP - INTERVAL '60 days' WHERE id = :id")
+                .setParameter("id", HONEY)
+                .executeUpdate();
+    }
+
+    @Test
+    @DisplayName("Should archive only products deleted for longer than the grace period")
+    void shouldArchiveDeletedProductsPastGracePeriod() {
+        // When
+        List<Changed> tooRecent = archiveRepository.archiveDeletedBefore(Duration.ofDays(90), 10);
+        List<Changed> archived = archiveRepository.archiveDeletedBefore(Duration.ofDays(30), 10);
+
+        // Then
+        assertThat(tooRecent).isEmpty();
+        assertThat(archived).containsExactly(new Changed(HONEY, 1L));
+        assertThat(productRepository.findByIdIncludingDeleted(HONEY)).isEmpty();
+        assertThat(archiveRepository.findAllByIdIn(List.of(HONEY))).singleElement()
+                .satisfies(product -> assertThat(product.certificationIds()).containsExactly(1L));
+    }
+
+    @Test
+    @DisplayName("Should list archived products with the deleted products of their producer")
+    void shouldListArchivedProductsAsDeleted() {
+        // Given
+        archiveRepository.archiveDeletedBefore(Duration.ofDays(30), 10);
+
+        // When
+        ProductSearchResponse deleted = databaseSearchService.producerListing(1L, null, true, 0, 20);
+        ProductSearchResponse live = databaseSearchService.producerListing(1L, null, false, 0, 20);
+
+        // Then
+        assertThat(deleted.getTotalElements()).isEqualTo(1);
+        assertThat(deleted.getProducts()).singleElement().satisfies(product -> {
+            assertThat(product.getTitle()).isEqualTo("Raw Honey");
+            assertThat(product.getIsDeleted()).isTrue();
+            assertThat(product.getCertifications()).hasSize(1);
+        });
+        assertThat(live.getProducts()).extracting(ProductResponse::getId).doesNotContain(HONEY);
+    }
+
+    @Test
+    @DisplayName("Should find archived products in searches of deleted products, certifications included")
+    void shouldSearchArchivedProductsAsDeleted() {
+        // Given
+        archiveRepository.archiveDeletedBefore(Duration.ofDays(30), 10);
+        ProductSearchRequest request = ProductSearchRequest.builder()
+                .q("honey")
+                .certificationIds(Set.of(1L))
+                .onlyDeleted(true)
+                .build();
+
+        // When
+        ProductSearchResponse fullText = databaseSearchService.fullTextSearch(request);
+        ProductSearchResponse fallback = databaseSearchService.searchProducts(request);
+
+        // Then
+        assertThat(fullText.getProducts()).extracting(ProductResponse::getId).containsExactly(HONEY);
+        assertThat(fallback.getProducts()).extracting(ProductResponse::getId).containsExactly(HONEY);
+    }
+
+    @Test
+    @DisplayName("Should restore an archived product with its id and certifications")
+    void shouldRestoreArchivedProduct() {
+        // Given
+        archiveRepository.archiveDeletedBefore(Duration.ofDays(30), 10);
+
+        // When
+        productService.restoreProduct(HONEY);
+        entityManager.clear();
+
+        // Then
+        Product restored = productRepository.findByIdIncludingDeleted(HONEY).orElseThrow();
+        assertThat(restored.getIsDeleted()).isFalse();
+        assertThat(restored.getCertifications()).hasSize(1);
+        assertThat(archiveRepository.findAllByIdIn(List.of(HONEY))).isEmpty();
+    }
+}
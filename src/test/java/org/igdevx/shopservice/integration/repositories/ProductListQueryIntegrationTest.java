@@ -0,0 +1,156 @@
+package org.igdevx.shopservice.integration.repositories;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.igdevx.shopservice.dtos.ProductResponse;
+import org.igdevx.shopservice.integration.elasticsearch.ElasticsearchIntegrationTestBase;
+import org.igdevx.shopservice.mappers.ProductMapper;
+import org.igdevx.shopservice.repositories.ProductRepository;
+import org.igdevx.shopservice.repositories.ProductResponseRepository;
+import org.igdevx.shopservice.services.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Statement counts of the product read paths: a list of N products, mapped to ProductResponse
+ * with all its associations, must cost one SQL statement whatever N
+ */
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@DisplayName("Product list queries")
+class ProductListQueryIntegrationTest extends ElasticsearchIntegrationTestBase {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductResponseRepository productResponseRepository;
+
+    @Autowired
+    private ProductMapper productMapper;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        // Nothing may be served from the persistence context
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+    }
+
+    @Test
+    @DisplayName("Should list all products in one statement")
+    void shouldListAllProductsInOneStatement() {
+        // When
+        List<ProductResponse> products = productService.getAllProducts();
+
+        // Then
+        assertThat(products).hasSizeGreaterThan(1);
+        assertMapped(products);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should list fresh products in one statement")
+    void shouldListFreshProductsInOneStatement() {
+        // When
+        List<ProductResponse> products = productService.getAllFreshProducts();
+
+        // Then
+        assertThat(products).hasSizeGreaterThan(1);
+        assertMapped(products);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should list the products of a shelf in one statement")
+    void shouldListShelfProductsInOneStatement() {
+        // When
+        List<ProductResponse> products = productService.getProductsByShelf(1L);
+
+        // Then
+        assertThat(products).hasSizeGreaterThan(1);
+        assertMapped(products);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should list the products of a producer in one statement")
+    void shouldListProducerProductsInOneStatement() {
+        // When
+        List<ProductResponse> products = productService.getProductsByProducerId(1L);
+
+        // Then
+        assertThat(products).hasSizeGreaterThan(1);
+        assertMapped(products);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should list the products of several categories in one statement")
+    void shouldListCategoryProductsInOneStatement() {
+        // Given
+        List<Long> categoryIds = productService.getAllProducts().stream()
+                .filter(product -> product.getCategory() != null)
+                .map(product -> product.getCategory().getId())
+                .distinct()
+                .toList();
+        entityManager.clear();
+        statistics.clear();
+
+        // When
+        List<ProductResponse> products = productService.getProductsByCategoryIds(categoryIds);
+
+        // Then
+        assertThat(products).isNotEmpty();
+        assertMapped(products);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should project products into the same responses as the entity mapping, in one statement")
+    void shouldProjectLikeTheEntityMapping() {
+        // Given
+        List<ProductResponse> mapped = productRepository.findAll().stream().map(productMapper::toResponse).toList();
+        List<Long> ids = mapped.stream().map(ProductResponse::getId).toList();
+        entityManager.clear();
+        statistics.clear();
+
+        // When
+        List<ProductResponse> projected = productResponseRepository.findAllByIdIn(ids);
+
+        // Then
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(projected).usingRecursiveFieldByFieldElementComparator().containsExactlyElementsOf(mapped);
+        assertThat(productResponseRepository.findById(ids.get(0))).contains(projected.get(0));
+    }
+
+    private static void assertMapped(List<ProductResponse> products) {
+        assertThat(products).allSatisfy(product -> {
+            assertThat(product.getCurrency()).isNotNull();
+            assertThat(product.getUnit()).isNotNull();
+            assertThat(product.getShelf()).isNotNull();
+            assertThat(product.getCertifications()).isNotNull();
+        });
+    }
+}
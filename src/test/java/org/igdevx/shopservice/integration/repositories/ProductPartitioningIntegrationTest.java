@@ -0,0 +1,136 @@
+package org.igdevx.shopservice.integration.repositories;
+
+import jakarta.persistence.EntityManager;
+import org.igdevx.shopservice.integration.elasticsearch.ElasticsearchIntegrationTestBase;
+import org.igdevx.shopservice.models.Product;
+import org.igdevx.shopservice.models.ProductCertification;
+import org.igdevx.shopservice.repositories.ProductRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Hash partitioning of product and product_certification_link by producer_id (V19): partition pruning of the
+ * producer queries of ProductRepository and ProductResponseRepository, and links following their product
+ */
+@DisplayName("Product partitioning")
+class ProductPartitioningIntegrationTest extends ElasticsearchIntegrationTestBase {
+
+    private static final Pattern PRODUCT_PARTITION = Pattern.compile("(?<![a-z_])product_p(\\d{2})");
+    private static final Pattern LINK_PARTITION = Pattern.compile("product_certification_link_p(\\d{2})");
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    @DisplayName("Should read a single partition for the producer queries")
+    void shouldPruneProducerQueries() {
+        // When
+        // ProductRepository.findIdsByProducerIdAfter, findByProducerIdAndShelfId and the producer shop page
+        String keyset = plan("SELECT p.id FROM product p WHERE p.producer_id = 1 AND p.is_deleted = FALSE " +
+                "AND p.id > 0 ORDER BY p.id LIMIT 20");
+        String shelf = plan("SELECT p.* FROM product p WHERE p.producer_id = 1 AND p.shelf_id = 1 AND p.is_deleted = FALSE");
+        String page = plan("SELECT p.id FROM product p WHERE p.producer_id = 1 AND p.is_deleted = FALSE " +
+                "ORDER BY p.created_at DESC, p.id DESC LIMIT 20");
+
+        // Then
+        assertThat(partitions(keyset, PRODUCT_PARTITION)).hasSize(1);
+        assertThat(partitions(shelf, PRODUCT_PARTITION)).hasSize(1);
+        assertThat(partitions(page, PRODUCT_PARTITION)).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Should read the certifications of a producer's products from the matching link partition")
+    void shouldPruneLinksWithTheirProducts() {
+        // When
+        // Certifications subquery of ProductResponseRepository
+        String plan = plan("SELECT p.id, (SELECT count(*) FROM product_certification_link l " +
+                "WHERE l.product_id = p.id AND l.producer_id = p.producer_id) FROM product p WHERE p.producer_id = 1");
+
+        // Then
+        Set<String> products = partitions(plan, PRODUCT_PARTITION);
+        assertThat(products).hasSize(1);
+        assertThat(partitions(plan, LINK_PARTITION)).isEqualTo(products);
+    }
+
+    @Test
+    @DisplayName("Should prune at execution time with the producer bound as a parameter")
+    void shouldPruneGenericPlans() {
+        // Given
+        // A prepared statement run many times through JDBC ends up on a generic plan, which cannot prune when planned
+        entityManager.createNativeQuery("SET LOCAL plan_cache_mode = force_generic_plan").executeUpdate();
+        entityManager.createNativeQuery("PREPARE producer_ids(bigint) AS " +
+                "SELECT p.id FROM product p WHERE p.producer_id = $1 AND p.is_deleted = FALSE").executeUpdate();
+
+        try {
+            // When
+            String plan = plan("EXECUTE producer_ids(1)", "EXPLAIN (ANALYZE, COSTS OFF) ");
+
+            // Then
+            assertThat(plan).contains("Subplans Removed: 15");
+        } finally {
+            entityManager.createNativeQuery("DEALLOCATE producer_ids").executeUpdate();
+        }
+    }
+
+    @Test
+    @DisplayName("Should insert links in the partition of their producer and move them with the product")
+    void shouldKeepLinksWithTheirProduct() {
+        // Given
+        // Organic Tomatoes, producer 1, certified Organic in the seed data
+        Product product = productRepository.findByIdIncludingDeleted(1L).orElseThrow();
+
+        // When
+        product.setProducerId(2L);
+        product.getCertifications().add(entityManager.getReference(ProductCertification.class, 2L));
+        entityManager.flush();
+
+        // Then
+        @SuppressWarnings("unchecked")
+        List<Number> producers = entityManager.createNativeQuery(
+                        "SELECT producer_id FROM product_certification_link WHERE product_id = 1")
+                .getResultList();
+        assertThat(producers).hasSize(2).allSatisfy(producer -> assertThat(producer.longValue()).isEqualTo(2L));
+    }
+
+    @Test
+    @DisplayName("Should fill the producer of links inserted without it")
+    void shouldFillProducerOfLinksInsertedWithoutIt() {
+        // When
+        // Whole Grain Bread, producer 1, as the seed migrations written before V19 insert links
+        entityManager.createNativeQuery(
+                "INSERT INTO product_certification_link (product_id, certification_id) VALUES (2, 2)").executeUpdate();
+
+        // Then
+        Number producer = (Number) entityManager.createNativeQuery(
+                        "SELECT producer_id FROM product_certification_link WHERE product_id = 2 AND certification_id = 2")
+                .getSingleResult();
+        assertThat(producer.longValue()).isEqualTo(1L);
+    }
+
+    private String plan(String sql) {
+        return plan(sql, "EXPLAIN (COSTS OFF) ");
+    }
+
+    @SuppressWarnings("unchecked")
+    private String plan(String sql, String explain) {
+        List<String> rows = entityManager.createNativeQuery(explain + sql).getResultList();
+        return String.join("\n", rows);
+    }
+
+    private static Set<String> partitions(String plan, Pattern partition) {
+        Matcher matcher = partition.matcher(plan);
+        return matcher.results().map(result -> result.group(1)).collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,70 @@
+package org.igdevx.shopservice.integration.repositories;
+
+import jakarta.persistence.EntityManager;
+import org.igdevx.shopservice.dtos.ProductResponse;
+import org.igdevx.shopservice.integration.elasticsearch.ElasticsearchIntegrationTestBase;
+import org.igdevx.shopservice.services.ProductService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Database text search of ProductRepository.searchIdsByText: matches, ranking and the trigram indexes serving it
+ */
+@DisplayName("Product text search")
+class ProductTextSearchIntegrationTest extends ElasticsearchIntegrationTestBase {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    @DisplayName("Should rank title matches before description-only matches")
+    void shouldRankTitleMatchesFirst() {
+        // When
+        List<String> titles = titles(productService.searchProducts("Organic"));
+
+        // Then
+        assertThat(titles).first().isEqualTo("Organic Tomatoes");
+        assertThat(titles).contains("Raw Honey", "Quinoa", "Greek Yogurt");
+    }
+
+    @Test
+    @DisplayName("Should match descriptions, misspelled titles and escape LIKE wildcards")
+    void shouldMatchDescriptionsAndSimilarTitles() {
+        // When / Then
+        assertThat(titles(productService.searchProducts("artisan"))).containsExactly("Whole Grain Bread");
+        assertThat(titles(productService.searchProducts("Tomatos"))).contains("Organic Tomatoes");
+        assertThat(productService.searchProducts("%")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should find matches through the trigram indexes")
+    void shouldUseTrigramIndexes() {
+        // Given
+        // The test table is tiny: without this, a sequential scan is always cheaper
+        entityManager.createNativeQuery("SET LOCAL enable_seqscan = off").executeUpdate();
+
+        // When
+        @SuppressWarnings("unchecked")
+        List<String> plan = entityManager.createNativeQuery(
+                "EXPLAIN SELECT p.id FROM product p WHERE p.is_deleted = FALSE " +
+                "AND (lower(p.title) LIKE '%grain%' OR lower(p.title) % 'grain' OR lower(p.description) LIKE '%grain%') " +
+                "ORDER BY similarity(lower(p.title), 'grain') DESC LIMIT 100").getResultList();
+
+        // Then
+        assertThat(String.join("\n", plan))
+                .contains("idx_product_title_trgm")
+                .contains("idx_product_description_trgm");
+    }
+
+    private static List<String> titles(List<ProductResponse> products) {
+        return products.stream().map(ProductResponse::getTitle).toList();
+    }
+}
@@ -0,0 +1,91 @@
+package org.igdevx.shopservice.integration.repositories;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.igdevx.shopservice.integration.elasticsearch.ElasticsearchIntegrationTestBase;
+import org.igdevx.shopservice.models.Currency;
+import org.igdevx.shopservice.models.Product;
+import org.igdevx.shopservice.repositories.CurrencyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Second-level cache of the reference entities: a repeated lookup must not reach Postgres
+ */
+@DisplayName("Reference entity second-level cache")
+class ReferenceEntityCacheIntegrationTest extends ElasticsearchIntegrationTestBase {
+
+    @Autowired
+    private CurrencyRepository currencyRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    @DisplayName("Should serve repeated currency queries from the query and entity caches")
+    void shouldCacheCurrencyQueries() {
+        // Given
+        List<Currency> currencies = currencyRepository.findAll();
+        assertThat(currencies).isNotEmpty();
+        Long id = currencies.get(0).getId();
+        currencyRepository.findById(id);
+        entityManager.clear();
+        statistics.clear();
+
+        // When
+        List<Currency> cached = currencyRepository.findAll();
+        currencyRepository.findById(id);
+
+        // Then
+        assertThat(cached).hasSameSizeAs(currencies);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should load the references and certifications of a product from the cache")
+    void shouldCacheProductReferences() {
+        // Given
+        Long productId = entityManager.createQuery(
+                        "SELECT p.id FROM Product p WHERE size(p.certifications) > 0", Long.class)
+                .setMaxResults(1)
+                .getSingleResult();
+        touch(entityManager.find(Product.class, productId));
+        entityManager.clear();
+        statistics.clear();
+
+        // When
+        touch(entityManager.find(Product.class, productId));
+
+        // Then: only the product row itself is read
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getSecondLevelCacheHitCount()).isPositive();
+    }
+
+    private static void touch(Product product) {
+        product.getCurrency().getCode();
+        product.getUnit().getCode();
+        product.getCategory().getName();
+        product.getCertifications().forEach(certification -> certification.getLabel());
+    }
+}
@@ -0,0 +1,224 @@
+package org.igdevx.shopservice.unit.catalog;
+
+import org.igdevx.shopservice.UnitTest;
+import org.igdevx.shopservice.catalog.ProductCatalogEngine;
+import org.igdevx.shopservice.dtos.ProductResponse;
+import org.igdevx.shopservice.dtos.ProductSearchRequest;
+import org.igdevx.shopservice.dtos.ProductSearchResponse;
+import org.igdevx.shopservice.elasticsearch.documents.CertificationInfo;
+import org.igdevx.shopservice.elasticsearch.documents.ProductDocument;
+import org.igdevx.shopservice.elasticsearch.mappers.ProductDocumentResponseMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for ProductCatalogEngine
+ */
+@UnitTest
+@DisplayName("ProductCatalogEngine Unit Tests")
+class ProductCatalogEngineTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 10, 12, 0);
+
+    private ProductCatalogEngine catalog;
+
+    @BeforeEach
+    void setUp() {
+        catalog = new ProductCatalogEngine(new ProductDocumentResponseMapper());
+        catalog.indexAll(List.of(
+                document(1L, 10L, 1L, "3.50", true, false, Set.of(1L), 3),
+                document(2L, 10L, 2L, "4.20", true, false, Set.of(), 2),
+                document(3L, 20L, 3L, "9.90", false, false, Set.of(1L, 2L), 1),
+                document(4L, 20L, 2L, "15.00", true, false, Set.of(2L), 0),
+                document(5L, 10L, 2L, "2.00", false, true, Set.of(), 0)
+        ));
+        catalog.markReady();
+    }
+
+    @Nested
+    @DisplayName("Listings")
+    class ListingTests {
+
+        @Test
+        @DisplayName("Should list a producer's live products newest first")
+        void shouldListProducerNewestFirst() {
+            // When
+            ProductSearchResponse response = catalog.producerListing(10L, null, false, 0, 20);
+
+            // Then
+            assertThat(ids(response)).containsExactly(2L, 1L);
+            assertThat(response.getTotalElements()).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("Should list only deleted products when asked")
+        void shouldListDeletedProducts() {
+            // When
+            ProductSearchResponse response = catalog.producerListing(10L, null, true, 0, 20);
+
+            // Then
+            assertThat(ids(response)).containsExactly(5L);
+        }
+
+        @Test
+        @DisplayName("Should intersect category, fresh, certification and price filters")
+        void shouldIntersectFilters() {
+            // Given
+            ProductSearchRequest request = ProductSearchRequest.builder()
+                    .categoryIds(Set.of(2L, 3L))
+                    .fresh(true)
+                    .certificationIds(Set.of(2L))
+                    .priceMax(new BigDecimal("20"))
+                    .build();
+
+            // When
+            ProductSearchResponse response = catalog.search(request);
+
+            // Then
+            assertThat(ids(response)).containsExactly(4L);
+        }
+
+        @Test
+        @DisplayName("Should sort by price and paginate")
+        void shouldSortByPriceAndPaginate() {
+            // When
+            ProductSearchResponse response = catalog.search(ProductSearchRequest.builder()
+                    .sort("price_desc").page(1).size(2).build());
+
+            // Then
+            assertThat(ids(response)).containsExactly(2L, 1L);
+            assertThat(response.getTotalElements()).isEqualTo(4);
+            assertThat(response.getTotalPages()).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("Should give the same order when walking the sorted array or sorting a small result")
+        void shouldSortLargeAndSmallResultsTheSameWay() {
+            // Given
+            List<ProductDocument> bulk = new ArrayList<>();
+            for (long id = 100; id < 300; id++) {
+                bulk.add(document(id, 30L, 9L, String.valueOf(id % 7), false, false, Set.of(), (int) (id % 11)));
+            }
+            catalog.indexAll(bulk);
+
+            // When
+            ProductSearchResponse small = catalog.producerListing(20L, null, false, 0, 20);
+            ProductSearchResponse large = catalog.search(ProductSearchRequest.builder().sort("price_asc").size(300).build());
+
+            // Then
+            assertThat(ids(small)).containsExactly(4L, 3L);
+            List<BigDecimal> prices = large.getProducts().stream().map(ProductResponse::getPrice).toList();
+            assertThat(prices).isSortedAccordingTo(BigDecimal::compareTo);
+            assertThat(large.getTotalElements()).isEqualTo(204);
+        }
+    }
+
+    @Nested
+    @DisplayName("Incremental updates")
+    class UpdateTests {
+
+        @Test
+        @DisplayName("Should move a product when its producer and state change")
+        void shouldReindexChangedProduct() {
+            // When
+            catalog.index(document(1L, 20L, 1L, "3.50", true, true, Set.of(), 3));
+
+            // Then
+            assertThat(ids(catalog.producerListing(10L, null, false, 0, 20))).containsExactly(2L);
+            assertThat(ids(catalog.producerListing(20L, null, true, 0, 20))).containsExactly(1L);
+        }
+
+        @Test
+        @DisplayName("Should keep the sorted orders when products are repriced, added and removed")
+        void shouldKeepSortedOrdersOnWrites() {
+            // When
+            catalog.index(document(4L, 20L, 2L, "1.00", true, false, Set.of(2L), 5));
+            catalog.index(document(6L, 20L, 2L, "5.00", true, false, Set.of(), 4));
+            catalog.indexAll(List.of(
+                    document(2L, 10L, 2L, "20.00", true, false, Set.of(), 2),
+                    document(7L, 10L, 2L, "0.50", true, false, Set.of(), 6)));
+            catalog.remove(1L);
+
+            // Then
+            assertThat(ids(catalog.search(ProductSearchRequest.builder().sort("price_asc").build())))
+                    .containsExactly(7L, 4L, 6L, 3L, 2L);
+            assertThat(ids(catalog.search(ProductSearchRequest.builder().sort("date_asc").build())))
+                    .containsExactly(7L, 4L, 6L, 2L, 3L);
+        }
+
+        @Test
+        @DisplayName("Should forget a removed product")
+        void shouldRemoveProduct() {
+            // When
+            catalog.remove(3L);
+
+            // Then
+            assertThat(ids(catalog.producerListing(20L, null, false, 0, 20))).containsExactly(4L);
+            assertThat(catalog.size()).isEqualTo(4);
+        }
+
+        @Test
+        @DisplayName("Should remove the products missing from a full reload and keep serving")
+        void shouldRetainReloadedProducts() {
+            // When
+            int removed = catalog.retainAll(Set.of(1L, 2L, 4L));
+
+            // Then
+            assertThat(removed).isEqualTo(2);
+            assertThat(catalog.isReady()).isTrue();
+            assertThat(ids(catalog.producerListing(20L, null, false, 0, 20))).containsExactly(4L);
+            assertThat(ids(catalog.producerListing(10L, null, true, 0, 20))).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Should not serve listings after a clear until marked ready")
+        void shouldNotBeReadyAfterClear() {
+            // When
+            catalog.clear();
+
+            // Then
+            assertThat(catalog.isReady()).isFalse();
+            assertThat(catalog.supports(ProductSearchRequest.builder().build())).isFalse();
+        }
+
+        @Test
+        @DisplayName("Should leave full-text and title-sorted searches to the search backend")
+        void shouldOnlySupportFilterListings() {
+            // Then
+            assertThat(catalog.supports(ProductSearchRequest.builder().fresh(true).build())).isTrue();
+            assertThat(catalog.supports(ProductSearchRequest.builder().q("pomme").build())).isFalse();
+            assertThat(catalog.supports(ProductSearchRequest.builder().sort("title_asc").build())).isFalse();
+        }
+    }
+
+    private static List<Long> ids(ProductSearchResponse response) {
+        return response.getProducts().stream().map(ProductResponse::getId).toList();
+    }
+
+    private static ProductDocument document(Long id, Long producerId, Long categoryId, String price, boolean fresh,
+                                            boolean deleted, Set<Long> certificationIds, int daysAgo) {
+        return ProductDocument.builder()
+                .id(id)
+                .title("Product " + id)
+                .price(new BigDecimal(price))
+                .producerId(producerId)
+                .categoryId(categoryId)
+                .certifications(certificationIds.stream()
+                        .map(certificationId -> CertificationInfo.builder().id(certificationId).build())
+                        .toList())
+                .isFresh(fresh)
+                .isDeleted(deleted)
+                .createdAt(NOW.minusDays(daysAgo))
+                .build();
+    }
+}
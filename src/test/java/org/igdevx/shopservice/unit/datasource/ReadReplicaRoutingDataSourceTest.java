@@ -0,0 +1,190 @@
+package org.igdevx.shopservice.unit.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.igdevx.shopservice.UnitTest;
+import org.igdevx.shopservice.datasource.ReadReplicaRoutingDataSource;
+import org.igdevx.shopservice.datasource.ReadReplicaRoutingDataSource.Route;
+import org.igdevx.shopservice.datasource.ReadYourWrites;
+import org.igdevx.shopservice.datasource.ReplicaLagMonitor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ReadReplicaRoutingDataSource and ReplicaLagMonitor
+ */
+@UnitTest
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Read Replica Routing Unit Tests")
+class ReadReplicaRoutingDataSourceTest {
+
+    @Mock
+    private DataSource primary;
+    @Mock
+    private DataSource replica;
+    @Mock
+    private ReplicaLagMonitor lagMonitor;
+    @Mock
+    private Connection primaryConnection;
+    @Mock
+    private Connection replicaConnection;
+
+    private ReadReplicaRoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        routing = new ReadReplicaRoutingDataSource(lagMonitor, Duration.ofMinutes(1), new SimpleMeterRegistry());
+        routing.setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+        lenient().when(primary.getConnection()).thenReturn(primaryConnection);
+        lenient().when(replica.getConnection()).thenReturn(replicaConnection);
+        lenient().when(lagMonitor.isReplicaUsable()).thenReturn(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.clear();
+    }
+
+    @Test
+    @DisplayName("Should read from the replica in a read-only transaction and write to the primary otherwise")
+    void shouldRouteOnTransactionReadOnlyFlag() throws SQLException {
+        // When / Then
+        beginTransaction(true);
+        assertThat(routing.getConnection()).isSameAs(replicaConnection);
+        tearDown();
+
+        beginTransaction(false);
+        assertThat(routing.getConnection()).isSameAs(primaryConnection);
+        tearDown();
+
+        // Outside of any transaction (Flyway, Hibernate bootstrap)
+        assertThat(routing.getConnection()).isSameAs(primaryConnection);
+    }
+
+    @Test
+    @DisplayName("Should fall back to the primary while the replica lags")
+    void shouldFallBackToPrimaryWhenReplicaLags() throws SQLException {
+        // Given
+        when(lagMonitor.isReplicaUsable()).thenReturn(false);
+        beginTransaction(true);
+
+        // When / Then
+        assertThat(routing.getConnection()).isSameAs(primaryConnection);
+        verifyNoInteractions(replica);
+    }
+
+    @Test
+    @DisplayName("Should read from the primary on a thread that has just committed a write")
+    void shouldReadYourWritesAfterCommit() throws Exception {
+        // When
+        // On a thread of its own, the window of the write would outlive the test
+        Connection afterWrite = onOtherThread(() -> {
+            beginTransaction(false);
+            routing.getConnection();
+            TransactionSynchronizationUtils.triggerAfterCommit();
+            tearDown();
+            beginTransaction(true);
+            return routing.getConnection();
+        });
+        beginTransaction(true);
+        Connection otherThread = routing.getConnection();
+
+        // Then
+        assertThat(afterWrite).isSameAs(primaryConnection);
+        assertThat(otherThread).isSameAs(replicaConnection);
+    }
+
+    @Test
+    @DisplayName("Should read from the primary inside onPrimary")
+    void shouldPinReadsToPrimary() {
+        // Given
+        beginTransaction(true);
+
+        // When
+        Connection connection = ReadYourWrites.onPrimary(() -> {
+            try {
+                return routing.getConnection();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        // Then
+        assertThat(connection).isSameAs(primaryConnection);
+        assertThat(ReadYourWrites.requiresPrimary()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should count an unreachable or lagging replica as unusable and measure it once per interval")
+    void lagMonitor_ShouldCompareLagWithMaxLag() throws SQLException {
+        // Given
+        Statement statement = mock(Statement.class);
+        ResultSet resultSet = mock(ResultSet.class);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        when(replicaConnection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(anyString())).thenReturn(resultSet);
+        when(resultSet.getDouble(1)).thenReturn(0.5, 3.0);
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(replica, Duration.ofSeconds(2), Duration.ZERO, new SimpleMeterRegistry());
+        ReplicaLagMonitor hourly = new ReplicaLagMonitor(replica, Duration.ofSeconds(2), Duration.ofHours(1), new SimpleMeterRegistry());
+
+        // When / Then
+        assertThat(monitor.isReplicaUsable()).isTrue();
+        assertThat(monitor.isReplicaUsable()).isFalse();
+        when(replica.getConnection()).thenThrow(new SQLException("Connection refused"));
+        assertThat(monitor.isReplicaUsable()).isFalse();
+
+        assertThat(hourly.isReplicaUsable()).isFalse();
+        assertThat(hourly.isReplicaUsable()).isFalse();
+        verify(replica, times(4)).getConnection();
+    }
+
+    private static void beginTransaction(boolean readOnly) {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+    }
+
+    private Connection onOtherThread(Callable<Connection> work) throws Exception {
+        Connection[] connection = new Connection[1];
+        Exception[] failure = new Exception[1];
+        Thread thread = new Thread(() -> {
+            try {
+                connection[0] = work.call();
+            } catch (Exception e) {
+                failure[0] = e;
+            } finally {
+                tearDown();
+            }
+        });
+        thread.start();
+        thread.join();
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+        return connection[0];
+    }
+}
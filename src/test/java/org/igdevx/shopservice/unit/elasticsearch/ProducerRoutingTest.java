@@ -0,0 +1,56 @@
+package org.igdevx.shopservice.unit.elasticsearch;
+
+import org.igdevx.shopservice.UnitTest;
+import org.igdevx.shopservice.elasticsearch.documents.ProductDocument;
+import org.igdevx.shopservice.elasticsearch.services.ProducerRouting;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for ProducerRouting
+ */
+@UnitTest
+@DisplayName("ProducerRouting Unit Tests")
+class ProducerRoutingTest {
+
+    private static final ProductDocument DOCUMENT = ProductDocument.builder().id(7L).producerId(42L).build();
+
+    private ProducerRouting routing;
+
+    @BeforeEach
+    void setUp() {
+        routing = new ProducerRouting();
+    }
+
+    @Test
+    @DisplayName("Should keep the default _id routing while the live index is not routed")
+    void shouldNotRouteUnroutedIndex() {
+        // Then
+        assertThat(routing.getRouting(DOCUMENT)).isNull();
+        assertThat(routing.searchRoute(42L)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should route documents and producer searches by producerId once the index is routed")
+    void shouldRouteByProducer() {
+        // When
+        routing.setIndexRouted(true);
+
+        // Then
+        assertThat(routing.getRouting(DOCUMENT)).isEqualTo("42");
+        assertThat(routing.searchRoute(42L)).isEqualTo("42");
+        assertThat(routing.getRouting()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should route a migration target by its own layout, whatever the live index")
+    void shouldRouteMigrationTargetByLayout() {
+        // Then
+        assertThat(ProducerRouting.forLayout(true).getRouting(DOCUMENT)).isEqualTo("42");
+        assertThat(ProducerRouting.forLayout(false).getRouting(DOCUMENT)).isNull();
+        assertThat(ProducerRouting.forLayout(true).getRouting("not a product")).isNull();
+    }
+}
@@ -1,6 +1,7 @@
 package org.igdevx.shopservice.unit.elasticsearch;
 
 import org.igdevx.shopservice.UnitTest;
+import org.igdevx.shopservice.elasticsearch.documents.CertificationInfo;
 import org.igdevx.shopservice.elasticsearch.documents.ProductDocument;
 import org.igdevx.shopservice.elasticsearch.mappers.ProductDocumentMapper;
 import org.igdevx.shopservice.models.*;
@@ -123,10 +124,9 @@ class ProductDocumentMapperTest {
                 .isNotNull()
                 .hasSize(2)
                 .contains(10L, 11L);
-            assertThat(document.getCertificationNames())
-                .isNotNull()
-                .hasSize(2)
-                .contains("Organic", "Local");
+            assertThat(document.getCertifications())
+                .extracting(CertificationInfo::getLabel)
+                .containsExactlyInAnyOrder("Organic", "Local");
         }
 
         @Test
@@ -171,7 +171,7 @@ class ProductDocumentMapperTest {
 
             // Then
             assertThat(document.getCertificationIds()).isEmpty();
-            assertThat(document.getCertificationNames()).isEmpty();
+            assertThat(document.getCertifications()).isEmpty();
         }
 
         @Test
@@ -185,8 +185,8 @@ class ProductDocumentMapperTest {
             ProductDocument document = mapper.toDocument(product);
 
             // Then
-            assertThat(document.getCertificationIds()).isNull();
-            assertThat(document.getCertificationNames()).isNull();
+            assertThat(document.getCertifications()).isNull();
+            assertThat(document.getCertificationIds()).isEmpty();
         }
 
         @Test
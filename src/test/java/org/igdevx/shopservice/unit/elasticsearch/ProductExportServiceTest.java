@@ -0,0 +1,157 @@
+package org.igdevx.shopservice.unit.elasticsearch;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.igdevx.shopservice.UnitTest;
+import org.igdevx.shopservice.dtos.ProductSearchRequest;
+import org.igdevx.shopservice.elasticsearch.documents.ProductDocument;
+import org.igdevx.shopservice.elasticsearch.mappers.ProductDocumentResponseMapper;
+import org.igdevx.shopservice.elasticsearch.queries.ProductQueryFactory;
+import org.igdevx.shopservice.elasticsearch.services.ProductExportService;
+import org.igdevx.shopservice.search.SearchBackendType;
+import org.igdevx.shopservice.search.SearchProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchHits;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ProductExportService
+ */
+@UnitTest
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ProductExportService Unit Tests")
+class ProductExportServiceTest {
+
+    @Mock
+    private ElasticsearchOperations elasticsearchOperations;
+
+    private SearchProperties searchProperties;
+    private ProductExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        searchProperties = new SearchProperties();
+        searchProperties.getExport().setBatchSize(2);
+        exportService = new ProductExportService(elasticsearchOperations, new ProductQueryFactory(),
+                new ProductDocumentResponseMapper(), new ObjectMapper().findAndRegisterModules(), searchProperties);
+        lenient().when(elasticsearchOperations.getIndexCoordinatesFor(ProductDocument.class))
+                .thenReturn(IndexCoordinates.of("products"));
+        lenient().when(elasticsearchOperations.openPointInTime(any(IndexCoordinates.class), any(Duration.class)))
+                .thenReturn("pit-1");
+    }
+
+    @Nested
+    @DisplayName("Streaming")
+    class StreamingTests {
+
+        @Test
+        @DisplayName("Should write one line per product, walking the batches with search_after")
+        void shouldStreamEveryBatch() throws Exception {
+            // Given
+            SearchHits<ProductDocument> firstBatch = hits("pit-2", 1L, 2L);
+            SearchHits<ProductDocument> lastBatch = hits("pit-2", 3L);
+            when(elasticsearchOperations.search(any(NativeQuery.class), eq(ProductDocument.class)))
+                    .thenReturn(firstBatch, lastBatch);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+            // When
+            exportService.export(ProductSearchRequest.builder().fresh(true).build()).writeTo(out);
+
+            // Then
+            String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+            assertThat(lines).hasSize(3);
+            assertThat(lines[0]).startsWith("{\"id\":1,");
+            assertThat(lines[2]).startsWith("{\"id\":3,");
+
+            ArgumentCaptor<NativeQuery> queries = ArgumentCaptor.forClass(NativeQuery.class);
+            verify(elasticsearchOperations, times(2)).search(queries.capture(), eq(ProductDocument.class));
+            assertThat(queries.getAllValues().get(0).getSearchAfter()).isNull();
+            assertThat(queries.getAllValues().get(0).getPointInTime().id()).isEqualTo("pit-1");
+            assertThat(queries.getAllValues().get(1).getSearchAfter()).containsExactly(2L);
+            assertThat(queries.getAllValues().get(1).getPointInTime().id()).isEqualTo("pit-2");
+            verify(elasticsearchOperations).closePointInTime("pit-2");
+            verify(elasticsearchOperations, never()).closePointInTime("pit-1");
+        }
+
+        @Test
+        @DisplayName("Should close the point in time when the export fails")
+        void shouldClosePointInTimeOnFailure() {
+            // Given
+            when(elasticsearchOperations.search(any(NativeQuery.class), eq(ProductDocument.class)))
+                    .thenThrow(new IllegalStateException("cluster down"));
+            StreamingResponseBody body = exportService.export(ProductSearchRequest.builder().build());
+
+            // When / Then
+            assertThatThrownBy(() -> body.writeTo(new ByteArrayOutputStream()))
+                    .isInstanceOf(IllegalStateException.class);
+            verify(elasticsearchOperations).closePointInTime("pit-1");
+        }
+
+        @Test
+        @DisplayName("Should close the latest point in time id when the export fails after a batch")
+        void shouldCloseLatestPointInTimeOnFailure() {
+            // Given
+            SearchHits<ProductDocument> firstBatch = hits("pit-2", 1L, 2L);
+            when(elasticsearchOperations.search(any(NativeQuery.class), eq(ProductDocument.class)))
+                    .thenReturn(firstBatch)
+                    .thenThrow(new IllegalStateException("cluster down"));
+            StreamingResponseBody body = exportService.export(ProductSearchRequest.builder().build());
+
+            // When / Then
+            assertThatThrownBy(() -> body.writeTo(new ByteArrayOutputStream()))
+                    .isInstanceOf(IllegalStateException.class);
+            verify(elasticsearchOperations).closePointInTime("pit-2");
+        }
+
+        @Test
+        @DisplayName("Should refuse to export when Elasticsearch is not the search backend")
+        void shouldRequireElasticsearch() {
+            // Given
+            searchProperties.setBackend(SearchBackendType.POSTGRES);
+
+            // When / Then
+            assertThatThrownBy(() -> exportService.export(ProductSearchRequest.builder().build()))
+                    .isInstanceOf(IllegalStateException.class);
+            verifyNoInteractions(elasticsearchOperations);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static SearchHits<ProductDocument> hits(String pointInTimeId, Long... ids) {
+        List<SearchHit<ProductDocument>> searchHits = Arrays.stream(ids).map(id -> {
+            SearchHit<ProductDocument> hit = mock(SearchHit.class);
+            lenient().when(hit.getContent()).thenReturn(ProductDocument.builder().id(id).title("Product " + id).build());
+            lenient().when(hit.getSortValues()).thenReturn(List.of(id));
+            return hit;
+        }).toList();
+
+        SearchHits<ProductDocument> hits = mock(SearchHits.class);
+        lenient().when(hits.getSearchHits()).thenReturn(searchHits);
+        lenient().when(hits.getSearchHit(anyInt())).thenAnswer(invocation -> searchHits.get(invocation.getArgument(0)));
+        lenient().when(hits.getPointInTimeId()).thenReturn(pointInTimeId);
+        return hits;
+    }
+}
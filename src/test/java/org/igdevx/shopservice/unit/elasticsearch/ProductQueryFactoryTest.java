@@ -0,0 +1,201 @@
+package org.igdevx.shopservice.unit.elasticsearch;
+
+import co.elastic.clients.elasticsearch._types.SortOptions;
+import co.elastic.clients.elasticsearch._types.query_dsl.BoolQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import org.igdevx.shopservice.UnitTest;
+import org.igdevx.shopservice.dtos.ProductSearchRequest;
+import org.igdevx.shopservice.elasticsearch.queries.ProductQueryFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for ProductQueryFactory
+ * Checks the shape of the generated queries without an Elasticsearch node
+ */
+@UnitTest
+@DisplayName("ProductQueryFactory Unit Tests")
+class ProductQueryFactoryTest {
+
+    private ProductQueryFactory factory;
+
+    @BeforeEach
+    void setUp() {
+        factory = new ProductQueryFactory();
+    }
+
+    @Nested
+    @DisplayName("Search query")
+    class SearchQueryTests {
+
+        @Test
+        @DisplayName("Should use constant_score when there is no q")
+        void shouldUseConstantScoreWithoutQ() {
+            // Given
+            ProductSearchRequest request = ProductSearchRequest.builder()
+                    .categoryIds(Set.of(2L, 1L))
+                    .fresh(true)
+                    .build();
+
+            // When
+            Query query = factory.searchQuery(request);
+
+            // Then
+            assertThat(query.isConstantScore()).isTrue();
+            BoolQuery filters = query.constantScore().filter().bool();
+            assertThat(filters.must()).isEmpty();
+            assertThat(filters.filter()).hasSize(3);
+        }
+
+        @Test
+        @DisplayName("Should score only the full-text part when q is present")
+        void shouldKeepPredicatesInFilterContextWithQ() {
+            // Given
+            ProductSearchRequest request = ProductSearchRequest.builder()
+                    .q("pommes")
+                    .currencyId(1L)
+                    .priceMin(BigDecimal.ONE)
+                    .priceMax(BigDecimal.TEN)
+                    .build();
+
+            // When
+            Query query = factory.searchQuery(request);
+
+            // Then
+            assertThat(query.isBool()).isTrue();
+            assertThat(query.bool().must()).hasSize(1);
+            assertThat(query.bool().should()).isEmpty();
+            assertThat(query.bool().filter()).hasSize(3);
+        }
+
+        @Test
+        @DisplayName("Should keep description fuzziness out of a downgraded full-text query")
+        void shouldDropDescriptionFuzziness() {
+            // Given
+            ProductSearchRequest request = ProductSearchRequest.builder().q("pommes").build();
+
+            // When
+            Query full = factory.searchQuery(request);
+            Query downgraded = factory.searchQuery(request, new ProductQueryFactory.FullTextOptions(true, false, false));
+
+            // Then
+            List<Query> fullClauses = full.bool().must().get(0).bool().should();
+            List<Query> downgradedClauses = downgraded.bool().must().get(0).bool().should();
+            assertThat(fullClauses).hasSize(3);
+            assertThat(downgradedClauses).hasSize(3);
+            assertThat(downgradedClauses.get(1).multiMatch().fields()).containsExactly("title^3");
+            assertThat(downgradedClauses.get(1).multiMatch().fuzziness()).isEqualTo("AUTO");
+            assertThat(downgradedClauses.get(2).multiMatch().fields()).containsExactly("description");
+            assertThat(downgradedClauses.get(2).multiMatch().fuzziness()).isNull();
+        }
+
+        @Test
+        @DisplayName("Should reuse the same precompiled deleted filter across requests")
+        void shouldReusePrecompiledFragments() {
+            // When
+            Query first = factory.searchQuery(ProductSearchRequest.builder().build());
+            Query second = factory.searchQuery(ProductSearchRequest.builder().fresh(true).build());
+
+            // Then
+            Query firstDeleted = first.constantScore().filter().bool().filter().get(0);
+            Query secondDeleted = second.constantScore().filter().bool().filter().get(0);
+            assertThat(firstDeleted).isSameAs(secondDeleted);
+        }
+
+        @Test
+        @DisplayName("Should produce the same terms filter regardless of id order")
+        void shouldNormalizeTermsOrder() {
+            // When
+            Query first = factory.searchQuery(ProductSearchRequest.builder().categoryIds(Set.of(3L, 1L, 2L)).build());
+            Query second = factory.searchQuery(ProductSearchRequest.builder().categoryIds(Set.of(2L, 3L, 1L)).build());
+
+            // Then
+            Query firstTerms = first.constantScore().filter().bool().filter().get(1);
+            Query secondTerms = second.constantScore().filter().bool().filter().get(1);
+            assertThat(firstTerms.toString()).isEqualTo(secondTerms.toString());
+        }
+    }
+
+    @Nested
+    @DisplayName("Suggestion query")
+    class SuggestionQueryTests {
+
+        @Test
+        @DisplayName("Should match the typed prefix through the title analyzer")
+        void shouldAnalyzeTypedPrefix() {
+            // When
+            BoolQuery query = factory.suggestionQuery("Légu").bool();
+
+            // Then
+            assertThat(query.should()).anySatisfy(clause -> {
+                assertThat(clause.isMatchBoolPrefix()).isTrue();
+                assertThat(clause.matchBoolPrefix().field()).isEqualTo("title");
+                assertThat(clause.matchBoolPrefix().query()).isEqualTo("Légu");
+            });
+            assertThat(query.should()).noneMatch(Query::isPrefix);
+            assertThat(query.minimumShouldMatch()).isEqualTo("1");
+        }
+    }
+
+    @Nested
+    @DisplayName("Producer query")
+    class ProducerQueryTests {
+
+        @Test
+        @DisplayName("Should be a constant_score filter on producer, deleted state and shelf")
+        void shouldBuildConstantScoreProducerQuery() {
+            // When
+            Query query = factory.producerQuery(1L, 4L, false);
+
+            // Then
+            assertThat(query.isConstantScore()).isTrue();
+            assertThat(query.constantScore().filter().bool().filter()).hasSize(3);
+        }
+    }
+
+    @Nested
+    @DisplayName("Sorting")
+    class SortTests {
+
+        @Test
+        @DisplayName("Should not sort on score when the query is not scored")
+        void shouldSkipScoreSortWithoutQ() {
+            // When
+            List<SortOptions> sort = factory.sortFor(null, false);
+
+            // Then
+            assertThat(sort).hasSize(1);
+            assertThat(sort.get(0).isField()).isTrue();
+            assertThat(sort.get(0).field().field()).isEqualTo("createdAt");
+        }
+
+        @Test
+        @DisplayName("Should sort on score then date when the query is scored")
+        void shouldSortOnScoreWithQ() {
+            // When
+            List<SortOptions> sort = factory.sortFor(null, true);
+
+            // Then
+            assertThat(sort).hasSize(2);
+            assertThat(sort.get(0).isScore()).isTrue();
+        }
+
+        @Test
+        @DisplayName("Should fall back to newest first for unknown sort keys")
+        void shouldFallBackForUnknownSort() {
+            // When
+            List<SortOptions> sort = factory.sortFor("unknown", true);
+
+            // Then
+            assertThat(sort).isSameAs(factory.sortFor("date_desc", true));
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package org.igdevx.shopservice.unit.elasticsearch;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.igdevx.shopservice.UnitTest;
+import org.igdevx.shopservice.dtos.ProductSearchRequest;
+import org.igdevx.shopservice.elasticsearch.queries.ProductQueryFactory;
+import org.igdevx.shopservice.elasticsearch.queries.QueryCostGovernor;
+import org.igdevx.shopservice.elasticsearch.queries.SearchPlan;
+import org.igdevx.shopservice.exceptions.InvalidPageRequestException;
+import org.igdevx.shopservice.exceptions.SearchCostExceededException;
+import org.igdevx.shopservice.search.SearchProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for QueryCostGovernor
+ */
+@UnitTest
+@DisplayName("QueryCostGovernor Unit Tests")
+class QueryCostGovernorTest {
+
+    private SearchProperties searchProperties;
+    private SimpleMeterRegistry meterRegistry;
+    private QueryCostGovernor governor;
+
+    @BeforeEach
+    void setUp() {
+        searchProperties = new SearchProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        governor = new QueryCostGovernor(searchProperties, meterRegistry);
+    }
+
+    @Nested
+    @DisplayName("Limits")
+    class LimitTests {
+
+        @Test
+        @DisplayName("Should leave an ordinary request untouched")
+        void shouldKeepOrdinaryRequest() {
+            // Given
+            ProductSearchRequest request = ProductSearchRequest.builder().q("tomates bio").page(2).size(20).build();
+
+            // When
+            SearchPlan plan = governor.plan(request);
+
+            // Then
+            assertThat(plan.request()).isSameAs(request);
+            assertThat(plan.fullText()).isEqualTo(ProductQueryFactory.FullTextOptions.FULL);
+            assertThat(plan.downgrades()).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Should cap the page size")
+        void shouldCapSize() {
+            // When
+            SearchPlan plan = governor.plan(ProductSearchRequest.builder().size(5000).build());
+
+            // Then
+            assertThat(plan.size()).isEqualTo(100);
+            assertThat(plan.downgrades()).containsExactly(QueryCostGovernor.SIZE_CAPPED);
+        }
+
+        @Test
+        @DisplayName("Should cut a long q at a word boundary and keep at most max-query-terms words")
+        void shouldTruncateQ() {
+            // Given
+            searchProperties.getCost().setMaxQueryLength(20);
+            searchProperties.getCost().setMaxQueryTerms(2);
+
+            // When
+            SearchPlan byLength = governor.plan(ProductSearchRequest.builder().q("pommes golden croquantes du verger").build());
+            SearchPlan byTerms = governor.plan(ProductSearchRequest.builder().q("miel de lavande").build());
+
+            // Then
+            assertThat(byLength.request().getQ()).isEqualTo("pommes golden");
+            assertThat(byTerms.request().getQ()).isEqualTo("miel de");
+            assertThat(byTerms.downgrades()).containsExactly(QueryCostGovernor.QUERY_TRUNCATED);
+        }
+
+        @Test
+        @DisplayName("Should reject pages beyond the result window")
+        void shouldRejectDeepPages() {
+            // Given
+            ProductSearchRequest request = ProductSearchRequest.builder().page(500).size(20).build();
+
+            // When / Then
+            assertThatThrownBy(() -> governor.plan(request))
+                    .isInstanceOf(SearchCostExceededException.class)
+                    .hasMessageContaining("10000");
+        }
+
+        @Test
+        @DisplayName("Should reject negative pages and empty sizes, even when disabled")
+        void shouldRejectInvalidPages() {
+            // Given
+            searchProperties.getCost().setEnabled(false);
+
+            // When / Then
+            assertThatThrownBy(() -> governor.plan(ProductSearchRequest.builder().page(-1).build()))
+                    .isInstanceOf(InvalidPageRequestException.class);
+            assertThatThrownBy(() -> governor.plan(ProductSearchRequest.builder().size(0).build()))
+                    .isInstanceOf(InvalidPageRequestException.class);
+        }
+
+        @Test
+        @DisplayName("Should not touch anything when disabled")
+        void shouldBypassWhenDisabled() {
+            // Given
+            searchProperties.getCost().setEnabled(false);
+            ProductSearchRequest request = ProductSearchRequest.builder().page(900).size(5000).build();
+
+            // When
+            SearchPlan plan = governor.plan(request);
+
+            // Then
+            assertThat(plan.request()).isSameAs(request);
+            assertThat(plan.downgrades()).isEmpty();
+        }
+    }
+
+    @Nested
+    @DisplayName("Downgrades")
+    class DowngradeTests {
+
+        @Test
+        @DisplayName("Should drop description fuzziness first on a long q")
+        void shouldDropDescriptionFuzzinessFirst() {
+            // When
+            SearchPlan plan = governor.plan(ProductSearchRequest.builder().q("panier de legumes de saison du verger").build());
+
+            // Then
+            assertThat(plan.downgrades()).containsExactly(QueryCostGovernor.DESCRIPTION_FUZZINESS_DROPPED);
+            assertThat(plan.fullText().fuzzy()).isTrue();
+            assertThat(plan.fullText().fuzzyDescription()).isFalse();
+            assertThat(plan.cost()).isLessThanOrEqualTo(searchProperties.getCost().getMaxCost());
+            assertThat(meterRegistry.counter("product.search.downgrade", "downgrade",
+                    QueryCostGovernor.DESCRIPTION_FUZZINESS_DROPPED).count()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should drop every expensive clause, in order, when the page is deep as well")
+        void shouldDropClausesInOrder() {
+            // When
+            SearchPlan plan = governor.plan(ProductSearchRequest.builder()
+                    .q("panier de legumes de saison du verger").page(80).size(100).build());
+
+            // Then
+            assertThat(plan.downgrades()).containsExactly(
+                    QueryCostGovernor.DESCRIPTION_FUZZINESS_DROPPED,
+                    QueryCostGovernor.FUZZINESS_DROPPED,
+                    QueryCostGovernor.PREFIX_DROPPED);
+            assertThat(plan.fullText()).isEqualTo(new ProductQueryFactory.FullTextOptions(false, false, false));
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package org.igdevx.shopservice.unit.elasticsearch;
+
+import org.igdevx.shopservice.UnitTest;
+import org.igdevx.shopservice.dtos.ProductSearchRequest;
+import org.igdevx.shopservice.elasticsearch.queries.ProductSearchKey;
+import org.igdevx.shopservice.elasticsearch.services.SearchRequestCoalescer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for SearchRequestCoalescer and ProductSearchKey
+ */
+@UnitTest
+@DisplayName("SearchRequestCoalescer Unit Tests")
+class SearchRequestCoalescerTest {
+
+    private SearchRequestCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        coalescer = new SearchRequestCoalescer();
+    }
+
+    @Nested
+    @DisplayName("Coalescing")
+    class CoalescingTests {
+
+        @Test
+        @DisplayName("Should share one in-flight call between concurrent identical requests")
+        void shouldShareInFlightCall() throws Exception {
+            // Given
+            int callers = 8;
+            AtomicInteger executions = new AtomicInteger();
+            CountDownLatch started = new CountDownLatch(callers);
+            CountDownLatch release = new CountDownLatch(1);
+            ExecutorService executor = Executors.newFixedThreadPool(callers);
+
+            try {
+                // When
+                List<Future<String>> results = new ArrayList<>();
+                for (int i = 0; i < callers; i++) {
+                    results.add(executor.submit(() -> {
+                        started.countDown();
+                        return coalescer.execute("same-key", () -> {
+                            executions.incrementAndGet();
+                            await(release);
+                            return "result";
+                        });
+                    }));
+                }
+                started.await(5, TimeUnit.SECONDS);
+                waitUntilInFlight();
+                Thread.sleep(100);
+                release.countDown();
+
+                // Then
+                for (Future<String> result : results) {
+                    assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("result");
+                }
+                assertThat(executions.get()).isEqualTo(1);
+                assertThat(coalescer.inFlightCount()).isZero();
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        @Test
+        @DisplayName("Should run the call again once the previous one has completed")
+        void shouldNotCacheCompletedResults() {
+            // Given
+            AtomicInteger executions = new AtomicInteger();
+
+            // When
+            coalescer.execute("key", executions::incrementAndGet);
+            coalescer.execute("key", executions::incrementAndGet);
+
+            // Then
+            assertThat(executions.get()).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("Should propagate the failure to the caller and release the key")
+        void shouldPropagateFailure() {
+            // When / Then
+            assertThatThrownBy(() -> coalescer.execute("key", () -> {
+                throw new IllegalStateException("cluster down");
+            })).isInstanceOf(IllegalStateException.class).hasMessage("cluster down");
+            assertThat(coalescer.inFlightCount()).isZero();
+        }
+
+        private void waitUntilInFlight() throws InterruptedException {
+            while (coalescer.inFlightCount() == 0) {
+                Thread.sleep(5);
+            }
+        }
+
+        private void await(CountDownLatch latch) {
+            try {
+                latch.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Request normalization")
+    class KeyTests {
+
+        @Test
+        @DisplayName("Should treat equivalent requests as the same key")
+        void shouldNormalizeEquivalentRequests() {
+            // Given
+            ProductSearchRequest first = ProductSearchRequest.builder()
+                    .q("  Pommes   Golden ")
+                    .categoryIds(Set.of(2L, 1L))
+                    .priceMin(new BigDecimal("5.00"))
+                    .sort("PRICE_ASC")
+                    .build();
+            ProductSearchRequest second = ProductSearchRequest.builder()
+                    .q("pommes golden")
+                    .categoryIds(Set.of(1L, 2L))
+                    .priceMin(new BigDecimal("5"))
+                    .sort("price_asc")
+                    .fresh(false)
+                    .onlyDeleted(false)
+                    .page(0)
+                    .size(20)
+                    .build();
+
+            // Then
+            assertThat(ProductSearchKey.of(first)).isEqualTo(ProductSearchKey.of(second));
+        }
+
+        @Test
+        @DisplayName("Should distinguish different pages")
+        void shouldDistinguishPages() {
+            // Given
+            ProductSearchRequest first = ProductSearchRequest.builder().q("pomme").page(0).build();
+            ProductSearchRequest second = ProductSearchRequest.builder().q("pomme").page(1).build();
+
+            // Then
+            assertThat(ProductSearchKey.of(first)).isNotEqualTo(ProductSearchKey.of(second));
+        }
+
+        @Test
+        @DisplayName("Should not share a call between exact and approximate totals")
+        void shouldDistinguishApproximateTotals() {
+            // Given
+            ProductSearchRequest exact = ProductSearchRequest.builder().sort("date_desc").build();
+            ProductSearchRequest approximate = ProductSearchRequest.builder().sort("date_desc").approximateTotal(true).build();
+
+            // Then
+            assertThat(ProductSearchKey.of(exact)).isNotEqualTo(ProductSearchKey.of(approximate));
+            assertThat(ProductSearchKey.of(exact))
+                    .isEqualTo(ProductSearchKey.of(ProductSearchRequest.builder().sort("date_desc").approximateTotal(false).build()));
+        }
+
+        @Test
+        @DisplayName("Should share a call between suggestions differing only by case and spacing")
+        void shouldNormalizeSuggestions() {
+            // Then
+            assertThat(ProductSearchKey.ofSuggestion("  Miel  de ", 5)).isEqualTo(ProductSearchKey.ofSuggestion("miel de", 5));
+            assertThat(ProductSearchKey.ofSuggestion("miel", 5)).isNotEqualTo(ProductSearchKey.ofSuggestion("miel", 10));
+        }
+    }
+}
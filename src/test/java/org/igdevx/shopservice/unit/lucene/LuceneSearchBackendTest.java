@@ -0,0 +1,222 @@
+package org.igdevx.shopservice.unit.lucene;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.igdevx.shopservice.UnitTest;
+import org.igdevx.shopservice.dtos.ProductResponse;
+import org.igdevx.shopservice.dtos.ProductSearchRequest;
+import org.igdevx.shopservice.dtos.ProductSearchResponse;
+import org.igdevx.shopservice.dtos.ProductSuggestion;
+import org.igdevx.shopservice.elasticsearch.documents.ProductDocument;
+import org.igdevx.shopservice.elasticsearch.mappers.ProductDocumentResponseMapper;
+import org.igdevx.shopservice.elasticsearch.queries.QueryCostGovernor;
+import org.igdevx.shopservice.lucene.LuceneProductIndex;
+import org.igdevx.shopservice.lucene.LuceneQueryFactory;
+import org.igdevx.shopservice.lucene.LuceneSearchBackend;
+import org.igdevx.shopservice.search.SearchProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the embedded Lucene search backend
+ * Runs against a real index in a temporary directory
+ */
+@UnitTest
+@DisplayName("LuceneSearchBackend Unit Tests")
+class LuceneSearchBackendTest {
+
+    @TempDir
+    Path indexPath;
+
+    private LuceneProductIndex index;
+    private LuceneSearchBackend backend;
+    private QueryCostGovernor costGovernor;
+    private SearchProperties properties;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        properties = new SearchProperties();
+        properties.getLucene().setPath(indexPath.toString());
+        index = new LuceneProductIndex(properties, new ObjectMapper().findAndRegisterModules());
+        backend = new LuceneSearchBackend(index, new LuceneQueryFactory(), new ProductDocumentResponseMapper());
+        costGovernor = new QueryCostGovernor(properties, new SimpleMeterRegistry());
+
+        LocalDateTime now = LocalDateTime.of(2024, 1, 10, 12, 0);
+        index.indexAll(List.of(
+                document(1L, "Pommes Golden", "Pommes croquantes du verger", "3.50", 10L, 1L, true, false, now.minusDays(3)),
+                document(2L, "Tomates cerises", "Petites tomates sucrées", "4.20", 10L, 2L, true, false, now.minusDays(2)),
+                document(3L, "Miel de lavande", "Miel récolté en Provence", "9.90", 20L, 3L, false, false, now.minusDays(1)),
+                document(4L, "Légumes de saison", "Panier de légumes", "15.00", 20L, 2L, true, false, now),
+                document(5L, "Pommes de terre", "Ancienne récolte", "2.00", 10L, 2L, false, true, now)
+        ));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        index.destroy();
+    }
+
+    @Nested
+    @DisplayName("Search")
+    class SearchTests {
+
+        @Test
+        @DisplayName("Should match singular and unaccented forms through the French analyzer")
+        void shouldMatchFrenchVariants() {
+            // When
+            ProductSearchResponse pomme = search(ProductSearchRequest.builder().q("pomme").build());
+            ProductSearchResponse legumes = search(ProductSearchRequest.builder().q("legumes").build());
+
+            // Then
+            assertThat(ids(pomme)).containsExactly(1L);
+            assertThat(ids(legumes)).containsExactly(4L);
+        }
+
+        @Test
+        @DisplayName("Should tolerate typos and match a partial last word")
+        void shouldMatchTyposAndPrefixes() {
+            // When
+            ProductSearchResponse typo = search(ProductSearchRequest.builder().q("tomatos").build());
+            ProductSearchResponse prefix = search(ProductSearchRequest.builder().q("lavan").build());
+
+            // Then
+            assertThat(ids(typo)).containsExactly(2L);
+            assertThat(ids(prefix)).containsExactly(3L);
+        }
+
+        @Test
+        @DisplayName("Should apply filters and exclude deleted products")
+        void shouldApplyFilters() {
+            // Given
+            ProductSearchRequest request = ProductSearchRequest.builder()
+                    .categoryIds(Set.of(2L))
+                    .priceMax(new BigDecimal("10"))
+                    .fresh(true)
+                    .build();
+
+            // When
+            ProductSearchResponse response = search(request);
+
+            // Then
+            assertThat(ids(response)).containsExactly(2L);
+            assertThat(response.getTotalElements()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should sort and paginate")
+        void shouldSortAndPaginate() {
+            // Given
+            ProductSearchRequest request = ProductSearchRequest.builder().sort("price_asc").page(1).size(2).build();
+
+            // When
+            ProductSearchResponse response = search(request);
+
+            // Then
+            assertThat(ids(response)).containsExactly(3L, 4L);
+            assertThat(response.getTotalElements()).isEqualTo(4);
+            assertThat(response.getTotalPages()).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("Should collect no more hits than the index holds when the cost limits are off")
+        void shouldBoundCollectorToIndexSize() {
+            // Given
+            ProductSearchRequest request = ProductSearchRequest.builder().page(3).size(Integer.MAX_VALUE).build();
+            SearchProperties unlimited = new SearchProperties();
+            unlimited.getCost().setEnabled(false);
+
+            // When
+            ProductSearchResponse response = backend.search(
+                    new QueryCostGovernor(unlimited, new SimpleMeterRegistry()).plan(request));
+
+            // Then
+            assertThat(response.getProducts()).isEmpty();
+            assertThat(response.getTotalElements()).isEqualTo(4);
+        }
+    }
+
+    @Nested
+    @DisplayName("Producer listing and suggest")
+    class ProducerAndSuggestTests {
+
+        @Test
+        @DisplayName("Should list a producer's products newest first")
+        void shouldListProducerNewestFirst() {
+            // When
+            ProductSearchResponse response = backend.searchByProducer(20L, null, false, 0, 20);
+
+            // Then
+            assertThat(ids(response)).containsExactly(4L, 3L);
+        }
+
+        @Test
+        @DisplayName("Should suggest titles starting with the typed text")
+        void shouldSuggestByPrefix() {
+            // When
+            List<ProductSuggestion> suggestions = backend.suggest("tom", 5);
+
+            // Then
+            assertThat(suggestions).extracting(ProductSuggestion::getTitle).containsExactly("Tomates cerises");
+        }
+
+        @Test
+        @DisplayName("Should see updates and deletes immediately")
+        void shouldSeeWritesImmediately() {
+            // When
+            index.delete(1L);
+
+            // Then
+            assertThat(search(ProductSearchRequest.builder().q("pomme").build()).getProducts()).isEmpty();
+            assertThat(index.count()).isEqualTo(4);
+        }
+
+        @Test
+        @DisplayName("Should keep the writes committed on shutdown")
+        void shouldCommitOnShutdown() throws Exception {
+            // Given
+            index.delete(1L);
+
+            // When
+            index.destroy();
+            index = new LuceneProductIndex(properties, new ObjectMapper().findAndRegisterModules());
+
+            // Then
+            assertThat(index.count()).isEqualTo(4);
+        }
+    }
+
+    private static List<Long> ids(ProductSearchResponse response) {
+        return response.getProducts().stream().map(ProductResponse::getId).toList();
+    }
+
+    private ProductSearchResponse search(ProductSearchRequest request) {
+        return backend.search(costGovernor.plan(request));
+    }
+
+    private static ProductDocument document(Long id, String title, String description, String price, Long producerId,
+                                            Long categoryId, boolean fresh, boolean deleted, LocalDateTime createdAt) {
+        return ProductDocument.builder()
+                .id(id)
+                .title(title)
+                .description(description)
+                .price(new BigDecimal(price))
+                .producerId(producerId)
+                .categoryId(categoryId)
+                .isFresh(fresh)
+                .isDeleted(deleted)
+                .createdAt(createdAt)
+                .build();
+    }
+}
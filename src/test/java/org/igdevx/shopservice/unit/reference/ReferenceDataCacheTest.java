@@ -0,0 +1,149 @@
+package org.igdevx.shopservice.unit.reference;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.igdevx.shopservice.UnitTest;
+import org.igdevx.shopservice.dtos.CurrencyResponse;
+import org.igdevx.shopservice.dtos.ShelfResponse;
+import org.igdevx.shopservice.events.ReferenceDataChangedEvent;
+import org.igdevx.shopservice.mappers.*;
+import org.igdevx.shopservice.models.Currency;
+import org.igdevx.shopservice.models.Shelf;
+import org.igdevx.shopservice.reference.ReferenceDataCache;
+import org.igdevx.shopservice.reference.ReferenceDataProperties;
+import org.igdevx.shopservice.repositories.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ReferenceDataCache
+ */
+@UnitTest
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ReferenceDataCache Unit Tests")
+class ReferenceDataCacheTest {
+
+    @Mock
+    private CurrencyRepository currencyRepository;
+    @Mock
+    private UnitRepository unitRepository;
+    @Mock
+    private ShelfRepository shelfRepository;
+    @Mock
+    private CategoryRepository categoryRepository;
+    @Mock
+    private ProductCertificationRepository certificationRepository;
+
+    private ReferenceDataProperties properties;
+    private ReferenceDataCache referenceData;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ReferenceDataProperties();
+        referenceData = new ReferenceDataCache(currencyRepository, new CurrencyMapper(), unitRepository, new UnitMapper(),
+                shelfRepository, new ShelfMapper(), categoryRepository, new CategoryMapper(),
+                certificationRepository, new ProductCertificationMapper(), properties, new SimpleMeterRegistry());
+        lenient().when(currencyRepository.findAll()).thenReturn(List.of(currency(1L, "EUR")));
+    }
+
+    @Test
+    @DisplayName("Should serve a loaded reference from memory")
+    void shouldServeLoadedReferenceFromMemory() {
+        // Given
+        referenceData.loadAll();
+
+        // When
+        Optional<CurrencyResponse> first = referenceData.currency(1L);
+        Optional<CurrencyResponse> second = referenceData.currency(1L);
+
+        // Then
+        assertThat(first).map(CurrencyResponse::getCode).contains("EUR");
+        assertThat(second).isEqualTo(first);
+        verify(currencyRepository, times(1)).findAll();
+        verify(currencyRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    @DisplayName("Should look an unknown id up in Postgres")
+    void shouldLookMissesUp() {
+        // Given
+        when(currencyRepository.findById(2L)).thenReturn(Optional.of(currency(2L, "USD")));
+        when(currencyRepository.findById(3L)).thenReturn(Optional.empty());
+
+        // When / Then
+        assertThat(referenceData.currency(2L)).map(CurrencyResponse::getCode).contains("USD");
+        assertThat(referenceData.currency(3L)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should reload a table when one of its entities changed")
+    void shouldReloadChangedTable() {
+        // Given
+        referenceData.loadAll();
+        when(currencyRepository.findAll()).thenReturn(List.of(currency(1L, "EUR"), currency(2L, "USD")));
+
+        // When
+        referenceData.handleReferenceDataChanged(new ReferenceDataChangedEvent(Currency.class));
+
+        // Then
+        assertThat(referenceData.currency(2L)).map(CurrencyResponse::getCode).contains("USD");
+        verify(currencyRepository, never()).findById(anyLong());
+        verify(unitRepository, times(1)).findAll();
+    }
+
+    @Test
+    @DisplayName("Should cache shelves one by one, from their first use until they change")
+    void shouldCacheShelvesById() {
+        // Given
+        referenceData.loadAll();
+        when(shelfRepository.findById(5L))
+                .thenReturn(Optional.of(shelf(5L, "Miels")), Optional.of(shelf(5L, "Confitures")));
+
+        // When
+        Optional<ShelfResponse> first = referenceData.shelf(5L);
+        Optional<ShelfResponse> cached = referenceData.shelf(5L);
+        referenceData.handleReferenceDataChanged(new ReferenceDataChangedEvent(Shelf.class, 5L));
+        Optional<ShelfResponse> changed = referenceData.shelf(5L);
+
+        // Then
+        assertThat(first).map(ShelfResponse::getLabel).contains("Miels");
+        assertThat(cached).isEqualTo(first);
+        assertThat(changed).map(ShelfResponse::getLabel).contains("Confitures");
+        verify(shelfRepository, times(2)).findById(5L);
+        verify(shelfRepository, never()).findAll();
+    }
+
+    @Test
+    @DisplayName("Should always read Postgres when the cache is disabled")
+    void shouldReadPostgresWhenDisabled() {
+        // Given
+        properties.getCache().setEnabled(false);
+        when(currencyRepository.findById(1L)).thenReturn(Optional.of(currency(1L, "EUR")));
+
+        // When
+        referenceData.loadAll();
+        referenceData.currency(1L);
+
+        // Then
+        verify(currencyRepository, never()).findAll();
+        verify(currencyRepository).findById(1L);
+    }
+
+    private static Currency currency(Long id, String code) {
+        return Currency.builder().id(id).code(code).label(code).build();
+    }
+
+    private static Shelf shelf(Long id, String label) {
+        return Shelf.builder().id(id).label(label).producerId(1L).build();
+    }
+}
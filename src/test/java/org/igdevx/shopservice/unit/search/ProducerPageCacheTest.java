@@ -0,0 +1,181 @@
+package org.igdevx.shopservice.unit.search;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.igdevx.shopservice.UnitTest;
+import org.igdevx.shopservice.dtos.ProductResponse;
+import org.igdevx.shopservice.dtos.ProductSearchResponse;
+import org.igdevx.shopservice.elasticsearch.queries.ProductSearchKey;
+import org.igdevx.shopservice.search.ProducerPageCache;
+import org.igdevx.shopservice.search.SearchProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for ProducerPageCache
+ */
+@UnitTest
+@DisplayName("ProducerPageCache Unit Tests")
+class ProducerPageCacheTest {
+
+    private static final ProductSearchKey PRODUCER_10_PAGE_0 = ProductSearchKey.ofProducer(10L, null, false, 0, 20);
+    private static final ProductSearchKey PRODUCER_20_PAGE_0 = ProductSearchKey.ofProducer(20L, null, false, 0, 20);
+
+    private SearchProperties searchProperties;
+    private ProducerPageCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        searchProperties = new SearchProperties();
+        cache = new ProducerPageCache(searchProperties, new ObjectMapper().findAndRegisterModules(), new SimpleMeterRegistry());
+        loads = new AtomicInteger();
+    }
+
+    @Nested
+    @DisplayName("Caching")
+    class CachingTests {
+
+        @Test
+        @DisplayName("Should load a page once and serve it from the cache afterwards")
+        void shouldServeRepeatedRequestsFromCache() {
+            // When
+            ProducerPageCache.ProducerPage first = cache.get(PRODUCER_10_PAGE_0, loader("Pommes"));
+            ProducerPageCache.ProducerPage second = cache.get(PRODUCER_10_PAGE_0, loader("Pommes"));
+
+            // Then
+            assertThat(loads).hasValue(1);
+            assertThat(second).isSameAs(first);
+            assertThat(first.etag()).matches("\"[0-9a-f]{32}\"");
+        }
+
+        @Test
+        @DisplayName("Should give different ETags to different contents and the same ETag to the same content")
+        void shouldDeriveEtagFromContent() {
+            // When
+            String pommes = cache.get(PRODUCER_10_PAGE_0, loader("Pommes")).etag();
+            String poires = cache.get(PRODUCER_20_PAGE_0, loader("Poires")).etag();
+            cache.invalidate(Set.of(10L));
+            String pommesAgain = cache.get(PRODUCER_10_PAGE_0, loader("Pommes")).etag();
+
+            // Then
+            assertThat(pommes).isNotEqualTo(poires);
+            assertThat(pommesAgain).isEqualTo(pommes);
+        }
+
+        @Test
+        @DisplayName("Should neither cache nor tag a degraded response")
+        void shouldNotCacheDegradedResponse() {
+            // Given
+            Supplier<ProductSearchResponse> degraded = () -> {
+                loads.incrementAndGet();
+                return ProductSearchResponse.builder().products(List.of()).degraded(true).build();
+            };
+
+            // When
+            ProducerPageCache.ProducerPage page = cache.get(PRODUCER_10_PAGE_0, degraded);
+            cache.get(PRODUCER_10_PAGE_0, degraded);
+
+            // Then
+            assertThat(page.etag()).isNull();
+            assertThat(loads).hasValue(2);
+        }
+
+        @Test
+        @DisplayName("Should tag an uncached page from its content without storing it")
+        void shouldTagUncachedPage() {
+            // When
+            ProducerPageCache.ProducerPage uncached = cache.uncached(loader("Pommes").get());
+
+            // Then
+            assertThat(cache.size()).isZero();
+            assertThat(uncached.etag()).isEqualTo(cache.get(PRODUCER_10_PAGE_0, loader("Pommes")).etag());
+        }
+
+        @Test
+        @DisplayName("Should always load when the cache is disabled")
+        void shouldBypassWhenDisabled() {
+            // Given
+            searchProperties.getProducerCache().setEnabled(false);
+
+            // When
+            cache.get(PRODUCER_10_PAGE_0, loader("Pommes"));
+            cache.get(PRODUCER_10_PAGE_0, loader("Pommes"));
+
+            // Then
+            assertThat(loads).hasValue(2);
+            assertThat(cache.size()).isZero();
+        }
+    }
+
+    @Nested
+    @DisplayName("Invalidation")
+    class InvalidationTests {
+
+        @Test
+        @DisplayName("Should only drop the pages of the invalidated producer")
+        void shouldInvalidateOneProducer() {
+            // Given
+            cache.get(PRODUCER_10_PAGE_0, loader("Pommes"));
+            cache.get(ProductSearchKey.ofProducer(10L, 3L, false, 1, 20), loader("Pommes"));
+            cache.get(PRODUCER_20_PAGE_0, loader("Poires"));
+
+            // When
+            cache.invalidate(Set.of(10L));
+
+            // Then
+            assertThat(cache.size()).isEqualTo(1);
+            cache.get(PRODUCER_20_PAGE_0, loader("Poires"));
+            assertThat(loads).hasValue(3);
+        }
+
+        @Test
+        @DisplayName("Should not store a page whose producer was invalidated while it was loading")
+        void shouldNotCachePageLoadedDuringInvalidation() {
+            // When
+            cache.get(PRODUCER_10_PAGE_0, () -> {
+                cache.invalidate(Set.of(10L));
+                return loader("Pommes").get();
+            });
+            cache.get(PRODUCER_10_PAGE_0, loader("Pommes v2"));
+
+            // Then
+            assertThat(loads).hasValue(2);
+        }
+
+        @Test
+        @DisplayName("Should drop every page on clear")
+        void shouldClearEverything() {
+            // Given
+            cache.get(PRODUCER_10_PAGE_0, loader("Pommes"));
+            cache.get(PRODUCER_20_PAGE_0, loader("Poires"));
+
+            // When
+            cache.clear();
+
+            // Then
+            assertThat(cache.size()).isZero();
+        }
+    }
+
+    private Supplier<ProductSearchResponse> loader(String title) {
+        return () -> {
+            loads.incrementAndGet();
+            return ProductSearchResponse.builder()
+                    .products(List.of(ProductResponse.builder().id(1L).title(title).build()))
+                    .totalElements(1)
+                    .totalPages(1)
+                    .pageSize(20)
+                    .build();
+        };
+    }
+}
@@ -0,0 +1,81 @@
+package org.igdevx.shopservice.unit.search;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.igdevx.shopservice.UnitTest;
+import org.igdevx.shopservice.search.SearchProfiler;
+import org.igdevx.shopservice.search.SearchProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for SearchProfiler
+ */
+@UnitTest
+@DisplayName("SearchProfiler Unit Tests")
+class SearchProfilerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private SearchProfiler profiler;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        profiler = new SearchProfiler(meterRegistry, new SearchProperties());
+    }
+
+    @Test
+    @DisplayName("Should record phases tagged with the operation of the current trace")
+    void shouldRecordPhasesPerOperation() {
+        // Given
+        profiler.start("searchProducts");
+
+        // When
+        String result = profiler.time(SearchProfiler.QUERY_BUILD, () -> "query");
+        profiler.record(SearchProfiler.ES_TOOK, Duration.ofMillis(12));
+        profiler.finish();
+
+        // Then
+        assertThat(result).isEqualTo("query");
+        Timer took = meterRegistry.get("product.search.phase")
+                .tag("operation", "searchProducts")
+                .tag("phase", SearchProfiler.ES_TOOK)
+                .timer();
+        assertThat(took.totalTime(TimeUnit.MILLISECONDS)).isEqualTo(12);
+        assertThat(meterRegistry.get("product.search.phase").tag("phase", SearchProfiler.QUERY_BUILD).timer().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("product.search.request").tag("operation", "searchProducts").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should close the trace on finish")
+    void shouldCloseTraceOnFinish() {
+        // Given
+        profiler.start("getSuggestions");
+
+        // When
+        profiler.finish();
+
+        // Then
+        assertThat(profiler.isActive()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should still record phases outside of a traced request")
+    void shouldRecordWithoutTrace() {
+        // When
+        profiler.record(SearchProfiler.ROUND_TRIP, Duration.ofMillis(3));
+        profiler.finish();
+
+        // Then
+        assertThat(meterRegistry.get("product.search.phase").tag("operation", "unknown").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.find("product.search.request").timer()).isNull();
+    }
+}
@@ -3,6 +3,7 @@ package org.igdevx.shopservice.unit.services;
 import org.igdevx.shopservice.UnitTest;
 import org.igdevx.shopservice.dtos.CurrencyRequest;
 import org.igdevx.shopservice.dtos.CurrencyResponse;
+import org.igdevx.shopservice.events.ReferenceDataChangedEvent;
 import org.igdevx.shopservice.exceptions.DuplicateResourceException;
 import org.igdevx.shopservice.exceptions.ResourceNotFoundException;
 import org.igdevx.shopservice.mappers.CurrencyMapper;
@@ -16,6 +17,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
@@ -37,6 +39,9 @@ class CurrencyServiceTest {
     @Mock
     private CurrencyMapper currencyMapper;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private CurrencyService currencyService;
 
@@ -160,6 +165,7 @@ class CurrencyServiceTest {
         assertThat(result.getCode()).isEqualTo("USD");
         verify(currencyRepository, times(1)).existsByCode("USD");
         verify(currencyRepository, times(1)).save(currency);
+        verify(eventPublisher).publishEvent(new ReferenceDataChangedEvent(Currency.class));
     }
 
     @Test
@@ -0,0 +1,137 @@
+package org.igdevx.shopservice.unit.services;
+
+import org.igdevx.shopservice.UnitTest;
+import org.igdevx.shopservice.archive.ProductArchiveProperties;
+import org.igdevx.shopservice.dtos.CurrencyResponse;
+import org.igdevx.shopservice.dtos.ProductCertificationResponse;
+import org.igdevx.shopservice.dtos.ProductResponse;
+import org.igdevx.shopservice.events.ProductArchiveEvent;
+import org.igdevx.shopservice.reference.ReferenceDataCache;
+import org.igdevx.shopservice.repositories.ProductArchiveRepository;
+import org.igdevx.shopservice.repositories.ProductArchiveRepository.ArchivedProduct;
+import org.igdevx.shopservice.repositories.ProductBulkRepository.Changed;
+import org.igdevx.shopservice.services.ProductArchiveService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ProductArchiveService
+ */
+@UnitTest
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Product Archive Service Tests")
+class ProductArchiveServiceTest {
+
+    @Mock
+    private ProductArchiveRepository archiveRepository;
+    @Mock
+    private ReferenceDataCache referenceData;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private ProductArchiveProperties properties;
+    private ProductArchiveService archiveService;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ProductArchiveProperties();
+        properties.setBatchSize(2);
+        properties.setGracePeriod(Duration.ofDays(7));
+        archiveService = new ProductArchiveService(archiveRepository, properties, referenceData, eventPublisher, transactionTemplate);
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> ((TransactionCallback<?>) invocation.getArgument(0)).doInTransaction(null));
+    }
+
+    @Test
+    @DisplayName("Should archive in batches until a batch comes back short, with one event per batch")
+    void archiveDeleted_ShouldLoopOverBatches() {
+        // Given
+        when(archiveRepository.archiveDeletedBefore(Duration.ofDays(7), 2))
+                .thenReturn(List.of(new Changed(1L, 10L), new Changed(2L, 11L)))
+                .thenReturn(List.of(new Changed(3L, 10L)));
+
+        // When
+        int archived = archiveService.archiveDeleted();
+
+        // Then
+        assertThat(archived).isEqualTo(3);
+        verify(transactionTemplate, times(2)).execute(any());
+        verify(eventPublisher).publishEvent(new ProductArchiveEvent(List.of(1L, 2L), Set.of(10L, 11L)));
+        verify(eventPublisher).publishEvent(new ProductArchiveEvent(List.of(3L), Set.of(10L)));
+    }
+
+    @Test
+    @DisplayName("Should publish nothing when no product is due")
+    void archiveDeleted_WhenNothingDue_ShouldPublishNothing() {
+        // Given
+        when(archiveRepository.archiveDeletedBefore(any(), anyInt())).thenReturn(List.of());
+
+        // When
+        int archived = archiveService.archiveDeleted();
+
+        // Then
+        assertThat(archived).isZero();
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    @DisplayName("Should not run on schedule while archiving is disabled")
+    void archiveOnSchedule_WhenDisabled_ShouldDoNothing() {
+        // When
+        archiveService.archiveOnSchedule();
+
+        // Then
+        verifyNoInteractions(archiveRepository, transactionTemplate);
+    }
+
+    @Test
+    @DisplayName("Should map archived products to deleted responses, leaving out references that no longer exist")
+    void responses_ShouldMapArchivedProducts() {
+        // Given
+        LocalDateTime createdAt = LocalDateTime.of(2026, 1, 5, 10, 0);
+        ArchivedProduct archived = new ArchivedProduct(5L, "Old Jam", null, new BigDecimal("3.50"),
+                1L, 2L, 3L, null, List.of(8L, 9L), null, null, false, 10L, createdAt, createdAt);
+        CurrencyResponse euro = CurrencyResponse.builder().id(1L).code("EUR").build();
+        ProductCertificationResponse organic = ProductCertificationResponse.builder().id(8L).label("Bio").build();
+        when(archiveRepository.findAllByIdIn(List.of(5L))).thenReturn(List.of(archived));
+        when(referenceData.currency(1L)).thenReturn(Optional.of(euro));
+        when(referenceData.unit(anyLong())).thenReturn(Optional.empty());
+        when(referenceData.shelf(anyLong())).thenReturn(Optional.empty());
+        when(referenceData.certification(8L)).thenReturn(Optional.of(organic));
+        when(referenceData.certification(9L)).thenReturn(Optional.empty());
+
+        // When
+        List<ProductResponse> responses = archiveService.responses(List.of(5L));
+
+        // Then
+        assertThat(responses).singleElement().satisfies(response -> {
+            assertThat(response.getTitle()).isEqualTo("Old Jam");
+            assertThat(response.getIsDeleted()).isTrue();
+            assertThat(response.getCurrency()).isEqualTo(euro);
+            assertThat(response.getCategory()).isNull();
+            assertThat(response.getCertifications()).containsExactly(organic);
+        });
+        verify(referenceData, never()).category(any());
+    }
+}
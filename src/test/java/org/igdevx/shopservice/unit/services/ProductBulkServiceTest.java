@@ -0,0 +1,149 @@
+package org.igdevx.shopservice.unit.services;
+
+import org.igdevx.shopservice.UnitTest;
+import org.igdevx.shopservice.dtos.ProductBulkFilter;
+import org.igdevx.shopservice.dtos.ProductBulkMoveRequest;
+import org.igdevx.shopservice.dtos.ProductBulkPriceRequest;
+import org.igdevx.shopservice.dtos.ProductBulkResponse;
+import org.igdevx.shopservice.events.ProductBulkIndexEvent;
+import org.igdevx.shopservice.exceptions.InvalidBulkRequestException;
+import org.igdevx.shopservice.exceptions.ResourceNotFoundException;
+import org.igdevx.shopservice.models.Shelf;
+import org.igdevx.shopservice.repositories.ProductBulkRepository;
+import org.igdevx.shopservice.repositories.ProductBulkRepository.Changed;
+import org.igdevx.shopservice.repositories.ShelfRepository;
+import org.igdevx.shopservice.services.ProductBulkService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@UnitTest
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Product Bulk Service Tests")
+class ProductBulkServiceTest {
+
+    @Mock
+    private ProductBulkRepository productBulkRepository;
+
+    @Mock
+    private ShelfRepository shelfRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private ProductBulkService productBulkService;
+
+    @Test
+    @DisplayName("Should change prices by percent and reindex the changed products once")
+    void changePrice_ShouldPublishOneBulkEvent() {
+        // Given
+        ProductBulkFilter filter = ProductBulkFilter.builder().producerId(7L).build();
+        when(productBulkRepository.changePrice(filter, new BigDecimal("-15")))
+                .thenReturn(List.of(new Changed(1L, 7L), new Changed(2L, 7L)));
+
+        // When
+        ProductBulkResponse response = productBulkService.changePrice(ProductBulkPriceRequest.builder()
+                .filter(filter)
+                .percent(new BigDecimal("-15"))
+                .build());
+
+        // Then
+        assertThat(response.getUpdated()).isEqualTo(2);
+        ArgumentCaptor<ProductBulkIndexEvent> event = ArgumentCaptor.forClass(ProductBulkIndexEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertThat(event.getValue().productIds()).containsExactly(1L, 2L);
+        assertThat(event.getValue().producerIds()).containsExactly(7L);
+    }
+
+    @Test
+    @DisplayName("Should reject a price change with both a price and a percent")
+    void changePrice_ShouldRequireExactlyOneChange() {
+        // Given
+        ProductBulkPriceRequest request = ProductBulkPriceRequest.builder()
+                .filter(ProductBulkFilter.builder().ids(Set.of(1L)).build())
+                .price(new BigDecimal("2.00"))
+                .percent(BigDecimal.TEN)
+                .build();
+
+        // When / Then
+        assertThatThrownBy(() -> productBulkService.changePrice(request))
+                .isInstanceOf(InvalidBulkRequestException.class);
+        verifyNoInteractions(productBulkRepository, eventPublisher);
+    }
+
+    @Test
+    @DisplayName("Should refuse to change every product when the filter is empty")
+    void softDelete_ShouldRejectEmptyFilter() {
+        // When / Then
+        assertThatThrownBy(() -> productBulkService.softDelete(ProductBulkFilter.builder().ids(Set.of()).build()))
+                .isInstanceOf(InvalidBulkRequestException.class)
+                .hasMessageContaining("At least one of");
+        verifyNoInteractions(productBulkRepository);
+    }
+
+    @Test
+    @DisplayName("Should not publish an index event when nothing was restored")
+    void restore_ShouldSkipReindexWhenNothingChanged() {
+        // Given
+        ProductBulkFilter filter = ProductBulkFilter.builder().shelfId(3L).build();
+        when(productBulkRepository.restore(filter)).thenReturn(List.of());
+
+        // When
+        ProductBulkResponse response = productBulkService.restore(filter);
+
+        // Then
+        assertThat(response.getUpdated()).isZero();
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    @DisplayName("Should move products onto a shelf of their producer only")
+    void moveToShelf_ShouldRestrictToShelfProducer() {
+        // Given
+        Shelf shelf = Shelf.builder().id(4L).label("Winter").producerId(7L).build();
+        ProductBulkFilter filter = ProductBulkFilter.builder().categoryId(2L).build();
+        when(shelfRepository.findById(4L)).thenReturn(Optional.of(shelf));
+        when(productBulkRepository.moveToShelf(filter, 4L, 7L)).thenReturn(List.of(new Changed(5L, 7L)));
+
+        // When
+        ProductBulkResponse response = productBulkService.moveToShelf(ProductBulkMoveRequest.builder()
+                .filter(filter)
+                .shelfId(4L)
+                .build());
+
+        // Then
+        assertThat(response.getUpdated()).isEqualTo(1);
+        verify(productBulkRepository).moveToShelf(filter, 4L, 7L);
+    }
+
+    @Test
+    @DisplayName("Should reject a move onto a shelf of another producer or a missing shelf")
+    void moveToShelf_ShouldCheckShelf() {
+        // Given
+        when(shelfRepository.findById(4L)).thenReturn(Optional.of(Shelf.builder().id(4L).producerId(8L).build()));
+        when(shelfRepository.findById(9L)).thenReturn(Optional.empty());
+        ProductBulkFilter filter = ProductBulkFilter.builder().producerId(7L).build();
+
+        // When / Then
+        assertThatThrownBy(() -> productBulkService.moveToShelf(new ProductBulkMoveRequest(filter, 4L)))
+                .isInstanceOf(InvalidBulkRequestException.class);
+        assertThatThrownBy(() -> productBulkService.moveToShelf(new ProductBulkMoveRequest(filter, 9L)))
+                .isInstanceOf(ResourceNotFoundException.class);
+        verifyNoInteractions(productBulkRepository);
+    }
+}
@@ -0,0 +1,189 @@
+package org.igdevx.shopservice.unit.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import org.igdevx.shopservice.UnitTest;
+import org.igdevx.shopservice.dtos.ProductImportResponse;
+import org.igdevx.shopservice.elasticsearch.services.ProductIndexService;
+import org.igdevx.shopservice.models.*;
+import org.igdevx.shopservice.repositories.*;
+import org.igdevx.shopservice.services.ProductImportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ProductImportService
+ */
+@UnitTest
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Product Import Service Tests")
+class ProductImportServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+    @Mock
+    private CurrencyRepository currencyRepository;
+    @Mock
+    private UnitRepository unitRepository;
+    @Mock
+    private ShelfRepository shelfRepository;
+    @Mock
+    private CategoryRepository categoryRepository;
+    @Mock
+    private ProductCertificationRepository certificationRepository;
+    @Mock
+    private ProductIndexService productIndexService;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Mock
+    private EntityManager entityManager;
+
+    private ProductImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        importService = new ProductImportService(productRepository, currencyRepository, unitRepository,
+                shelfRepository, categoryRepository, certificationRepository, productIndexService,
+                Validation.buildDefaultValidatorFactory().getValidator(), new ObjectMapper().findAndRegisterModules(),
+                transactionTemplate, entityManager);
+
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> ((TransactionCallback<?>) invocation.getArgument(0)).doInTransaction(null));
+        lenient().when(currencyRepository.findAllByIdIn(anyCollection()))
+                .thenReturn(List.of(Currency.builder().id(1L).code("EUR").build()));
+        lenient().when(unitRepository.findAllByIdIn(anyCollection()))
+                .thenReturn(List.of(Unit.builder().id(1L).code("KG").build()));
+        lenient().when(shelfRepository.findAllByIdIn(anyCollection()))
+                .thenReturn(List.of(Shelf.builder().id(1L).label("Fruits").producerId(7L).build()));
+        lenient().when(categoryRepository.findAllByIdIn(anyCollection()))
+                .thenReturn(List.of(Category.builder().id(1L).name("Fruits").slug("fruits").build()));
+        lenient().when(certificationRepository.findAllByIdIn(anyCollection()))
+                .thenReturn(List.of(ProductCertification.builder().id(1L).label("Bio").build(),
+                        ProductCertification.builder().id(2L).label("AOP").build()));
+    }
+
+    @Test
+    @DisplayName("Should import the valid NDJSON rows and report the others by line")
+    void importNdjson_ShouldReportRejectedRows() throws Exception {
+        // Given
+        String ndjson = """
+                {"title":"Apples","price":2.5,"currencyId":1,"unitId":1,"shelfId":1,"categoryId":1,"producerId":7,"certificationIds":[1]}
+
+                {"title":"Pears","price":3,"currencyId":9,"unitId":1,"shelfId":1,"categoryId":1,"producerId":7}
+                {"title":
+                {"title":"X","price":3,"currencyId":1,"unitId":1,"shelfId":1,"categoryId":1,"producerId":7}
+                """;
+
+        // When
+        ProductImportResponse report = importService.importNdjson(stream(ndjson));
+
+        // Then
+        assertThat(report.getReceived()).isEqualTo(4);
+        assertThat(report.getImported()).isEqualTo(1);
+        assertThat(report.getFailed()).isEqualTo(3);
+        assertThat(report.getErrors()).extracting(ProductImportResponse.RowError::getLine)
+                .containsExactlyInAnyOrder(3L, 4L, 5L);
+        assertThat(report.getErrors()).anyMatch(error -> error.getLine() == 3
+                && error.getMessage().equals("Currency not found with id: 9"));
+        assertThat(report.getErrors()).anyMatch(error -> error.getLine() == 5
+                && error.getMessage().contains("Title must be between 3 and 200 characters"));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Product>> saved = ArgumentCaptor.forClass(List.class);
+        verify(productRepository).saveAll(saved.capture());
+        assertThat(saved.getValue()).singleElement().satisfies(product -> {
+            assertThat(product.getTitle()).isEqualTo("Apples");
+            assertThat(product.getIsFresh()).isFalse();
+            assertThat(product.getCertifications()).extracting(ProductCertification::getId).containsExactly(1L);
+        });
+        verify(entityManager).flush();
+        verify(entityManager).clear();
+        verify(productIndexService).indexProducts(saved.getValue());
+    }
+
+    @Test
+    @DisplayName("Should read quoted CSV fields and ';' separated certifications")
+    void importCsv_ShouldParseQuotedFields() throws Exception {
+        // Given
+        String csv = """
+                title,description,price,currencyId,unitId,shelfId,categoryId,producerId,certificationIds
+                "Apples, red","Sweet ""Gala"" apples",2.50,1,1,1,1,7,1;2
+                """;
+
+        // When
+        ProductImportResponse report = importService.importCsv(stream(csv));
+
+        // Then
+        assertThat(report.getImported()).isEqualTo(1);
+        assertThat(report.getFailed()).isZero();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Product>> saved = ArgumentCaptor.forClass(List.class);
+        verify(productRepository).saveAll(saved.capture());
+        Product product = saved.getValue().get(0);
+        assertThat(product.getTitle()).isEqualTo("Apples, red");
+        assertThat(product.getDescription()).isEqualTo("Sweet \"Gala\" apples");
+        assertThat(product.getPrice()).isEqualByComparingTo(new BigDecimal("2.50"));
+        assertThat(product.getCertifications()).extracting(ProductCertification::getId).containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    @Test
+    @DisplayName("Should reject a CSV whose header names an unknown column")
+    void importCsv_ShouldRejectUnknownColumns() throws Exception {
+        // Given
+        String csv = """
+                title,colour
+                Apples,red
+                """;
+
+        // When
+        ProductImportResponse report = importService.importCsv(stream(csv));
+
+        // Then
+        assertThat(report.getImported()).isZero();
+        assertThat(report.getErrors()).singleElement()
+                .satisfies(error -> assertThat(error.getLine()).isEqualTo(1L));
+        verifyNoInteractions(productRepository, productIndexService);
+    }
+
+    @Test
+    @DisplayName("Should keep the products imported when indexing fails")
+    void importNdjson_ShouldCountProductsNotIndexed() throws Exception {
+        // Given
+        doThrow(new IllegalStateException("cluster down")).when(productIndexService).indexProducts(any());
+        String ndjson = """
+                {"title":"Apples","price":2.5,"currencyId":1,"unitId":1,"shelfId":1,"categoryId":1,"producerId":7}
+                """;
+
+        // When
+        ProductImportResponse report = importService.importNdjson(stream(ndjson));
+
+        // Then
+        assertThat(report.getImported()).isEqualTo(1);
+        assertThat(report.getNotIndexed()).isEqualTo(1);
+        assertThat(report.getFailed()).isZero();
+    }
+
+    private static InputStream stream(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
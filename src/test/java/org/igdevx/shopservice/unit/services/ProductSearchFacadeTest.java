@@ -0,0 +1,235 @@
+package org.igdevx.shopservice.unit.services;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.igdevx.shopservice.UnitTest;
+import org.igdevx.shopservice.archive.ProductArchiveProperties;
+import org.igdevx.shopservice.catalog.ProductCatalogEngine;
+import org.igdevx.shopservice.dtos.ProductSearchRequest;
+import org.igdevx.shopservice.dtos.ProductSearchResponse;
+import org.igdevx.shopservice.dtos.ProductSuggestion;
+import org.igdevx.shopservice.elasticsearch.queries.QueryCostGovernor;
+import org.igdevx.shopservice.exceptions.SearchCostExceededException;
+import org.igdevx.shopservice.search.SearchBackend;
+import org.igdevx.shopservice.search.SearchBackendType;
+import org.igdevx.shopservice.search.SearchProperties;
+import org.igdevx.shopservice.services.ProductDatabaseSearchService;
+import org.igdevx.shopservice.services.ProductSearchFacade;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@UnitTest
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Product Search Facade Tests")
+class ProductSearchFacadeTest {
+
+    @Mock
+    private SearchBackend elasticsearchBackend;
+
+    @Mock
+    private SearchBackend postgresBackend;
+
+    @Mock
+    private ProductDatabaseSearchService databaseSearchService;
+
+    @Mock
+    private ProductCatalogEngine productCatalog;
+
+    private final ProductArchiveProperties archiveProperties = new ProductArchiveProperties();
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+    private ProductSearchFacade facade;
+    private ProductSearchRequest request;
+
+    @BeforeEach
+    void setUp() {
+        circuitBreakerRegistry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .slidingWindowSize(2)
+                .minimumNumberOfCalls(2)
+                .failureRateThreshold(50)
+                .build());
+        lenient().when(elasticsearchBackend.type()).thenReturn(SearchBackendType.ELASTICSEARCH);
+        lenient().when(postgresBackend.type()).thenReturn(SearchBackendType.POSTGRES);
+        facade = facadeFor(SearchBackendType.ELASTICSEARCH);
+        request = ProductSearchRequest.builder().q("pomme").build();
+    }
+
+    @Test
+    @DisplayName("Should serve search from Elasticsearch when it is healthy")
+    void searchProducts_WhenElasticsearchHealthy_ShouldUseElasticsearch() {
+        ProductSearchResponse expected = ProductSearchResponse.builder().totalElements(1).build();
+        when(elasticsearchBackend.search(argThat(plan -> plan.request() == request))).thenReturn(expected);
+
+        ProductSearchResponse result = facade.searchProducts(request);
+
+        assertThat(result).isSameAs(expected);
+        verifyNoInteractions(databaseSearchService);
+    }
+
+    @Test
+    @DisplayName("Should fall back to Postgres when Elasticsearch fails")
+    void searchProducts_WhenElasticsearchFails_ShouldUseDatabase() {
+        ProductSearchResponse degraded = ProductSearchResponse.builder().degraded(true).build();
+        when(elasticsearchBackend.search(any())).thenThrow(new IllegalStateException("cluster down"));
+        when(databaseSearchService.searchProducts(request)).thenReturn(degraded);
+
+        ProductSearchResponse result = facade.searchProducts(request);
+
+        assertThat(result.isDegraded()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should skip Elasticsearch entirely once the circuit is open")
+    void getSuggestions_WhenCircuitOpen_ShouldNotCallElasticsearch() {
+        List<ProductSuggestion> fallback = List.of(ProductSuggestion.builder().id(1L).title("Pommes").build());
+        when(databaseSearchService.getSuggestions("pom", 5)).thenReturn(fallback);
+        circuitBreakerRegistry.circuitBreaker(ProductSearchFacade.CIRCUIT_BREAKER_NAME).transitionToOpenState();
+
+        List<ProductSuggestion> result = facade.getSuggestions("pom", 5);
+
+        assertThat(result).isEqualTo(fallback);
+        verify(elasticsearchBackend, never()).suggest(any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Should reject a request beyond the result window before Elasticsearch or Postgres")
+    void searchProducts_WhenRequestTooDeep_ShouldCallNeitherBackendNorDatabase() {
+        ProductSearchRequest deep = request.toBuilder().page(1000).size(20).build();
+
+        assertThatThrownBy(() -> facade.searchProducts(deep)).isInstanceOf(SearchCostExceededException.class);
+
+        verify(elasticsearchBackend, never()).search(any());
+        verifyNoInteractions(databaseSearchService);
+    }
+
+    @Test
+    @DisplayName("Should run the Postgres fallback with the planned size")
+    void searchProducts_WhenElasticsearchFails_ShouldCapSizeOnDatabase() {
+        ProductSearchRequest oversized = request.toBuilder().size(5000).build();
+        when(elasticsearchBackend.search(any())).thenThrow(new IllegalStateException("cluster down"));
+        when(databaseSearchService.searchProducts(any())).thenReturn(ProductSearchResponse.builder().degraded(true).build());
+
+        ProductSearchResponse result = facade.searchProducts(oversized);
+
+        verify(databaseSearchService).searchProducts(argThat(capped -> capped.getSize() == 100));
+        assertThat(result.getDowngrades()).containsExactly(QueryCostGovernor.SIZE_CAPPED);
+    }
+
+    @Test
+    @DisplayName("Should list producer pages from the Postgres backend with the planned size")
+    void searchProductsByProducer_WhenPostgresBackendSelected_ShouldCapSize() {
+        facade = facadeFor(SearchBackendType.POSTGRES);
+        when(postgresBackend.searchByProducer(1L, null, false, 0, 100)).thenReturn(ProductSearchResponse.builder().build());
+
+        ProductSearchResponse result = facade.searchProductsByProducer(1L, null, false, 0, 5000);
+
+        verify(postgresBackend).searchByProducer(1L, null, false, 0, 100);
+        assertThat(result.getDowngrades()).containsExactly(QueryCostGovernor.SIZE_CAPPED);
+    }
+
+    @Test
+    @DisplayName("Should open the circuit after repeated failures")
+    void searchProductsByProducer_WhenFailuresExceedThreshold_ShouldOpenCircuit() {
+        when(elasticsearchBackend.searchByProducer(1L, null, false, 0, 20))
+                .thenThrow(new IllegalStateException("timeout"));
+        when(databaseSearchService.searchProductsByProducer(1L, null, false, 0, 20))
+                .thenReturn(ProductSearchResponse.builder().degraded(true).build());
+
+        facade.searchProductsByProducer(1L, null, false, 0, 20);
+        facade.searchProductsByProducer(1L, null, false, 0, 20);
+        facade.searchProductsByProducer(1L, null, false, 0, 20);
+
+        assertThat(circuitBreakerRegistry.circuitBreaker(ProductSearchFacade.CIRCUIT_BREAKER_NAME).getState())
+                .isEqualTo(CircuitBreaker.State.OPEN);
+        verify(elasticsearchBackend, times(2)).searchByProducer(1L, null, false, 0, 20);
+        verify(databaseSearchService, times(3)).searchProductsByProducer(1L, null, false, 0, 20);
+    }
+
+    @Test
+    @DisplayName("Should serve search from the Postgres backend when it is selected")
+    void searchProducts_WhenPostgresBackendSelected_ShouldNotUseElasticsearch() {
+        facade = facadeFor(SearchBackendType.POSTGRES);
+        ProductSearchResponse expected = ProductSearchResponse.builder().totalElements(3).build();
+        when(postgresBackend.search(any())).thenReturn(expected);
+
+        ProductSearchResponse result = facade.searchProducts(request);
+
+        assertThat(result).isSameAs(expected);
+        verify(elasticsearchBackend, never()).search(any());
+        verifyNoInteractions(databaseSearchService);
+    }
+
+    @Test
+    @DisplayName("Should answer producer listings from the catalog once it is loaded")
+    void searchProductsByProducer_WhenCatalogReady_ShouldNotCallBackend() {
+        ProductSearchResponse expected = ProductSearchResponse.builder().totalElements(2).build();
+        when(productCatalog.isReady()).thenReturn(true);
+        when(productCatalog.producerListing(1L, null, false, 0, 20)).thenReturn(expected);
+
+        ProductSearchResponse result = facade.searchProductsByProducer(1L, null, false, 0, 20);
+
+        assertThat(result).isSameAs(expected);
+        assertThat(facade.servesProducerListingsFromCatalog(false)).isTrue();
+        verify(elasticsearchBackend, never()).searchByProducer(any(), any(), any(), anyInt(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Should list deleted products through the backend once they may be archived")
+    void searchProductsByProducer_WhenOnlyDeletedAndArchiveEnabled_ShouldSkipCatalog() {
+        ProductSearchResponse expected = ProductSearchResponse.builder().totalElements(3).build();
+        archiveProperties.setEnabled(true);
+        when(productCatalog.isReady()).thenReturn(true);
+        when(elasticsearchBackend.searchByProducer(1L, null, true, 0, 20)).thenReturn(expected);
+
+        ProductSearchResponse result = facade.searchProductsByProducer(1L, null, true, 0, 20);
+
+        assertThat(result).isSameAs(expected);
+        assertThat(facade.servesProducerListingsFromCatalog(true)).isFalse();
+        verify(productCatalog, never()).producerListing(any(), any(), any(), anyInt(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Should cap the size of listings served by the catalog")
+    void searchProducts_WhenCatalogServesOversizedPage_ShouldCapSize() {
+        ProductSearchRequest listing = ProductSearchRequest.builder().fresh(true).size(5000).build();
+        when(productCatalog.supports(listing)).thenReturn(true);
+        when(productCatalog.search(any())).thenReturn(ProductSearchResponse.builder().build());
+
+        ProductSearchResponse result = facade.searchProducts(listing);
+
+        verify(productCatalog).search(argThat(capped -> capped.getSize() == 100 && Boolean.TRUE.equals(capped.getFresh())));
+        assertThat(result.getDowngrades()).containsExactly(QueryCostGovernor.SIZE_CAPPED);
+    }
+
+    @Test
+    @DisplayName("Should reject catalog producer pages beyond the result window")
+    void searchProductsByProducer_WhenCatalogPageTooDeep_ShouldReject() {
+        lenient().when(productCatalog.isReady()).thenReturn(true);
+
+        assertThatThrownBy(() -> facade.searchProductsByProducer(1L, null, false, 1000, 20))
+                .isInstanceOf(SearchCostExceededException.class);
+
+        verify(productCatalog, never()).producerListing(any(), any(), any(), anyInt(), anyInt());
+    }
+
+    private ProductSearchFacade facadeFor(SearchBackendType type) {
+        SearchProperties properties = new SearchProperties();
+        properties.setBackend(type);
+        return new ProductSearchFacade(List.of(elasticsearchBackend, postgresBackend), properties,
+                databaseSearchService, productCatalog, circuitBreakerRegistry, archiveProperties,
+                new QueryCostGovernor(properties, new SimpleMeterRegistry()));
+    }
+}
@@ -1,12 +1,17 @@
 package org.igdevx.shopservice.unit.services;
 
+import jakarta.persistence.EntityManager;
 import org.igdevx.shopservice.UnitTest;
-import org.igdevx.shopservice.dtos.ProductRequest;
-import org.igdevx.shopservice.dtos.ProductResponse;
+import org.igdevx.shopservice.dtos.*;
+import org.igdevx.shopservice.events.ProductIndexEvent;
+import org.igdevx.shopservice.exceptions.InvalidPageRequestException;
 import org.igdevx.shopservice.exceptions.ResourceNotFoundException;
 import org.igdevx.shopservice.mappers.ProductMapper;
 import org.igdevx.shopservice.models.*;
+import org.igdevx.shopservice.reference.ReferenceDataCache;
 import org.igdevx.shopservice.repositories.*;
+import org.igdevx.shopservice.services.KeysetCursor;
+import org.igdevx.shopservice.services.ProductArchiveService;
 import org.igdevx.shopservice.services.ProductService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -15,6 +20,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import java.math.BigDecimal;
 import java.util.*;
 
@@ -31,25 +38,25 @@ class ProductServiceTest {
     private ProductRepository productRepository;
 
     @Mock
-    private CurrencyRepository currencyRepository;
+    private ProductResponseRepository productResponseRepository;
 
     @Mock
-    private UnitRepository unitRepository;
+    private ProductMapper productMapper;
 
     @Mock
-    private ShelfRepository shelfRepository;
+    private ReferenceDataCache referenceData;
 
     @Mock
-    private ProductCertificationRepository certificationRepository;
+    private EntityManager entityManager;
 
     @Mock
-    private ProductMapper productMapper;
+    private org.igdevx.shopservice.elasticsearch.services.ProductIndexService productIndexService;
 
     @Mock
-    private CategoryRepository categoryRepository;
+    private ApplicationEventPublisher eventPublisher;
 
     @Mock
-    private org.igdevx.shopservice.elasticsearch.services.ProductIndexService productIndexService;
+    private ProductArchiveService archiveService;
 
     @InjectMocks
     private ProductService productService;
@@ -149,8 +156,7 @@ class ProductServiceTest {
     @DisplayName("Should return product by ID when exists")
     void getProductById_WhenExists_ShouldReturnProduct() {
         // Given
-        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
-        when(productMapper.toResponse(product)).thenReturn(productResponse);
+        when(productResponseRepository.findById(1L)).thenReturn(Optional.of(productResponse));
 
         // When
         ProductResponse result = productService.getProductById(1L);
@@ -158,20 +164,21 @@ class ProductServiceTest {
         // Then
         assertThat(result).isNotNull();
         assertThat(result.getId()).isEqualTo(1L);
-        verify(productRepository, times(1)).findById(1L);
+        verify(productResponseRepository, times(1)).findById(1L);
+        verifyNoInteractions(productRepository);
     }
 
     @Test
     @DisplayName("Should throw exception when product not found")
     void getProductById_WhenNotExists_ShouldThrowException() {
         // Given
-        when(productRepository.findById(999L)).thenReturn(Optional.empty());
+        when(productResponseRepository.findById(999L)).thenReturn(Optional.empty());
 
         // When & Then
         assertThatThrownBy(() -> productService.getProductById(999L))
                 .isInstanceOf(ResourceNotFoundException.class)
                 .hasMessageContaining("Product not found with id: 999");
-        verify(productRepository, times(1)).findById(999L);
+        verify(productResponseRepository, times(1)).findById(999L);
     }
 
 
@@ -208,30 +215,45 @@ class ProductServiceTest {
     }
 
     @Test
-    @DisplayName("Should search products by title")
+    @DisplayName("Should search products by text through the ranked trigram query")
     void searchProducts_ShouldReturnMatchingProducts() {
         // Given
-        List<Product> products = Arrays.asList(product);
-        when(productRepository.searchByTitle("banana")).thenReturn(products);
-        when(productMapper.toResponse(product)).thenReturn(productResponse);
+        when(productRepository.searchIdsByText(eq("banana"), anyInt())).thenReturn(List.of(1L));
+        when(productResponseRepository.findAllByIdIn(List.of(1L))).thenReturn(List.of(productResponse));
 
         // When
         List<ProductResponse> result = productService.searchProducts("banana");
 
         // Then
-        assertThat(result).hasSize(1);
-        verify(productRepository, times(1)).searchByTitle("banana");
+        assertThat(result).containsExactly(productResponse);
+        verify(productRepository, times(1)).searchIdsByText(eq("banana"), anyInt());
     }
 
     @Test
-    @DisplayName("Should create product successfully")
+    @DisplayName("Should not search with a blank term")
+    void searchProducts_WithBlankTerm_ShouldReturnNothing() {
+        // When
+        List<ProductResponse> result = productService.searchProducts("  ");
+
+        // Then
+        assertThat(result).isEmpty();
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    @DisplayName("Should create product with references validated by the reference data cache")
     void createProduct_WithValidData_ShouldCreateProduct() {
         // Given
-        when(currencyRepository.findById(1L)).thenReturn(Optional.of(testCurrency));
-        when(unitRepository.findById(1L)).thenReturn(Optional.of(unit));
-        when(categoryRepository.findById(3L)).thenReturn(Optional.of(category));
-        when(shelfRepository.findById(1L)).thenReturn(Optional.of(shelf));
-        when(certificationRepository.findById(1L)).thenReturn(Optional.of(certification));
+        when(referenceData.currency(1L)).thenReturn(Optional.of(CurrencyResponse.builder().id(1L).build()));
+        when(referenceData.unit(1L)).thenReturn(Optional.of(UnitResponse.builder().id(1L).build()));
+        when(referenceData.category(3L)).thenReturn(Optional.of(CategoryResponse.builder().id(3L).build()));
+        when(referenceData.shelf(1L)).thenReturn(Optional.of(ShelfResponse.builder().id(1L).build()));
+        when(referenceData.certification(1L)).thenReturn(Optional.of(ProductCertificationResponse.builder().id(1L).build()));
+        when(entityManager.getReference(org.igdevx.shopservice.models.Currency.class, 1L)).thenReturn(testCurrency);
+        when(entityManager.getReference(Unit.class, 1L)).thenReturn(unit);
+        when(entityManager.getReference(Category.class, 3L)).thenReturn(category);
+        when(entityManager.getReference(Shelf.class, 1L)).thenReturn(shelf);
+        when(entityManager.getReference(ProductCertification.class, 1L)).thenReturn(certification);
         when(productRepository.save(any(Product.class))).thenReturn(product);
         when(productMapper.toResponse(product)).thenReturn(productResponse);
 
@@ -240,18 +262,16 @@ class ProductServiceTest {
 
         // Then
         assertThat(result).isNotNull();
-        verify(productRepository, times(1)).save(any(Product.class));
-        verify(currencyRepository, times(1)).findById(1L);
-        verify(unitRepository, times(1)).findById(1L);
-        verify(shelfRepository, times(1)).findById(1L);
-        verify(certificationRepository, times(1)).findById(1L);
+        verify(productRepository, times(1)).save(argThat(saved -> saved.getCurrency() == testCurrency
+                && saved.getCategory() == category
+                && saved.getCertifications().contains(certification)));
     }
 
     @Test
     @DisplayName("Should throw exception when currency not found")
     void createProduct_WhenCurrencyNotFound_ShouldThrowException() {
         // Given
-        when(currencyRepository.findById(1L)).thenReturn(Optional.empty());
+        when(referenceData.currency(1L)).thenReturn(Optional.empty());
 
         // When & Then
         assertThatThrownBy(() -> productService.createProduct(productRequest))
@@ -265,7 +285,8 @@ class ProductServiceTest {
     void updateProduct_WhenExists_ShouldUpdateProduct() {
         // Given
         when(productRepository.findById(1L)).thenReturn(Optional.of(product));
-        when(certificationRepository.findById(1L)).thenReturn(Optional.of(certification));
+        when(referenceData.certification(1L)).thenReturn(Optional.of(ProductCertificationResponse.builder().id(1L).build()));
+        when(entityManager.getReference(ProductCertification.class, 1L)).thenReturn(certification);
         when(productRepository.save(product)).thenReturn(product);
         when(productMapper.toResponse(product)).thenReturn(productResponse);
         doNothing().when(productMapper).updateBasicFields(product, productRequest);
@@ -279,6 +300,28 @@ class ProductServiceTest {
         verify(productRepository, times(1)).save(product);
     }
 
+    @Test
+    @DisplayName("Should publish both producers when a product changes producer")
+    void updateProduct_WhenProducerChanges_ShouldPublishBothProducers() {
+        // Given
+        product.setProducerId(1L);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(referenceData.certification(1L)).thenReturn(Optional.of(ProductCertificationResponse.builder().id(1L).build()));
+        when(entityManager.getReference(ProductCertification.class, 1L)).thenReturn(certification);
+        when(productRepository.save(product)).thenReturn(product);
+        when(productMapper.toResponse(product)).thenReturn(productResponse);
+        doAnswer(invocation -> {
+            product.setProducerId(2L);
+            return null;
+        }).when(productMapper).updateBasicFields(product, productRequest);
+
+        // When
+        productService.updateProduct(1L, productRequest);
+
+        // Then
+        verify(eventPublisher).publishEvent(new ProductIndexEvent(1L, "UPDATE", Set.of(1L, 2L)));
+    }
+
     @Test
     @DisplayName("Should soft delete product successfully")
     void deleteProduct_WhenExists_ShouldSoftDeleteProduct() {
@@ -324,6 +367,34 @@ class ProductServiceTest {
                 .hasMessageContaining("Product with id 1 is not deleted");
     }
 
+    @Test
+    @DisplayName("Should restore an archived product from the archive")
+    void restoreProduct_WhenArchived_ShouldRestoreFromArchive() {
+        // Given
+        when(productRepository.findByIdIncludingDeleted(1L)).thenReturn(Optional.empty());
+        when(archiveService.restore(1L)).thenReturn(Optional.of(7L));
+
+        // When
+        productService.restoreProduct(1L);
+
+        // Then
+        verify(productRepository, never()).save(any());
+        verify(eventPublisher).publishEvent(ProductIndexEvent.restored(1L, 7L));
+    }
+
+    @Test
+    @DisplayName("Should throw when restoring a product in neither the product table nor the archive")
+    void restoreProduct_WhenNotFound_ShouldThrowException() {
+        // Given
+        when(productRepository.findByIdIncludingDeleted(1L)).thenReturn(Optional.empty());
+        when(archiveService.restore(1L)).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThatThrownBy(() -> productService.restoreProduct(1L))
+                .isInstanceOf(ResourceNotFoundException.class);
+        verifyNoInteractions(eventPublisher);
+    }
+
     @Test
     @DisplayName("Should hard delete product")
     void hardDeleteProduct_ShouldDeleteProduct() {
@@ -337,6 +408,23 @@ class ProductServiceTest {
         // Then
         verify(productRepository, times(1)).findByIdIncludingDeleted(1L);
         verify(productRepository, times(1)).hardDeleteById(1L);
+        verify(eventPublisher).publishEvent(ProductIndexEvent.deleted(1L, product.getProducerId()));
+        verifyNoInteractions(archiveService);
+    }
+
+    @Test
+    @DisplayName("Should hard delete an archived product from the archive")
+    void hardDeleteProduct_WhenArchived_ShouldDeleteFromArchive() {
+        // Given
+        when(productRepository.findByIdIncludingDeleted(1L)).thenReturn(Optional.empty());
+        when(archiveService.delete(1L)).thenReturn(Optional.of(7L));
+
+        // When
+        productService.hardDeleteProduct(1L);
+
+        // Then
+        verify(productRepository, never()).hardDeleteById(any());
+        verify(eventPublisher).publishEvent(ProductIndexEvent.deleted(1L, 7L));
     }
 
     @Test
@@ -355,4 +443,49 @@ class ProductServiceTest {
         assertThat(result).hasSize(1);
         verify(productRepository, times(1)).findAllDeleted();
     }
+
+    @Test
+    @DisplayName("Should return a keyset page with the cursor of its last product when another page follows")
+    void getProducts_WhenMoreProducts_ShouldReturnNextCursor() {
+        // Given
+        ProductResponse secondResponse = ProductResponse.builder().id(2L).title("Organic Apples").build();
+        when(productRepository.findIdsByProducerIdAfter(1L, 0L, Limit.of(3))).thenReturn(List.of(1L, 2L, 3L));
+        when(productResponseRepository.findAllByIdIn(List.of(1L, 2L))).thenReturn(List.of(productResponse, secondResponse));
+
+        // When
+        CursorPage<ProductResponse> page = productService.getProducts(
+                new ProductService.ListFilter(false, false, 1L, null), null, 2);
+
+        // Then
+        assertThat(page.getItems()).extracting(ProductResponse::getId).containsExactly(1L, 2L);
+        assertThat(page.getSize()).isEqualTo(2);
+        assertThat(KeysetCursor.afterId(page.getNextCursor())).isEqualTo(2L);
+    }
+
+    @Test
+    @DisplayName("Should read the page after the cursor and return no cursor on the last page")
+    void getProducts_OnLastPage_ShouldReturnNoCursor() {
+        // Given
+        when(productRepository.findFreshIdsAfter(2L, Limit.of(3))).thenReturn(List.of(3L));
+        when(productResponseRepository.findAllByIdIn(List.of(3L))).thenReturn(List.of(ProductResponse.builder().id(3L).build()));
+
+        // When
+        CursorPage<ProductResponse> page = productService.getProducts(
+                new ProductService.ListFilter(true, false, null, null), KeysetCursor.encode(2L), 2);
+
+        // Then
+        assertThat(page.getItems()).hasSize(1);
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should reject an invalid cursor and more than one listing filter")
+    void getProducts_WithInvalidRequest_ShouldThrowException() {
+        // When & Then
+        assertThatThrownBy(() -> productService.getProducts(ProductService.ListFilter.ALL, "not a cursor", 20))
+                .isInstanceOf(InvalidPageRequestException.class);
+        assertThatThrownBy(() -> new ProductService.ListFilter(true, false, 1L, null))
+                .isInstanceOf(InvalidPageRequestException.class);
+        verifyNoInteractions(productRepository);
+    }
 }
@@ -1,6 +1,7 @@
 package org.igdevx.shopservice.unit.services;
 
 import org.igdevx.shopservice.UnitTest;
+import org.igdevx.shopservice.dtos.CursorPage;
 import org.igdevx.shopservice.dtos.ShelfRequest;
 import org.igdevx.shopservice.dtos.ShelfResponse;
 import org.igdevx.shopservice.exceptions.DuplicateResourceException;
@@ -8,6 +9,7 @@ import org.igdevx.shopservice.exceptions.ResourceNotFoundException;
 import org.igdevx.shopservice.mappers.ShelfMapper;
 import org.igdevx.shopservice.models.Shelf;
 import org.igdevx.shopservice.repositories.ShelfRepository;
+import org.igdevx.shopservice.services.KeysetCursor;
 import org.igdevx.shopservice.services.ShelfService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -16,6 +18,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 
 import java.util.Arrays;
 import java.util.Collections;
@@ -37,6 +41,9 @@ class ShelfServiceTest {
     @Mock
     private ShelfMapper shelfMapper;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private ShelfService shelfService;
 
@@ -81,6 +88,22 @@ class ShelfServiceTest {
         verify(shelfRepository, times(1)).findAll();
     }
 
+    @Test
+    @DisplayName("Should return a keyset page of the shelves of a producer")
+    void getShelves_ShouldReturnPageAndNextCursor() {
+        // Given
+        Shelf second = Shelf.builder().id(5L).label("Légumes").producerId(1L).build();
+        when(shelfRepository.findPageByProducerIdAfter(1L, 0L, Limit.of(2))).thenReturn(List.of(shelf, second));
+        when(shelfMapper.toResponse(shelf)).thenReturn(shelfResponse);
+
+        // When
+        CursorPage<ShelfResponse> page = shelfService.getShelves(1L, null, 1);
+
+        // Then
+        assertThat(page.getItems()).containsExactly(shelfResponse);
+        assertThat(KeysetCursor.afterId(page.getNextCursor())).isEqualTo(1L);
+    }
+
     @Test
     @DisplayName("Should return shelf by ID when exists")
     void getShelfById_WhenExists_ShouldReturnCategory() {